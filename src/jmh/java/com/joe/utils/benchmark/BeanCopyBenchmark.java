@@ -0,0 +1,71 @@
+package com.joe.utils.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.joe.utils.reflect.BeanUtils;
+
+import lombok.Data;
+
+/**
+ * {@link BeanUtils}复制相关的基准测试，以手写复制作为基线
+ *
+ * @author JoeKerouac
+ * @version 2019年11月30日 10:10
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BeanCopyBenchmark {
+
+    private BenchmarkBean source;
+
+    private List<BenchmarkBean> sourceList;
+
+    @Setup
+    public void setup() {
+        source = BenchmarkBean.create();
+        sourceList = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            sourceList.add(BenchmarkBean.create());
+        }
+    }
+
+    @Benchmark
+    public Target manual() {
+        Target target = new Target();
+        target.setName(source.getName());
+        target.setAge(source.getAge());
+        target.setId(source.getId());
+        target.setScore(source.getScore());
+        target.setVip(source.isVip());
+        target.setTags(source.getTags());
+        return target;
+    }
+
+    @Benchmark
+    public Target copy() {
+        return BeanUtils.copy(source, Target.class);
+    }
+
+    @Benchmark
+    public List<Target> copyList() {
+        return BeanUtils.copy(sourceList, Target.class);
+    }
+
+    @Data
+    public static class Target {
+        private String name;
+        private int age;
+        private long id;
+        private Double score;
+        private boolean vip;
+        private List<String> tags;
+    }
+}
@@ -0,0 +1,47 @@
+package com.joe.utils.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.joe.utils.serialize.xml.XmlNode;
+
+import lombok.Data;
+
+/**
+ * 基准测试使用的bean
+ *
+ * @author JoeKerouac
+ * @version 2019年11月30日 10:00
+ */
+@Data
+public class BenchmarkBean {
+
+    private String name;
+
+    private int age;
+
+    private long id;
+
+    private Double score;
+
+    private boolean vip;
+
+    @XmlNode(general = String.class)
+    private List<String> tags;
+
+    /**
+     * 创建一个所有字段都有值的bean
+     *
+     * @return bean
+     */
+    public static BenchmarkBean create() {
+        BenchmarkBean bean = new BenchmarkBean();
+        bean.setName("JoeKerouac");
+        bean.setAge(18);
+        bean.setId(123456789L);
+        bean.setScore(99.5);
+        bean.setVip(true);
+        bean.setTags(Arrays.asList("java", "asm", "netty"));
+        return bean;
+    }
+}
@@ -0,0 +1,29 @@
+package com.joe.utils.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口，结果以JSON格式输出，便于版本之间对比；通过benchmark profile运行：
+ *
+ * <pre>
+ * mvn -Pbenchmark verify -DskipTests -Dbenchmark.include=BeanCopy
+ * </pre>
+ *
+ * @author JoeKerouac
+ * @version 2019年11月30日 10:00
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*";
+        String result = args.length > 1 ? args[1] : "jmh-result.json";
+
+        Options options = new OptionsBuilder().include(include).resultFormat(ResultFormatType.JSON).result(result)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,78 @@
+package com.joe.utils.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.joe.utils.protocol.ByteBufDatagram;
+import com.joe.utils.protocol.Datagram;
+import com.joe.utils.protocol.DatagramCodec;
+import com.joe.utils.protocol.DatagramUtil;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * {@link DatagramUtil}、{@link DatagramCodec}数据报编解码的基准测试
+ *
+ * @author JoeKerouac
+ * @version 2019年11月30日 10:50
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatagramBenchmark {
+
+    @Param({"64", "4096"})
+    private int bodySize;
+
+    private byte[] body;
+
+    private byte[] data;
+
+    private ByteBuf buf;
+
+    @Setup
+    public void setup() {
+        body = new byte[bodySize];
+        for (int i = 0; i < bodySize; i++) {
+            body[i] = (byte)i;
+        }
+        data = DatagramUtil.build(body, (byte)1, (byte)1).getData();
+        buf = Unpooled.directBuffer(data.length).writeBytes(data);
+    }
+
+    @TearDown
+    public void tearDown() {
+        buf.release();
+    }
+
+    @Benchmark
+    public Datagram build() {
+        return DatagramUtil.build(body, (byte)1, (byte)1);
+    }
+
+    @Benchmark
+    public Datagram decode() {
+        return DatagramUtil.decode(data);
+    }
+
+    @Benchmark
+    public int codecBuild() {
+        ByteBufDatagram datagram = DatagramCodec.build(body, (byte)1, (byte)1);
+        int size = datagram.content().readableBytes();
+        datagram.release();
+        return size;
+    }
+
+    @Benchmark
+    public int codecDecode() {
+        ByteBufDatagram datagram = DatagramCodec.decode(buf.readerIndex(0));
+        int size = datagram.body().readableBytes();
+        datagram.release();
+        return size;
+    }
+}
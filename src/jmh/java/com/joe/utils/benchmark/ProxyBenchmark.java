@@ -0,0 +1,68 @@
+package com.joe.utils.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.joe.utils.proxy.Interception;
+import com.joe.utils.proxy.ProxyClient;
+
+/**
+ * 三种{@link ProxyClient}生成的代理对象的调用开销以及创建代理对象的开销，拦截器直接调用被代理对象
+ *
+ * @author JoeKerouac
+ * @version 2019年11月30日 10:30
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProxyBenchmark {
+
+    @Param({"JAVA", "CGLIB", "BYTE_BUDDY", "ASM"})
+    private String clientType;
+
+    private ProxyClient client;
+
+    private Interception interception;
+
+    private Greeter target;
+
+    private Greeter proxy;
+
+    @Setup
+    public void setup() {
+        target = new SimpleGreeter();
+        client = ProxyClient.getInstance(ProxyClient.ClientType.valueOf(clientType));
+        interception = (t, params, method, invoker) -> invoker.call();
+        proxy = client.create(Greeter.class, target, interception);
+    }
+
+    @Benchmark
+    public String direct() {
+        return target.greet("joe");
+    }
+
+    @Benchmark
+    public String proxy() {
+        return proxy.greet("joe");
+    }
+
+    @Benchmark
+    public Greeter create() {
+        return client.create(Greeter.class, target, interception);
+    }
+
+    public interface Greeter {
+        String greet(String name);
+    }
+
+    public static class SimpleGreeter implements Greeter {
+        @Override
+        public String greet(String name) {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.joe.utils.benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.joe.utils.proxy.Interception;
+import com.joe.utils.proxy.ProxyMethod;
+
+/**
+ * {@link ProxyMethod}直接调用、父调用的开销，与反射调用以及非常量的{@link MethodHandle}调用（ProxyMethod之前的实现）对比
+ *
+ * @author JoeKerouac
+ * @version 2019年12月10日 11:30
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProxyMethodBenchmark {
+
+    private BenchmarkBean bean;
+
+    private Object[] args;
+
+    private Method setName;
+
+    private MethodHandle handle;
+
+    private ProxyMethod proxyMethod;
+
+    private Interception interception;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        bean = BenchmarkBean.create();
+        args = new Object[] {"joe"};
+        setName = BenchmarkBean.class.getMethod("setName", String.class);
+        handle = MethodHandles.lookup().unreflect(setName)
+            .asType(MethodType.genericMethodType(2)).asSpreader(Object[].class, 1);
+        proxyMethod = ProxyMethod.of(setName);
+        interception = (target, params, method, invoker) -> invoker.call();
+    }
+
+    @Benchmark
+    public Object methodInvoke() throws Exception {
+        return setName.invoke(bean, args);
+    }
+
+    @Benchmark
+    public Object handle() throws Throwable {
+        return (Object)handle.invokeExact((Object)bean, args);
+    }
+
+    @Benchmark
+    public Object proxyMethod() throws Throwable {
+        return proxyMethod.invoke(bean, args);
+    }
+
+    @Benchmark
+    public Object invokeWrap() throws Throwable {
+        return Interception.invokeWrap(interception, bean, proxyMethod, null, args, null);
+    }
+}
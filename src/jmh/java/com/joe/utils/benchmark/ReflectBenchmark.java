@@ -0,0 +1,87 @@
+package com.joe.utils.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.joe.utils.reflect.ByteCodeUtils;
+import com.joe.utils.reflect.InvokeDistribute;
+import com.joe.utils.reflect.ReflectUtil;
+import com.joe.utils.reflect.asm.AsmInvokeDistributeFactory;
+import com.joe.utils.reflect.invoke.MethodInvoker;
+import com.joe.utils.reflect.invoke.MethodInvokerFactory;
+
+/**
+ * 反射调用相关的基准测试：{@link ReflectUtil}、{@link MethodInvoker}、ASM生成的{@link InvokeDistribute}分发与
+ * {@link Method#invoke(Object, Object...)}对比
+ *
+ * @author JoeKerouac
+ * @version 2019年11月30日 10:20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReflectBenchmark {
+
+    private static final String OWNER = ByteCodeUtils.convert(BenchmarkBean.class);
+
+    private static final String GET_NAME_DESC = ByteCodeUtils.getDesc(String.class);
+
+    private BenchmarkBean bean;
+
+    private Method getName;
+
+    private MethodInvoker invoker;
+
+    private InvokeDistribute distribute;
+
+    private int methodId;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        bean = BenchmarkBean.create();
+        getName = BenchmarkBean.class.getMethod("getName");
+        invoker = MethodInvokerFactory.getInvoker(getName);
+        distribute = new AsmInvokeDistributeFactory().build(bean);
+        methodId = distribute.methodId(OWNER, "getName", GET_NAME_DESC);
+    }
+
+    @Benchmark
+    public Object direct() {
+        return bean.getName();
+    }
+
+    @Benchmark
+    public Object methodInvoke() throws Exception {
+        return getName.invoke(bean);
+    }
+
+    @Benchmark
+    public Object reflectUtilInvoke() {
+        return ReflectUtil.invoke(bean, getName);
+    }
+
+    @Benchmark
+    public Object reflectUtilGetFieldValue() {
+        return ReflectUtil.getFieldValue(bean, "name");
+    }
+
+    @Benchmark
+    public Object methodInvoker() {
+        return invoker.invoke(bean);
+    }
+
+    @Benchmark
+    public Object distributeByName() throws NoSuchMethodException {
+        return distribute.invoke(OWNER, "getName", GET_NAME_DESC);
+    }
+
+    @Benchmark
+    public Object distributeById() throws NoSuchMethodException {
+        return distribute.invoke(methodId);
+    }
+}
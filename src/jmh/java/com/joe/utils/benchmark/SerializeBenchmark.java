@@ -0,0 +1,110 @@
+package com.joe.utils.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.joe.utils.serialize.binary.BinarySerializer;
+import com.joe.utils.serialize.form.FormParser;
+import com.joe.utils.serialize.json.JsonParser;
+import com.joe.utils.serialize.xml.XmlParser;
+
+/**
+ * {@link JsonParser}、{@link XmlParser}、{@link BinarySerializer}、{@link FormParser}序列化、反序列化的基准测试
+ *
+ * @author JoeKerouac
+ * @version 2019年11月30日 10:40
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializeBenchmark {
+
+    private static final JsonParser JSON_PARSER = JsonParser.getInstance();
+
+    private static final XmlParser XML_PARSER = XmlParser.getInstance();
+
+    private static final BinarySerializer BINARY_SERIALIZER = BinarySerializer.getInstance();
+
+    private static final FormParser FORM_PARSER = FormParser.getInstance();
+
+    private BenchmarkBean bean;
+
+    private byte[] json;
+
+    private byte[] xml;
+
+    private byte[] binary;
+
+    private byte[] form;
+
+    @Setup
+    public void setup() {
+        bean = BenchmarkBean.create();
+        json = JSON_PARSER.write(bean);
+        xml = XML_PARSER.write(bean);
+        binary = BINARY_SERIALIZER.write(bean);
+        // form格式不支持集合字段，解析时不带tags
+        BenchmarkBean flat = BenchmarkBean.create();
+        flat.setTags(null);
+        form = FORM_PARSER.write(flat);
+    }
+
+    @Benchmark
+    public byte[] jsonWrite() {
+        return JSON_PARSER.write(bean);
+    }
+
+    @Benchmark
+    public BenchmarkBean jsonRead() {
+        return JSON_PARSER.read(json, BenchmarkBean.class);
+    }
+
+    @Benchmark
+    public BenchmarkBean jsonRoundTrip() {
+        return JSON_PARSER.read(JSON_PARSER.write(bean), BenchmarkBean.class);
+    }
+
+    @Benchmark
+    public byte[] xmlWrite() {
+        return XML_PARSER.write(bean);
+    }
+
+    @Benchmark
+    public BenchmarkBean xmlRead() {
+        return XML_PARSER.read(xml, BenchmarkBean.class);
+    }
+
+    @Benchmark
+    public BenchmarkBean xmlRoundTrip() {
+        return XML_PARSER.read(XML_PARSER.write(bean), BenchmarkBean.class);
+    }
+
+    @Benchmark
+    public byte[] binaryWrite() {
+        return BINARY_SERIALIZER.write(bean);
+    }
+
+    @Benchmark
+    public BenchmarkBean binaryRead() {
+        return BINARY_SERIALIZER.read(binary, BenchmarkBean.class);
+    }
+
+    @Benchmark
+    public BenchmarkBean binaryRoundTrip() {
+        return BINARY_SERIALIZER.read(BINARY_SERIALIZER.write(bean), BenchmarkBean.class);
+    }
+
+    @Benchmark
+    public byte[] formWrite() {
+        return FORM_PARSER.write(bean);
+    }
+
+    @Benchmark
+    public BenchmarkBean formRead() {
+        return FORM_PARSER.read(form, BenchmarkBean.class);
+    }
+}
@@ -1,13 +1,15 @@
 package com.joe.utils.cluster.redis;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.config.Config;
 import org.redisson.config.SingleServerConfig;
 
+import com.joe.utils.collection.cache.CacheRegistry;
+import com.joe.utils.collection.cache.StatsCounter;
 import com.joe.utils.reflect.BeanUtils;
 
 /**
@@ -18,8 +20,13 @@ import com.joe.utils.reflect.BeanUtils;
  */
 public class RedisClusterManagerFactory {
     // 管理redis连接
-    private static final Map<RedisBaseConfig, RedisClusterManager> CACHE = new HashMap<>();
+    private static final Map<RedisBaseConfig, RedisClusterManager> CACHE = new ConcurrentHashMap<>();
     private static final Object lock = new Object();
+    private static final StatsCounter STATS_COUNTER = new StatsCounter();
+
+    static {
+        CacheRegistry.register("RedisClusterManagerFactory.CACHE", () -> STATS_COUNTER.snapshot(CACHE.size()));
+    }
 
     /**
      * 从缓存获取redis实现的分布式管理器
@@ -57,15 +64,25 @@ public class RedisClusterManagerFactory {
      * @return 分布式管理器
      */
     public static RedisClusterManager getInstance(RedisBaseConfig redisBaseConfig) {
-        if (!CACHE.containsKey(redisBaseConfig)) {
-            synchronized (lock) {
-                if (!CACHE.containsKey(redisBaseConfig)) {
-                    CACHE.put(redisBaseConfig, newInstance(redisBaseConfig));
-                }
-            }
+        RedisClusterManager manager = CACHE.get(redisBaseConfig);
+        if (manager != null) {
+            STATS_COUNTER.recordHit();
+            return manager;
         }
 
-        return CACHE.get(redisBaseConfig);
+        synchronized (lock) {
+            manager = CACHE.get(redisBaseConfig);
+            if (manager == null) {
+                STATS_COUNTER.recordMiss();
+                long start = System.nanoTime();
+                manager = newInstance(redisBaseConfig);
+                STATS_COUNTER.recordLoad(System.nanoTime() - start);
+                CACHE.put(redisBaseConfig, manager);
+            } else {
+                STATS_COUNTER.recordHit();
+            }
+        }
+        return manager;
     }
 
     /**
@@ -0,0 +1,460 @@
+package com.joe.utils.collection;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.joe.utils.collection.cache.*;
+import com.joe.utils.common.Assert;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 线程安全的近似LRU缓存，底层使用{@link ConcurrentHashMap}存储数据，读操作无锁，淘汰使用CLOCK算法（近似LRU）：
+ *
+ * <p>
+ * 每个节点有一个访问标记，读取时仅设置该标记，不改变任何结构；当size超过最大值时淘汰线程（同一时间只有一个）转动时钟指针，
+ * 指针经过的节点如果有访问标记那么清除标记并跳过，否则淘汰该节点。
+ * </p>
+ *
+ * <p>
+ * 注意：与{@link ConcurrentHashMap}不同，{@link #compute(Object, BiFunction) compute}、{@link #computeIfAbsent(Object, Function)
+ * computeIfAbsent}等方法的计算函数在锁外执行（乐观计算，冲突时重试），所以计算函数可能会被执行多次，但是允许在计算函数中递归
+ * 操作当前map；另外与{@link ConcurrentHashMap}一样，key和value都不能为null。
+ * </p>
+ *
+ * <p>
+ * 通过{@link #stats()}获取统计信息，可以指定{@link RemovalListener RemovalListener}监听数据的淘汰、替换和删除。
+ * </p>
+ *
+ * @param <K>
+ *            map中key的泛型
+ * @param <V>
+ *            map中value的泛型
+ * @author JoeKerouac
+ * @version 2019年11月21日 10:12
+ */
+@Slf4j
+public class ConcurrentLRUCacheMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>, Statistical {
+
+    /**
+     * 实际存储数据的map
+     */
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+
+    /**
+     * 淘汰锁，同一时间只允许一个线程淘汰
+     */
+    private final ReentrantLock evictLock = new ReentrantLock();
+
+    /**
+     * 最大容量
+     */
+    private final int max;
+
+    private final StatsCounter statsCounter = new StatsCounter();
+
+    /**
+     * 删除监听器，没有时为null
+     */
+    private final RemovalListener<? super K, ? super V> removalListener;
+
+    /**
+     * 时钟指针，只允许在持有淘汰锁时访问
+     */
+    private Iterator<Node<K, V>> hand;
+
+    /**
+     * entrySet视图
+     */
+    private transient Set<Entry<K, V>> entrySet;
+
+    /**
+     * 默认构造器，最大容量1000
+     */
+    public ConcurrentLRUCacheMap() {
+        this(1000);
+    }
+
+    /**
+     * 指定最大容量的构造器
+     *
+     * @param max
+     *            最大容量，必须大于0
+     */
+    public ConcurrentLRUCacheMap(int max) {
+        this(max, null);
+    }
+
+    /**
+     * 指定最大容量和删除监听器的构造器
+     *
+     * @param max
+     *            最大容量，必须大于0
+     * @param removalListener
+     *            删除监听器，可以为null，监听器在执行删除的线程中同步调用
+     */
+    public ConcurrentLRUCacheMap(int max, RemovalListener<? super K, ? super V> removalListener) {
+        Assert.isTrue(max > 0, "最大容量必须大于0");
+        this.max = max;
+        this.removalListener = removalListener;
+        // 预留一部分空间，防止淘汰前扩容
+        this.data = new ConcurrentHashMap<>(Math.min(max, 1 << 16) + 16);
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            statsCounter.recordMiss();
+            return null;
+        }
+        statsCounter.recordHit();
+        node.access();
+        return node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return data.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return data.isEmpty();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Assert.notNull(value, "value不能为null");
+        Node<K, V> old = data.put(key, new Node<>(key, value));
+        if (old == null) {
+            evictIfNecessary();
+            return null;
+        }
+        notifyRemoval(old, RemovalCause.REPLACED);
+        return old.value;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Assert.notNull(value, "value不能为null");
+        Node<K, V> old = data.putIfAbsent(key, new Node<>(key, value));
+        if (old == null) {
+            evictIfNecessary();
+            return null;
+        }
+        old.access();
+        return old.value;
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<K, V> old = data.remove(key);
+        if (old == null) {
+            return null;
+        }
+        notifyRemoval(old, RemovalCause.EXPLICIT);
+        return old.value;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (value == null) {
+            return false;
+        }
+        for (;;) {
+            Node<K, V> node = data.get(key);
+            if (node == null || !value.equals(node.value)) {
+                return false;
+            }
+            if (data.remove(key, node)) {
+                notifyRemoval(node, RemovalCause.EXPLICIT);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Assert.notNull(oldValue, "oldValue不能为null");
+        Assert.notNull(newValue, "newValue不能为null");
+        for (;;) {
+            Node<K, V> node = data.get(key);
+            if (node == null || !oldValue.equals(node.value)) {
+                return false;
+            }
+            if (data.replace(key, node, new Node<>(key, newValue))) {
+                notifyRemoval(node, RemovalCause.REPLACED);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Assert.notNull(value, "value不能为null");
+        for (;;) {
+            Node<K, V> node = data.get(key);
+            if (node == null) {
+                return null;
+            }
+            if (data.replace(key, node, new Node<>(key, value))) {
+                notifyRemoval(node, RemovalCause.REPLACED);
+                return node.value;
+            }
+        }
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Assert.notNull(mappingFunction, "mappingFunction不能为null");
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+
+        // 锁外计算，允许计算函数中递归操作当前map
+        long start = System.nanoTime();
+        value = mappingFunction.apply(key);
+        statsCounter.recordLoad(System.nanoTime() - start);
+        if (value == null) {
+            return null;
+        }
+        V old = putIfAbsent(key, value);
+        return old == null ? value : old;
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Assert.notNull(remappingFunction, "remappingFunction不能为null");
+        for (;;) {
+            Node<K, V> node = data.get(key);
+            if (node == null) {
+                return null;
+            }
+            V value = remappingFunction.apply(key, node.value);
+            if (value == node.value) {
+                node.access();
+                return value;
+            } else if (value == null) {
+                if (data.remove(key, node)) {
+                    notifyRemoval(node, RemovalCause.EXPLICIT);
+                    return null;
+                }
+            } else if (data.replace(key, node, new Node<>(key, value))) {
+                notifyRemoval(node, RemovalCause.REPLACED);
+                return value;
+            }
+        }
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Assert.notNull(remappingFunction, "remappingFunction不能为null");
+        for (;;) {
+            Node<K, V> node = data.get(key);
+            V oldValue = node == null ? null : node.value;
+            // 锁外计算，允许计算函数中递归操作当前map
+            long start = System.nanoTime();
+            V value = remappingFunction.apply(key, oldValue);
+
+            if (node == null) {
+                if (value == null) {
+                    statsCounter.recordMiss();
+                    return null;
+                }
+                if (data.putIfAbsent(key, new Node<>(key, value)) == null) {
+                    statsCounter.recordMiss();
+                    statsCounter.recordLoad(System.nanoTime() - start);
+                    evictIfNecessary();
+                    return value;
+                }
+            } else if (value == oldValue) {
+                // 值未变更时不修改结构，保证命中缓存时不需要任何写操作
+                statsCounter.recordHit();
+                node.access();
+                return value;
+            } else if (value == null) {
+                if (data.remove(key, node)) {
+                    notifyRemoval(node, RemovalCause.EXPLICIT);
+                    return null;
+                }
+            } else if (data.replace(key, node, new Node<>(key, value))) {
+                notifyRemoval(node, RemovalCause.REPLACED);
+                return value;
+            }
+        }
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Assert.notNull(value, "value不能为null");
+        Assert.notNull(remappingFunction, "remappingFunction不能为null");
+        return compute(key, (k, old) -> old == null ? value : remappingFunction.apply(old, value));
+    }
+
+    @Override
+    public void clear() {
+        if (removalListener == null) {
+            data.clear();
+            return;
+        }
+        for (Node<K, V> node : data.values()) {
+            if (data.remove(node.key, node)) {
+                notifyRemoval(node, RemovalCause.EXPLICIT);
+            }
+        }
+    }
+
+    @Override
+    public CacheStats stats() {
+        return statsCounter.snapshot(data.size());
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        Set<Entry<K, V>> es = entrySet;
+        return es == null ? (entrySet = new EntrySet()) : es;
+    }
+
+    /**
+     * 当前size超过最大值时淘汰数据，淘汰使用CLOCK算法
+     */
+    private void evictIfNecessary() {
+        if (data.size() <= max) {
+            return;
+        }
+
+        evictLock.lock();
+        try {
+            // 最多转两圈（第一圈可能全部都是有访问标记的），防止并发写入时长时间占用淘汰锁
+            int limit = (data.size() << 1) + 1;
+            while (data.size() > max && limit-- > 0) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = data.values().iterator();
+                    if (!hand.hasNext()) {
+                        return;
+                    }
+                }
+
+                Node<K, V> node = hand.next();
+                if (node.accessed) {
+                    node.accessed = false;
+                } else if (data.remove(node.key, node)) {
+                    statsCounter.recordEviction(1);
+                    notifyRemoval(node, RemovalCause.SIZE);
+                }
+            }
+        } finally {
+            evictLock.unlock();
+        }
+    }
+
+    /**
+     * 通知删除监听器
+     *
+     * @param node
+     *            被删除的节点
+     * @param cause
+     *            删除原因
+     */
+    private void notifyRemoval(Node<K, V> node, RemovalCause cause) {
+        if (removalListener == null) {
+            return;
+        }
+        try {
+            removalListener.onRemoval(node.key, node.value, cause);
+        } catch (Throwable e) {
+            log.warn("删除监听器执行异常，忽略该异常", e);
+        }
+    }
+
+    /**
+     * 缓存节点，value不可变，更新value时替换整个节点
+     *
+     * @param <K>
+     *            key类型
+     * @param <V>
+     *            value类型
+     */
+    private static final class Node<K, V> {
+
+        private final K key;
+
+        private final V value;
+
+        /**
+         * 访问标记，CLOCK算法使用
+         */
+        private volatile boolean accessed;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * 标记访问，已经标记过的不再写入，减少缓存行的写竞争
+         */
+        private void access() {
+            if (!accessed) {
+                accessed = true;
+            }
+        }
+    }
+
+    /**
+     * entrySet视图
+     */
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            Iterator<Node<K, V>> iterator = data.values().iterator();
+            return new Iterator<Entry<K, V>>() {
+                private Node<K, V> current;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    current = iterator.next();
+                    return new SimpleImmutableEntry<>(current.key, current.value);
+                }
+
+                @Override
+                public void remove() {
+                    if (current == null) {
+                        throw new IllegalStateException();
+                    }
+                    if (data.remove(current.key, current)) {
+                        notifyRemoval(current, RemovalCause.EXPLICIT);
+                    }
+                    current = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return data.size();
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentLRUCacheMap.this.clear();
+        }
+    }
+}
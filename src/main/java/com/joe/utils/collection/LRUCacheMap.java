@@ -3,8 +3,12 @@ package com.joe.utils.collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import com.joe.utils.collection.cache.*;
+
 /**
- * 简单的LRU实现（如果map的size超过初始化时指定的大小，那么将会清除最少使用或者最早放入的。 注：首先根据使用次数清除，使用次数相同的根据放入顺序清除）
+ * 简单的LRU实现（基于访问顺序，如果map的size超过初始化时指定的大小，那么将会清除最久未被访问的），非线程安全，并发场景请使用
+ * {@link ConcurrentLRUCacheMap ConcurrentLRUCacheMap}，需要按照访问频率淘汰、按权重限制容量或者过期策略时请使用
+ * {@link CacheBuilder CacheBuilder}；通过{@link #stats()}获取统计信息（统计信息不会被序列化）
  *
  * @param <K>
  *            map中key的泛型
@@ -12,9 +16,11 @@ import java.util.Map;
  *            map中value的泛型
  * @author joe
  */
-public class LRUCacheMap<K, V> extends LinkedHashMap<K, V> {
+public class LRUCacheMap<K, V> extends LinkedHashMap<K, V> implements Statistical {
     private static final long serialVersionUID = -1576619020580779936L;
     private int max;
+    private transient StatsCounter statsCounter;
+    private transient RemovalListener<? super K, ? super V> removalListener;
 
     /**
      * 从其他map构建一个LRUmap
@@ -70,6 +76,35 @@ public class LRUCacheMap<K, V> extends LinkedHashMap<K, V> {
         this.max = initialCapacity;
     }
 
+    /**
+     * 带初始化大小和删除监听器的构造器
+     *
+     * @param initialCapacity
+     *            初始化大小
+     * @param removalListener
+     *            删除监听器，超出大小淘汰数据时回调
+     */
+    public LRUCacheMap(int initialCapacity, RemovalListener<? super K, ? super V> removalListener) {
+        this(initialCapacity);
+        this.removalListener = removalListener;
+    }
+
+    @Override
+    public V get(Object key) {
+        V value = super.get(key);
+        if (value == null) {
+            counter().recordMiss();
+        } else {
+            counter().recordHit();
+        }
+        return value;
+    }
+
+    @Override
+    public CacheStats stats() {
+        return counter().snapshot(size());
+    }
+
     /**
      * 是否删除map中最后的元素
      *
@@ -79,6 +114,25 @@ public class LRUCacheMap<K, V> extends LinkedHashMap<K, V> {
      */
     @Override
     protected boolean removeEldestEntry(java.util.Map.Entry<K, V> eldest) {
-        return size() > this.max;
+        if (size() <= this.max) {
+            return false;
+        }
+        counter().recordEviction(1);
+        if (removalListener != null) {
+            removalListener.onRemoval(eldest.getKey(), eldest.getValue(), RemovalCause.SIZE);
+        }
+        return true;
+    }
+
+    /**
+     * 获取统计计数器（反序列化后统计计数器为null，需要重新创建）
+     *
+     * @return 统计计数器
+     */
+    private StatsCounter counter() {
+        if (statsCounter == null) {
+            statsCounter = new StatsCounter();
+        }
+        return statsCounter;
     }
 }
@@ -0,0 +1,77 @@
+package com.joe.utils.collection.cache;
+
+import java.util.function.Function;
+
+/**
+ * 缓存，所有实现都必须是线程安全的，key和value都不允许为null，使用{@link CacheBuilder CacheBuilder}构建；通过
+ * {@link #stats()}获取统计信息
+ *
+ * @param <K>
+ *            key类型
+ * @param <V>
+ *            value类型
+ * @author JoeKerouac
+ * @version 2019年11月22日 14:20
+ */
+public interface Cache<K, V> extends Statistical {
+
+    /**
+     * 从缓存中获取指定key对应的值
+     *
+     * @param key
+     *            key
+     * @return key对应的值，不存在或者已经过期时返回null
+     */
+    V get(K key);
+
+    /**
+     * 从缓存中获取指定key对应的值，不存在时使用loader加载并放入缓存，多个线程同时加载同一个key时只有一个线程会真正执行
+     * loader，其他线程等待该线程的加载结果
+     *
+     * 注意：loader中不能递归加载同一个key，否则将会死锁
+     *
+     * @param key
+     *            key
+     * @param loader
+     *            加载器，返回null时不缓存
+     * @return key对应的值，loader返回null时返回null
+     */
+    V get(K key, Function<? super K, ? extends V> loader);
+
+    /**
+     * 放入缓存
+     *
+     * @param key
+     *            key
+     * @param value
+     *            value
+     * @return key对应的旧值，不存在或者已经过期时返回null
+     */
+    V put(K key, V value);
+
+    /**
+     * 从缓存中删除指定key
+     *
+     * @param key
+     *            key
+     * @return key对应的旧值，不存在或者已经过期时返回null
+     */
+    V remove(K key);
+
+    /**
+     * 清空缓存
+     */
+    void clear();
+
+    /**
+     * 当前缓存中的数据数量（可能包含已经过期但是尚未清理的数据）
+     *
+     * @return 当前缓存中的数据数量
+     */
+    long size();
+
+    /**
+     * 执行缓存的维护操作（处理访问记录、清理过期数据、淘汰超出容量的数据），正常情况下缓存会在读写时自动维护，无需手动调用
+     */
+    void cleanUp();
+}
@@ -0,0 +1,181 @@
+package com.joe.utils.collection.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.joe.utils.common.Assert;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * 缓存构建器，使用示例：
+ *
+ * <pre>
+ * Cache&lt;String, User&gt; cache = CacheBuilder.&lt;String, User&gt; builder().maximumSize(10000)
+ *     .expireAfterWrite(10, TimeUnit.MINUTES).build();
+ * </pre>
+ *
+ * @param <K>
+ *            key类型
+ * @param <V>
+ *            value类型
+ * @author JoeKerouac
+ * @version 2019年11月22日 17:05
+ */
+@Getter(AccessLevel.PACKAGE)
+public final class CacheBuilder<K, V> {
+
+    /**
+     * 最大权重（不指定weigher时就是最大数量），默认不限制
+     */
+    private long maximum = Long.MAX_VALUE;
+
+    /**
+     * 权重计算器，默认每个数据权重为1
+     */
+    private Weigher<? super K, ? super V> weigher = (k, v) -> 1;
+
+    private long expireAfterWriteNanos;
+
+    private long expireAfterAccessNanos;
+
+    private int initialCapacity = 16;
+
+    /**
+     * 时钟，单位纳秒
+     */
+    private LongSupplier ticker = System::nanoTime;
+
+    /**
+     * 删除监听器，默认没有
+     */
+    private RemovalListener<? super K, ? super V> removalListener;
+
+    private CacheBuilder() {}
+
+    /**
+     * 获取一个新的缓存构建器
+     *
+     * @param <K>
+     *            key类型
+     * @param <V>
+     *            value类型
+     * @return 缓存构建器
+     */
+    public static <K, V> CacheBuilder<K, V> builder() {
+        return new CacheBuilder<>();
+    }
+
+    /**
+     * 指定缓存最大数量，不能与{@link #maximumWeight(long, Weigher)}同时使用
+     *
+     * @param maximumSize
+     *            最大数量，必须大于0
+     * @return 当前构建器
+     */
+    public CacheBuilder<K, V> maximumSize(long maximumSize) {
+        Assert.isTrue(maximumSize > 0, "maximumSize必须大于0");
+        this.maximum = maximumSize;
+        return this;
+    }
+
+    /**
+     * 指定缓存最大权重，不能与{@link #maximumSize(long)}同时使用
+     *
+     * @param maximumWeight
+     *            最大权重，必须大于0
+     * @param weigher
+     *            权重计算器
+     * @return 当前构建器
+     */
+    public CacheBuilder<K, V> maximumWeight(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+        Assert.isTrue(maximumWeight > 0, "maximumWeight必须大于0");
+        Assert.notNull(weigher, "weigher不能为null");
+        this.maximum = maximumWeight;
+        this.weigher = weigher;
+        return this;
+    }
+
+    /**
+     * 指定数据写入（创建或者更新）后多久过期
+     *
+     * @param duration
+     *            时长，必须大于0
+     * @param unit
+     *            时长单位
+     * @return 当前构建器
+     */
+    public CacheBuilder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+        Assert.isTrue(duration > 0, "duration必须大于0");
+        this.expireAfterWriteNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * 指定数据最后一次访问（读或者写）后多久过期
+     *
+     * @param duration
+     *            时长，必须大于0
+     * @param unit
+     *            时长单位
+     * @return 当前构建器
+     */
+    public CacheBuilder<K, V> expireAfterAccess(long duration, TimeUnit unit) {
+        Assert.isTrue(duration > 0, "duration必须大于0");
+        this.expireAfterAccessNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * 指定初始容量
+     *
+     * @param initialCapacity
+     *            初始容量
+     * @return 当前构建器
+     */
+    public CacheBuilder<K, V> initialCapacity(int initialCapacity) {
+        Assert.isTrue(initialCapacity >= 0, "initialCapacity不能小于0");
+        this.initialCapacity = initialCapacity;
+        return this;
+    }
+
+    /**
+     * 指定时钟，主要用于测试
+     *
+     * @param ticker
+     *            时钟，单位纳秒
+     * @return 当前构建器
+     */
+    public CacheBuilder<K, V> ticker(LongSupplier ticker) {
+        Assert.notNull(ticker, "ticker不能为null");
+        this.ticker = ticker;
+        return this;
+    }
+
+    /**
+     * 指定删除监听器，监听器将在删除数据的线程中同步执行（淘汰锁外）
+     *
+     * @param removalListener
+     *            删除监听器
+     * @return 当前构建器
+     */
+    public CacheBuilder<K, V> removalListener(RemovalListener<? super K, ? super V> removalListener) {
+        Assert.notNull(removalListener, "removalListener不能为null");
+        this.removalListener = removalListener;
+        return this;
+    }
+
+    /**
+     * 构建缓存
+     *
+     * @param <K1>
+     *            key类型
+     * @param <V1>
+     *            value类型
+     * @return 缓存
+     */
+    public <K1 extends K, V1 extends V> Cache<K1, V1> build() {
+        return new TinyLFUCache<>(this);
+    }
+}
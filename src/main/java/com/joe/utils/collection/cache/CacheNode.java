@@ -0,0 +1,92 @@
+package com.joe.utils.collection.cache;
+
+/**
+ * 缓存节点，同时是淘汰队列和时间轮的链表节点；除value和时间外，其余字段只允许在持有缓存淘汰锁时访问
+ *
+ * @param <K>
+ *            key类型
+ * @param <V>
+ *            value类型
+ * @author JoeKerouac
+ * @version 2019年11月22日 14:30
+ */
+final class CacheNode<K, V> {
+
+    /**
+     * 窗口区
+     */
+    static final int WINDOW = 0;
+
+    /**
+     * 主区的试用区
+     */
+    static final int PROBATION = 1;
+
+    /**
+     * 主区的保护区
+     */
+    static final int PROTECTED = 2;
+
+    final K key;
+
+    volatile V value;
+
+    /**
+     * 最后写入时间
+     */
+    volatile long writeTime;
+
+    /**
+     * 最后访问时间
+     */
+    volatile long accessTime;
+
+    /**
+     * 是否存活，节点从缓存删除后为false
+     */
+    volatile boolean alive = true;
+
+    /**
+     * 权重
+     */
+    int weight;
+
+    /**
+     * 当前所在的区域
+     */
+    int queueType = WINDOW;
+
+    /**
+     * 淘汰队列中的前后节点
+     */
+    CacheNode<K, V> prev;
+    CacheNode<K, V> next;
+
+    /**
+     * 过期时间
+     */
+    long expiresAt;
+
+    /**
+     * 时间轮中的前后节点
+     */
+    CacheNode<K, V> timerPrev;
+    CacheNode<K, V> timerNext;
+
+    /**
+     * 构建时间轮的哨兵节点
+     */
+    CacheNode() {
+        this.key = null;
+        this.timerPrev = this;
+        this.timerNext = this;
+    }
+
+    CacheNode(K key, V value, int weight, long now) {
+        this.key = key;
+        this.value = value;
+        this.weight = weight;
+        this.writeTime = now;
+        this.accessTime = now;
+    }
+}
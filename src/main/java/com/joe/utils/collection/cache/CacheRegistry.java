@@ -0,0 +1,182 @@
+package com.joe.utils.collection.cache;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.joe.utils.common.Assert;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 缓存注册中心，库内部的缓存、对象池都会注册到这里，可以通过{@link #snapshot()}、{@link #report(BiConsumer)}读取统计信息
+ * 对接自定义的监控系统，也可以通过{@link #enableJmx()}将统计信息暴露为JMX MBean（ObjectName为
+ * com.joe.utils:type=Cache,name=缓存名）
+ *
+ * @author JoeKerouac
+ * @version 2019年11月25日 11:00
+ */
+@Slf4j
+public final class CacheRegistry {
+
+    /**
+     * JMX domain
+     */
+    private static final String JMX_DOMAIN = "com.joe.utils";
+
+    private static final Map<String, Statistical> CACHES = new ConcurrentHashMap<>();
+
+    private static volatile boolean jmxEnabled = false;
+
+    private CacheRegistry() {}
+
+    /**
+     * 注册缓存，名字已经存在时覆盖
+     *
+     * @param name
+     *            缓存名，不能为空，注意不要包含敏感信息（例如密钥）
+     * @param cache
+     *            缓存
+     * @param <T>
+     *            缓存实际类型
+     * @return 传入的缓存
+     */
+    public static <T extends Statistical> T register(String name, T cache) {
+        Assert.notBlank(name, "name不能为空");
+        Assert.notNull(cache, "cache不能为null");
+        CACHES.put(name, cache);
+        if (jmxEnabled) {
+            registerMBean(name, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * 取消注册
+     *
+     * @param name
+     *            缓存名
+     */
+    public static void unregister(String name) {
+        if (CACHES.remove(name) != null && jmxEnabled) {
+            unregisterMBean(name);
+        }
+    }
+
+    /**
+     * 获取所有缓存当前的统计信息
+     *
+     * @return 缓存名和统计信息的映射，按照缓存名排序
+     */
+    public static Map<String, CacheStats> snapshot() {
+        Map<String, CacheStats> result = new LinkedHashMap<>();
+        new TreeMap<>(CACHES).forEach((name, cache) -> result.put(name, cache.stats()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 将所有缓存当前的统计信息回调给指定回调，可以用来对接自定义的监控系统（定时调用即可）
+     *
+     * @param callback
+     *            回调，参数为缓存名和统计信息
+     */
+    public static void report(BiConsumer<String, CacheStats> callback) {
+        Assert.notNull(callback, "callback不能为null");
+        snapshot().forEach(callback);
+    }
+
+    /**
+     * 开启JMX，已经注册的和后续注册的缓存都会注册到平台MBeanServer，重复调用无影响
+     */
+    public static synchronized void enableJmx() {
+        if (jmxEnabled) {
+            return;
+        }
+        jmxEnabled = true;
+        CACHES.forEach(CacheRegistry::registerMBean);
+    }
+
+    private static void registerMBean(String name, Statistical cache) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = objectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(new CacheStatsMXBeanImpl(cache), objectName);
+        } catch (JMException e) {
+            log.warn("缓存[{}]注册到JMX失败", name, e);
+        }
+    }
+
+    private static void unregisterMBean(String name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = objectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            log.warn("缓存[{}]从JMX取消注册失败", name, e);
+        }
+    }
+
+    private static ObjectName objectName(String name) throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=Cache,name=" + ObjectName.quote(name));
+    }
+
+    /**
+     * MXBean实现，每次读取属性都实时获取统计信息
+     */
+    private static final class CacheStatsMXBeanImpl implements CacheStatsMXBean {
+
+        private final Statistical cache;
+
+        private CacheStatsMXBeanImpl(Statistical cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public long getHitCount() {
+            return cache.stats().getHitCount();
+        }
+
+        @Override
+        public long getMissCount() {
+            return cache.stats().getMissCount();
+        }
+
+        @Override
+        public double getHitRate() {
+            return cache.stats().hitRate();
+        }
+
+        @Override
+        public long getLoadCount() {
+            return cache.stats().getLoadCount();
+        }
+
+        @Override
+        public long getTotalLoadTime() {
+            return cache.stats().getTotalLoadTime();
+        }
+
+        @Override
+        public long getEvictionCount() {
+            return cache.stats().getEvictionCount();
+        }
+
+        @Override
+        public long getSize() {
+            return cache.stats().getSize();
+        }
+    }
+}
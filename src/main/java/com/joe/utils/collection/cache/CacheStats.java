@@ -0,0 +1,75 @@
+package com.joe.utils.collection.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 缓存统计信息快照，不可变
+ *
+ * @author JoeKerouac
+ * @version 2019年11月25日 10:30
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class CacheStats {
+
+    /**
+     * 命中次数
+     */
+    private final long hitCount;
+
+    /**
+     * 未命中次数
+     */
+    private final long missCount;
+
+    /**
+     * 加载（创建）次数
+     */
+    private final long loadCount;
+
+    /**
+     * 加载（创建）总耗时，单位纳秒
+     */
+    private final long totalLoadTime;
+
+    /**
+     * 淘汰次数（包括过期和超出容量）
+     */
+    private final long evictionCount;
+
+    /**
+     * 当前大小
+     */
+    private final long size;
+
+    /**
+     * 总请求次数
+     *
+     * @return 总请求次数
+     */
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * 命中率
+     *
+     * @return 命中率，没有请求时返回1
+     */
+    public double hitRate() {
+        long requestCount = requestCount();
+        return requestCount == 0 ? 1.0 : (double)hitCount / requestCount;
+    }
+
+    /**
+     * 平均加载耗时
+     *
+     * @return 平均加载耗时，单位纳秒
+     */
+    public double averageLoadPenalty() {
+        return loadCount == 0 ? 0.0 : (double)totalLoadTime / loadCount;
+    }
+}
@@ -0,0 +1,59 @@
+package com.joe.utils.collection.cache;
+
+/**
+ * 缓存统计信息的JMX接口，通过{@link CacheRegistry#enableJmx()}开启
+ *
+ * @author JoeKerouac
+ * @version 2019年11月25日 11:05
+ */
+public interface CacheStatsMXBean {
+
+    /**
+     * 命中次数
+     *
+     * @return 命中次数
+     */
+    long getHitCount();
+
+    /**
+     * 未命中次数
+     *
+     * @return 未命中次数
+     */
+    long getMissCount();
+
+    /**
+     * 命中率
+     *
+     * @return 命中率
+     */
+    double getHitRate();
+
+    /**
+     * 加载次数
+     *
+     * @return 加载次数
+     */
+    long getLoadCount();
+
+    /**
+     * 加载总耗时
+     *
+     * @return 加载总耗时，单位纳秒
+     */
+    long getTotalLoadTime();
+
+    /**
+     * 淘汰次数
+     *
+     * @return 淘汰次数
+     */
+    long getEvictionCount();
+
+    /**
+     * 当前大小
+     *
+     * @return 当前大小
+     */
+    long getSize();
+}
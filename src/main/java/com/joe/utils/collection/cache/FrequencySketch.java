@@ -0,0 +1,149 @@
+package com.joe.utils.collection.cache;
+
+/**
+ * 基于count-min sketch的访问频率估算器，每个计数器4bit（最大15），一个long存放16个计数器；当累计增加次数达到采样大
+ * 小时所有计数器减半（老化），使历史热点数据的频率随时间衰减
+ *
+ * 非线程安全，只允许在持有缓存淘汰锁时访问
+ *
+ * @author JoeKerouac
+ * @version 2019年11月22日 14:40
+ */
+final class FrequencySketch {
+
+    /**
+     * 四个hash函数的种子
+     */
+    private static final long[] SEED =
+        {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    /**
+     * 老化时每个计数器右移一位后需要清除的高位
+     */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    /**
+     * 每个计数器的最低位
+     */
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    /**
+     * 计数器表最大长度，防止权重上限很大时占用过多内存
+     */
+    private static final int MAX_TABLE_SIZE = 1 << 20;
+
+    private final long[] table;
+
+    private final int tableMask;
+
+    /**
+     * 采样大小，累计增加次数达到该值时老化
+     */
+    private final int sampleSize;
+
+    /**
+     * 当前累计增加次数
+     */
+    private int size;
+
+    /**
+     * 构造器
+     *
+     * @param maximumSize
+     *            缓存最大容量，用于确定计数器表大小
+     */
+    FrequencySketch(long maximumSize) {
+        int capacity = (int)Math.min(Math.max(maximumSize, 16), MAX_TABLE_SIZE);
+        this.table = new long[ceilingPowerOfTwo(capacity)];
+        this.tableMask = table.length - 1;
+        this.sampleSize = 10 * capacity;
+    }
+
+    /**
+     * 估算指定元素的访问频率
+     *
+     * @param e
+     *            元素
+     * @return 访问频率，最大15
+     */
+    int frequency(Object e) {
+        int hash = spread(e.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int)((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * 增加指定元素的访问频率
+     *
+     * @param e
+     *            元素
+     */
+    void increment(Object e) {
+        int hash = spread(e.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+
+        if (added && (++size == sampleSize)) {
+            reset();
+        }
+    }
+
+    /**
+     * 将指定位置的计数器加1，计数器已经达到最大值时不再增加
+     *
+     * @param i
+     *            table中的下标
+     * @param j
+     *            long中计数器的下标
+     * @return true表示增加成功
+     */
+    private boolean incrementAt(int i, int j) {
+        int offset = j << 2;
+        long mask = (0xfL << offset);
+        if ((table[i] & mask) != mask) {
+            table[i] += (1L << offset);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 老化，所有计数器减半
+     */
+    private void reset() {
+        int count = 0;
+        for (int i = 0; i < table.length; i++) {
+            count += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (count >>> 2);
+    }
+
+    private int indexOf(int item, int i) {
+        long hash = (item + SEED[i]) * SEED[i];
+        hash += (hash >>> 32);
+        return ((int)hash) & tableMask;
+    }
+
+    /**
+     * 对hashCode再次hash，防止hashCode质量过差
+     */
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(x - 1);
+    }
+}
@@ -0,0 +1,113 @@
+package com.joe.utils.collection.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 有损的分段环形缓冲区，用于记录读操作，读线程之间通过分段减少竞争，缓冲区满或者竞争失败时直接丢弃记录（对于访问频率统计来
+ * 说丢失少量记录是可以接受的）；写入无锁，消费只允许在持有缓存淘汰锁时进行
+ *
+ * @param <E>
+ *            元素类型
+ * @author JoeKerouac
+ * @version 2019年11月22日 15:30
+ */
+final class ReadBuffer<E> {
+
+    /**
+     * 写入成功
+     */
+    static final int SUCCESS = 0;
+
+    /**
+     * 缓冲区已满，需要消费
+     */
+    static final int FULL = 1;
+
+    /**
+     * 竞争失败，数据被丢弃
+     */
+    static final int FAILED = 2;
+
+    /**
+     * 每段的大小
+     */
+    private static final int SEGMENT_SIZE = 32;
+
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final AtomicLong[] writeCounters;
+
+    private final AtomicLong[] readCounters;
+
+    private final AtomicReferenceArray<E>[] buffers;
+
+    private final int mask;
+
+    @SuppressWarnings("unchecked")
+    ReadBuffer() {
+        int segments = FrequencySketch.ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors());
+        this.mask = segments - 1;
+        this.writeCounters = new AtomicLong[segments];
+        this.readCounters = new AtomicLong[segments];
+        this.buffers = new AtomicReferenceArray[segments];
+        for (int i = 0; i < segments; i++) {
+            writeCounters[i] = new AtomicLong();
+            readCounters[i] = new AtomicLong();
+            buffers[i] = new AtomicReferenceArray<>(SEGMENT_SIZE);
+        }
+    }
+
+    /**
+     * 写入元素
+     *
+     * @param e
+     *            元素
+     * @return 写入结果，{@link #SUCCESS}、{@link #FULL}或者{@link #FAILED}
+     */
+    int offer(E e) {
+        int segment = probe() & mask;
+        AtomicLong writeCounter = writeCounters[segment];
+        long tail = writeCounter.get();
+        if (tail - readCounters[segment].get() >= SEGMENT_SIZE) {
+            return FULL;
+        }
+        if (writeCounter.compareAndSet(tail, tail + 1)) {
+            buffers[segment].lazySet((int)(tail & SEGMENT_MASK), e);
+            return SUCCESS;
+        }
+        return FAILED;
+    }
+
+    /**
+     * 消费所有已经写入的元素
+     *
+     * @param consumer
+     *            消费者
+     */
+    void drain(Consumer<E> consumer) {
+        for (int i = 0; i < buffers.length; i++) {
+            AtomicReferenceArray<E> buffer = buffers[i];
+            AtomicLong readCounter = readCounters[i];
+            long head = readCounter.get();
+            long tail = writeCounters[i].get();
+            for (; head < tail; head++) {
+                int index = (int)(head & SEGMENT_MASK);
+                E e = buffer.get(index);
+                if (e == null) {
+                    // 已经分配了位置但是还未写入，下次再消费
+                    break;
+                }
+                buffer.lazySet(index, null);
+                consumer.accept(e);
+            }
+            readCounter.lazySet(head);
+        }
+    }
+
+    private static int probe() {
+        int h = (int)Thread.currentThread().getId() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,39 @@
+package com.joe.utils.collection.cache;
+
+/**
+ * 缓存数据被删除的原因
+ *
+ * @author JoeKerouac
+ * @version 2019年11月25日 10:20
+ */
+public enum RemovalCause {
+
+    /**
+     * 用户主动删除
+     */
+    EXPLICIT,
+
+    /**
+     * 被新值替换
+     */
+    REPLACED,
+
+    /**
+     * 过期
+     */
+    EXPIRED,
+
+    /**
+     * 超出容量被淘汰
+     */
+    SIZE;
+
+    /**
+     * 是否是被缓存淘汰的（而不是用户主动删除、替换的）
+     *
+     * @return true表示是被缓存淘汰的
+     */
+    public boolean wasEvicted() {
+        return this == EXPIRED || this == SIZE;
+    }
+}
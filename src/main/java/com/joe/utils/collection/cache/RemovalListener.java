@@ -0,0 +1,27 @@
+package com.joe.utils.collection.cache;
+
+/**
+ * 缓存数据删除监听器，监听器中抛出的异常会被忽略（仅记录日志），监听器中不应该执行耗时操作
+ *
+ * @param <K>
+ *            key类型
+ * @param <V>
+ *            value类型
+ * @author JoeKerouac
+ * @version 2019年11月25日 10:22
+ */
+@FunctionalInterface
+public interface RemovalListener<K, V> {
+
+    /**
+     * 缓存数据被删除时回调
+     *
+     * @param key
+     *            被删除数据的key
+     * @param value
+     *            被删除数据的value
+     * @param cause
+     *            删除原因
+     */
+    void onRemoval(K key, V value, RemovalCause cause);
+}
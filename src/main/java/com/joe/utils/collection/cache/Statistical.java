@@ -0,0 +1,18 @@
+package com.joe.utils.collection.cache;
+
+/**
+ * 可以提供统计信息的缓存（包括对象池等）
+ *
+ * @author JoeKerouac
+ * @version 2019年11月25日 10:25
+ */
+@FunctionalInterface
+public interface Statistical {
+
+    /**
+     * 获取当前统计信息的快照
+     *
+     * @return 统计信息快照
+     */
+    CacheStats stats();
+}
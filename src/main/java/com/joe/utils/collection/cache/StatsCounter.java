@@ -0,0 +1,69 @@
+package com.joe.utils.collection.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程安全的缓存统计计数器
+ *
+ * @author JoeKerouac
+ * @version 2019年11月25日 10:40
+ */
+public final class StatsCounter {
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder loadCount = new LongAdder();
+
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 记录一次命中
+     */
+    public void recordHit() {
+        hitCount.increment();
+    }
+
+    /**
+     * 记录一次未命中
+     */
+    public void recordMiss() {
+        missCount.increment();
+    }
+
+    /**
+     * 记录一次加载
+     *
+     * @param loadTime
+     *            加载耗时，单位纳秒
+     */
+    public void recordLoad(long loadTime) {
+        loadCount.increment();
+        totalLoadTime.add(loadTime);
+    }
+
+    /**
+     * 记录淘汰
+     *
+     * @param count
+     *            淘汰数量
+     */
+    public void recordEviction(int count) {
+        evictionCount.add(count);
+    }
+
+    /**
+     * 生成统计信息快照
+     *
+     * @param size
+     *            缓存当前大小
+     * @return 统计信息快照
+     */
+    public CacheStats snapshot(long size) {
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadCount.sum(), totalLoadTime.sum(),
+            evictionCount.sum(), size);
+    }
+}
@@ -0,0 +1,164 @@
+package com.joe.utils.collection.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮，用于驱动缓存数据的过期，调度和删除都是O(1)的
+ *
+ * <p>
+ * 第一层每个槽约1.07秒（2^30纳秒），共64个槽；第二层每个槽约1.14分钟，第三层每个槽约1.22小时，超出第三层范围的放入溢出槽；
+ * 时间推进时上层槽中的节点会重新调度到下层，过期检查的精度约为1秒（读取时会精确判断是否过期，所以不影响正确性）
+ * </p>
+ *
+ * 非线程安全，只允许在持有缓存淘汰锁时访问
+ *
+ * @param <K>
+ *            key类型
+ * @param <V>
+ *            value类型
+ * @author JoeKerouac
+ * @version 2019年11月22日 15:05
+ */
+final class TimerWheel<K, V> {
+
+    /**
+     * 每层的槽数量
+     */
+    private static final int[] BUCKETS = {64, 64, 64, 1};
+
+    /**
+     * 每层一个槽对应的时间跨度（2的幂，单位纳秒）
+     */
+    private static final int[] SHIFT = {30, 36, 42, 48};
+
+    private final CacheNode<K, V>[][] wheel;
+
+    /**
+     * 时间轮当前时间
+     */
+    private long nanos;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long now) {
+        this.nanos = now;
+        this.wheel = new CacheNode[BUCKETS.length][];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new CacheNode[BUCKETS[i]];
+            for (int j = 0; j < wheel[i].length; j++) {
+                wheel[i][j] = new CacheNode<>();
+            }
+        }
+    }
+
+    /**
+     * 推进时间轮，将到期的节点交给expired处理（处理器可以将未过期的节点重新调度）
+     *
+     * @param now
+     *            当前时间
+     * @param expired
+     *            到期节点处理器
+     */
+    void advance(long now, Consumer<CacheNode<K, V>> expired) {
+        long previous = nanos;
+        nanos = now;
+        for (int i = 0; i < SHIFT.length; i++) {
+            long previousTicks = previous >>> SHIFT[i];
+            long currentTicks = now >>> SHIFT[i];
+            if (currentTicks - previousTicks <= 0L) {
+                break;
+            }
+            expire(i, previousTicks, currentTicks - previousTicks, expired);
+        }
+    }
+
+    /**
+     * 处理指定层从previousTicks开始delta个槽中的节点
+     */
+    private void expire(int index, long previousTicks, long delta, Consumer<CacheNode<K, V>> expired) {
+        CacheNode<K, V>[] buckets = wheel[index];
+        int mask = buckets.length - 1;
+        int steps = (int)Math.min(delta + 1, buckets.length);
+        int start = (int)(previousTicks & mask);
+        for (int i = start; i < start + steps; i++) {
+            CacheNode<K, V> sentinel = buckets[i & mask];
+            CacheNode<K, V> node = sentinel.timerNext;
+            sentinel.timerPrev = sentinel;
+            sentinel.timerNext = sentinel;
+
+            while (node != sentinel) {
+                CacheNode<K, V> next = node.timerNext;
+                node.timerPrev = null;
+                node.timerNext = null;
+
+                if (node.expiresAt - nanos <= 0) {
+                    expired.accept(node);
+                } else {
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * 根据节点的过期时间调度节点
+     *
+     * @param node
+     *            节点，调用前不能已经在时间轮中
+     */
+    void schedule(CacheNode<K, V> node) {
+        CacheNode<K, V> sentinel = findBucket(node.expiresAt);
+        CacheNode<K, V> last = sentinel.timerPrev;
+        node.timerPrev = last;
+        node.timerNext = sentinel;
+        last.timerNext = node;
+        sentinel.timerPrev = node;
+    }
+
+    /**
+     * 重新调度节点（过期时间变更后调用）
+     *
+     * @param node
+     *            节点
+     */
+    void reschedule(CacheNode<K, V> node) {
+        deschedule(node);
+        schedule(node);
+    }
+
+    /**
+     * 将节点从时间轮中删除，节点不在时间轮中时忽略
+     *
+     * @param node
+     *            节点
+     */
+    void deschedule(CacheNode<K, V> node) {
+        if (node.timerNext == null) {
+            return;
+        }
+        node.timerNext.timerPrev = node.timerPrev;
+        node.timerPrev.timerNext = node.timerNext;
+        node.timerNext = null;
+        node.timerPrev = null;
+    }
+
+    /**
+     * 查找指定过期时间对应的槽，已经过期的放入当前槽，下次推进时处理
+     */
+    private CacheNode<K, V> findBucket(long time) {
+        long duration = time - nanos;
+        if (duration < 0) {
+            time = nanos;
+            duration = 0;
+        }
+        int length = wheel.length - 1;
+        for (int i = 0; i < length; i++) {
+            if (duration < (1L << SHIFT[i + 1])) {
+                long ticks = time >>> SHIFT[i];
+                int index = (int)(ticks & (wheel[i].length - 1));
+                return wheel[i][index];
+            }
+        }
+        return wheel[length][0];
+    }
+}
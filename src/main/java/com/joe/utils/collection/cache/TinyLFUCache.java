@@ -0,0 +1,693 @@
+package com.joe.utils.collection.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import com.joe.utils.common.Assert;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 基于W-TinyLFU算法的缓存实现
+ *
+ * <p>
+ * 缓存分为窗口区（1%）和主区（99%），主区又分为试用区和保护区（主区的80%），新数据首先进入窗口区，窗口区溢出的数据进入试用区
+ * 成为候选者，当缓存超出容量时使用频率估算器（count-min sketch）比较候选者和试用区最老数据的访问频率，频率低的被淘汰，所以只
+ * 访问一次的扫描型数据无法挤掉热点数据；试用区的数据再次被访问时晋升到保护区。
+ * </p>
+ *
+ * <p>
+ * 读操作无锁，只将访问记录写入有损的读缓冲区，缓冲区满时尝试获取淘汰锁批量处理；写操作在淘汰锁内同步更新淘汰策略；数据过期
+ * 由分层时间轮驱动。
+ * </p>
+ *
+ * @param <K>
+ *            key类型
+ * @param <V>
+ *            value类型
+ * @author JoeKerouac
+ * @version 2019年11月22日 16:10
+ */
+@Slf4j
+public final class TinyLFUCache<K, V> implements Cache<K, V> {
+
+    /**
+     * 窗口区占总容量的比例
+     */
+    private static final double WINDOW_PERCENT = 0.01;
+
+    /**
+     * 保护区占主区容量的比例
+     */
+    private static final double PROTECTED_PERCENT = 0.8;
+
+    /**
+     * 候选者频率超过该值时以一定概率被接纳，防止攻击者构造hash冲突使热点数据永远无法进入主区
+     */
+    private static final int ADMIT_HASHDOS_THRESHOLD = 5;
+
+    private final ConcurrentHashMap<K, CacheNode<K, V>> data;
+
+    /**
+     * 正在加载中的数据，用于合并并发加载
+     */
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading;
+
+    /**
+     * 淘汰锁，淘汰策略、时间轮、频率估算器都只允许在持有该锁时访问
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final ReadBuffer<CacheNode<K, V>> readBuffer = new ReadBuffer<>();
+
+    /**
+     * 最大权重，为{@link Long#MAX_VALUE}时表示不限制
+     */
+    private final long maximum;
+
+    private final Weigher<? super K, ? super V> weigher;
+
+    /**
+     * 写入后过期时间，单位纳秒，小于等于0表示不过期
+     */
+    private final long expireAfterWriteNanos;
+
+    /**
+     * 访问后过期时间，单位纳秒，小于等于0表示不过期
+     */
+    private final long expireAfterAccessNanos;
+
+    private final LongSupplier ticker;
+
+    private final StatsCounter statsCounter = new StatsCounter();
+
+    /**
+     * 删除监听器，没有时为null
+     */
+    private final RemovalListener<? super K, ? super V> removalListener;
+
+    /**
+     * 待通知的删除事件，在淘汰锁内产生，在锁外通知
+     */
+    private final ConcurrentLinkedQueue<RemovalNotification<K, V>> pendingNotifications;
+
+    /**
+     * 频率估算器，不限制容量时为null
+     */
+    private final FrequencySketch sketch;
+
+    /**
+     * 时间轮，不过期时为null
+     */
+    private final TimerWheel<K, V> timerWheel;
+
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+
+    private final AccessOrderDeque<K, V> protectedDeque = new AccessOrderDeque<>();
+
+    private final long windowMaximum;
+
+    private final long protectedMaximum;
+
+    private long windowWeight;
+
+    private long protectedWeight;
+
+    private long weightedSize;
+
+    TinyLFUCache(CacheBuilder<? super K, ? super V> builder) {
+        this.data = new ConcurrentHashMap<>(builder.getInitialCapacity());
+        this.loading = new ConcurrentHashMap<>();
+        this.maximum = builder.getMaximum();
+        this.weigher = builder.getWeigher();
+        this.expireAfterWriteNanos = builder.getExpireAfterWriteNanos();
+        this.expireAfterAccessNanos = builder.getExpireAfterAccessNanos();
+        this.ticker = builder.getTicker();
+        this.removalListener = builder.getRemovalListener();
+        this.pendingNotifications = removalListener == null ? null : new ConcurrentLinkedQueue<>();
+
+        if (evicts()) {
+            this.sketch = new FrequencySketch(maximum);
+            this.windowMaximum = Math.max(1, (long)(maximum * WINDOW_PERCENT));
+            this.protectedMaximum = (long)((maximum - windowMaximum) * PROTECTED_PERCENT);
+        } else {
+            this.sketch = null;
+            this.windowMaximum = Long.MAX_VALUE;
+            this.protectedMaximum = Long.MAX_VALUE;
+        }
+
+        this.timerWheel = expires() ? new TimerWheel<>(ticker.getAsLong()) : null;
+    }
+
+    @Override
+    public V get(K key) {
+        V value = getIfPresent(key);
+        if (value == null) {
+            statsCounter.recordMiss();
+        } else {
+            statsCounter.recordHit();
+        }
+        return value;
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Assert.notNull(loader, "loader不能为null");
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> exist = loading.putIfAbsent(key, future);
+        if (exist != null) {
+            // 其他线程正在加载，等待其加载结果
+            try {
+                return exist.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException)cause;
+                } else if (cause instanceof Error) {
+                    throw (Error)cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            // 再次检查，防止在本线程放入future前其他线程刚好加载完成
+            value = getIfPresent(key);
+            if (value == null) {
+                long start = System.nanoTime();
+                value = loader.apply(key);
+                statsCounter.recordLoad(System.nanoTime() - start);
+                if (value != null) {
+                    put(key, value);
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Assert.notNull(key, "key不能为null");
+        Assert.notNull(value, "value不能为null");
+        int weight = weigher.weigh(key, value);
+        Assert.isTrue(weight >= 0, "权重不能小于0");
+        long now = ticker.getAsLong();
+
+        evictionLock.lock();
+        try {
+            CacheNode<K, V> node = data.get(key);
+            V old = null;
+            if (node == null) {
+                node = new CacheNode<>(key, value, weight, now);
+                data.put(key, node);
+                onAdd(node);
+            } else {
+                if (hasExpired(node, now)) {
+                    notifyRemoval(key, node.value, RemovalCause.EXPIRED);
+                } else {
+                    old = node.value;
+                    notifyRemoval(key, old, RemovalCause.REPLACED);
+                }
+                node.value = value;
+                node.writeTime = now;
+                node.accessTime = now;
+                onUpdate(node, weight);
+            }
+            maintenance(now);
+            return old;
+        } finally {
+            evictionLock.unlock();
+            dispatchNotifications();
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        long now = ticker.getAsLong();
+        evictionLock.lock();
+        try {
+            CacheNode<K, V> node = data.remove(key);
+            if (node == null) {
+                return null;
+            }
+            removeFromPolicy(node);
+            if (hasExpired(node, now)) {
+                notifyRemoval(key, node.value, RemovalCause.EXPIRED);
+                return null;
+            }
+            notifyRemoval(key, node.value, RemovalCause.EXPLICIT);
+            return node.value;
+        } finally {
+            evictionLock.unlock();
+            dispatchNotifications();
+        }
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            readBuffer.drain(node -> {});
+            for (CacheNode<K, V> node : data.values()) {
+                if (data.remove(node.key, node)) {
+                    removeFromPolicy(node);
+                    notifyRemoval(node.key, node.value, RemovalCause.EXPLICIT);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+            dispatchNotifications();
+        }
+    }
+
+    @Override
+    public long size() {
+        return data.size();
+    }
+
+    @Override
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance(ticker.getAsLong());
+        } finally {
+            evictionLock.unlock();
+            dispatchNotifications();
+        }
+    }
+
+    @Override
+    public CacheStats stats() {
+        return statsCounter.snapshot(data.size());
+    }
+
+    /**
+     * 从缓存中获取指定key对应的值，不记录命中统计
+     *
+     * @param key
+     *            key
+     * @return key对应的值，不存在或者已经过期时返回null
+     */
+    private V getIfPresent(K key) {
+        CacheNode<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+
+        long now = ticker.getAsLong();
+        if (hasExpired(node, now)) {
+            tryMaintenance();
+            return null;
+        }
+
+        V value = node.value;
+        afterRead(node, now);
+        return value;
+    }
+
+    /**
+     * 是否限制了容量
+     *
+     * @return true表示限制了容量
+     */
+    private boolean evicts() {
+        return maximum != Long.MAX_VALUE;
+    }
+
+    /**
+     * 是否会过期
+     *
+     * @return true表示数据会过期
+     */
+    private boolean expires() {
+        return expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0;
+    }
+
+    /**
+     * 判断节点是否已经过期
+     */
+    private boolean hasExpired(CacheNode<K, V> node, long now) {
+        return (expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos)
+            || (expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos);
+    }
+
+    /**
+     * 计算节点的过期时间
+     */
+    private long expiresAt(CacheNode<K, V> node) {
+        long time = Long.MAX_VALUE;
+        if (expireAfterWriteNanos > 0) {
+            time = node.writeTime + expireAfterWriteNanos;
+        }
+        if (expireAfterAccessNanos > 0) {
+            time = Math.min(time, node.accessTime + expireAfterAccessNanos);
+        }
+        return time;
+    }
+
+    /**
+     * 读取后记录访问
+     */
+    private void afterRead(CacheNode<K, V> node, long now) {
+        if (expireAfterAccessNanos > 0) {
+            node.accessTime = now;
+        }
+        if (readBuffer.offer(node) == ReadBuffer.FULL) {
+            tryMaintenance();
+        }
+    }
+
+    /**
+     * 尝试执行维护，其他线程正在维护时直接返回
+     */
+    private void tryMaintenance() {
+        if (evictionLock.tryLock()) {
+            try {
+                maintenance(ticker.getAsLong());
+            } finally {
+                evictionLock.unlock();
+                dispatchNotifications();
+            }
+        }
+    }
+
+    /**
+     * 维护，必须在持有淘汰锁时调用
+     */
+    private void maintenance(long now) {
+        readBuffer.drain(this::onAccess);
+        if (timerWheel != null) {
+            timerWheel.advance(now, node -> {
+                if (hasExpired(node, now)) {
+                    evictEntry(node, RemovalCause.EXPIRED);
+                } else {
+                    // 访问后过期时间已经延后但是尚未重新调度
+                    node.expiresAt = expiresAt(node);
+                    timerWheel.schedule(node);
+                }
+            });
+        }
+        evictEntries();
+    }
+
+    /**
+     * 新增节点
+     */
+    private void onAdd(CacheNode<K, V> node) {
+        weightedSize += node.weight;
+        windowWeight += node.weight;
+        node.queueType = CacheNode.WINDOW;
+        window.add(node);
+        if (sketch != null) {
+            sketch.increment(node.key);
+        }
+        if (timerWheel != null) {
+            node.expiresAt = expiresAt(node);
+            timerWheel.schedule(node);
+        }
+    }
+
+    /**
+     * 更新节点
+     */
+    private void onUpdate(CacheNode<K, V> node, int weight) {
+        int delta = weight - node.weight;
+        node.weight = weight;
+        weightedSize += delta;
+        if (node.queueType == CacheNode.WINDOW) {
+            windowWeight += delta;
+        } else if (node.queueType == CacheNode.PROTECTED) {
+            protectedWeight += delta;
+        }
+        onAccess(node);
+    }
+
+    /**
+     * 节点被访问
+     */
+    private void onAccess(CacheNode<K, V> node) {
+        if (!node.alive) {
+            return;
+        }
+        if (sketch != null) {
+            sketch.increment(node.key);
+        }
+
+        if (node.queueType == CacheNode.WINDOW) {
+            window.moveToBack(node);
+        } else if (node.queueType == CacheNode.PROBATION) {
+            // 试用区的数据再次被访问，晋升到保护区
+            probation.remove(node);
+            node.queueType = CacheNode.PROTECTED;
+            protectedDeque.add(node);
+            protectedWeight += node.weight;
+            demoteFromProtected();
+        } else {
+            protectedDeque.moveToBack(node);
+        }
+
+        if (timerWheel != null) {
+            node.expiresAt = expiresAt(node);
+            timerWheel.reschedule(node);
+        }
+    }
+
+    /**
+     * 保护区溢出时将保护区最老的数据降级到试用区
+     */
+    private void demoteFromProtected() {
+        while (protectedWeight > protectedMaximum) {
+            CacheNode<K, V> node = protectedDeque.peekFirst();
+            if (node == null) {
+                return;
+            }
+            protectedDeque.remove(node);
+            protectedWeight -= node.weight;
+            node.queueType = CacheNode.PROBATION;
+            probation.add(node);
+        }
+    }
+
+    /**
+     * 淘汰超出容量的数据
+     */
+    private void evictEntries() {
+        if (!evicts()) {
+            return;
+        }
+
+        // 窗口区溢出的数据移动到试用区尾部成为候选者
+        CacheNode<K, V> candidate = null;
+        while (windowWeight > windowMaximum) {
+            CacheNode<K, V> node = window.peekFirst();
+            if (node == null) {
+                break;
+            }
+            window.remove(node);
+            windowWeight -= node.weight;
+            node.queueType = CacheNode.PROBATION;
+            probation.add(node);
+            if (candidate == null) {
+                candidate = node;
+            }
+        }
+
+        while (weightedSize > maximum) {
+            CacheNode<K, V> victim = probation.peekFirst();
+            if (victim == null) {
+                victim = protectedDeque.peekFirst();
+            }
+            if (victim == null) {
+                victim = window.peekFirst();
+            }
+            if (victim == null) {
+                return;
+            }
+
+            if (candidate == null || victim.queueType != CacheNode.PROBATION) {
+                evictEntry(victim, RemovalCause.SIZE);
+            } else if (victim == candidate) {
+                // 试用区中已经没有老数据了，候选者之间按照进入顺序淘汰
+                candidate = candidate.next;
+                evictEntry(victim, RemovalCause.SIZE);
+            } else if (candidate.weight > maximum || !admit(candidate.key, victim.key)) {
+                CacheNode<K, V> next = candidate.next;
+                evictEntry(candidate, RemovalCause.SIZE);
+                candidate = next;
+            } else {
+                evictEntry(victim, RemovalCause.SIZE);
+            }
+        }
+    }
+
+    /**
+     * 判断是否接纳候选者（淘汰受害者）
+     *
+     * @param candidateKey
+     *            候选者
+     * @param victimKey
+     *            受害者
+     * @return true表示接纳候选者
+     */
+    private boolean admit(K candidateKey, K victimKey) {
+        int victimFreq = sketch.frequency(victimKey);
+        int candidateFreq = sketch.frequency(candidateKey);
+        if (candidateFreq > victimFreq) {
+            return true;
+        } else if (candidateFreq <= ADMIT_HASHDOS_THRESHOLD) {
+            return false;
+        }
+        return (ThreadLocalRandom.current().nextInt() & 127) == 0;
+    }
+
+    /**
+     * 淘汰节点
+     */
+    private void evictEntry(CacheNode<K, V> node, RemovalCause cause) {
+        if (data.remove(node.key, node)) {
+            statsCounter.recordEviction(1);
+            notifyRemoval(node.key, node.value, cause);
+        }
+        removeFromPolicy(node);
+    }
+
+    /**
+     * 记录删除事件，必须在持有淘汰锁时调用
+     */
+    private void notifyRemoval(K key, V value, RemovalCause cause) {
+        if (pendingNotifications != null) {
+            pendingNotifications.offer(new RemovalNotification<>(key, value, cause));
+        }
+    }
+
+    /**
+     * 通知删除事件，在淘汰锁外调用
+     */
+    private void dispatchNotifications() {
+        if (pendingNotifications == null) {
+            return;
+        }
+        RemovalNotification<K, V> notification;
+        while ((notification = pendingNotifications.poll()) != null) {
+            try {
+                removalListener.onRemoval(notification.key, notification.value, notification.cause);
+            } catch (Throwable e) {
+                log.warn("删除监听器执行异常，忽略该异常", e);
+            }
+        }
+    }
+
+    /**
+     * 将节点从淘汰策略和时间轮中删除
+     */
+    private void removeFromPolicy(CacheNode<K, V> node) {
+        if (!node.alive) {
+            return;
+        }
+        node.alive = false;
+        weightedSize -= node.weight;
+        if (node.queueType == CacheNode.WINDOW) {
+            window.remove(node);
+            windowWeight -= node.weight;
+        } else if (node.queueType == CacheNode.PROBATION) {
+            probation.remove(node);
+        } else {
+            protectedDeque.remove(node);
+            protectedWeight -= node.weight;
+        }
+        if (timerWheel != null) {
+            timerWheel.deschedule(node);
+        }
+    }
+
+    /**
+     * 删除事件
+     */
+    private static final class RemovalNotification<K, V> {
+
+        private final K key;
+
+        private final V value;
+
+        private final RemovalCause cause;
+
+        private RemovalNotification(K key, V value, RemovalCause cause) {
+            this.key = key;
+            this.value = value;
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * 按照访问顺序排序的双向链表，头部是最久未访问的
+     *
+     * @param <K>
+     *            key类型
+     * @param <V>
+     *            value类型
+     */
+    private static final class AccessOrderDeque<K, V> {
+
+        private CacheNode<K, V> first;
+
+        private CacheNode<K, V> last;
+
+        CacheNode<K, V> peekFirst() {
+            return first;
+        }
+
+        void add(CacheNode<K, V> node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        void remove(CacheNode<K, V> node) {
+            CacheNode<K, V> prev = node.prev;
+            CacheNode<K, V> next = node.next;
+            if (prev == null) {
+                first = next;
+            } else {
+                prev.next = next;
+            }
+            if (next == null) {
+                last = prev;
+            } else {
+                next.prev = prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToBack(CacheNode<K, V> node) {
+            if (node != last) {
+                remove(node);
+                add(node);
+            }
+        }
+    }
+}
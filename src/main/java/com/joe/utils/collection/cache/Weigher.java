@@ -0,0 +1,26 @@
+package com.joe.utils.collection.cache;
+
+/**
+ * 缓存数据权重计算器
+ *
+ * @param <K>
+ *            key类型
+ * @param <V>
+ *            value类型
+ * @author JoeKerouac
+ * @version 2019年11月22日 14:22
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     * 计算缓存数据的权重，权重只在放入缓存时计算一次
+     *
+     * @param key
+     *            key
+     * @param value
+     *            value
+     * @return 权重，不能小于0
+     */
+    int weigh(K key, V value);
+}
@@ -156,7 +156,7 @@ public class Assert {
      *            为null时的异常提示
      */
     public static void notNull(Object[] objs, String msg) {
-        notNull(objs, msg);
+        notNull((Object)objs, msg);
         for (Object obj : objs) {
             notNull(obj, msg);
         }
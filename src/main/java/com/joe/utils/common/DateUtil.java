@@ -8,9 +8,11 @@ import java.time.temporal.Temporal;
 import java.time.temporal.TemporalAccessor;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 
+import com.joe.utils.collection.ConcurrentLRUCacheMap;
+import com.joe.utils.collection.cache.CacheRegistry;
+
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -24,7 +26,8 @@ public class DateUtil {
     /**
      * formatter缓存
      */
-    private final static Map<String, DateTimeFormatter> FORMATTER_CACHE = new HashMap<>();
+    private final static Map<String, DateTimeFormatter> FORMATTER_CACHE =
+        CacheRegistry.register("DateUtil.FORMATTER_CACHE", new ConcurrentLRUCacheMap<>());
     /**
      * 常用格式化yyyy-MM-dd HH:mm:ss
      */
@@ -194,7 +197,7 @@ public class DateUtil {
      * @return 指定日期的指定格式的字符串
      */
     public static String getFormatDate(String format, Date date, String zoneId) {
-        DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern(format);
+        DateTimeFormatter dateTimeFormatter = getFormatter(format);
         return dateTimeFormatter.format(date.toInstant().atZone(ZoneId.of(zoneId)).toLocalDateTime());
     }
 
@@ -251,6 +254,17 @@ public class DateUtil {
         return now.equals(target);
     }
 
+    /**
+     * 获取指定格式的formatter，优先从缓存取，取不到创建一个
+     *
+     * @param format
+     *            日期格式
+     * @return formatter
+     */
+    private static DateTimeFormatter getFormatter(String format) {
+        return FORMATTER_CACHE.computeIfAbsent(format, DateTimeFormatter::ofPattern);
+    }
+
     /**
      * 从指定日期字符串获取LocalDateTime对象
      * 
@@ -261,12 +275,7 @@ public class DateUtil {
      * @return LocalDateTime对象
      */
     private static LocalDateTime getTime(String format, String date) {
-        DateTimeFormatter formatter;
-        // 优先从缓存取，取不到创建一个，不用加锁
-        if ((formatter = FORMATTER_CACHE.get(format)) == null) {
-            formatter = DateTimeFormatter.ofPattern(format);
-            FORMATTER_CACHE.put(format, formatter);
-        }
+        DateTimeFormatter formatter = getFormatter(format);
 
         TemporalAccessor accessor = formatter.parse(date);
         LocalDateTime time;
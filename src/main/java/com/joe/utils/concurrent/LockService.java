@@ -5,16 +5,18 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
-import com.joe.utils.collection.LRUCacheMap;
+import com.joe.utils.collection.ConcurrentLRUCacheMap;
+import com.joe.utils.collection.cache.CacheRegistry;
 
 /**
- * 锁服务，为全局业务提供锁服务，该类所有方法都是线程安全的（大量获取锁时性能会下降）
+ * 锁服务，为全局业务提供锁服务，该类所有方法都是线程安全的
  * 
  * @author joe
  *
  */
 public class LockService {
-    private static final Map<String, Lock> container = new LRUCacheMap<>();
+    private static final Map<String, Lock> container =
+        CacheRegistry.register("LockService.container", new ConcurrentLRUCacheMap<>());
 
     /**
      * 根据锁名字获取指定锁，如果不存在则创建
@@ -24,13 +26,7 @@ public class LockService {
      * @return 对应的锁，如果没有则创建
      */
     public static Lock getLock(String key) {
-        Lock lock = container.get(key);
-        if (lock == null) {
-            synchronized (container) {
-                lock = container.computeIfAbsent(key, k -> new ReentrantLock());
-            }
-        }
-        return lock;
+        return container.computeIfAbsent(key, k -> new ReentrantLock());
     }
 
     /**
@@ -0,0 +1,27 @@
+package com.joe.utils.exception;
+
+/**
+ * 对象池异常，例如获取对象超时、对象池已关闭
+ *
+ * @author JoeKerouac
+ * @version 2019年11月26日 10:05
+ */
+public class PoolException extends UtilsException {
+    private static final long serialVersionUID = 2710543961733437085L;
+
+    public PoolException() {
+        super();
+    }
+
+    public PoolException(String message) {
+        super(message);
+    }
+
+    public PoolException(String message, Throwable cause) {
+        super(cause, message);
+    }
+
+    public PoolException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,661 @@
+package com.joe.utils.pool;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.joe.utils.collection.cache.CacheStats;
+import com.joe.utils.collection.cache.Statistical;
+import com.joe.utils.collection.cache.StatsCounter;
+import com.joe.utils.common.Assert;
+import com.joe.utils.concurrent.WrapedInterruptedException;
+import com.joe.utils.exception.PoolException;
+import com.joe.utils.exception.PoolObjectHolderClosedException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 有界对象池，与{@link ObjectPoolImpl ObjectPoolImpl}不同，该池有最大容量限制，池中对象耗尽时获取对象将会阻塞等待，超时抛出
+ * {@link PoolException PoolException}；同时支持以下功能：
+ *
+ * <ul>
+ * <li>借出、归还时校验对象，校验失败的对象将会被销毁</li>
+ * <li>后台线程定时销毁空闲时间过长的对象，并且补充对象保证池中最少有minIdle个空闲对象</li>
+ * <li>泄漏检测：借出的{@link PooledObject PooledObject}未关闭就被GC回收时（使用{@link PhantomReference}检测），对应的池对象将被销毁并
+ * 释放占用的容量，同时打印告警日志</li>
+ * <li>统计借出、归还、创建、销毁、泄漏的对象数量以及获取对象的总等待时间</li>
+ * </ul>
+ *
+ * <p>
+ * 统计信息（{@link #stats()}）中命中表示从池中取到了空闲对象，未命中表示新建了对象，淘汰表示销毁的对象，size为空闲对象数
+ * </p>
+ *
+ * <p>
+ * 注意：池不再使用时必须调用{@link #close()}关闭，否则后台任务将一直持有该池
+ * </p>
+ *
+ * @param <T>
+ *            池对象类型
+ * @author JoeKerouac
+ * @version 2019年11月26日 10:30
+ */
+@Slf4j
+public class BoundedObjectPool<T> implements ObjectPool<T>, Statistical, AutoCloseable {
+
+    /**
+     * 池对象工厂
+     */
+    private final PooledObjectFactory<T> factory;
+
+    /**
+     * 池配置
+     */
+    private final PoolConfig config;
+
+    /**
+     * 借出许可，数量等于池的最大容量
+     */
+    private final Semaphore permits;
+
+    /**
+     * 空闲对象，头部是最近归还的，尾部是空闲时间最长的
+     */
+    private final LinkedBlockingDeque<IdleObject<T>> idle = new LinkedBlockingDeque<>();
+
+    /**
+     * 当前所有借出对象的泄漏检测引用，持有该引用防止引用本身被GC回收
+     */
+    private final Set<LeakReference<T>> leakReferences = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 泄漏检测的引用队列
+     */
+    private final ReferenceQueue<Holder<T>> referenceQueue = new ReferenceQueue<>();
+
+    /**
+     * 当前池中对象总数（空闲的、借出的和正在创建的）
+     */
+    private final AtomicInteger total = new AtomicInteger();
+
+    private final LongAdder borrowedCount = new LongAdder();
+
+    private final LongAdder returnedCount = new LongAdder();
+
+    private final LongAdder createdCount = new LongAdder();
+
+    private final LongAdder destroyedCount = new LongAdder();
+
+    private final LongAdder leakedCount = new LongAdder();
+
+    /**
+     * 获取对象的总等待时间，单位纳秒
+     */
+    private final LongAdder totalWaitTime = new LongAdder();
+
+    private final StatsCounter statsCounter = new StatsCounter();
+
+    /**
+     * 后台任务，没有启用时为null
+     */
+    private final ScheduledFuture<?> evictorFuture;
+
+    private volatile boolean closed;
+
+    /**
+     * 使用默认配置构建对象池
+     *
+     * @param factory
+     *            池对象工厂
+     */
+    public BoundedObjectPool(PooledObjectFactory<T> factory) {
+        this(factory, new PoolConfig());
+    }
+
+    /**
+     * 构建对象池
+     *
+     * @param factory
+     *            池对象工厂
+     * @param config
+     *            池配置，构建后修改该配置不会生效
+     */
+    public BoundedObjectPool(PooledObjectFactory<T> factory, PoolConfig config) {
+        Assert.notNull(factory, "factory不能为null");
+        Assert.notNull(config, "config不能为null");
+        Assert.isTrue(config.getMaxSize() > 0, "maxSize必须大于0");
+        Assert.isTrue(config.getMinIdle() >= 0 && config.getMinIdle() <= config.getMaxSize(),
+            "minIdle必须大于等于0并且小于等于maxSize");
+
+        PoolConfig copy = new PoolConfig();
+        copy.setMaxSize(config.getMaxSize());
+        copy.setMinIdle(config.getMinIdle());
+        copy.setMaxWait(config.getMaxWait());
+        copy.setIdleTimeout(config.getIdleTimeout());
+        copy.setEvictionInterval(config.getEvictionInterval());
+        copy.setTestOnBorrow(config.isTestOnBorrow());
+        copy.setTestOnReturn(config.isTestOnReturn());
+
+        this.factory = factory;
+        this.config = copy;
+        this.permits = new Semaphore(copy.getMaxSize(), true);
+
+        if (copy.getEvictionInterval() > 0) {
+            long interval = copy.getEvictionInterval();
+            this.evictorFuture =
+                EvictorHolder.EVICTOR.scheduleWithFixedDelay(this::evict, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.evictorFuture = null;
+        }
+    }
+
+    /**
+     * 获取池对象，池中对象耗尽时最多等待配置的maxWait时间
+     *
+     * @return 池对象，使用完毕后必须调用close归还
+     * @throws PoolException
+     *             等待超时、池已经关闭或者新创建的对象校验失败时抛出该异常
+     * @throws WrapedInterruptedException
+     *             等待时被中断时抛出该异常
+     */
+    @Override
+    public PooledObject<T> get() {
+        return get(config.getMaxWait(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取池对象，池中对象耗尽时最多等待指定时间
+     *
+     * @param timeout
+     *            最大等待时间，小于等于0表示不等待
+     * @param unit
+     *            时间单位
+     * @return 池对象，使用完毕后必须调用close归还
+     * @throws PoolException
+     *             等待超时、池已经关闭或者新创建的对象校验失败时抛出该异常
+     * @throws WrapedInterruptedException
+     *             等待时被中断时抛出该异常
+     */
+    public PooledObject<T> get(long timeout, TimeUnit unit) {
+        checkOpen();
+        processLeaks();
+
+        long start = System.nanoTime();
+        long deadline = start + unit.toNanos(Math.max(timeout, 0));
+        try {
+            acquirePermit(timeout, unit);
+        } finally {
+            totalWaitTime.add(System.nanoTime() - start);
+        }
+
+        T obj;
+        try {
+            // 获取许可已经消耗了一部分等待时间，借出对象时只能使用剩余的时间
+            obj = borrowObject(Math.max(deadline - System.nanoTime(), 0));
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+
+        borrowedCount.increment();
+        Holder<T> holder = new Holder<>(obj, this);
+        LeakReference<T> reference = new LeakReference<>(holder, obj, referenceQueue);
+        holder.reference = reference;
+        leakReferences.add(reference);
+        return holder;
+    }
+
+    /**
+     * 关闭对象池，销毁所有空闲对象，当前借出的对象将在归还时销毁
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (evictorFuture != null) {
+            evictorFuture.cancel(false);
+        }
+        IdleObject<T> idleObject;
+        while ((idleObject = idle.pollFirst()) != null) {
+            destroy(idleObject.object);
+        }
+    }
+
+    /**
+     * 执行一次后台维护：处理泄漏对象、销毁空闲超时的对象、补充最小空闲对象，正常情况下由后台线程定时执行，无需手动调用
+     */
+    public void evict() {
+        if (closed) {
+            return;
+        }
+        try {
+            processLeaks();
+            evictIdle();
+            ensureMinIdle();
+        } catch (Throwable e) {
+            log.warn("对象池后台维护异常", e);
+        }
+    }
+
+    @Override
+    public CacheStats stats() {
+        return statsCounter.snapshot(idle.size());
+    }
+
+    /**
+     * 当前空闲对象数量
+     *
+     * @return 空闲对象数量
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * 当前借出的对象数量
+     *
+     * @return 借出的对象数量
+     */
+    public int getActiveCount() {
+        return config.getMaxSize() - permits.availablePermits();
+    }
+
+    /**
+     * 当前池中的对象总数（包括空闲的和借出的）
+     *
+     * @return 对象总数
+     */
+    public int getTotalCount() {
+        return total.get();
+    }
+
+    /**
+     * 累计借出次数
+     *
+     * @return 累计借出次数
+     */
+    public long getBorrowedCount() {
+        return borrowedCount.sum();
+    }
+
+    /**
+     * 累计归还次数（不包括泄漏的）
+     *
+     * @return 累计归还次数
+     */
+    public long getReturnedCount() {
+        return returnedCount.sum();
+    }
+
+    /**
+     * 累计创建的对象数量
+     *
+     * @return 累计创建的对象数量
+     */
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    /**
+     * 累计销毁的对象数量
+     *
+     * @return 累计销毁的对象数量
+     */
+    public long getDestroyedCount() {
+        return destroyedCount.sum();
+    }
+
+    /**
+     * 累计检测到的泄漏对象数量
+     *
+     * @return 累计泄漏对象数量
+     */
+    public long getLeakedCount() {
+        return leakedCount.sum();
+    }
+
+    /**
+     * 获取对象时的累计等待时间
+     *
+     * @param unit
+     *            时间单位
+     * @return 累计等待时间
+     */
+    public long getTotalWaitTime(TimeUnit unit) {
+        return unit.convert(totalWaitTime.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 获取借出许可
+     *
+     * @param timeout
+     *            最大等待时间
+     * @param unit
+     *            时间单位
+     */
+    private void acquirePermit(long timeout, TimeUnit unit) {
+        boolean acquired;
+        try {
+            acquired = timeout <= 0 ? permits.tryAcquire() : permits.tryAcquire(timeout, unit);
+        } catch (InterruptedException e) {
+            throw new WrapedInterruptedException(e);
+        }
+
+        if (!acquired) {
+            // 可能有泄漏的对象还没有处理，处理后再尝试一次
+            processLeaks();
+            acquired = permits.tryAcquire();
+        }
+
+        if (!acquired) {
+            throw new PoolException("获取池对象超时，当前池最大容量：" + config.getMaxSize());
+        }
+        if (closed) {
+            permits.release();
+            throw new PoolException("对象池已经关闭");
+        }
+    }
+
+    /**
+     * 已经获取到借出许可后借出对象，优先使用空闲对象，没有空闲对象时创建
+     *
+     * @param timeout
+     *            后台线程正在补充空闲对象导致总数已满时等待空闲对象的最大时间，单位纳秒
+     * @return 池对象
+     */
+    private T borrowObject(long timeout) {
+        long deadline = System.nanoTime() + timeout;
+        for (;;) {
+            IdleObject<T> idleObject = idle.pollFirst();
+            boolean create = idleObject == null;
+            T obj;
+
+            if (!create) {
+                obj = idleObject.object;
+                statsCounter.recordHit();
+            } else if (tryReserve()) {
+                statsCounter.recordMiss();
+                obj = create();
+            } else {
+                // 已经持有许可但是总数已满，说明后台线程刚好补充了空闲对象或者正在销毁对象，稍等后重试
+                try {
+                    idleObject = idle.pollFirst(Math.min(Math.max(deadline - System.nanoTime(), 0),
+                        TimeUnit.MILLISECONDS.toNanos(10)), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    throw new WrapedInterruptedException(e);
+                }
+                if (idleObject != null) {
+                    idle.offerFirst(idleObject);
+                } else if (System.nanoTime() - deadline > 0 && total.get() >= config.getMaxSize()) {
+                    throw new PoolException("获取池对象超时，当前池最大容量：" + config.getMaxSize());
+                }
+                continue;
+            }
+
+            if (!config.isTestOnBorrow() || validate(obj)) {
+                return obj;
+            }
+
+            destroy(obj);
+            if (create) {
+                throw new PoolException("新创建的池对象校验失败");
+            }
+        }
+    }
+
+    /**
+     * 归还对象
+     *
+     * @param obj
+     *            对象
+     * @param reference
+     *            对象对应的泄漏检测引用
+     */
+    private void giveBack(T obj, LeakReference<T> reference) {
+        leakReferences.remove(reference);
+        reference.clear();
+
+        try {
+            if (closed || (config.isTestOnReturn() && !validate(obj))) {
+                destroy(obj);
+            } else {
+                idle.offerFirst(new IdleObject<>(obj, System.nanoTime()));
+            }
+            returnedCount.increment();
+        } finally {
+            permits.release();
+        }
+
+        // 防止归还时池刚好被关闭，导致对象残留
+        if (closed) {
+            IdleObject<T> idleObject;
+            while ((idleObject = idle.pollFirst()) != null) {
+                destroy(idleObject.object);
+            }
+        }
+    }
+
+    /**
+     * 处理已经泄漏（未关闭就被GC回收）的借出对象
+     */
+    @SuppressWarnings("unchecked")
+    private void processLeaks() {
+        LeakReference<T> reference;
+        while ((reference = (LeakReference<T>)referenceQueue.poll()) != null) {
+            if (leakReferences.remove(reference)) {
+                leakedCount.increment();
+                log.warn("检测到池对象泄漏，借出的PooledObject未关闭就被回收，池对象[{}]将被销毁", reference.object);
+                destroy(reference.object);
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * 销毁空闲超时的对象，保留至少minIdle个空闲对象
+     */
+    private void evictIdle() {
+        long idleTimeout = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeout());
+        if (idleTimeout <= 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        IdleObject<T> idleObject;
+        while (idle.size() > config.getMinIdle() && (idleObject = idle.peekLast()) != null) {
+            if (now - idleObject.returnTime < idleTimeout) {
+                return;
+            }
+            if (idle.removeLastOccurrence(idleObject)) {
+                destroy(idleObject.object);
+            }
+        }
+    }
+
+    /**
+     * 补充空闲对象，保证至少有minIdle个空闲对象
+     */
+    private void ensureMinIdle() {
+        while (!closed && idle.size() < config.getMinIdle() && tryReserve()) {
+            T obj;
+            try {
+                obj = create();
+            } catch (Throwable e) {
+                log.warn("补充空闲对象时创建对象异常", e);
+                return;
+            }
+            idle.offerLast(new IdleObject<>(obj, System.nanoTime()));
+        }
+    }
+
+    /**
+     * 预占一个对象总数名额
+     *
+     * @return 返回true表示预占成功，此时必须创建对象或者调用total.decrementAndGet()释放名额
+     */
+    private boolean tryReserve() {
+        for (;;) {
+            int current = total.get();
+            if (current >= config.getMaxSize()) {
+                return false;
+            }
+            if (total.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 创建对象，调用前必须已经预占了名额，创建失败时释放名额
+     *
+     * @return 新创建的对象
+     */
+    private T create() {
+        long start = System.nanoTime();
+        T obj;
+        try {
+            obj = factory.create();
+            Assert.notNull(obj, "池对象工厂创建的对象不能为null");
+        } catch (RuntimeException | Error e) {
+            total.decrementAndGet();
+            throw e;
+        }
+        statsCounter.recordLoad(System.nanoTime() - start);
+        createdCount.increment();
+        return obj;
+    }
+
+    /**
+     * 校验对象，校验异常视为校验失败
+     *
+     * @param obj
+     *            对象
+     * @return 返回true表示可用
+     */
+    private boolean validate(T obj) {
+        try {
+            return factory.validate(obj);
+        } catch (Throwable e) {
+            log.warn("池对象[{}]校验异常", obj, e);
+            return false;
+        }
+    }
+
+    /**
+     * 销毁对象，销毁异常将被忽略
+     *
+     * @param obj
+     *            对象
+     */
+    private void destroy(T obj) {
+        total.decrementAndGet();
+        destroyedCount.increment();
+        statsCounter.recordEviction(1);
+        try {
+            factory.destroy(obj);
+        } catch (Throwable e) {
+            log.warn("池对象[{}]销毁异常，忽略该异常", obj, e);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new PoolException("对象池已经关闭");
+        }
+    }
+
+    /**
+     * 空闲对象
+     *
+     * @param <T>
+     *            对象类型
+     */
+    private static final class IdleObject<T> {
+
+        private final T object;
+
+        /**
+         * 归还时间，System.nanoTime()
+         */
+        private final long returnTime;
+
+        private IdleObject(T object, long returnTime) {
+            this.object = object;
+            this.returnTime = returnTime;
+        }
+    }
+
+    /**
+     * 泄漏检测引用，引用借出的{@link Holder}，同时持有池对象本身，Holder被回收时可以通过该引用销毁池对象
+     *
+     * @param <T>
+     *            对象类型
+     */
+    private static final class LeakReference<T> extends PhantomReference<Holder<T>> {
+
+        private final T object;
+
+        private LeakReference(Holder<T> referent, T object, ReferenceQueue<? super Holder<T>> queue) {
+            super(referent, queue);
+            this.object = object;
+        }
+    }
+
+    /**
+     * 借出对象的持有者，用户使用完后必须调用close方法归还
+     *
+     * @param <T>
+     *            对象类型
+     */
+    private static final class Holder<T> implements PooledObject<T> {
+
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        private final BoundedObjectPool<T> pool;
+
+        private volatile T data;
+
+        private LeakReference<T> reference;
+
+        private Holder(T data, BoundedObjectPool<T> pool) {
+            this.data = data;
+            this.pool = pool;
+        }
+
+        @Override
+        public T get() {
+            T obj = data;
+            if (obj == null) {
+                throw new PoolObjectHolderClosedException("PooledObject has bean closed");
+            }
+            return obj;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                T obj = data;
+                data = null;
+                pool.giveBack(obj, reference);
+            }
+        }
+    }
+
+    /**
+     * 所有对象池共享的后台线程，延迟初始化
+     */
+    private static final class EvictorHolder {
+
+        private static final ScheduledExecutorService EVICTOR =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "bounded-object-pool-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+}
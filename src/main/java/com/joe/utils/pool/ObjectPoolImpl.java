@@ -5,6 +5,9 @@ import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
+import com.joe.utils.collection.cache.CacheStats;
+import com.joe.utils.collection.cache.Statistical;
+import com.joe.utils.collection.cache.StatsCounter;
 import com.joe.utils.exception.PoolObjectHolderClosedException;
 import com.joe.utils.secure.impl.SignatureUtilImpl;
 
@@ -12,11 +15,16 @@ import com.joe.utils.secure.impl.SignatureUtilImpl;
  * Object池，从Object池中获取到的数据使用完后应该调用close关闭归还池，对象池大小上限为{@link Integer#MAX_VALUE}
  * <p>
  * 主要用于缓存一些有状态、同一时间只能一个客户端使用但是可以多次使用的对象，例如{@link SignatureUtilImpl SignatureUtilImpl}类
+ * <p>
+ * 统计信息中命中表示从池中取到了空闲对象，未命中表示新建了对象，淘汰表示通过clear清理的对象，size为空闲对象数
+ * <p>
+ * 可以通过{@link #ObjectPoolImpl(Supplier, StatsCounter, boolean)}开启线程本地优先的快速模式（参见{@link ThreadLocalPool
+ * ThreadLocalPool}），该模式下借出和归还都是无锁并且不分配对象的，适合高频短时间借用的场景，但是PooledObject关闭后禁止再使用
  *
  * @author joe
  * @version 2018.06.28 16:32
  */
-public class ObjectPoolImpl<T> {
+public class ObjectPoolImpl<T> implements ObjectPool<T>, Statistical {
     /**
      * 池的最大大小
      */
@@ -32,6 +40,12 @@ public class ObjectPoolImpl<T> {
      */
     private Deque<T> pool;
     private Supplier<T> function;
+    private StatsCounter statsCounter;
+
+    /**
+     * 快速模式下的实际对象池，非快速模式时为null
+     */
+    private ThreadLocalPool<T> fastPool;
 
     /**
      * Object池
@@ -40,8 +54,39 @@ public class ObjectPoolImpl<T> {
      *            创建新Object元素的函数，池中的元素将使用该函数创建
      */
     public ObjectPoolImpl(Supplier<T> function) {
-        this.pool = new LinkedBlockingDeque<>();
+        this(function, new StatsCounter());
+    }
+
+    /**
+     * Object池
+     *
+     * @param function
+     *            创建新Object元素的函数，池中的元素将使用该函数创建
+     * @param statsCounter
+     *            统计计数器，多个池可以共享同一个计数器以便汇总统计
+     */
+    public ObjectPoolImpl(Supplier<T> function, StatsCounter statsCounter) {
+        this(function, statsCounter, false);
+    }
+
+    /**
+     * Object池
+     *
+     * @param function
+     *            创建新Object元素的函数，池中的元素将使用该函数创建
+     * @param statsCounter
+     *            统计计数器，多个池可以共享同一个计数器以便汇总统计
+     * @param threadLocalFirst
+     *            是否使用线程本地优先的快速模式，快速模式下PooledObject会被复用，关闭后禁止再使用（包括再次关闭）
+     */
+    public ObjectPoolImpl(Supplier<T> function, StatsCounter statsCounter, boolean threadLocalFirst) {
         this.function = function;
+        this.statsCounter = statsCounter;
+        if (threadLocalFirst) {
+            this.fastPool = new ThreadLocalPool<>(function, statsCounter);
+        } else {
+            this.pool = new LinkedBlockingDeque<>();
+        }
     }
 
     /**
@@ -49,10 +94,20 @@ public class ObjectPoolImpl<T> {
      *
      * @return 池元素
      */
+    @Override
     public PooledObject<T> get() {
+        if (fastPool != null) {
+            return fastPool.get();
+        }
+
         T data = pool.pollLast();
         if (data == null) {
+            statsCounter.recordMiss();
+            long start = System.nanoTime();
             data = function.get();
+            statsCounter.recordLoad(System.nanoTime() - start);
+        } else {
+            statsCounter.recordHit();
         }
 
         return new PooledObjectImpl<>(data, pool);
@@ -64,11 +119,11 @@ public class ObjectPoolImpl<T> {
      * @return 当前池的size（空闲元素的size）
      */
     public int freeSize() {
-        return pool.size();
+        return fastPool == null ? pool.size() : fastPool.freeSize();
     }
 
     /**
-     * 清理当前池中的指定个数元素
+     * 清理当前池中的指定个数元素，快速模式下其他线程本地槽位中的元素不会被清理
      *
      * @param size
      *            大小
@@ -77,8 +132,14 @@ public class ObjectPoolImpl<T> {
         if (size <= 0) {
             return;
         }
+        if (fastPool != null) {
+            statsCounter.recordEviction(fastPool.clear(size));
+            return;
+        }
         while (size-- > 0) {
-            pool.pollLast();
+            if (pool.pollLast() != null) {
+                statsCounter.recordEviction(1);
+            }
         }
     }
 
@@ -89,6 +150,11 @@ public class ObjectPoolImpl<T> {
         clear(freeSize());
     }
 
+    @Override
+    public CacheStats stats() {
+        return statsCounter.snapshot(freeSize());
+    }
+
     /**
      * 池元素持有者，用户使用完后应该调用close方法归还
      *
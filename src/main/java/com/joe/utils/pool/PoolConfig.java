@@ -0,0 +1,48 @@
+package com.joe.utils.pool;
+
+import lombok.Data;
+
+/**
+ * {@link BoundedObjectPool BoundedObjectPool}配置
+ *
+ * @author JoeKerouac
+ * @version 2019年11月26日 10:15
+ */
+@Data
+public class PoolConfig {
+
+    /**
+     * 池中对象的最大数量（包括空闲和借出的），必须大于0
+     */
+    private int maxSize = 8;
+
+    /**
+     * 池中最少保持的空闲对象数量，由后台线程补充，不能大于maxSize
+     */
+    private int minIdle = 0;
+
+    /**
+     * 池中对象耗尽时获取对象的最大等待时间，单位毫秒，小于等于0表示不等待
+     */
+    private long maxWait = 1000;
+
+    /**
+     * 空闲对象的最大空闲时间，超过该时间并且空闲对象数量大于minIdle时会被后台线程销毁，单位毫秒，小于等于0表示不销毁
+     */
+    private long idleTimeout = 60 * 1000;
+
+    /**
+     * 后台线程（空闲对象淘汰、补充最小空闲对象、泄漏检测）的执行间隔，单位毫秒，小于等于0表示不启动后台线程
+     */
+    private long evictionInterval = 30 * 1000;
+
+    /**
+     * 借出时是否校验对象
+     */
+    private boolean testOnBorrow = false;
+
+    /**
+     * 归还时是否校验对象
+     */
+    private boolean testOnReturn = false;
+}
@@ -0,0 +1,36 @@
+package com.joe.utils.pool;
+
+/**
+ * 池对象工厂，负责池对象的创建、校验和销毁
+ *
+ * @author JoeKerouac
+ * @version 2019年11月26日 10:10
+ */
+public interface PooledObjectFactory<T> {
+
+    /**
+     * 创建一个新的池对象
+     *
+     * @return 池对象，不能为null
+     */
+    T create();
+
+    /**
+     * 校验池对象是否可用，校验失败的对象将会被销毁
+     *
+     * @param obj
+     *            池对象
+     * @return true表示可用
+     */
+    default boolean validate(T obj) {
+        return true;
+    }
+
+    /**
+     * 销毁池对象，禁止抛出异常
+     *
+     * @param obj
+     *            池对象
+     */
+    default void destroy(T obj) {}
+}
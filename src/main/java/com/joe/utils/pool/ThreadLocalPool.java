@@ -0,0 +1,284 @@
+package com.joe.utils.pool;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.joe.utils.collection.cache.StatsCounter;
+import com.joe.utils.exception.PoolObjectHolderClosedException;
+
+/**
+ * 线程本地优先的无锁对象池，{@link ObjectPoolImpl ObjectPoolImpl}快速模式的实现：
+ *
+ * <ul>
+ * <li>每个线程有一个本地槽位，归还时优先放入当前线程的槽位，获取时优先从当前线程的槽位获取，同一个线程反复借还时不会有任何竞争</li>
+ * <li>本地槽位已被占用时放入共享的无锁栈（Treiber栈），栈顶使用“版本号 + 下标”编码在一个long中，避免ABA问题且无需分配节点</li>
+ * <li>持有者（{@link PooledObject}）本身复用，借出和归还都不会分配对象</li>
+ * </ul>
+ *
+ * 注意：由于持有者会被复用，关闭后禁止再使用（包括再次关闭），否则可能影响其他借用者；另外其他线程本地槽位中的对象无法被
+ * {@link #clear(int)}清理，线程结束后随线程一起回收。
+ *
+ * @param <T>
+ *            池对象类型
+ * @author JoeKerouac
+ * @version 2019年11月27日 10:20
+ */
+final class ThreadLocalPool<T> {
+
+    /**
+     * 栈为空时的栈顶下标
+     */
+    private static final int EMPTY = 0;
+
+    private final Supplier<T> function;
+
+    private final StatsCounter statsCounter;
+
+    /**
+     * 线程本地槽位
+     */
+    private final ThreadLocal<Slot<T>> slots = ThreadLocal.withInitial(Slot::new);
+
+    /**
+     * 空闲持有者栈的栈顶，高32位是版本号，低32位是栈顶持有者下标 + 1（0表示栈为空）
+     */
+    private final AtomicLong top = new AtomicLong();
+
+    /**
+     * 已经清理掉数据的持有者栈的栈顶，编码同{@link #top}，创建新对象时优先复用这些持有者
+     */
+    private final AtomicLong retiredTop = new AtomicLong();
+
+    /**
+     * 空闲对象数量（包括线程本地槽位中的）
+     */
+    private final LongAdder free = new LongAdder();
+
+    /**
+     * 所有创建过的持有者，下标就是持有者的index，只在持有{@link #lock}时写入
+     */
+    private volatile Holder<T>[] holders;
+
+    private int holderCount;
+
+    private final Object lock = new Object();
+
+    @SuppressWarnings("unchecked")
+    ThreadLocalPool(Supplier<T> function, StatsCounter statsCounter) {
+        this.function = function;
+        this.statsCounter = statsCounter;
+        this.holders = new Holder[16];
+    }
+
+    /**
+     * 获取一个池元素，如果没有则会创建
+     *
+     * @return 池元素
+     */
+    PooledObject<T> get() {
+        Slot<T> slot = slots.get();
+        Holder<T> holder = slot.holder;
+        if (holder != null) {
+            slot.holder = null;
+        } else {
+            holder = pop(top);
+        }
+
+        if (holder != null) {
+            free.decrement();
+            statsCounter.recordHit();
+        } else {
+            statsCounter.recordMiss();
+            long start = System.nanoTime();
+            T data = function.get();
+            statsCounter.recordLoad(System.nanoTime() - start);
+            holder = holder(data);
+        }
+
+        holder.state = Holder.BORROWED;
+        return holder;
+    }
+
+    /**
+     * 当前空闲元素数量，该值随时会变
+     *
+     * @return 空闲元素数量
+     */
+    int freeSize() {
+        return (int)Math.max(free.sum(), 0);
+    }
+
+    /**
+     * 清理空闲元素，只能清理当前线程本地槽位和共享栈中的元素
+     *
+     * @param size
+     *            最多清理的数量
+     * @return 实际清理的数量
+     */
+    int clear(int size) {
+        int count = 0;
+        Slot<T> slot = slots.get();
+        if (size > 0 && slot.holder != null) {
+            retire(slot.holder);
+            slot.holder = null;
+            count++;
+        }
+
+        Holder<T> holder;
+        while (count < size && (holder = pop(top)) != null) {
+            retire(holder);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 归还持有者
+     *
+     * @param holder
+     *            持有者
+     */
+    private void giveBack(Holder<T> holder) {
+        free.increment();
+        Slot<T> slot = slots.get();
+        if (slot.holder == null) {
+            slot.holder = holder;
+        } else {
+            push(top, holder);
+        }
+    }
+
+    /**
+     * 清理持有者中的数据并放入已清理栈
+     *
+     * @param holder
+     *            持有者
+     */
+    private void retire(Holder<T> holder) {
+        free.decrement();
+        holder.data = null;
+        push(retiredTop, holder);
+    }
+
+    /**
+     * 获取一个持有者持有指定数据，优先复用已清理的持有者
+     *
+     * @param data
+     *            数据
+     * @return 持有者
+     */
+    private Holder<T> holder(T data) {
+        Holder<T> holder = pop(retiredTop);
+        if (holder != null) {
+            holder.data = data;
+            return holder;
+        }
+
+        synchronized (lock) {
+            Holder<T>[] array = holders;
+            if (holderCount == array.length) {
+                @SuppressWarnings("unchecked")
+                Holder<T>[] newArray = new Holder[array.length << 1];
+                System.arraycopy(array, 0, newArray, 0, array.length);
+                array = newArray;
+            }
+            holder = new Holder<>(holderCount, data, this);
+            array[holderCount++] = holder;
+            holders = array;
+        }
+        return holder;
+    }
+
+    private void push(AtomicLong stack, Holder<T> holder) {
+        for (;;) {
+            long current = stack.get();
+            holder.next = (int)current;
+            long update = (((current >>> 32) + 1) << 32) | ((holder.index + 1) & 0xFFFFFFFFL);
+            if (stack.compareAndSet(current, update)) {
+                return;
+            }
+        }
+    }
+
+    private Holder<T> pop(AtomicLong stack) {
+        for (;;) {
+            long current = stack.get();
+            int index = (int)current;
+            if (index == EMPTY) {
+                return null;
+            }
+            // 栈中的持有者一定在入栈前已经发布到holders中，入栈的CAS保证了可见性
+            Holder<T> holder = holders[index - 1];
+            long update = (((current >>> 32) + 1) << 32) | (holder.next & 0xFFFFFFFFL);
+            if (stack.compareAndSet(current, update)) {
+                return holder;
+            }
+        }
+    }
+
+    /**
+     * 线程本地槽位
+     *
+     * @param <T>
+     *            池对象类型
+     */
+    private static final class Slot<T> {
+        private Holder<T> holder;
+    }
+
+    /**
+     * 可复用的池元素持有者，用户使用完后应该调用close方法归还
+     *
+     * @param <T>
+     *            池对象类型
+     */
+    private static final class Holder<T> implements PooledObject<T> {
+
+        private static final int IDLE = 0;
+
+        private static final int BORROWED = 1;
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Holder> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Holder.class, "state");
+
+        /**
+         * 持有者在{@link ThreadLocalPool#holders}中的下标
+         */
+        private final int index;
+
+        private final ThreadLocalPool<T> pool;
+
+        private T data;
+
+        /**
+         * 栈中下一个持有者的下标 + 1，只在入栈出栈时使用
+         */
+        private int next;
+
+        private volatile int state;
+
+        private Holder(int index, T data, ThreadLocalPool<T> pool) {
+            this.index = index;
+            this.data = data;
+            this.pool = pool;
+        }
+
+        @Override
+        public T get() {
+            if (state != BORROWED) {
+                throw new PoolObjectHolderClosedException("PooledObject has bean closed");
+            }
+            return data;
+        }
+
+        @Override
+        public void close() {
+            if (STATE.compareAndSet(this, BORROWED, IDLE)) {
+                pool.giveBack(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.joe.utils.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.DefaultByteBufHolder;
+
+/**
+ * 基于netty的{@link ByteBuf}的数据报，格式与{@link Datagram}完全一致，区别在于：
+ * <ul>
+ * <li>直接持有包含报头的完整数据报缓冲区，报头字段在缓冲区上原地读取，不会复制数据</li>
+ * <li>通过{@link #body()}、{@link #retainedBody()}以切片的方式访问body，不会复制数据</li>
+ * <li>使用引用计数管理生命周期，使用完毕后必须调用{@link #release()}释放</li>
+ * </ul>
+ * 通过{@link DatagramCodec}构建、解析，线程不安全
+ *
+ * @author JoeKerouac
+ * @version 2019年12月04日 10:00
+ */
+public class ByteBufDatagram extends DefaultByteBufHolder {
+
+    /**
+     * ID字段起始位置
+     */
+    static final int ID_OFFSET = DatagramConst.Position.CHARSET_OFFSET + DatagramConst.Position.CHARSET_MAX;
+
+    /**
+     * ID字段长度
+     */
+    static final int ID_LEN = DatagramConst.Position.HEADER_LEN - ID_OFFSET;
+
+    /**
+     * body的长度
+     */
+    private final int size;
+
+    /**
+     * 字符集，第一次使用时解析
+     */
+    private String charset;
+
+    /**
+     * 初始化数据报，content的可读部分必须恰好是一个完整的数据报
+     *
+     * @param content
+     *            包含报头的完整数据报
+     */
+    ByteBufDatagram(ByteBuf content) {
+        super(content);
+        this.size = content.getInt(content.readerIndex() + DatagramConst.Position.LEN_OFFSET);
+    }
+
+    /**
+     * body长度，不包含报头
+     *
+     * @return body长度
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 数据报版本
+     *
+     * @return 数据报版本
+     */
+    public byte version() {
+        return content().getByte(content().readerIndex() + DatagramConst.Position.VERSION_INDEX);
+    }
+
+    /**
+     * 数据报数据类型
+     *
+     * @return 数据报数据类型
+     */
+    public byte type() {
+        return content().getByte(content().readerIndex() + DatagramConst.Position.TYPE_INDEX);
+    }
+
+    /**
+     * 数据报body的编码
+     *
+     * @return 数据报body的编码
+     */
+    public String charset() {
+        if (charset == null) {
+            charset = DatagramCodec.readCharset(content(), content().readerIndex());
+        }
+        return charset;
+    }
+
+    /**
+     * 数据报ID（40字节，不足的后边补零）的切片，与数据报共享数据，不会增加引用计数
+     *
+     * @return 数据报ID
+     */
+    public ByteBuf id() {
+        return content().slice(content().readerIndex() + ID_OFFSET, ID_LEN);
+    }
+
+    /**
+     * 获取数据报ID（40字节，不足的后边补零）的副本
+     *
+     * @return 数据报ID
+     */
+    public byte[] getId() {
+        return ByteBufUtil.getBytes(content(), content().readerIndex() + ID_OFFSET, ID_LEN);
+    }
+
+    /**
+     * 数据报body的切片，与数据报共享数据，不会增加引用计数，数据报释放后不能再使用
+     *
+     * @return 数据报body
+     */
+    public ByteBuf body() {
+        return content().slice(content().readerIndex() + DatagramConst.Position.HEADER_LEN, size);
+    }
+
+    /**
+     * 数据报body的切片，与数据报共享数据，引用计数加一，使用完毕后需要调用方释放
+     *
+     * @return 数据报body
+     */
+    public ByteBuf retainedBody() {
+        return content().retainedSlice(content().readerIndex() + DatagramConst.Position.HEADER_LEN, size);
+    }
+
+    /**
+     * 是否需要ACK
+     *
+     * @return 返回true表示需要ACK
+     */
+    public boolean ack() {
+        return Datagram.shouldAck(type());
+    }
+
+    /**
+     * 转换为基于byte数组的{@link Datagram}（会复制数据），转换后不影响当前数据报的引用计数
+     *
+     * @return 基于byte数组的数据报
+     */
+    public Datagram toDatagram() {
+        return new Datagram(ByteBufUtil.getBytes(content()), size, version(), charset(), type(), getId(), false);
+    }
+
+    @Override
+    public ByteBufDatagram copy() {
+        return (ByteBufDatagram)super.copy();
+    }
+
+    @Override
+    public ByteBufDatagram duplicate() {
+        return (ByteBufDatagram)super.duplicate();
+    }
+
+    @Override
+    public ByteBufDatagram retainedDuplicate() {
+        return (ByteBufDatagram)super.retainedDuplicate();
+    }
+
+    @Override
+    public ByteBufDatagram replace(ByteBuf content) {
+        return new ByteBufDatagram(content);
+    }
+
+    @Override
+    public ByteBufDatagram retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public ByteBufDatagram retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+
+    @Override
+    public ByteBufDatagram touch() {
+        super.touch();
+        return this;
+    }
+
+    @Override
+    public ByteBufDatagram touch(Object hint) {
+        super.touch(hint);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "ByteBufDatagram(size=" + size + ", version=" + version() + ", type=" + type() + ", content="
+               + contentToString() + ")";
+    }
+}
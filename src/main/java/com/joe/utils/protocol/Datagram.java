@@ -79,11 +79,35 @@ public class Datagram {
      *            数据报的ID
      */
     Datagram(byte[] data, int size, byte version, String charset, byte type, byte[] id) {
+        this(data, size, version, charset, type, id, true);
+    }
+
+    /**
+     * 初始化数据报，不会对入参进行校验，默认认为入参是正确的
+     *
+     * @param data
+     *            包含头信息的data
+     * @param size
+     *            该长度不包含头信息的长度，只有body的长度
+     * @param version
+     *            数据报版本号
+     * @param charset
+     *            字符集
+     * @param type
+     *            数据报数据类型（1：接口请求）
+     * @param id
+     *            数据报的ID
+     * @param copy
+     *            是否复制data，data是新建的、不会被其他地方修改的数组时可以传false
+     */
+    Datagram(byte[] data, int size, byte version, String charset, byte type, byte[] id, boolean copy) {
         if (data == null) {
             this.data = EMPTY_DATA;
-        } else {
+        } else if (copy) {
             this.data = new byte[data.length];
             System.arraycopy(data, 0, this.data, 0, data.length);
+        } else {
+            this.data = data;
         }
 
         this.size = size;
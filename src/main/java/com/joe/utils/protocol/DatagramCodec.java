@@ -0,0 +1,213 @@
+package com.joe.utils.protocol;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.joe.utils.common.Assert;
+import com.joe.utils.protocol.exception.DataOutOfMemory;
+import com.joe.utils.protocol.exception.IllegalDataException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * 基于netty的{@link ByteBuf}的数据报编解码，与{@link DatagramUtil}生成的数据报格式完全一致，可以互相解析：
+ * <ul>
+ * <li>编码时直接写入池化的直接内存缓冲区，ID直接以十六进制字符写入缓冲区，不会创建中间数组、字符串</li>
+ * <li>解码时报头在缓冲区上原地读取，数据报是输入缓冲区的切片（引用计数加一），不会复制数据</li>
+ * </ul>
+ * 返回的{@link ByteBufDatagram}使用完毕后必须释放
+ *
+ * @author JoeKerouac
+ * @version 2019年12月04日 10:30
+ */
+public class DatagramCodec {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    /**
+     * 随机生成的ID的长度（32个十六进制字符，与去掉-的UUID相同），剩余的用0填充
+     */
+    static final int RANDOM_ID_LEN = 32;
+
+    /**
+     * 数据报数据除去请求头的最大长度
+     */
+    private static final int BODY_MAX_LENGTH =
+        DatagramConst.Position.MAX_LENGTH - DatagramConst.Position.HEADER_LEN;
+
+    /**
+     * 根据要发送的数据构建数据报（编码采用当前系统默认编码），数据写入池化的直接内存缓冲区
+     *
+     * @param body
+     *            要发送的数据，可以为null
+     * @param type
+     *            数据报类型
+     * @param version
+     *            数据报版本
+     * @return 数据报，使用完毕后需要释放
+     * @throws DataOutOfMemory
+     *             当数据长度过长时会抛出该异常
+     */
+    public static ByteBufDatagram build(byte[] body, byte type, byte version) throws DataOutOfMemory {
+        return build(PooledByteBufAllocator.DEFAULT, body, type, version);
+    }
+
+    /**
+     * 根据要发送的数据构建数据报（编码采用当前系统默认编码），数据写入指定分配器分配的直接内存缓冲区
+     *
+     * @param allocator
+     *            缓冲区分配器
+     * @param body
+     *            要发送的数据，可以为null
+     * @param type
+     *            数据报类型
+     * @param version
+     *            数据报版本
+     * @return 数据报，使用完毕后需要释放
+     * @throws DataOutOfMemory
+     *             当数据长度过长时会抛出该异常
+     */
+    public static ByteBufDatagram build(ByteBufAllocator allocator, byte[] body, byte type, byte version)
+        throws DataOutOfMemory {
+        Assert.notNull(allocator, "allocator不能为null");
+        int len = body == null ? 0 : body.length;
+        checkLength(len);
+        ByteBuf buf = allocator.directBuffer(DatagramConst.Position.HEADER_LEN + len);
+        writeHeader(buf, len, type, version);
+        if (len != 0) {
+            buf.writeBytes(body);
+        }
+        return new ByteBufDatagram(buf);
+    }
+
+    /**
+     * 根据要发送的数据构建数据报（编码采用当前系统默认编码），body不会被复制：报头写入单独的池化直接内存缓冲区，然后与body组合为
+     * {@link CompositeByteBuf}；body的所有权转移给返回的数据报，数据报释放时body同时释放
+     *
+     * @param body
+     *            要发送的数据（可读部分），不能为null
+     * @param type
+     *            数据报类型
+     * @param version
+     *            数据报版本
+     * @return 数据报，使用完毕后需要释放
+     * @throws DataOutOfMemory
+     *             当数据长度过长时会抛出该异常
+     */
+    public static ByteBufDatagram build(ByteBuf body, byte type, byte version) throws DataOutOfMemory {
+        Assert.notNull(body, "body不能为null");
+        int len = body.readableBytes();
+        checkLength(len);
+        ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+        ByteBuf header = allocator.directBuffer(DatagramConst.Position.HEADER_LEN);
+        writeHeader(header, len, type, version);
+        CompositeByteBuf buf = allocator.compositeDirectBuffer(2);
+        buf.addComponents(true, header, body);
+        return new ByteBufDatagram(buf);
+    }
+
+    /**
+     * 写入报头（字符集为当前系统默认字符集，ID随机生成）
+     *
+     * @param out
+     *            输出缓冲区
+     * @param bodyLen
+     *            body长度
+     * @param type
+     *            数据报类型
+     * @param version
+     *            数据报版本
+     */
+    public static void writeHeader(ByteBuf out, int bodyLen, byte type, byte version) {
+        // 一个字节的版本号
+        out.writeByte(version);
+        // 四个字节的body长度，大端序
+        out.writeInt(bodyLen);
+        // 一个字节的数据类型
+        out.writeByte(type);
+        // 十个字节的字符集，不足十个字节的用0填充
+        out.writeBytes(DatagramUtil.DEFAULT_CHARSET_DATA);
+        // 四十个字节的ID，不足四十个字节的用0填充
+        writeId(out);
+    }
+
+    /**
+     * 从缓冲区中解析一个数据报，缓冲区中的数据必须包含一个完整的数据报，解析后缓冲区的readerIndex位于该数据报之后；返回的数据报是缓冲
+     * 区的切片，不会复制数据，引用计数加一，调用方仍然需要释放输入缓冲区
+     *
+     * @param in
+     *            数据
+     * @return 数据报，使用完毕后需要释放
+     * @throws IllegalDataException
+     *             数据不完整时抛出该异常
+     */
+    public static ByteBufDatagram decode(ByteBuf in) throws IllegalDataException {
+        Assert.notNull(in, "in不能为null");
+        int readable = in.readableBytes();
+        if (readable < DatagramConst.Position.HEADER_LEN) {
+            throw new IllegalDataException("数据报报头不完整，当前可读长度：" + readable);
+        }
+        int len = in.getInt(in.readerIndex() + DatagramConst.Position.LEN_OFFSET);
+        if (len < 0 || len > readable - DatagramConst.Position.HEADER_LEN) {
+            throw new IllegalDataException(
+                "数据报head中的长度字段为：" + len + "，数据报body的实际长度为：" + (readable - DatagramConst.Position.HEADER_LEN));
+        }
+        return new ByteBufDatagram(in.readRetainedSlice(DatagramConst.Position.HEADER_LEN + len));
+    }
+
+    /**
+     * 读取报头中的字符集
+     *
+     * @param buf
+     *            数据
+     * @param start
+     *            数据报起始位置
+     * @return 字符集
+     */
+    static String readCharset(ByteBuf buf, int start) {
+        int offset = start + DatagramConst.Position.CHARSET_OFFSET;
+        byte[] defaultCharset = DatagramUtil.DEFAULT_CHARSET_DATA;
+        int len = 0;
+        boolean isDefault = true;
+        for (; len < DatagramConst.Position.CHARSET_MAX; len++) {
+            byte b = buf.getByte(offset + len);
+            if (b == 0) {
+                break;
+            }
+            isDefault &= b == defaultCharset[len];
+        }
+        if (isDefault && (len == DatagramConst.Position.CHARSET_MAX || defaultCharset[len] == 0)) {
+            return DatagramUtil.DEFAULT_CHARSET;
+        }
+        byte[] data = new byte[len];
+        buf.getBytes(offset, data);
+        return new String(data);
+    }
+
+    /**
+     * 写入随机ID：32个小写十六进制字符，不足40字节的后边补零
+     *
+     * @param out
+     *            输出缓冲区
+     */
+    static void writeId(ByteBuf out) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        writeHex(out, random.nextLong());
+        writeHex(out, random.nextLong());
+        out.writeZero(ByteBufDatagram.ID_LEN - RANDOM_ID_LEN);
+    }
+
+    private static void writeHex(ByteBuf out, long value) {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            out.writeByte(HEX[(int)(value >>> shift) & 0xF]);
+        }
+    }
+
+    private static void checkLength(int len) {
+        if (len > BODY_MAX_LENGTH) {
+            throw new DataOutOfMemory(String.format("数据长度超过最大值%d", BODY_MAX_LENGTH));
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.joe.utils.protocol;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.joe.utils.common.Assert;
+import com.joe.utils.protocol.exception.DataOutOfMemory;
+import com.joe.utils.protocol.exception.IllegalDataException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * 增量式的数据报解码器，用于解析socket等流式数据：每次传入任意长度的数据片段，返回其中已经完整的数据报（0个或多个），不完整的部分
+ * 缓存起来等待后续数据
+ * <p>
+ * 缓存的数据片段不会被合并、复制：解析出的数据报是原始数据片段的切片（数据报跨越多个片段时使用{@link CompositeByteBuf}组合），
+ * 所以无论数据报多大，每个字节最多只会被处理一次
+ * <p>
+ * 数据报报头到达时就会校验数据报长度，超过最大长度时直接抛出{@link DataOutOfMemory}，不会等待、缓存数据报body；解析出现异常后
+ * 解码器会丢弃所有缓存的数据，因为流已经无法再同步，调用方应该关闭对应的连接
+ * <p>
+ * 解码器是有状态的，每个连接使用一个，线程不安全；不再使用时需要调用{@link #close()}释放缓存的数据
+ *
+ * @author JoeKerouac
+ * @version 2019年12月04日 15:00
+ */
+public class DatagramDecoder implements AutoCloseable {
+
+    /**
+     * 缓存的数据片段，每个片段都至少有一个字节可读
+     */
+    private final ArrayDeque<ByteBuf> chunks = new ArrayDeque<>();
+
+    /**
+     * 数据报的最大长度，包含报头
+     */
+    private final int maxFrameLength;
+
+    /**
+     * 缓冲区分配器
+     */
+    private final ByteBufAllocator allocator;
+
+    /**
+     * 当前缓存的数据长度，使用long避免maxFrameLength接近{@link Integer#MAX_VALUE}时溢出
+     */
+    private long buffered;
+
+    /**
+     * 当前正在等待的数据报的长度（包含报头），-1表示报头还不完整
+     */
+    private int frameLength = -1;
+
+    /**
+     * 使用默认最大长度（{@link DatagramConst.Position#MAX_LENGTH}）构建解码器
+     */
+    public DatagramDecoder() {
+        this(DatagramConst.Position.MAX_LENGTH);
+    }
+
+    /**
+     * 构建解码器
+     *
+     * @param maxFrameLength
+     *            数据报的最大长度，包含报头
+     */
+    public DatagramDecoder(int maxFrameLength) {
+        this(maxFrameLength, PooledByteBufAllocator.DEFAULT);
+    }
+
+    /**
+     * 构建解码器
+     *
+     * @param maxFrameLength
+     *            数据报的最大长度，包含报头
+     * @param allocator
+     *            缓冲区分配器，用于复制{@link ByteBuffer}类型的输入以及组合跨片段的数据报
+     */
+    public DatagramDecoder(int maxFrameLength, ByteBufAllocator allocator) {
+        Assert.isTrue(maxFrameLength >= DatagramConst.Position.HEADER_LEN, "maxFrameLength不能小于报头长度");
+        Assert.notNull(allocator, "allocator不能为null");
+        this.maxFrameLength = maxFrameLength;
+        this.allocator = allocator;
+    }
+
+    /**
+     * 传入一段数据，返回已经完整的数据报；因为调用方可能会复用ByteBuffer（例如socket读缓冲区），所以传入的数据会被复制一次，解析完成后
+     * ByteBuffer的position位于limit处
+     *
+     * @param in
+     *            数据
+     * @return 已经完整的数据报，可能为空，数据报使用完毕后需要释放
+     * @throws DataOutOfMemory
+     *             数据报长度超过最大长度时抛出该异常
+     * @throws IllegalDataException
+     *             数据报长度字段非法时抛出该异常
+     */
+    public List<ByteBufDatagram> decode(ByteBuffer in) throws DataOutOfMemory, IllegalDataException {
+        Assert.notNull(in, "in不能为null");
+        if (!in.hasRemaining()) {
+            return Collections.emptyList();
+        }
+        ByteBuf buf = allocator.buffer(in.remaining());
+        buf.writeBytes(in);
+        return decode(buf);
+    }
+
+    /**
+     * 传入一段数据，返回已经完整的数据报；数据的所有权转移给解码器，调用方不能再使用、释放该数据
+     *
+     * @param in
+     *            数据
+     * @return 已经完整的数据报，可能为空，数据报使用完毕后需要释放
+     * @throws DataOutOfMemory
+     *             数据报长度超过最大长度时抛出该异常
+     * @throws IllegalDataException
+     *             数据报长度字段非法时抛出该异常
+     */
+    public List<ByteBufDatagram> decode(ByteBuf in) throws DataOutOfMemory, IllegalDataException {
+        List<ByteBufDatagram> out = new ArrayList<>(1);
+        try {
+            decode(in, out);
+        } catch (RuntimeException e) {
+            // 调用方拿不到out，异常前已经解析出的数据报需要在这里释放
+            out.forEach(ReferenceCountUtil::safeRelease);
+            throw e;
+        }
+        return out;
+    }
+
+    /**
+     * 传入一段数据，将已经完整的数据报添加到out中；数据的所有权转移给解码器，调用方不能再使用、释放该数据
+     *
+     * @param in
+     *            数据
+     * @param out
+     *            已经完整的数据报，数据报使用完毕后需要释放；抛出异常时异常前已经添加到out中的数据报仍然归调用方所有，同样需要
+     *            调用方释放
+     * @throws DataOutOfMemory
+     *             数据报长度超过最大长度时抛出该异常
+     * @throws IllegalDataException
+     *             数据报长度字段非法时抛出该异常
+     */
+    public void decode(ByteBuf in, List<? super ByteBufDatagram> out) throws DataOutOfMemory, IllegalDataException {
+        Assert.notNull(in, "in不能为null");
+        Assert.notNull(out, "out不能为null");
+        if (!in.isReadable()) {
+            in.release();
+            return;
+        }
+        chunks.add(in);
+        buffered += in.readableBytes();
+
+        try {
+            while (true) {
+                if (frameLength < 0) {
+                    if (buffered < DatagramConst.Position.HEADER_LEN) {
+                        return;
+                    }
+                    frameLength = readFrameLength();
+                }
+                if (buffered < frameLength) {
+                    return;
+                }
+                out.add(new ByteBufDatagram(readFrame(frameLength)));
+                frameLength = -1;
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * 当前缓存的、还未组成完整数据报的数据长度
+     *
+     * @return 缓存的数据长度
+     */
+    public long buffered() {
+        return buffered;
+    }
+
+    /**
+     * 释放缓存的数据，之后解码器可以用于解析新的数据流
+     */
+    @Override
+    public void close() {
+        ByteBuf chunk;
+        while ((chunk = chunks.poll()) != null) {
+            ReferenceCountUtil.safeRelease(chunk);
+        }
+        buffered = 0;
+        frameLength = -1;
+    }
+
+    /**
+     * 从缓存的数据中读取数据报长度字段（不移动读取位置）并校验
+     *
+     * @return 数据报长度，包含报头
+     */
+    private int readFrameLength() {
+        int len = 0;
+        int read = 0;
+        int skip = DatagramConst.Position.LEN_OFFSET;
+        for (ByteBuf chunk : chunks) {
+            int readable = chunk.readableBytes();
+            if (skip >= readable) {
+                skip -= readable;
+                continue;
+            }
+            int index = chunk.readerIndex() + skip;
+            while (index < chunk.writerIndex() && read < DatagramConst.Position.LEN_LIMIT) {
+                len = (len << 8) | chunk.getUnsignedByte(index++);
+                read++;
+            }
+            if (read == DatagramConst.Position.LEN_LIMIT) {
+                break;
+            }
+            skip = 0;
+        }
+
+        if (len < 0) {
+            throw new IllegalDataException("数据报head中的长度字段为：" + Integer.toUnsignedLong(len));
+        }
+        long frameLength = (long)len + DatagramConst.Position.HEADER_LEN;
+        if (frameLength > maxFrameLength) {
+            throw new DataOutOfMemory(String.format("数据报长度%d超过最大值%d", frameLength, maxFrameLength));
+        }
+        return (int)frameLength;
+    }
+
+    /**
+     * 从缓存的数据中读取指定长度的数据，返回的是原始数据片段的切片
+     *
+     * @param length
+     *            长度
+     * @return 数据
+     */
+    private ByteBuf readFrame(int length) {
+        buffered -= length;
+        ByteBuf first = chunks.peek();
+        if (first.readableBytes() >= length) {
+            return readSlice(first, length);
+        }
+
+        CompositeByteBuf frame = allocator.compositeBuffer(chunks.size());
+        while (length > 0) {
+            ByteBuf chunk = chunks.peek();
+            int len = Math.min(length, chunk.readableBytes());
+            frame.addComponent(true, readSlice(chunk, len));
+            length -= len;
+        }
+        return frame;
+    }
+
+    /**
+     * 从数据片段中读取一个切片（引用计数加一），片段读取完毕后将其移除并释放
+     *
+     * @param chunk
+     *            数据片段，必须是队列头
+     * @param length
+     *            长度
+     * @return 切片
+     */
+    private ByteBuf readSlice(ByteBuf chunk, int length) {
+        ByteBuf slice = chunk.readRetainedSlice(length);
+        if (!chunk.isReadable()) {
+            chunks.poll();
+            chunk.release();
+        }
+        return slice;
+    }
+}
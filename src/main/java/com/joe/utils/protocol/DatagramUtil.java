@@ -5,15 +5,13 @@ import java.nio.charset.Charset;
 import java.util.Arrays;
 
 import com.joe.utils.common.Assert;
-import com.joe.utils.common.Tools;
 import com.joe.utils.common.string.StringFormater;
 import com.joe.utils.protocol.exception.DataOutOfMemory;
 import com.joe.utils.protocol.exception.IllegalDataException;
 import com.joe.utils.protocol.exception.IllegalRequestException;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufUtil;
-import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -27,12 +25,12 @@ public class DatagramUtil {
     /**
      * 当前系统默认字符集
      */
-    private static final String DEFAULT_CHARSET;
+    static final String DEFAULT_CHARSET;
 
     /**
      * 系统字符集的byte数据（长度10byte，不足的后边补零）
      */
-    private static final byte[] DEFAULT_CHARSET_DATA;
+    static final byte[] DEFAULT_CHARSET_DATA;
 
     /**
      * 数据报数据除去请求头的最大长度
@@ -89,36 +87,19 @@ public class DatagramUtil {
             throw new DataOutOfMemory(String.format("数据长度超过最大值%d", BODY_MAX_LENGTH));
         }
 
-        ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer(dataLen + DatagramConst.Position.HEADER_LEN,
-            dataLen + DatagramConst.Position.HEADER_LEN);
-
-        // 一个字节的版本号
-        buffer.writeByte(Byte.toUnsignedInt(version));
-        // 四个字节的body长度
-        buffer.writeBytes(splitToByte(dataLen));
-        // 一个字节的数据类型
-        buffer.writeByte(Byte.toUnsignedInt(type));
-        // 十个字节的字符集，字符集为当前系统默认字符集不可更改，不足十个字节的用0填充
-        buffer.writeBytes(DEFAULT_CHARSET_DATA);
-
-        // 添加ID字段
-        byte[] idDatas = Tools.createUUID().getBytes();
-        int idLen = idDatas.length;
-        buffer.writeBytes(idDatas);
-        // ID不足40byte的补0
-        for (int i = idLen; i < 40; i++) {
-            buffer.writeByte(0);
-        }
-
+        // 直接写入最终的数组，数据报直接使用该数组，不再复制
+        byte[] data = new byte[dataLen + DatagramConst.Position.HEADER_LEN];
+        ByteBuf buffer = Unpooled.wrappedBuffer(data).writerIndex(0);
+        DatagramCodec.writeHeader(buffer, dataLen, type, version);
         if (dataLen != 0) {
             // 填充数据
             buffer.writeBytes(body);
         }
 
-        Datagram datagram =
-            new Datagram(ByteBufUtil.getBytes(buffer), dataLen, version, DEFAULT_CHARSET, type, idDatas);
-        // 最后要释放
-        buffer.release();
+        // 后边补的0不包含在ID内
+        byte[] idDatas = Arrays.copyOfRange(data, ByteBufDatagram.ID_OFFSET,
+            ByteBufDatagram.ID_OFFSET + DatagramCodec.RANDOM_ID_LEN);
+        Datagram datagram = new Datagram(data, dataLen, version, DEFAULT_CHARSET, type, idDatas, false);
         if (log.isDebugEnabled()) {
             log.debug("转换后的数据报是：{}", datagram);
         }
@@ -154,16 +135,8 @@ public class DatagramUtil {
             if (log.isDebugEnabled()) {
                 log.debug("要解析的数据为：{}", Arrays.toString(data));
             }
-            // 字符集数据
-            int end = DatagramConst.Position.CHARSET_OFFSET;
-            for (int i = 0; i < DatagramConst.Position.CHARSET_MAX; end += i, i++) {
-                if (data[end] == 0) {
-                    break;
-                }
-            }
             // 字符集
-            final String charset =
-                new String(data, DatagramConst.Position.CHARSET_OFFSET, end - DatagramConst.Position.CHARSET_OFFSET);
+            final String charset = DatagramCodec.readCharset(Unpooled.wrappedBuffer(data), 0);
             // 版本号
             final byte version = data[DatagramConst.Position.VERSION_INDEX];
             // 数据报数据类型
@@ -176,8 +149,7 @@ public class DatagramUtil {
             if ((data.length - DatagramConst.Position.HEADER_LEN) > len) {
                 log.warn("数据报head中的长度字段为：{}，数据报body的实际长度为：{}", len, data.length - DatagramConst.Position.HEADER_LEN);
                 if (allowErr) {
-                    buffer = new byte[len + DatagramConst.Position.HEADER_LEN];
-                    System.arraycopy(data, 0, buffer, 0, buffer.length);
+                    buffer = Arrays.copyOf(data, len + DatagramConst.Position.HEADER_LEN);
                 } else {
                     throw new IllegalDataException("数据报head中的长度字段为：" + len + "，数据报body的实际长度为："
                         + (data.length - DatagramConst.Position.HEADER_LEN));
@@ -190,23 +162,14 @@ public class DatagramUtil {
                 buffer = data;
             }
 
-            log.debug("获取id字段");
-            byte[] idByte = new byte[40];
-            System.arraycopy(data, 16, idByte, 0, idByte.length);
-            String id = new String(idByte);
-            log.debug("数据报ID为：{}", id);
-
-            // 有可能是空报文的数据报
-            Datagram datagram;
-            if (len == 0) {
-                log.debug("要解析的数据中head标志body长度为0，直接返回一个空body的datagram对象");
-                datagram = new Datagram(buffer, len, version, charset, type, idByte);
-            } else {
-                // 真实的业务数据
-                byte[] body = new byte[len];
-                System.arraycopy(buffer, DatagramConst.Position.HEADER_LEN, body, 0, body.length);
-                datagram = new Datagram(buffer, len, version, charset, type, idByte);
+            byte[] idByte = Arrays.copyOfRange(data, ByteBufDatagram.ID_OFFSET,
+                ByteBufDatagram.ID_OFFSET + ByteBufDatagram.ID_LEN);
+            if (log.isDebugEnabled()) {
+                log.debug("数据报ID为：{}", new String(idByte));
             }
+
+            // 截断时buffer是新建的数组，不需要再复制；否则buffer是调用方的数组，需要复制
+            Datagram datagram = new Datagram(buffer, len, version, charset, type, idByte, buffer == data);
             if (log.isDebugEnabled()) {
                 log.debug("封装好的数据报body为：{}", datagram);
             }
@@ -0,0 +1,178 @@
+package com.joe.utils.protocol;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+import com.joe.utils.common.Assert;
+import com.joe.utils.protocol.exception.IllegalDataException;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * 文件分块，{@link DatagramConst.Type#FILE}类型数据报的body，由分块头和分块数据组成，分块头固定33个字节：
+ * <p>
+ * 第一到第八字节为传输ID，同一个文件的所有分块传输ID相同
+ * <p>
+ * 第九到第十二字节为分块序号，从0开始
+ * <p>
+ * 第十三到第二十字节为分块数据在文件中的偏移
+ * <p>
+ * 第二十一到第二十八字节为文件总长度，未知时为-1
+ * <p>
+ * 第二十九字节为标志位，最低位为1表示是最后一个分块
+ * <p>
+ * 第三十到第三十三字节为分块数据的CRC32校验和
+ * <p>
+ * 分块头之后是分块数据，解析时直接在body上读取，分块数据是body的切片，不会复制数据
+ *
+ * @author JoeKerouac
+ * @version 2019年12月06日 10:00
+ */
+public final class FileChunk {
+
+    /**
+     * 分块头长度
+     */
+    public static final int HEADER_LEN = 33;
+
+    /**
+     * 最后一个分块的标志
+     */
+    static final byte FLAG_LAST = 1;
+
+    private final long transferId;
+
+    private final int seq;
+
+    private final long offset;
+
+    private final long total;
+
+    private final boolean last;
+
+    private final int checksum;
+
+    private final ByteBuf payload;
+
+    private FileChunk(long transferId, int seq, long offset, long total, boolean last, int checksum,
+        ByteBuf payload) {
+        this.transferId = transferId;
+        this.seq = seq;
+        this.offset = offset;
+        this.total = total;
+        this.last = last;
+        this.checksum = checksum;
+        this.payload = payload;
+    }
+
+    /**
+     * 解析分块
+     *
+     * @param body
+     *            FILE类型数据报的body，解析不会移动readerIndex
+     * @return 分块，分块数据是body的切片，不会增加引用计数
+     * @throws IllegalDataException
+     *             数据不完整时抛出该异常
+     */
+    public static FileChunk parse(ByteBuf body) throws IllegalDataException {
+        Assert.notNull(body, "body不能为null");
+        if (body.readableBytes() < HEADER_LEN) {
+            throw new IllegalDataException("文件分块头不完整，当前长度：" + body.readableBytes());
+        }
+        int index = body.readerIndex();
+        long transferId = body.getLong(index);
+        int seq = body.getInt(index + 8);
+        long offset = body.getLong(index + 12);
+        long total = body.getLong(index + 20);
+        boolean last = (body.getByte(index + 28) & FLAG_LAST) != 0;
+        int checksum = body.getInt(index + 29);
+        if (seq < 0 || offset < 0) {
+            throw new IllegalDataException("文件分块序号、偏移非法：" + seq + "，" + offset);
+        }
+        ByteBuf payload = body.slice(index + HEADER_LEN, body.readableBytes() - HEADER_LEN);
+        return new FileChunk(transferId, seq, offset, total, last, checksum, payload);
+    }
+
+    /**
+     * 写入分块头
+     */
+    static void writeHeader(ByteBuf out, long transferId, int seq, long offset, long total, boolean last,
+        int checksum) {
+        out.writeLong(transferId);
+        out.writeInt(seq);
+        out.writeLong(offset);
+        out.writeLong(total);
+        out.writeByte(last ? FLAG_LAST : 0);
+        out.writeInt(checksum);
+    }
+
+    /**
+     * 计算数据的CRC32校验和
+     *
+     * @param buf
+     *            数据
+     * @param index
+     *            起始位置
+     * @param length
+     *            长度
+     * @return 校验和
+     */
+    static int checksum(ByteBuf buf, int index, int length) {
+        CRC32 crc = new CRC32();
+        if (buf.hasArray()) {
+            crc.update(buf.array(), buf.arrayOffset() + index, length);
+        } else {
+            for (ByteBuffer buffer : buf.nioBuffers(index, length)) {
+                crc.update(buffer);
+            }
+        }
+        return (int)crc.getValue();
+    }
+
+    /**
+     * 校验分块数据
+     *
+     * @return 返回true表示校验通过
+     */
+    public boolean verify() {
+        return checksum(payload, payload.readerIndex(), payload.readableBytes()) == checksum;
+    }
+
+    public long transferId() {
+        return transferId;
+    }
+
+    public int seq() {
+        return seq;
+    }
+
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * 文件总长度
+     *
+     * @return 文件总长度，发送方不知道时为-1
+     */
+    public long total() {
+        return total;
+    }
+
+    public boolean last() {
+        return last;
+    }
+
+    public int checksum() {
+        return checksum;
+    }
+
+    /**
+     * 分块数据，是body的切片
+     *
+     * @return 分块数据
+     */
+    public ByteBuf payload() {
+        return payload;
+    }
+}
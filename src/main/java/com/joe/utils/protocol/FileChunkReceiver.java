@@ -0,0 +1,181 @@
+package com.joe.utils.protocol;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.BitSet;
+
+import com.joe.utils.common.Assert;
+import com.joe.utils.exception.IOExceptionWrapper;
+import com.joe.utils.protocol.exception.IllegalDataException;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * 文件分块接收方，将{@link FileChunkSender}发送的分块按照偏移直接写入{@link FileChannel}，分块可以乱序、重复到达（重复的分块会被
+ * 忽略），不需要在内存中缓存文件
+ * <p>
+ * 分块校验和错误时抛出{@link IllegalDataException}，在{@link com.joe.utils.protocol.transport.DatagramHandler}中使用时异常会
+ * 导致不回复ACK，发送方超时后会重传该分块
+ * <p>
+ * 线程安全
+ *
+ * @author JoeKerouac
+ * @version 2019年12月06日 11:00
+ */
+public class FileChunkReceiver {
+
+    private final FileChannel target;
+
+    /**
+     * 已经收到的分块
+     */
+    private final BitSet received = new BitSet();
+
+    /**
+     * 传输ID，收到第一个分块前可能未知
+     */
+    private Long transferId;
+
+    /**
+     * 从0开始连续收到的分块数量
+     */
+    private int receivedChunks;
+
+    /**
+     * 最后一个分块的序号，未收到时为-1
+     */
+    private int lastSeq = -1;
+
+    /**
+     * 文件长度，收到最后一个分块后才能确定
+     */
+    private long length = -1;
+
+    /**
+     * 接收新的文件，传输ID使用收到的第一个分块的传输ID
+     *
+     * @param target
+     *            目标文件
+     */
+    public FileChunkReceiver(FileChannel target) {
+        Assert.notNull(target, "target不能为null");
+        this.target = target;
+    }
+
+    /**
+     * 断点续传，目标文件中已经有前receivedChunks个分块的数据
+     *
+     * @param target
+     *            目标文件
+     * @param transferId
+     *            传输ID
+     * @param receivedChunks
+     *            已经收到的分块数量
+     */
+    public FileChunkReceiver(FileChannel target, long transferId, int receivedChunks) {
+        this(target);
+        Assert.isTrue(receivedChunks >= 0, "receivedChunks不能小于0");
+        this.transferId = transferId;
+        this.receivedChunks = receivedChunks;
+        this.received.set(0, receivedChunks);
+    }
+
+    /**
+     * 接收分块
+     *
+     * @param datagram
+     *            FILE类型的数据报
+     * @return 返回true表示文件已经接收完毕
+     * @throws IllegalDataException
+     *             数据报类型错误、传输ID不一致、校验和错误时抛出该异常
+     */
+    public boolean receive(ByteBufDatagram datagram) throws IllegalDataException {
+        Assert.notNull(datagram, "datagram不能为null");
+        if (!Datagram.isFile(datagram.type())) {
+            throw new IllegalDataException("数据报类型不是FILE：" + datagram.type());
+        }
+        return receive(datagram.body());
+    }
+
+    /**
+     * 接收分块
+     *
+     * @param body
+     *            FILE类型数据报的body
+     * @return 返回true表示文件已经接收完毕
+     * @throws IllegalDataException
+     *             传输ID不一致、校验和错误时抛出该异常
+     */
+    public synchronized boolean receive(ByteBuf body) throws IllegalDataException {
+        FileChunk chunk = FileChunk.parse(body);
+        if (transferId == null) {
+            transferId = chunk.transferId();
+        } else if (transferId != chunk.transferId()) {
+            throw new IllegalDataException("传输ID不一致，期望：" + transferId + "，实际：" + chunk.transferId());
+        }
+        if (received.get(chunk.seq())) {
+            return isComplete();
+        }
+        if (!chunk.verify()) {
+            throw new IllegalDataException("文件分块" + chunk.seq() + "校验和错误");
+        }
+
+        ByteBuf payload = chunk.payload();
+        try {
+            int written = 0;
+            int len = payload.readableBytes();
+            while (written < len) {
+                written += payload.getBytes(payload.readerIndex() + written, target, chunk.offset() + written,
+                    len - written);
+            }
+        } catch (IOException e) {
+            throw new IOExceptionWrapper(e);
+        }
+
+        received.set(chunk.seq());
+        while (received.get(receivedChunks)) {
+            receivedChunks++;
+        }
+        if (chunk.last()) {
+            lastSeq = chunk.seq();
+            length = chunk.offset() + payload.readableBytes();
+        }
+        return isComplete();
+    }
+
+    /**
+     * 从0开始连续收到的分块数量，断点续传时发送方从这里继续发送
+     *
+     * @return 分块数量
+     */
+    public synchronized int receivedChunks() {
+        return receivedChunks;
+    }
+
+    /**
+     * 文件是否已经接收完毕
+     *
+     * @return 返回true表示文件已经接收完毕
+     */
+    public synchronized boolean isComplete() {
+        return lastSeq >= 0 && receivedChunks > lastSeq;
+    }
+
+    /**
+     * 传输ID
+     *
+     * @return 传输ID，还没有收到分块时为null
+     */
+    public synchronized Long transferId() {
+        return transferId;
+    }
+
+    /**
+     * 文件长度
+     *
+     * @return 文件长度，收到最后一个分块之前为-1
+     */
+    public synchronized long length() {
+        return length;
+    }
+}
@@ -0,0 +1,423 @@
+package com.joe.utils.protocol;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.BitSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+import com.joe.utils.common.Assert;
+import com.joe.utils.exception.IOExceptionWrapper;
+import com.joe.utils.protocol.exception.IllegalDataException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * 文件分块发送方，将{@link FileChannel}或者{@link InputStream}按照固定大小拆分为带序号、校验和的{@link DatagramConst.Type#FILE}
+ * 类型数据报（格式参照{@link FileChunk}），任意时刻内存中最多只有发送窗口大小的分块，不需要将整个文件读入内存
+ * <p>
+ * 发送方记录已经确认的分块，中断后可以使用同一个传输ID重新构建发送方，调用{@link #skipTo(int)}跳到接收方已经收到的分块之后继续
+ * 发送（参照{@link FileChunkReceiver#receivedChunks()}）
+ * <p>
+ * 线程安全
+ *
+ * @author JoeKerouac
+ * @version 2019年12月06日 10:30
+ */
+public class FileChunkSender {
+
+    /**
+     * 默认分块大小，1M
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * {@link #transferTo(WritableByteChannel)}计算校验和时使用的缓冲区大小
+     */
+    private static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+
+    private final long transferId;
+
+    private final int chunkSize;
+
+    private final FileChannel file;
+
+    private final InputStream in;
+
+    /**
+     * 文件总长度，使用输入流时为-1
+     */
+    private final long total;
+
+    private final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+
+    /**
+     * 已经确认的分块
+     */
+    private final BitSet acked = new BitSet();
+
+    /**
+     * 下一个要发送的分块序号
+     */
+    private int nextSeq;
+
+    /**
+     * 从0开始连续确认的分块数量
+     */
+    private int ackedChunks;
+
+    private boolean finished;
+
+    /**
+     * 使用默认分块大小、随机传输ID发送文件
+     *
+     * @param file
+     *            文件，从0开始发送到当前文件大小处
+     */
+    public FileChunkSender(FileChannel file) {
+        this(file, DEFAULT_CHUNK_SIZE, newTransferId());
+    }
+
+    /**
+     * 发送文件
+     *
+     * @param file
+     *            文件，从0开始发送到当前文件大小处
+     * @param chunkSize
+     *            分块大小
+     * @param transferId
+     *            传输ID，断点续传时需要使用与之前相同的ID
+     */
+    public FileChunkSender(FileChannel file, int chunkSize, long transferId) {
+        Assert.notNull(file, "file不能为null");
+        Assert.isTrue(chunkSize > 0, "chunkSize必须大于0");
+        this.file = file;
+        this.in = null;
+        this.chunkSize = chunkSize;
+        this.transferId = transferId;
+        try {
+            this.total = file.size();
+        } catch (IOException e) {
+            throw new IOExceptionWrapper(e);
+        }
+    }
+
+    /**
+     * 使用默认分块大小、随机传输ID发送输入流中的数据
+     *
+     * @param in
+     *            输入流，发送完毕后不会关闭
+     */
+    public FileChunkSender(InputStream in) {
+        this(in, DEFAULT_CHUNK_SIZE, newTransferId());
+    }
+
+    /**
+     * 发送输入流中的数据
+     *
+     * @param in
+     *            输入流，发送完毕后不会关闭
+     * @param chunkSize
+     *            分块大小
+     * @param transferId
+     *            传输ID，断点续传时需要使用与之前相同的ID
+     */
+    public FileChunkSender(InputStream in, int chunkSize, long transferId) {
+        Assert.notNull(in, "in不能为null");
+        Assert.isTrue(chunkSize > 0, "chunkSize必须大于0");
+        this.file = null;
+        this.in = in;
+        this.chunkSize = chunkSize;
+        this.transferId = transferId;
+        this.total = -1;
+    }
+
+    /**
+     * 生成随机的传输ID
+     *
+     * @return 传输ID
+     */
+    public static long newTransferId() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    public long transferId() {
+        return transferId;
+    }
+
+    /**
+     * 下一个要发送的分块序号
+     *
+     * @return 分块序号
+     */
+    public synchronized int nextSeq() {
+        return nextSeq;
+    }
+
+    /**
+     * 从0开始连续确认的分块数量（只统计通过{@link #send(Function, int, Executor)}发送的分块），中断后可以从这里继续发送
+     *
+     * @return 分块数量
+     */
+    public synchronized int ackedChunks() {
+        return ackedChunks;
+    }
+
+    /**
+     * 是否还有分块需要发送
+     *
+     * @return 返回true表示还有分块需要发送
+     */
+    public synchronized boolean hasNext() {
+        return !finished;
+    }
+
+    /**
+     * 跳过指定序号之前的分块，用于断点续传；使用输入流时会从输入流中读取并丢弃对应的数据
+     *
+     * @param seq
+     *            下一个要发送的分块序号，不能小于{@link #nextSeq()}
+     */
+    public synchronized void skipTo(int seq) {
+        Assert.isTrue(seq >= nextSeq, "只能向后跳过");
+        long offset = (long)seq * chunkSize;
+        if (in != null) {
+            try {
+                long remain = offset - (long)nextSeq * chunkSize;
+                while (remain > 0) {
+                    long skipped = in.skip(remain);
+                    if (skipped <= 0) {
+                        if (in.read() < 0) {
+                            throw new IllegalDataException("输入流长度小于要跳过的长度");
+                        }
+                        skipped = 1;
+                    }
+                    remain -= skipped;
+                }
+            } catch (IOException e) {
+                throw new IOExceptionWrapper(e);
+            }
+        } else if (offset > total || offset == total && total > 0) {
+            // 文件已经全部发送
+            finished = true;
+        }
+        for (int i = ackedChunks; i < seq; i++) {
+            acked.set(i);
+        }
+        ackedChunks = Math.max(ackedChunks, seq);
+        nextSeq = seq;
+    }
+
+    /**
+     * 读取下一个分块，分块数据写入池化的直接内存缓冲区
+     *
+     * @return 分块数据报，使用完毕后需要释放（通过{@link com.joe.utils.protocol.transport.DatagramConnection}发送时由连接释放）
+     */
+    public synchronized ByteBufDatagram next() {
+        Assert.isTrue(!finished, "所有分块已经发送完毕");
+        int seq = nextSeq;
+        long offset = (long)seq * chunkSize;
+        int prefix = DatagramConst.Position.HEADER_LEN + FileChunk.HEADER_LEN;
+        int expected = file == null ? chunkSize : (int)Math.min(chunkSize, total - offset);
+        ByteBuf buf = allocator.directBuffer(prefix + expected);
+        try {
+            buf.writerIndex(prefix);
+            int len = file == null ? readStream(buf) : readFile(buf, offset, expected);
+            boolean last = file == null ? len < chunkSize : offset + len >= total;
+            int checksum = FileChunk.checksum(buf, prefix, len);
+
+            int end = buf.writerIndex();
+            buf.writerIndex(0);
+            DatagramCodec.writeHeader(buf, FileChunk.HEADER_LEN + len, DatagramConst.Type.FILE,
+                DatagramConst.Version.V1);
+            FileChunk.writeHeader(buf, transferId, seq, offset, total, last, checksum);
+            buf.writerIndex(end);
+
+            nextSeq++;
+            finished = last;
+            return new ByteBufDatagram(buf);
+        } catch (IOException e) {
+            buf.release();
+            throw new IOExceptionWrapper(e);
+        } catch (RuntimeException e) {
+            buf.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 将下一个分块直接写入channel（例如阻塞模式的socket），分块数据使用{@link FileChannel#transferTo(long, long,
+     * WritableByteChannel)}写出，不经过用户态内存；只能用于发送文件
+     *
+     * @param out
+     *            输出channel，必须是阻塞模式
+     * @return 写出的分块序号
+     */
+    public synchronized int transferTo(WritableByteChannel out) {
+        Assert.notNull(out, "out不能为null");
+        Assert.notNull(file, "只有文件才能使用transferTo");
+        Assert.isTrue(!finished, "所有分块已经发送完毕");
+        int seq = nextSeq;
+        long offset = (long)seq * chunkSize;
+        int len = (int)Math.min(chunkSize, total - offset);
+        boolean last = offset + len >= total;
+
+        ByteBuf header = allocator.directBuffer(DatagramConst.Position.HEADER_LEN + FileChunk.HEADER_LEN);
+        try {
+            int checksum = checksum(offset, len);
+            DatagramCodec.writeHeader(header, FileChunk.HEADER_LEN + len, DatagramConst.Type.FILE,
+                DatagramConst.Version.V1);
+            FileChunk.writeHeader(header, transferId, seq, offset, total, last, checksum);
+            ByteBuffer buffer = header.nioBuffer();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            long written = 0;
+            while (written < len) {
+                written += file.transferTo(offset + written, len - written, out);
+            }
+        } catch (IOException e) {
+            throw new IOExceptionWrapper(e);
+        } finally {
+            header.release();
+        }
+
+        nextSeq++;
+        finished = last;
+        return seq;
+    }
+
+    /**
+     * 发送所有剩余的分块，同时最多有window个分块处于发送中（已读入内存、等待确认），一个分块确认后才读取下一个分块
+     *
+     * @param sink
+     *            分块的发送方法，返回的future完成表示分块已经被确认，例如DatagramConnection::send；分块的所有权转移给sink
+     * @param window
+     *            同时发送中的最大分块数量
+     * @param executor
+     *            分块确认后在该线程池中读取、发送下一个分块；sink的回调线程是事件循环线程时不应该在其中读取文件
+     * @return 所有分块都确认后完成；任意分块发送失败时以该异常结束，此时可以通过{@link #ackedChunks()}获取断点
+     */
+    public CompletableFuture<Void> send(Function<ByteBufDatagram, CompletableFuture<Void>> sink, int window,
+        Executor executor) {
+        Assert.notNull(sink, "sink不能为null");
+        Assert.isTrue(window > 0, "window必须大于0");
+        Assert.notNull(executor, "executor不能为null");
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        new Pump(sink, window, executor, result).pump();
+        return result;
+    }
+
+    private synchronized void ack(int seq) {
+        acked.set(seq);
+        while (acked.get(ackedChunks)) {
+            ackedChunks++;
+        }
+    }
+
+    private int readFile(ByteBuf buf, long offset, int len) throws IOException {
+        int read = 0;
+        while (read < len) {
+            int n = buf.writeBytes(file, offset + read, len - read);
+            if (n < 0) {
+                throw new IllegalDataException("文件在发送过程中被截断");
+            }
+            read += n;
+        }
+        return read;
+    }
+
+    private int readStream(ByteBuf buf) throws IOException {
+        int read = 0;
+        while (read < chunkSize) {
+            int n = buf.writeBytes(in, chunkSize - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        return read;
+    }
+
+    /**
+     * 使用小缓冲区读取文件计算校验和，数据读取自页缓存，不会占用与分块同样大小的内存
+     */
+    private int checksum(long offset, int len) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuf buf = allocator.directBuffer(Math.min(len, CHECKSUM_BUFFER_SIZE));
+        try {
+            int read = 0;
+            while (read < len) {
+                buf.clear();
+                int n = buf.writeBytes(file, offset + read, Math.min(buf.capacity(), len - read));
+                if (n < 0) {
+                    throw new IllegalDataException("文件在发送过程中被截断");
+                }
+                crc.update(buf.nioBuffer());
+                read += n;
+            }
+        } finally {
+            buf.release();
+        }
+        return (int)crc.getValue();
+    }
+
+    private class Pump {
+
+        private final Function<ByteBufDatagram, CompletableFuture<Void>> sink;
+
+        private final int window;
+
+        private final Executor executor;
+
+        private final CompletableFuture<Void> result;
+
+        private int sending;
+
+        private Pump(Function<ByteBufDatagram, CompletableFuture<Void>> sink, int window, Executor executor,
+            CompletableFuture<Void> result) {
+            this.sink = sink;
+            this.window = window;
+            this.executor = executor;
+            this.result = result;
+        }
+
+        private void pump() {
+            try {
+                synchronized (FileChunkSender.this) {
+                    while (!result.isDone() && hasNext() && sending < window) {
+                        int seq = nextSeq;
+                        ByteBufDatagram chunk = next();
+                        sending++;
+                        sink.apply(chunk).whenCompleteAsync((r, e) -> onComplete(seq, e), executor);
+                    }
+                    if (!hasNext() && sending == 0) {
+                        result.complete(null);
+                    }
+                }
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }
+
+        private void onComplete(int seq, Throwable cause) {
+            synchronized (FileChunkSender.this) {
+                sending--;
+                if (cause != null) {
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                ack(seq);
+            }
+            pump();
+        }
+    }
+}
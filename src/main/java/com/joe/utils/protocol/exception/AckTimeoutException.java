@@ -0,0 +1,16 @@
+package com.joe.utils.protocol.exception;
+
+/**
+ * 数据报在重传次数用尽后仍然没有收到ACK
+ *
+ * @author JoeKerouac
+ * @version 2019年12月05日 10:00
+ */
+public class AckTimeoutException extends ProtocolException {
+
+    private static final long serialVersionUID = 3425613570236871021L;
+
+    public AckTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,177 @@
+package com.joe.utils.protocol.transport;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.joe.utils.common.Assert;
+import com.joe.utils.common.IOUtils;
+import com.joe.utils.exception.IOExceptionWrapper;
+import com.joe.utils.protocol.ByteBufDatagram;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 基于NIO的数据报客户端，内部按照服务端地址维护连接池（每个地址最多{@link TransportConfig#getPoolSize()}个连接，轮询使用），
+ * 连接关闭后自动从连接池中移除，下次使用时重新建立；所有连接共用一个事件循环线程
+ *
+ * @author JoeKerouac
+ * @version 2019年12月05日 11:10
+ */
+@Slf4j
+public class DatagramClient {
+
+    private final AtomicBoolean shutdown = new AtomicBoolean(true);
+
+    private final Map<InetSocketAddress, Pool> pools = new ConcurrentHashMap<>();
+
+    private final TransportConfig config;
+
+    private final DatagramHandler handler;
+
+    private EventLoop loop;
+
+    /**
+     * 使用默认配置构建客户端
+     *
+     * @param handler
+     *            服务端主动推送的数据报的处理器
+     */
+    public DatagramClient(DatagramHandler handler) {
+        this(new TransportConfig(), handler);
+    }
+
+    /**
+     * 构建客户端
+     *
+     * @param config
+     *            传输层配置
+     * @param handler
+     *            服务端主动推送的数据报的处理器
+     */
+    public DatagramClient(TransportConfig config, DatagramHandler handler) {
+        Assert.notNull(config, "config不能为null");
+        Assert.notNull(handler, "handler不能为null");
+        Assert.isTrue(config.getPoolSize() > 0, "poolSize必须大于0");
+        this.config = config;
+        this.handler = handler;
+    }
+
+    /**
+     * 启动客户端
+     */
+    public void start() {
+        if (shutdown.compareAndSet(true, false)) {
+            loop = new EventLoop("datagram-client");
+            loop.start();
+        }
+    }
+
+    /**
+     * 关闭客户端，同时关闭所有连接
+     */
+    public void shutdown() {
+        if (shutdown.compareAndSet(false, true)) {
+            loop.shutdown();
+            pools.clear();
+        }
+    }
+
+    /**
+     * 发送数据报
+     *
+     * @param address
+     *            服务端地址
+     * @param body
+     *            数据报body，可以为null
+     * @param type
+     *            数据报类型
+     * @return 发送结果，参照{@link DatagramConnection#send(byte[], byte)}
+     */
+    public CompletableFuture<Void> send(InetSocketAddress address, byte[] body, byte type) {
+        return connection(address).send(body, type);
+    }
+
+    /**
+     * 发送数据报，数据报的所有权转移给客户端
+     *
+     * @param address
+     *            服务端地址
+     * @param datagram
+     *            数据报
+     * @return 发送结果，参照{@link DatagramConnection#send(ByteBufDatagram)}
+     */
+    public CompletableFuture<Void> send(InetSocketAddress address, ByteBufDatagram datagram) {
+        return connection(address).send(datagram);
+    }
+
+    /**
+     * 从连接池中获取到指定地址的连接，连接数没有达到上限时建立新连接（异步建立，可以立即发送数据，数据在连接建立后写出）
+     *
+     * @param address
+     *            服务端地址
+     * @return 连接
+     */
+    public DatagramConnection connection(InetSocketAddress address) {
+        Assert.notNull(address, "address不能为null");
+        Assert.isTrue(!shutdown.get(), "客户端未启动或者已经关闭");
+        return pools.computeIfAbsent(address, Pool::new).next();
+    }
+
+    private class Pool {
+
+        private final InetSocketAddress address;
+
+        private final List<DatagramConnection> connections = new ArrayList<>();
+
+        private int next;
+
+        private Pool(InetSocketAddress address) {
+            this.address = address;
+        }
+
+        private synchronized DatagramConnection next() {
+            connections.removeIf(DatagramConnection::isClosed);
+            if (connections.size() < config.getPoolSize()) {
+                DatagramConnection connection = connect();
+                connections.add(connection);
+                return connection;
+            }
+            next = (next + 1) % connections.size();
+            return connections.get(next);
+        }
+
+        private DatagramConnection connect() {
+            SocketChannel channel;
+            try {
+                channel = SocketChannel.open();
+            } catch (IOException e) {
+                throw new IOExceptionWrapper(e);
+            }
+
+            try {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                boolean connected = channel.connect(address);
+                DatagramConnection connection = new DatagramConnection(loop, channel, config, handler);
+                // 注册必须在事件循环线程中执行，之后提交的发送任务按顺序在注册之后执行
+                loop.execute(() -> connection.register(connected));
+                log.debug("建立到[{}]的连接", address);
+                return connection;
+            } catch (IOException e) {
+                // 连接还没有交给事件循环，需要在这里关闭
+                IOUtils.closeQuietly(channel);
+                throw new IOExceptionWrapper(e);
+            } catch (RuntimeException e) {
+                IOUtils.closeQuietly(channel);
+                throw e;
+            }
+        }
+    }
+}
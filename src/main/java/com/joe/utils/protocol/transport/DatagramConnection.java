@@ -0,0 +1,571 @@
+package com.joe.utils.protocol.transport;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.joe.utils.common.Assert;
+import com.joe.utils.protocol.ByteBufDatagram;
+import com.joe.utils.protocol.Datagram;
+import com.joe.utils.protocol.DatagramCodec;
+import com.joe.utils.protocol.DatagramConst;
+import com.joe.utils.protocol.DatagramDecoder;
+import com.joe.utils.protocol.exception.AckTimeoutException;
+import com.joe.utils.protocol.exception.ProtocolException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 数据报连接，客户端和服务端共用，所有IO操作都在所属的事件循环线程中执行，发送方法可以在任意线程调用
+ * <p>
+ * 需要ACK的数据报（{@link Datagram#shouldAck(byte)}）发送后进入发送窗口，收到对端的ACK（body是原数据报的ID）后发送成功；超时没
+ * 有收到ACK时重传，重传次数用尽后发送失败；发送窗口满了之后新的数据报进入等待队列，窗口有空位时再发送，等待队列也满了之后直接失败。
+ * 其他类型的数据报写出到socket后就算发送成功
+ * <p>
+ * 接收方不会按照数据报ID去重，重传可能导致对端的{@link DatagramHandler}多次收到同一个ID的数据报
+ *
+ * @author JoeKerouac
+ * @version 2019年12月05日 10:30
+ */
+@Slf4j
+public class DatagramConnection implements EventLoop.KeyHandler {
+
+    /**
+     * 单次gather写出的最大缓冲区数量
+     */
+    private static final int MAX_GATHER = 64;
+
+    /**
+     * 单个读事件中最多读取的次数，避免一个连接占用过多时间
+     */
+    private static final int MAX_READ_TIMES = 16;
+
+    /**
+     * 心跳超时倍数，超过该倍数的心跳间隔没有收到数据时关闭连接
+     */
+    private static final int HEARTBEAT_TIMEOUT_TIMES = 3;
+
+    private final EventLoop loop;
+
+    private final SocketChannel channel;
+
+    private final TransportConfig config;
+
+    private final DatagramHandler handler;
+
+    private final DatagramDecoder decoder;
+
+    /**
+     * 等待写出的数据
+     */
+    private final ArrayDeque<Outbound> outbound = new ArrayDeque<>();
+
+    /**
+     * 已发送、等待ACK的数据报，key是第一次发送时复制出来的数据报ID（数据报完成后会被释放，不能再从数据报中读取ID）
+     */
+    private final Map<ByteBuf, Pending> inFlight = new HashMap<>();
+
+    /**
+     * 发送窗口满了之后等待发送的数据报
+     */
+    private final ArrayDeque<Pending> backlog = new ArrayDeque<>();
+
+    private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+
+    private final List<ByteBufDatagram> received = new ArrayList<>();
+
+    private final CompletableFuture<Void> closeFuture = new CompletableFuture<>();
+
+    private SelectionKey key;
+
+    private boolean connected;
+
+    private boolean flushScheduled;
+
+    private volatile boolean closed;
+
+    private long lastRead;
+
+    private long lastWrite;
+
+    DatagramConnection(EventLoop loop, SocketChannel channel, TransportConfig config, DatagramHandler handler) {
+        this.loop = loop;
+        this.channel = channel;
+        this.config = config;
+        this.handler = handler;
+        this.decoder = new DatagramDecoder(config.getMaxFrameLength());
+    }
+
+    /**
+     * 发送数据报
+     *
+     * @param body
+     *            数据报body，可以为null
+     * @param type
+     *            数据报类型
+     * @return 发送结果，需要ACK的数据报在收到ACK后完成，其他数据报在写出到socket后完成
+     */
+    public CompletableFuture<Void> send(byte[] body, byte type) {
+        return send(DatagramCodec.build(body, type, DatagramConst.Version.V1));
+    }
+
+    /**
+     * 发送数据报，数据报的所有权转移给连接，发送完成后由连接释放
+     *
+     * @param datagram
+     *            数据报
+     * @return 发送结果，需要ACK的数据报在收到ACK后完成，其他数据报在写出到socket后完成
+     */
+    public CompletableFuture<Void> send(ByteBufDatagram datagram) {
+        Assert.notNull(datagram, "datagram不能为null");
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (loop.inLoop()) {
+            doSend(datagram, future);
+        } else {
+            loop.execute(() -> doSend(datagram, future));
+        }
+        return future;
+    }
+
+    /**
+     * 关闭连接，未完成的发送全部失败
+     */
+    public void close() {
+        if (loop.inLoop()) {
+            close(new ClosedChannelException());
+        } else {
+            loop.execute(() -> close(new ClosedChannelException()));
+        }
+    }
+
+    /**
+     * 连接是否已经关闭
+     *
+     * @return 返回true表示连接已经关闭
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 连接关闭时完成的future
+     *
+     * @return future
+     */
+    public CompletableFuture<Void> closeFuture() {
+        return closeFuture;
+    }
+
+    /**
+     * 对端地址
+     *
+     * @return 对端地址，连接关闭后返回null
+     */
+    public SocketAddress remoteAddress() {
+        try {
+            return channel.getRemoteAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 连接所属的事件循环，只供测试使用
+     *
+     * @return 事件循环
+     */
+    EventLoop eventLoop() {
+        return loop;
+    }
+
+    /**
+     * 注册到事件循环，必须在事件循环线程中调用
+     *
+     * @param connected
+     *            channel是否已经连接完成
+     */
+    void register(boolean connected) {
+        try {
+            this.connected = connected;
+            this.key = loop.register(channel, connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, this);
+        } catch (IOException e) {
+            close(e);
+            return;
+        }
+        lastRead = lastWrite = System.nanoTime();
+        scheduleHeartbeat();
+        if (connected) {
+            scheduleFlush();
+        }
+    }
+
+    @Override
+    public void handle(SelectionKey key) throws IOException {
+        if (key.isConnectable()) {
+            channel.finishConnect();
+            connected = true;
+            key.interestOps(SelectionKey.OP_READ);
+            scheduleFlush();
+            return;
+        }
+        if (key.isReadable()) {
+            read();
+        }
+        if (key.isValid() && key.isWritable()) {
+            flush();
+        }
+    }
+
+    @Override
+    public void close(Throwable cause) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("连接关闭异常", e);
+        }
+
+        Outbound out;
+        while ((out = outbound.poll()) != null) {
+            out.buf.release();
+            if (out.future != null) {
+                out.future.completeExceptionally(cause);
+            }
+        }
+        for (Pending pending : inFlight.values()) {
+            pending.fail(cause);
+        }
+        inFlight.clear();
+        Pending pending;
+        while ((pending = backlog.poll()) != null) {
+            pending.fail(cause);
+        }
+        decoder.close();
+        closeFuture.complete(null);
+    }
+
+    /**
+     * 将等待写出的数据写出到socket，socket缓冲区满了之后注册OP_WRITE，可写时继续写出
+     */
+    void flush() {
+        flushScheduled = false;
+        if (closed || !connected) {
+            return;
+        }
+        try {
+            while (!outbound.isEmpty()) {
+                int count = 0;
+                long expected = 0;
+                for (Outbound out : outbound) {
+                    ByteBuffer[] buffers = out.buf.nioBuffers();
+                    if (count + buffers.length > MAX_GATHER) {
+                        break;
+                    }
+                    System.arraycopy(buffers, 0, gather, count, buffers.length);
+                    count += buffers.length;
+                    expected += out.buf.readableBytes();
+                }
+
+                long written;
+                if (count == 0) {
+                    // 单个数据报的缓冲区数量就超过了上限，单独写出
+                    ByteBuf buf = outbound.peek().buf;
+                    expected = buf.readableBytes();
+                    written = channel.write(buf.nioBuffers());
+                } else {
+                    written = channel.write(gather, 0, count);
+                    Arrays.fill(gather, 0, count, null);
+                }
+                lastWrite = System.nanoTime();
+                complete(written);
+                if (written < expected) {
+                    // socket缓冲区满了，等待可写
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            close(e);
+            return;
+        }
+        int ops = key.interestOps();
+        if (outbound.isEmpty()) {
+            if ((ops & SelectionKey.OP_WRITE) != 0) {
+                key.interestOps(ops & ~SelectionKey.OP_WRITE);
+            }
+        } else if ((ops & SelectionKey.OP_WRITE) == 0) {
+            key.interestOps(ops | SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * 根据写出的字节数移除已经写出的数据
+     */
+    private void complete(long bytes) {
+        while (bytes > 0) {
+            Outbound out = outbound.peek();
+            int readable = out.buf.readableBytes();
+            if (readable > bytes) {
+                out.buf.skipBytes((int)bytes);
+                return;
+            }
+            bytes -= readable;
+            outbound.poll();
+            out.buf.release();
+            if (out.future != null) {
+                out.future.complete(null);
+            }
+        }
+    }
+
+    private void read() throws IOException {
+        for (int i = 0; i < MAX_READ_TIMES; i++) {
+            int size = config.getReadBufferSize();
+            ByteBuf buf = PooledByteBufAllocator.DEFAULT.ioBuffer(size, size);
+            int len;
+            try {
+                len = buf.writeBytes(channel, size);
+            } catch (IOException e) {
+                buf.release();
+                throw e;
+            }
+            if (len <= 0) {
+                buf.release();
+                if (len < 0) {
+                    close(new ClosedChannelException());
+                }
+                return;
+            }
+            lastRead = System.nanoTime();
+            decoder.decode(buf, received);
+            try {
+                for (int j = 0; j < received.size(); j++) {
+                    onDatagram(received.get(j));
+                    received.set(j, null);
+                }
+            } finally {
+                for (ByteBufDatagram datagram : received) {
+                    if (datagram != null) {
+                        datagram.release();
+                    }
+                }
+                received.clear();
+            }
+            // 没有读满说明socket中暂时没有数据了；buf的所有权已经转移给解码器，这里不能再使用
+            if (len < size || closed) {
+                return;
+            }
+        }
+    }
+
+    private void onDatagram(ByteBufDatagram datagram) {
+        try {
+            byte type = datagram.type();
+            if (Datagram.isHeartbeat(type)) {
+                return;
+            }
+            if (Datagram.isAck(type)) {
+                Pending pending = inFlight.remove(datagram.body());
+                if (pending != null) {
+                    pending.succeed();
+                    drainBacklog();
+                }
+                return;
+            }
+
+            handler.handle(this, datagram);
+            if (datagram.ack() && !closed) {
+                // ACK的body就是原数据报的ID
+                doSend(DatagramCodec.build(datagram.id().retain(), DatagramConst.Type.ACK, DatagramConst.Version.V1),
+                    null);
+            }
+        } catch (Throwable t) {
+            log.warn("数据报处理异常，不回复ACK，数据报：{}", datagram, t);
+        } finally {
+            datagram.release();
+        }
+    }
+
+    private void doSend(ByteBufDatagram datagram, CompletableFuture<Void> future) {
+        if (closed) {
+            datagram.release();
+            if (future != null) {
+                future.completeExceptionally(new ClosedChannelException());
+            }
+            return;
+        }
+        if (!datagram.ack()) {
+            write(datagram.content(), future);
+            return;
+        }
+
+        Pending pending = new Pending(datagram, future);
+        if (inFlight.size() < config.getMaxInFlight()) {
+            transmit(pending);
+        } else if (backlog.size() < config.getMaxBacklog()) {
+            backlog.add(pending);
+        } else {
+            pending.fail(new ProtocolException("发送队列已满，当前等待ACK的数据报数量：" + inFlight.size()));
+        }
+    }
+
+    /**
+     * 发送需要ACK的数据报，并且设置ACK超时
+     */
+    private void transmit(Pending pending) {
+        int attempt = ++pending.attempts;
+        if (attempt == 1) {
+            pending.id = Unpooled.copiedBuffer(pending.datagram.id());
+            inFlight.put(pending.id, pending);
+        }
+        // 发送的是副本，原数据报保留用于重传
+        write(pending.datagram.content().retainedDuplicate(), null);
+        pending.timer = loop.schedule(() -> onAckTimeout(pending, attempt), config.getAckTimeout());
+    }
+
+    private void onAckTimeout(Pending pending, int attempt) {
+        // 数据报完成后已经被释放，只能使用复制出来的ID
+        if (closed || pending.done || pending.attempts != attempt) {
+            return;
+        }
+        if (attempt > config.getMaxRetries()) {
+            inFlight.remove(pending.id);
+            String id = pending.id.toString(StandardCharsets.US_ASCII).trim();
+            pending.fail(new AckTimeoutException("数据报" + id + "重传" + config.getMaxRetries() + "次后仍然没有收到ACK"));
+            drainBacklog();
+        } else {
+            log.debug("数据报ACK超时，第{}次重传", attempt);
+            transmit(pending);
+        }
+    }
+
+    private void drainBacklog() {
+        while (inFlight.size() < config.getMaxInFlight() && !backlog.isEmpty()) {
+            transmit(backlog.poll());
+        }
+    }
+
+    private void write(ByteBuf buf, CompletableFuture<Void> future) {
+        outbound.add(new Outbound(buf, future));
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            loop.flushLater(this);
+        }
+    }
+
+    private void scheduleHeartbeat() {
+        loop.schedule(this::heartbeat, config.getHeartbeatInterval());
+    }
+
+    private void heartbeat() {
+        if (closed) {
+            return;
+        }
+        long now = System.nanoTime();
+        long interval = TimeUnit.MILLISECONDS.toNanos(config.getHeartbeatInterval());
+        if (now - lastRead > interval * HEARTBEAT_TIMEOUT_TIMES) {
+            log.info("连接[{}]心跳超时，关闭连接", remoteAddress());
+            close(new ProtocolException("心跳超时"));
+            return;
+        }
+        if (connected && now - lastWrite >= interval) {
+            doSend(DatagramCodec.build((byte[])null, DatagramConst.Type.HEARTBEAT, DatagramConst.Version.V1), null);
+        }
+        scheduleHeartbeat();
+    }
+
+    private static final class Outbound {
+
+        private final ByteBuf buf;
+
+        private final CompletableFuture<Void> future;
+
+        private Outbound(ByteBuf buf, CompletableFuture<Void> future) {
+            this.buf = buf;
+            this.future = future;
+        }
+    }
+
+    private static final class Pending {
+
+        private final ByteBufDatagram datagram;
+
+        private final CompletableFuture<Void> future;
+
+        /**
+         * 数据报ID，第一次发送时从数据报中复制
+         */
+        private ByteBuf id;
+
+        /**
+         * 当前的ACK超时定时任务
+         */
+        private EventLoop.Timer timer;
+
+        private int attempts;
+
+        /**
+         * 是否已经完成，完成后数据报已经释放
+         */
+        private boolean done;
+
+        private Pending(ByteBufDatagram datagram, CompletableFuture<Void> future) {
+            this.datagram = datagram;
+            this.future = future;
+        }
+
+        private void succeed() {
+            if (finish()) {
+                future.complete(null);
+            }
+        }
+
+        private void fail(Throwable cause) {
+            if (finish()) {
+                future.completeExceptionally(cause);
+            }
+        }
+
+        /**
+         * 完成：取消ACK超时定时任务并释放数据报
+         *
+         * @return 是否需要通知future
+         */
+        private boolean finish() {
+            if (done) {
+                return false;
+            }
+            done = true;
+            if (timer != null) {
+                timer.cancel();
+                timer = null;
+            }
+            datagram.release();
+            return future != null;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.joe.utils.protocol.transport;
+
+import com.joe.utils.protocol.ByteBufDatagram;
+
+/**
+ * 数据报处理器，在事件循环线程中调用，不能执行阻塞操作（耗时操作需要提交到其他线程池，此时需要先调用数据报的retain）
+ * <p>
+ * 处理器返回后数据报会被释放；需要ACK的数据报在处理器正常返回后才会回复ACK，处理器抛出异常时不回复ACK，对端超时后会重传；ACK在
+ * 对端超时之后才到达（延迟或者丢失）时对端同样会重传。传输层不会按照数据报ID去重，同一个ID的数据报可能多次传给处理器，处理器需要
+ * 保证幂等
+ *
+ * @author JoeKerouac
+ * @version 2019年12月05日 10:20
+ */
+@FunctionalInterface
+public interface DatagramHandler {
+
+    /**
+     * 处理数据报（心跳包和ACK由传输层处理，不会传给处理器）
+     *
+     * @param connection
+     *            数据报来源连接，可以用来回复数据
+     * @param datagram
+     *            数据报
+     */
+    void handle(DatagramConnection connection, ByteBufDatagram datagram);
+}
@@ -0,0 +1,150 @@
+package com.joe.utils.protocol.transport;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.joe.utils.common.Assert;
+import com.joe.utils.exception.IOExceptionWrapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 基于NIO的数据报服务端，所有连接共用一个事件循环线程
+ *
+ * @author JoeKerouac
+ * @version 2019年12月05日 11:00
+ */
+@Slf4j
+public class DatagramServer {
+
+    private final AtomicBoolean shutdown = new AtomicBoolean(true);
+
+    private final String host;
+
+    private final int port;
+
+    private final TransportConfig config;
+
+    private final DatagramHandler handler;
+
+    private EventLoop loop;
+
+    private ServerSocketChannel acceptor;
+
+    /**
+     * 使用默认配置构建服务端
+     *
+     * @param port
+     *            端口，为0时随机选择一个端口，可以通过{@link #port()}获取
+     * @param handler
+     *            数据报处理器
+     */
+    public DatagramServer(int port, DatagramHandler handler) {
+        this(null, port, new TransportConfig(), handler);
+    }
+
+    /**
+     * 构建服务端
+     *
+     * @param host
+     *            监听的地址，为null时监听所有地址
+     * @param port
+     *            端口，为0时随机选择一个端口，可以通过{@link #port()}获取
+     * @param config
+     *            传输层配置
+     * @param handler
+     *            数据报处理器
+     */
+    public DatagramServer(String host, int port, TransportConfig config, DatagramHandler handler) {
+        Assert.isTrue(port >= 0, "port不能小于0");
+        Assert.notNull(config, "config不能为null");
+        Assert.notNull(handler, "handler不能为null");
+        this.host = host;
+        this.port = port;
+        this.config = config;
+        this.handler = handler;
+    }
+
+    /**
+     * 启动服务端
+     */
+    public void start() {
+        if (shutdown.compareAndSet(true, false)) {
+            try {
+                acceptor = ServerSocketChannel.open();
+                acceptor.bind(host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port));
+                acceptor.configureBlocking(false);
+                loop = new EventLoop("datagram-server-" + port());
+                loop.register(acceptor, SelectionKey.OP_ACCEPT, new Acceptor());
+                loop.start();
+                log.info("数据报服务端监听端口：{}", port());
+            } catch (IOException e) {
+                log.error("数据报服务端启动失败", e);
+                shutdown.set(true);
+                throw new IOExceptionWrapper(e);
+            }
+        }
+    }
+
+    /**
+     * 关闭服务端，同时关闭所有连接
+     */
+    public void shutdown() {
+        if (shutdown.compareAndSet(false, true)) {
+            loop.shutdown();
+        }
+    }
+
+    /**
+     * 实际监听的端口
+     *
+     * @return 端口
+     */
+    public int port() {
+        return acceptor == null ? port : acceptor.socket().getLocalPort();
+    }
+
+    private class Acceptor implements EventLoop.KeyHandler {
+
+        @Override
+        public void handle(SelectionKey key) throws IOException {
+            SocketChannel channel;
+            while ((channel = accept()) != null) {
+                try {
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(true);
+                } catch (IOException e) {
+                    log.warn("连接初始化失败", e);
+                    channel.close();
+                    continue;
+                }
+                new DatagramConnection(loop, channel, config, handler).register(true);
+            }
+        }
+
+        /**
+         * 接受连接，出现异常（例如文件句柄耗尽）时不关闭服务端，等待下次事件
+         */
+        private SocketChannel accept() {
+            try {
+                return acceptor.accept();
+            } catch (IOException e) {
+                log.warn("接受连接失败", e);
+                return null;
+            }
+        }
+
+        @Override
+        public void close(Throwable cause) {
+            try {
+                acceptor.close();
+            } catch (IOException e) {
+                log.warn("数据报服务端关闭异常", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.joe.utils.protocol.transport;
+
+import java.io.IOException;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.joe.utils.exception.IOExceptionWrapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 单线程的事件循环，每一轮依次：等待IO事件、处理IO事件、执行提交的任务、执行到期的定时任务、统一刷出本轮所有连接写入的数据
+ * <p>
+ * 除了{@link #execute(Runnable)}、{@link #shutdown()}外，其他方法只能在事件循环线程中调用
+ *
+ * @author JoeKerouac
+ * @version 2019年12月05日 10:10
+ */
+@Slf4j
+final class EventLoop {
+
+    /**
+     * 注册到selector上的channel的处理器
+     */
+    interface KeyHandler {
+
+        /**
+         * 处理IO事件
+         *
+         * @param key
+         *            SelectionKey
+         * @throws IOException
+         *             IO异常
+         */
+        void handle(SelectionKey key) throws IOException;
+
+        /**
+         * 处理IO事件出现异常或者事件循环关闭时调用
+         *
+         * @param cause
+         *            原因
+         */
+        void close(Throwable cause);
+    }
+
+    private final Selector selector;
+
+    private final Thread thread;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>();
+
+    /**
+     * 本轮有数据需要刷出的连接
+     */
+    private final List<DatagramConnection> flushes = new ArrayList<>();
+
+    /**
+     * 是否已经唤醒过selector，避免重复调用开销较大的wakeup
+     */
+    private final AtomicBoolean wakenUp = new AtomicBoolean();
+
+    private volatile boolean shutdown;
+
+    private long timerSeq;
+
+    EventLoop(String name) {
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new IOExceptionWrapper(e);
+        }
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    boolean inLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * 提交任务，在事件循环线程中执行，任务按照提交顺序执行
+     *
+     * @param task
+     *            任务
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        if (!inLoop() && wakenUp.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * 添加定时任务
+     *
+     * @param task
+     *            任务
+     * @param delay
+     *            延迟时间，单位毫秒
+     * @return 定时任务，可以在执行前取消
+     */
+    Timer schedule(Runnable task, long delay) {
+        Timer timer = new Timer(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay), timerSeq++, task);
+        timers.add(timer);
+        return timer;
+    }
+
+    /**
+     * 当前等待执行的定时任务数量，只供测试使用，必须在事件循环线程中调用
+     *
+     * @return 定时任务数量
+     */
+    int timerCount() {
+        return timers.size();
+    }
+
+    /**
+     * 注册channel
+     *
+     * @param channel
+     *            channel
+     * @param ops
+     *            感兴趣的事件
+     * @param handler
+     *            处理器
+     * @return SelectionKey
+     * @throws ClosedChannelException
+     *             channel已经关闭时抛出该异常
+     */
+    SelectionKey register(SelectableChannel channel, int ops, KeyHandler handler) throws ClosedChannelException {
+        return channel.register(selector, ops, handler);
+    }
+
+    /**
+     * 本轮结束时刷出连接中写入的数据，同一轮中的多次写入合并为一次刷出
+     *
+     * @param connection
+     *            连接
+     */
+    void flushLater(DatagramConnection connection) {
+        flushes.add(connection);
+    }
+
+    /**
+     * 关闭事件循环，所有注册的channel都会被关闭
+     */
+    void shutdown() {
+        shutdown = true;
+        selector.wakeup();
+        if (!inLoop()) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        while (!shutdown) {
+            try {
+                long timeout = nextTimeout();
+                if (!tasks.isEmpty() || timeout == 0) {
+                    selector.selectNow();
+                } else {
+                    selector.select(timeout);
+                }
+                wakenUp.set(false);
+                processKeys();
+                runTasks();
+                runTimers();
+                flush();
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (Throwable t) {
+                log.error("数据报事件循环出现异常", t);
+            }
+        }
+
+        IOException cause = new ClosedChannelException();
+        for (SelectionKey key : selector.keys()) {
+            ((KeyHandler)key.attachment()).close(cause);
+        }
+        runTasks();
+        try {
+            selector.close();
+        } catch (IOException e) {
+            log.warn("selector关闭失败", e);
+        }
+    }
+
+    private void processKeys() {
+        Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+        while (it.hasNext()) {
+            SelectionKey key = it.next();
+            it.remove();
+            KeyHandler handler = (KeyHandler)key.attachment();
+            try {
+                if (key.isValid()) {
+                    handler.handle(key);
+                }
+            } catch (Throwable t) {
+                log.debug("channel处理异常，关闭channel", t);
+                handler.close(t);
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                log.error("数据报事件循环任务执行异常", t);
+            }
+        }
+    }
+
+    private void runTimers() {
+        long now = System.nanoTime();
+        Timer timer;
+        while ((timer = timers.peek()) != null && timer.deadline - now <= 0) {
+            timers.poll();
+            try {
+                timer.task.run();
+            } catch (Throwable t) {
+                log.error("数据报事件循环定时任务执行异常", t);
+            }
+        }
+    }
+
+    private void flush() {
+        // 刷出时可能关闭连接，关闭连接时又可能产生新的需要刷出的连接，所以使用下标遍历
+        for (int i = 0; i < flushes.size(); i++) {
+            flushes.get(i).flush();
+        }
+        flushes.clear();
+    }
+
+    /**
+     * 距离下一个定时任务的时间，单位毫秒，0表示不等待
+     */
+    private long nextTimeout() {
+        Timer timer = timers.peek();
+        if (timer == null) {
+            return TimeUnit.SECONDS.toMillis(1);
+        }
+        long nanos = timer.deadline - System.nanoTime();
+        return nanos <= 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    /**
+     * 定时任务，只能在事件循环线程中取消
+     */
+    final class Timer implements Comparable<Timer> {
+
+        private final long deadline;
+
+        private final long seq;
+
+        private final Runnable task;
+
+        private Timer(long deadline, long seq, Runnable task) {
+            this.deadline = deadline;
+            this.seq = seq;
+            this.task = task;
+        }
+
+        /**
+         * 取消定时任务，从定时任务队列中移除，已经执行的任务取消无效果
+         */
+        void cancel() {
+            timers.remove(this);
+        }
+
+        @Override
+        public int compareTo(Timer other) {
+            long diff = deadline - other.deadline;
+            if (diff != 0) {
+                return diff < 0 ? -1 : 1;
+            }
+            return Long.compare(seq, other.seq);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.joe.utils.protocol.transport;
+
+import com.joe.utils.protocol.DatagramConst;
+
+import lombok.Data;
+
+/**
+ * 数据报传输层配置，所有时间单位都是毫秒
+ *
+ * @author JoeKerouac
+ * @version 2019年12月05日 10:00
+ */
+@Data
+public class TransportConfig {
+
+    /**
+     * 等待ACK的超时时间，超时后重传
+     */
+    private long ackTimeout = 3000;
+
+    /**
+     * 最大重传次数，重传次数用尽后仍然没有收到ACK则发送失败
+     */
+    private int maxRetries = 3;
+
+    /**
+     * 心跳间隔，连接在该时间内没有写出数据时发送心跳包；超过三个心跳间隔没有收到任何数据时关闭连接
+     */
+    private long heartbeatInterval = 30000;
+
+    /**
+     * 单个连接上已发送、等待ACK的数据报的最大数量（发送窗口），超过后新的数据报进入等待队列
+     */
+    private int maxInFlight = 64;
+
+    /**
+     * 单个连接上等待队列的最大长度，超过后发送直接失败
+     */
+    private int maxBacklog = 1024;
+
+    /**
+     * 数据报的最大长度（包含报头）
+     */
+    private int maxFrameLength = DatagramConst.Position.MAX_LENGTH;
+
+    /**
+     * 客户端连接池中每个地址的最大连接数
+     */
+    private int poolSize = 2;
+
+    /**
+     * 单次读取的缓冲区大小
+     */
+    private int readBufferSize = 64 * 1024;
+}
@@ -22,7 +22,8 @@ public interface Interception {
      * @param method
      *            拦截的方法
      * @param invoker
-     *            父类方法调用（可能为null，为null时表示无法调用父类方法）
+     *            父类方法调用（可能为null，为null时表示无法调用父类方法），父类方法抛出的异常原样抛出，不会被包装为
+     *            {@link java.lang.reflect.InvocationTargetException}（早期版本通过反射调用被代理对象时会包装）
      * @return 拦截点执行结果
      * @throws Throwable
      *             执行异常
@@ -49,6 +50,32 @@ public interface Interception {
      *             Throwable
      */
     static Object invokeWrap(Interception interception, Object target, Method method, Object realTarget,
+        Object[] params, Invoker superCall) throws Throwable {
+        Assert.notNull(method);
+        return invokeWrap(interception, target, ProxyMethod.of(method), realTarget, params, superCall);
+    }
+
+    /**
+     * 拦截方法包装执行，与{@link #invokeWrap(Interception, Object, Method, Object, Object[], Invoker)}相同，方法使用预编译的
+     * {@link ProxyMethod}
+     *
+     * @param interception
+     *            拦截的方法的代理，不能为null
+     * @param target
+     *            被代理的对象，只有对指定对象代理时才会有值，其他情况为null
+     * @param method
+     *            被代理的方法，不能为null
+     * @param realTarget
+     *            代理target，可以为null
+     * @param params
+     *            执行方法的参数，可以为null
+     * @param superCall
+     *            父类调用，可以为null
+     * @return 方法执行结果
+     * @throws Throwable
+     *             Throwable
+     */
+    static Object invokeWrap(Interception interception, Object target, ProxyMethod method, Object realTarget,
         Object[] params, Invoker superCall) throws Throwable {
         Assert.notNull(interception);
         Assert.notNull(method);
@@ -59,21 +86,21 @@ public interface Interception {
         if (target == null) {
             invoker = superCall;
         } else {
-            invoker = buildInvoker(target, method, params);
+            invoker = method.invoker(target, params);
         }
 
         Object invokeObj = target == null ? realTarget : target;
 
         // 如果还是null那说明是直接生成指定类的代理而不是指定对象的代理，并且该方法是Object的方法
         if (invoker == null) {
-            invoker = buildObjectMethod(invokeObj, method, params);
+            invoker = method.objectMethodInvoker(invokeObj, params);
         }
 
-        return interception.invoke(invokeObj, params, method, invoker);
+        return interception.invoke(invokeObj, params, method.getMethod(), invoker);
     }
 
     /**
-     * 构建指定对象指定方法的父调用，如果指定对象是代理对象，那么将会调用该对象的代理方法，否则将会直接使用指定对象反射调用指定方法
+     * 构建指定对象指定方法的父调用，如果指定对象是代理对象，那么将会调用该对象的代理方法，否则将会直接调用指定对象的指定方法
      * 
      * @param obj
      *            指定对象
@@ -84,13 +111,7 @@ public interface Interception {
      * @return 指定方法的父调用
      */
     static Invoker buildInvoker(Object obj, Method method, Object[] params) {
-        if (obj instanceof ProxyParent) {
-            ProxyParent proxyParent = (ProxyParent)obj;
-            Object target = proxyParent.GET_TARGET();
-            Interception parentInterception = proxyParent.GET_INTERCEPTION();
-            return () -> parentInterception.invoke(target, params, method, buildInvoker(target, method, params));
-        }
-        return () -> method.invoke(obj, params);
+        return ProxyMethod.of(method).invoker(obj, params);
     }
 
     /**
@@ -105,18 +126,6 @@ public interface Interception {
      * @return 父类方法调用
      */
     static Invoker buildObjectMethod(Object proxy, Method method, Object[] args) {
-        Object proxyObj = new Object();
-        if (MethodMetadata.HASH_CODE_META.equals(method)) {
-            return proxyObj::hashCode;
-        } else if (MethodMetadata.TO_STRING_META.equals(method)) {
-            String toString = proxyObj.toString().replace("java.lang.Object", proxy.getClass().getName() + "$$Proxy");
-            return () -> toString;
-        } else if (MethodMetadata.EQUALS_META.equals(method)) {
-            return () -> proxy == args[0];
-        } else if (MethodMetadata.isObjectMethod(method)) {
-            return () -> method.invoke(proxy, args);
-        } else {
-            return null;
-        }
+        return ProxyMethod.of(method).objectMethodInvoker(proxy, args);
     }
 }
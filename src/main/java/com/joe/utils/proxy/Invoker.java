@@ -13,7 +13,7 @@ public interface Invoker {
      * 
      * @return 调用结果
      * @throws Throwable
-     *             异常
+     *             异常，被调用方法抛出的异常原样抛出，不会被包装为{@link java.lang.reflect.InvocationTargetException}
      */
     Object call() throws Throwable;
 }
@@ -0,0 +1,180 @@
+package com.joe.utils.proxy;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.joe.utils.collection.cache.CacheRegistry;
+import com.joe.utils.collection.cache.CacheStats;
+import com.joe.utils.collection.cache.StatsCounter;
+import com.joe.utils.common.Assert;
+
+/**
+ * 所有{@link ProxyClient}共享的代理class缓存，同一个classloader下相同形状（代理客户端类型、父类、接口集合等）的代理class只生成一次，
+ * 之后每次创建代理只需要实例化并绑定拦截器
+ * <p>
+ * 缓存对classloader、形状中的所有对象、生成的class都只持有弱引用，不会阻止classloader卸载
+ *
+ * @author JoeKerouac
+ * @version 2019年12月07日 10:00
+ */
+public final class ProxyClassCache {
+
+    /**
+     * 第一层按照目标classloader划分，classloader为null时表示使用父类的classloader
+     */
+    private static final Map<ClassLoader, Map<Key, WeakReference<Class<?>>>> CACHE = new WeakHashMap<>();
+
+    private static final StatsCounter STATS_COUNTER = new StatsCounter();
+
+    static {
+        CacheRegistry.register("ProxyClassCache", ProxyClassCache::stats);
+    }
+
+    private ProxyClassCache() {}
+
+    /**
+     * 从缓存中获取代理class，不存在时使用generator生成，同一个形状并发获取时只会生成一次
+     *
+     * @param loader
+     *            目标classloader，可以为null
+     * @param generator
+     *            代理class生成器
+     * @param shape
+     *            代理class的形状，按照引用比较，不能为空
+     * @param <T>
+     *            代理类型
+     * @return 代理class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Class<? extends T> get(ClassLoader loader, Supplier<Class<? extends T>> generator,
+        Object... shape) {
+        Assert.notNull(generator, "generator不能为null");
+        Assert.isTrue(shape != null && shape.length > 0, "shape不能为空");
+
+        Map<Key, WeakReference<Class<?>>> classes;
+        synchronized (CACHE) {
+            classes = CACHE.computeIfAbsent(loader, k -> new ConcurrentHashMap<>());
+        }
+
+        Key lookup = new Key(shape, false);
+        Class<?> clazz = deref(classes.get(lookup));
+        if (clazz != null) {
+            STATS_COUNTER.recordHit();
+            return (Class<? extends T>)clazz;
+        }
+
+        synchronized (classes) {
+            clazz = deref(classes.get(lookup));
+            if (clazz == null) {
+                STATS_COUNTER.recordMiss();
+                long start = System.nanoTime();
+                clazz = generator.get();
+                STATS_COUNTER.recordLoad(System.nanoTime() - start);
+                purge(classes);
+                classes.put(new Key(shape, true), new WeakReference<>(clazz));
+            } else {
+                STATS_COUNTER.recordHit();
+            }
+        }
+        return (Class<? extends T>)clazz;
+    }
+
+    /**
+     * 缓存统计信息
+     *
+     * @return 统计信息
+     */
+    public static CacheStats stats() {
+        long size = 0;
+        synchronized (CACHE) {
+            for (Map<Key, WeakReference<Class<?>>> classes : CACHE.values()) {
+                size += classes.size();
+            }
+        }
+        return STATS_COUNTER.snapshot(size);
+    }
+
+    private static Class<?> deref(WeakReference<Class<?>> reference) {
+        return reference == null ? null : reference.get();
+    }
+
+    /**
+     * 清理已经被回收的class
+     */
+    private static void purge(Map<Key, WeakReference<Class<?>>> classes) {
+        int before = classes.size();
+        classes.entrySet().removeIf(entry -> entry.getValue().get() == null || entry.getKey().cleared());
+        int evicted = before - classes.size();
+        if (evicted > 0) {
+            STATS_COUNTER.recordEviction(evicted);
+        }
+    }
+
+    /**
+     * 缓存key，查找时直接持有形状，放入缓存时对形状中的对象只持有弱引用，两种key按照形状中对象的引用相互比较
+     */
+    private static final class Key {
+
+        /**
+         * 形状中null的替代
+         */
+        private static final Object NULL = new Object();
+
+        private final Object[] parts;
+
+        private final boolean weak;
+
+        private final int hash;
+
+        private Key(Object[] shape, boolean weak) {
+            int hash = 1;
+            Object[] parts = new Object[shape.length];
+            for (int i = 0; i < shape.length; i++) {
+                Object part = shape[i] == null ? NULL : shape[i];
+                hash = 31 * hash + System.identityHashCode(part);
+                parts[i] = weak ? new WeakReference<>(part) : part;
+            }
+            this.parts = parts;
+            this.weak = weak;
+            this.hash = hash;
+        }
+
+        private Object part(int index) {
+            return weak ? ((WeakReference<?>)parts[index]).get() : parts[index];
+        }
+
+        private boolean cleared() {
+            return weak && Arrays.stream(parts).anyMatch(part -> ((WeakReference<?>)part).get() == null);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key)obj;
+            if (hash != other.hash || parts.length != other.parts.length) {
+                return false;
+            }
+            for (int i = 0; i < parts.length; i++) {
+                Object part = part(i);
+                if (part == null || part != other.part(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -7,7 +7,8 @@ import com.joe.utils.reflect.clazz.ClassUtils;
  *
  * 注意java代理客户端{@link com.joe.utils.proxy.java.JavaProxyClient JavaProxyClient}的特殊性
  *
- * 不保证多次创建的代理对象{@link Object#getClass() getClass}方法的返回值相同
+ * 不保证多次创建的代理对象{@link Object#getClass() getClass}方法的返回值相同（通常相同parent、classloader的代理对象会共享代理class，
+ * 参见{@link ProxyClassCache}）
  *
  * @author JoeKerouac
  * @version $Id: joe, v 0.1 2018年11月07日 11:17 JoeKerouac Exp $
@@ -242,7 +243,12 @@ public interface ProxyClient {
         /**
          * JAVA代理客户端
          */
-        JAVA("com.joe.utils.proxy.java.JavaProxyClient");
+        JAVA("com.joe.utils.proxy.java.JavaProxyClient"),
+
+        /**
+         * ASM代理客户端
+         */
+        ASM("com.joe.utils.proxy.asm.AsmProxyClient");
 
         private String clientClass;
 
@@ -0,0 +1,381 @@
+package com.joe.utils.proxy;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.joe.utils.common.Assert;
+import com.joe.utils.object.CustomObject;
+import com.joe.utils.proxy.asm.AsmMethodAccessorFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 预编译的代理方法，代理方法第一次被调用时构建，之后的调用直接使用（方法调用器在第一次直接调用方法时才构建）：
+ * <ul>
+ * <li>方法是否是{@link ProxyParent}、Object的方法等信息只计算一次</li>
+ * <li>对被代理对象的调用优先使用ASM生成的{@link Accessor}（参见{@link AsmMethodAccessorFactory}），无法生成时使用
+ * {@link MethodHandle}，不使用{@link Method#invoke(Object, Object...)}反射调用，被代理方法抛出的异常原样抛出，不会被包装为
+ * {@link java.lang.reflect.InvocationTargetException}</li>
+ * <li>hashCode、equals、toString有直接的快速实现</li>
+ * <li>所有父调用都使用同一个{@link Invoker}实现，不会为每次调用生成不同的lambda，拦截器中invoker.call()的调用点类型单一，JIT
+ * 可以内联并消除父调用对象的分配</li>
+ * </ul>
+ * 线程安全
+ *
+ * @author JoeKerouac
+ * @version 2019年12月07日 15:00
+ */
+@Slf4j
+public final class ProxyMethod {
+
+    /**
+     * 按照声明类划分的缓存，不会阻止声明类卸载
+     */
+    private static final ClassValue<Map<Method, ProxyMethod>> CACHE = new ClassValue<Map<Method, ProxyMethod>>() {
+        @Override
+        protected Map<Method, ProxyMethod> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static final Object[] EMPTY = new Object[0];
+
+    /**
+     * ASM是否可用（ASM是provided依赖，运行时不一定存在），不可用时使用方法句柄调用
+     */
+    private static final boolean ASM_SUPPORT;
+
+    static {
+        boolean support;
+        try {
+            Class.forName("org.objectweb.asm.ClassWriter", false, ProxyMethod.class.getClassLoader());
+            support = true;
+        } catch (Throwable e) {
+            log.info("当前环境中没有ASM，ProxyMethod将使用方法句柄调用");
+            support = false;
+        }
+        ASM_SUPPORT = support;
+    }
+
+    /**
+     * 方法类型
+     */
+    private static final int NORMAL = 0;
+
+    private static final int HASH_CODE = 1;
+
+    private static final int EQUALS = 2;
+
+    private static final int TO_STRING = 3;
+
+    /**
+     * 除了hashCode、equals、toString以外的Object的方法
+     */
+    private static final int OBJECT = 4;
+
+    /**
+     * 方法
+     */
+    private final Method method;
+
+    /**
+     * 反射调用的句柄，方法无法直接构建句柄时使用
+     */
+    private static final MethodHandle REFLECT_INVOKE;
+
+    static {
+        try {
+            REFLECT_INVOKE = MethodHandles.lookup().findStatic(ProxyMethod.class, "reflectInvoke",
+                MethodType.methodType(Object.class, Method.class, Object.class, Object[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new ProxyException(e);
+        }
+    }
+
+    /**
+     * 方法调用器，第一次调用时构建；调用器是无状态的或者只有final字段，并发构建时结果等价，不需要同步也不需要volatile
+     */
+    private Accessor accessor;
+
+    /**
+     * 方法类型
+     */
+    private final int kind;
+
+    /**
+     * 是否是{@link ProxyParent}声明的方法
+     */
+    private final boolean proxyParentMethod;
+
+    private ProxyMethod(Method method) {
+        this.method = method;
+        this.proxyParentMethod = CustomObject.of(MethodMetadata.build(method)).in(ProxyParent.GET_TARGET,
+            ProxyParent.GET_TARGET_CLASS, ProxyParent.GET_INTERFACES, ProxyParent.GET_LINKED_INTERCEPTION);
+        if (MethodMetadata.HASH_CODE_META.equals(method)) {
+            this.kind = HASH_CODE;
+        } else if (MethodMetadata.TO_STRING_META.equals(method)) {
+            this.kind = TO_STRING;
+        } else if (MethodMetadata.EQUALS_META.equals(method)) {
+            this.kind = EQUALS;
+        } else if (MethodMetadata.isObjectMethod(method)) {
+            this.kind = OBJECT;
+        } else {
+            this.kind = NORMAL;
+        }
+    }
+
+    /**
+     * 构建方法调用器，优先使用ASM生成，无法生成时使用方法句柄
+     *
+     * @return 方法调用器
+     */
+    private Accessor buildAccessor() {
+        if (ASM_SUPPORT && AsmMethodAccessorFactory.isSupport(method)) {
+            try {
+                return AsmMethodAccessorFactory.build(method);
+            } catch (Throwable e) {
+                log.debug("无法为方法[{}]生成调用器，使用方法句柄调用", method, e);
+            }
+        }
+        return new HandleAccessor(buildHandle());
+    }
+
+    /**
+     * 构建方法调用句柄；public类的public方法不需要修改访问权限，其他方法尝试修改访问权限（JDK9以上未开放的模块中的方法会失败），无法
+     * 构建句柄时使用反射调用
+     *
+     * @return 方法调用句柄
+     */
+    private MethodHandle buildHandle() {
+        boolean accessible =
+            Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers());
+        if (!accessible) {
+            try {
+                method.setAccessible(true);
+            } catch (RuntimeException e) {
+                // JDK9以上是InaccessibleObjectException，JDK8是SecurityException
+                log.debug("无法更改方法[{}]的访问权限", method, e);
+            }
+        }
+
+        int paramCount = method.getParameterCount();
+        try {
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handle.asType(MethodType.genericMethodType(paramCount + 1)).asSpreader(Object[].class,
+                paramCount);
+        } catch (IllegalAccessException e) {
+            log.debug("方法[{}]无法构建调用句柄，使用反射调用", method, e);
+            return REFLECT_INVOKE.bindTo(method);
+        }
+    }
+
+    /**
+     * 反射调用方法，方法抛出的异常原样抛出
+     */
+    private static Object reflectInvoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * 获取方法对应的预编译代理方法
+     *
+     * @param method
+     *            方法，不能为null
+     * @return 预编译代理方法
+     */
+    public static ProxyMethod of(Method method) {
+        Assert.notNull(method, "method不能为null");
+        Map<Method, ProxyMethod> methods = CACHE.get(method.getDeclaringClass());
+        ProxyMethod proxyMethod = methods.get(method);
+        if (proxyMethod == null) {
+            proxyMethod = methods.computeIfAbsent(method, ProxyMethod::new);
+        }
+        return proxyMethod;
+    }
+
+    /**
+     * 对应的方法
+     *
+     * @return 方法
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * 是否是{@link ProxyParent}声明的方法
+     *
+     * @return true表示是{@link ProxyParent}声明的方法
+     */
+    public boolean isProxyParentMethod() {
+        return proxyParentMethod;
+    }
+
+    /**
+     * 使用指定对象和参数直接调用方法（不经过拦截），异常原样抛出
+     *
+     * @param target
+     *            对象，静态方法时可以为null
+     * @param params
+     *            参数，无参方法时可以为null
+     * @return 执行结果
+     * @throws Throwable
+     *             方法执行异常
+     */
+    public Object invoke(Object target, Object[] params) throws Throwable {
+        Accessor accessor = this.accessor;
+        if (accessor == null) {
+            accessor = this.accessor = buildAccessor();
+        }
+        return accessor.invoke(target, params == null ? EMPTY : params);
+    }
+
+    /**
+     * 构建直接调用指定对象该方法的父调用（不经过拦截），即使指定对象是代理对象
+     *
+     * @param target
+     *            指定对象
+     * @param params
+     *            参数
+     * @return 父调用
+     */
+    public Invoker directInvoker(Object target, Object[] params) {
+        return new MethodCall(this, target, params, null, false);
+    }
+
+    /**
+     * 构建指定对象该方法的父调用，如果指定对象是代理对象，那么将会调用该对象的拦截点，否则直接调用指定对象的方法
+     *
+     * @param obj
+     *            指定对象
+     * @param params
+     *            参数
+     * @return 父调用
+     */
+    public Invoker invoker(Object obj, Object[] params) {
+        if (obj instanceof ProxyParent) {
+            ProxyParent proxyParent = (ProxyParent)obj;
+            return new MethodCall(this, proxyParent.GET_TARGET(), params, proxyParent.GET_INTERCEPTION(), false);
+        }
+        return new MethodCall(this, obj, params, null, false);
+    }
+
+    /**
+     * 构建Object方法的父调用，不是Object方法时返回null
+     *
+     * @param proxy
+     *            被代理的对象（对于java代理来说就是代理本身）
+     * @param params
+     *            参数
+     * @return 父调用
+     */
+    public Invoker objectMethodInvoker(Object proxy, Object[] params) {
+        return kind == NORMAL ? null : new MethodCall(this, proxy, params, null, true);
+    }
+
+    @Override
+    public String toString() {
+        return "ProxyMethod(" + method + ")";
+    }
+
+    /**
+     * 方法调用器，将(Object target, Object[] args)形式的调用转换为对方法的直接调用，方法抛出的异常原样抛出
+     */
+    public interface Accessor {
+
+        /**
+         * 调用方法
+         *
+         * @param target
+         *            对象，静态方法时忽略
+         * @param args
+         *            参数，不能为null
+         * @return 执行结果，void方法返回null
+         * @throws Throwable
+         *             方法执行异常
+         */
+        Object invoke(Object target, Object[] args) throws Throwable;
+    }
+
+    /**
+     * 使用方法句柄实现的调用器，句柄类型为(Object, Object[])Object
+     */
+    private static final class HandleAccessor implements Accessor {
+
+        private final MethodHandle handle;
+
+        private HandleAccessor(MethodHandle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            return (Object)handle.invokeExact(target, args);
+        }
+    }
+
+    /**
+     * 父调用，所有父调用共用该实现
+     */
+    private static final class MethodCall implements Invoker {
+
+        private final ProxyMethod method;
+
+        private final Object target;
+
+        private final Object[] params;
+
+        /**
+         * target所属代理对象的拦截点，不为null时先经过该拦截点
+         */
+        private final Interception interception;
+
+        /**
+         * 是否是Object方法的父调用
+         */
+        private final boolean objectMethod;
+
+        private MethodCall(ProxyMethod method, Object target, Object[] params, Interception interception,
+            boolean objectMethod) {
+            this.method = method;
+            this.target = target;
+            this.params = params;
+            this.interception = interception;
+            this.objectMethod = objectMethod;
+        }
+
+        @Override
+        public Object call() throws Throwable {
+            if (interception != null) {
+                return interception.invoke(target, params, method.method, method.invoker(target, params));
+            } else if (!objectMethod) {
+                return method.invoke(target, params);
+            }
+
+            switch (method.kind) {
+                case HASH_CODE:
+                    return System.identityHashCode(target);
+                case TO_STRING:
+                    return target.getClass().getName() + "$$Proxy@"
+                           + Integer.toHexString(System.identityHashCode(target));
+                case EQUALS:
+                    return target == params[0];
+                default:
+                    return method.invoke(target, params);
+            }
+        }
+    }
+}
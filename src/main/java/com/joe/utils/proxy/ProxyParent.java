@@ -4,7 +4,6 @@ import java.lang.reflect.Method;
 
 import com.joe.utils.common.Assert;
 import com.joe.utils.common.string.StringFormater;
-import com.joe.utils.object.CustomObject;
 import com.joe.utils.reflect.ReflectUtil;
 
 /**
@@ -79,8 +78,7 @@ public interface ProxyParent {
      * @return true表示可以执行，即可以调用{@link #invoke(Method, ProxyParent)}
      */
     static boolean canInvoke(Method method) {
-        return CustomObject.of(MethodMetadata.build(method)).in(GET_TARGET, GET_TARGET_CLASS, GET_INTERFACES,
-            GET_LINKED_INTERCEPTION);
+        return ProxyMethod.of(method).isProxyParentMethod();
     }
 
     /**
@@ -98,9 +96,9 @@ public interface ProxyParent {
         Assert.notNull(method);
         Assert.notNull(proxyParent);
 
-        MethodMetadata metadata = MethodMetadata.build(method);
-        if (canInvoke(method)) {
-            return metadata.invoke(proxyParent);
+        ProxyMethod proxyMethod = ProxyMethod.of(method);
+        if (proxyMethod.isProxyParentMethod()) {
+            return ReflectUtil.invoke(proxyParent, method);
         } else {
             throw new ProxyException(StringFormater.simpleFormat("方法[{0}]不是ProxyParent中声明的", method));
         }
@@ -0,0 +1,14 @@
+package com.joe.utils.proxy.asm;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记需要在构建期预生成代理class的类或者接口，{@link AotProxyGenerator}会扫描所有带该注解的类并生成代理class
+ *
+ * @author JoeKerouac
+ * @version 2019年12月10日 10:00
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+@Documented
+public @interface AotProxy {}
@@ -0,0 +1,88 @@
+package com.joe.utils.proxy.asm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.joe.utils.common.Assert;
+import com.joe.utils.proxy.ProxyException;
+import com.joe.utils.scan.ClassScanner;
+
+/**
+ * 构建期代理class生成器，将代理class预先生成为class文件，运行时{@link AsmProxyClient#create}优先加载预生成的class，避免启动时
+ * 生成字节码；预生成的class不存在或者和父类不匹配时运行时生成
+ * <p>
+ * 可以在构建流程中（例如exec-maven-plugin的java目标，在process-classes阶段）执行：
+ *
+ * <pre>
+ * java -cp ... com.joe.utils.proxy.asm.AotProxyGenerator target/classes com.demo.service com.demo.dao
+ * </pre>
+ *
+ * 第一个参数为输出目录（通常就是编译输出目录），后续参数为要扫描的包名，包中所有带{@link AotProxy}注解的类都会生成代理class
+ *
+ * @author JoeKerouac
+ * @version 2019年12月10日 10:00
+ */
+public final class AotProxyGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AotProxyGenerator.class);
+
+    private AotProxyGenerator() {}
+
+    public static void main(String[] args) {
+        if (args == null || args.length < 2) {
+            throw new IllegalArgumentException(
+                "用法：AotProxyGenerator <输出目录> <包名>...，例如：AotProxyGenerator target/classes com.demo");
+        }
+        File output = new File(args[0]);
+        List<Class<?>> classes = scan(Arrays.copyOfRange(args, 1, args.length));
+        List<File> files = generate(output, classes);
+        LOGGER.info("预生成代理class完成，共生成{}个class，输出目录：{}", files.size(), output.getAbsolutePath());
+    }
+
+    /**
+     * 扫描指定包中所有带{@link AotProxy}注解的类
+     *
+     * @param packages
+     *            包名
+     * @return 所有带{@link AotProxy}注解的类
+     */
+    public static List<Class<?>> scan(String... packages) {
+        return ClassScanner.getInstance().scanByMetadata(
+            Collections.singletonList(metadata -> !metadata.isAnnotationPresent(AotProxy.class)), packages);
+    }
+
+    /**
+     * 为指定的类生成代理class文件
+     *
+     * @param output
+     *            输出目录，class文件按照包结构输出到该目录下
+     * @param classes
+     *            要代理的类或者接口，必须是public的非final类
+     * @return 生成的class文件
+     */
+    public static List<File> generate(File output, Collection<Class<?>> classes) {
+        Assert.notNull(output, "输出目录不能为null");
+        Assert.notNull(classes, "要代理的类不能为null");
+
+        List<File> files = new ArrayList<>(classes.size());
+        for (Class<?> clazz : new LinkedHashSet<>(classes)) {
+            String name = AsmProxyGenerator.aotClassName(clazz);
+            Path path = output.toPath().resolve(name.replace('.', File.separatorChar) + ".class");
+            try {
+                Files.createDirectories(path.getParent());
+                Files.write(path, AsmProxyGenerator.generateAot(clazz));
+            } catch (IOException e) {
+                throw new ProxyException("写出预生成代理class[" + name + "]失败", e);
+            }
+            LOGGER.debug("生成[{}]的代理class：{}", clazz.getName(), path);
+            files.add(path.toFile());
+        }
+        return files;
+    }
+}
@@ -0,0 +1,132 @@
+package com.joe.utils.proxy.asm;
+
+import java.util.function.Supplier;
+
+import com.joe.utils.collection.CollectionUtil;
+import com.joe.utils.common.Assert;
+import com.joe.utils.proxy.Interception;
+import com.joe.utils.proxy.Invoker;
+import com.joe.utils.proxy.ProxyException;
+import com.joe.utils.proxy.ProxyMethod;
+import com.joe.utils.proxy.ProxyParent;
+
+/**
+ * ASM代理对象的拦截器，{@link AsmProxyClient}生成的代理class中的每个方法都会直接调用
+ * {@link #intercept(AsmInterceptor, Object, ProxyMethod, int, Object[])}
+ *
+ * @author JoeKerouac
+ * @version 2019年12月08日 10:00
+ */
+public final class AsmInterceptor {
+
+    /**
+     * 当前线程正在创建的代理对象的拦截器，构造器执行期间代理对象还没有绑定拦截器，此时使用该拦截器
+     */
+    private static final ThreadLocal<AsmInterceptor> BINDING = new ThreadLocal<>();
+
+    /**
+     * 代理方法实现
+     */
+    private final Interception interception;
+
+    /**
+     * target，可以为空，为空表示生成新代理，不为空表示对target代理
+     */
+    private final Object target;
+
+    private final ProxyParent proxyParent;
+
+    AsmInterceptor(Interception interception, Class<?> parent, Object target) {
+        Assert.notNull(interception);
+        Assert.notNull(parent);
+        this.interception = interception;
+        this.target = target;
+        this.proxyParent = new ProxyParent.InternalProxyParent(target, parent,
+            CollectionUtil.addTo(ProxyParent.class, parent.getInterfaces()), interception);
+    }
+
+    /**
+     * 创建代理对象并绑定拦截器
+     *
+     * @param interceptor
+     *            拦截器
+     * @param instantiator
+     *            代理对象创建器
+     * @param <T>
+     *            代理类型
+     * @return 绑定了拦截器的代理对象
+     */
+    static <T> T bind(AsmInterceptor interceptor, Supplier<T> instantiator) {
+        AsmInterceptor old = BINDING.get();
+        BINDING.set(interceptor);
+        try {
+            T instance = instantiator.get();
+            ((AsmProxy)instance).$$bind(interceptor);
+            return instance;
+        } finally {
+            if (old == null) {
+                BINDING.remove();
+            } else {
+                BINDING.set(old);
+            }
+        }
+    }
+
+    /**
+     * 拦截方法，由生成的代理class调用
+     *
+     * @param interceptor
+     *            代理对象绑定的拦截器，为null时使用当前线程正在绑定的拦截器
+     * @param proxy
+     *            代理对象
+     * @param method
+     *            被拦截的方法
+     * @param superIndex
+     *            父类方法在{@link AsmProxy#$$invokeSuper(int, Object[])}中的下标，小于0表示没有父类方法可以调用
+     * @param args
+     *            调用参数
+     * @return 执行结果
+     * @throws Throwable
+     *             执行异常
+     */
+    public static Object intercept(AsmInterceptor interceptor, Object proxy, ProxyMethod method, int superIndex,
+        Object[] args) throws Throwable {
+        if (interceptor == null) {
+            interceptor = BINDING.get();
+            if (interceptor == null) {
+                throw new ProxyException("代理对象没有绑定拦截器，请使用ProxyClient#create创建代理对象");
+            }
+        }
+
+        if (method.isProxyParentMethod()) {
+            ProxyParent proxyParent = interceptor.proxyParent;
+            return Interception.invokeWrap(interceptor.interception, null, method, proxy, args,
+                method.directInvoker(proxyParent, args));
+        }
+        Invoker superCall = superIndex < 0 ? null : new SuperCall((AsmProxy)proxy, superIndex, args);
+        return Interception.invokeWrap(interceptor.interception, interceptor.target, method, proxy, args, superCall);
+    }
+
+    /**
+     * 父类方法调用，通过{@link AsmProxy#$$invokeSuper(int, Object[])}使用invokespecial直接调用父类方法
+     */
+    private static final class SuperCall implements Invoker {
+
+        private final AsmProxy proxy;
+
+        private final int index;
+
+        private final Object[] args;
+
+        private SuperCall(AsmProxy proxy, int index, Object[] args) {
+            this.proxy = proxy;
+            this.index = index;
+            this.args = args;
+        }
+
+        @Override
+        public Object call() throws Throwable {
+            return proxy.$$invokeSuper(index, args);
+        }
+    }
+}
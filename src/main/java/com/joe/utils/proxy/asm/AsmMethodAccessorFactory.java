@@ -0,0 +1,199 @@
+package com.joe.utils.proxy.asm;
+
+import static com.joe.utils.reflect.ByteCodeUtils.*;
+import static com.joe.utils.reflect.asm.AsmByteCodeUtils.*;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+
+import com.joe.utils.common.Assert;
+import com.joe.utils.proxy.ProxyMethod;
+import com.joe.utils.reflect.asm.AsmDynamicClassLoader;
+import com.joe.utils.reflect.clazz.ClassUtils;
+import com.joe.utils.reflect.type.JavaTypeUtil;
+
+/**
+ * 使用ASM为单个方法生成{@link ProxyMethod.Accessor}，生成的调用器直接调用方法，等价于如下代码：
+ *
+ * <pre>
+ * public Object invoke(Object target, Object[] args) {
+ *     return ((Target)target).say((String)args[0], ((Integer)args[1]).intValue());
+ * }
+ * </pre>
+ *
+ * 与方法句柄相比，调用器中的方法调用是普通的字节码调用，JIT可以直接内联，不依赖句柄是否是常量
+ *
+ * @author JoeKerouac
+ * @version 2019年12月10日 10:00
+ */
+public final class AsmMethodAccessorFactory {
+
+    /**
+     * {@link ProxyMethod.Accessor#invoke(Object, Object[])}方法的byte code说明
+     */
+    private static final String INVOKE_METHOD_DESC = getDesc(Object.class, Object.class, Object[].class);
+
+    private AsmMethodAccessorFactory() {}
+
+    /**
+     * 判断是否可以为指定方法生成调用器：方法、声明类、参数类型、返回值类型都必须是public的，并且能够找到同时可以看到这些类型和
+     * {@link ProxyMethod.Accessor}的ClassLoader
+     *
+     * @param method
+     *            方法
+     * @return 返回true表示可以生成
+     */
+    public static boolean isSupport(Method method) {
+        return Modifier.isPublic(method.getModifiers()) && getClassLoader(method) != null;
+    }
+
+    /**
+     * 生成调用器，调用前应该先使用{@link #isSupport(Method)}判断
+     *
+     * @param method
+     *            方法
+     * @return 调用器
+     */
+    public static ProxyMethod.Accessor build(Method method) {
+        Assert.isTrue(isSupport(method), "不支持为方法[" + method + "]生成调用器");
+
+        String className = createClassName();
+        byte[] byteCode = buildByteCode(method, className);
+        // 每个调用器使用单独的ClassLoader，调用器不再使用后可以被回收
+        AsmDynamicClassLoader classLoader = new AsmDynamicClassLoader(getClassLoader(method));
+        Class<ProxyMethod.Accessor> clazz = classLoader.buildClass(className, byteCode, 0, byteCode.length);
+        return ClassUtils.getInstance(clazz);
+    }
+
+    /**
+     * 构建byte code
+     *
+     * @param method
+     *            方法
+     * @param className
+     *            生成的class名
+     * @return 生成的class的byte code数据
+     */
+    private static byte[] buildByteCode(Method method, String className) {
+        // 生成的代码中没有分支，不需要计算栈帧
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_8, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, convert(className), null, convert(Object.class),
+            new String[] {convert(ProxyMethod.Accessor.class)});
+
+        // 默认构造器
+        {
+            MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, INIT, getDesc(void.class), null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitMethodInsn(INVOKESPECIAL, convert(Object.class), INIT, getDesc(void.class), false);
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        // invoke方法
+        {
+            MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "invoke", INVOKE_METHOD_DESC, null,
+                new String[] {convert(Throwable.class)});
+            mv.visitCode();
+
+            Class<?> declaringClass = method.getDeclaringClass();
+            boolean isStatic = Modifier.isStatic(method.getModifiers());
+            if (!isStatic) {
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitTypeInsn(CHECKCAST, convert(declaringClass));
+            }
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                mv.visitVarInsn(ALOAD, 2);
+                pushInt(mv, i);
+                mv.visitInsn(AALOAD);
+                checkCast(mv, parameterTypes[i]);
+            }
+
+            boolean isInterface = declaringClass.isInterface();
+            int opcode = isStatic ? INVOKESTATIC : isInterface ? INVOKEINTERFACE : INVOKEVIRTUAL;
+            mv.visitMethodInsn(opcode, convert(declaringClass), method.getName(), getMethodDesc(method),
+                isInterface);
+
+            Class<?> returnType = method.getReturnType();
+            if (returnType == void.class) {
+                mv.visitInsn(ACONST_NULL);
+            } else if (returnType.isPrimitive()) {
+                Class<?> boxed = JavaTypeUtil.boxed(returnType);
+                mv.visitMethodInsn(INVOKESTATIC, convert(boxed), "valueOf", getDesc(boxed, returnType), false);
+            }
+            mv.visitInsn(ARETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * 获取用于加载调用器的ClassLoader，依次尝试方法声明类的ClassLoader和当前ClassLoader（方法声明类是JDK中的类时）
+     *
+     * @param method
+     *            方法
+     * @return ClassLoader，不存在可用的ClassLoader时返回null
+     */
+    private static ClassLoader getClassLoader(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        // JDK9以上bootstrap加载的类中只有java包下的类一定是导出的
+        if (declaringClass.getClassLoader() == null && !declaringClass.getName().startsWith("java.")) {
+            return null;
+        }
+
+        ClassLoader[] loaders = {declaringClass.getClassLoader(), ProxyMethod.class.getClassLoader()};
+        for (ClassLoader loader : loaders) {
+            if (loader != null && isVisible(loader, ProxyMethod.Accessor.class) && isVisible(loader, method)) {
+                return loader;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isVisible(ClassLoader loader, Method method) {
+        if (!isVisible(loader, method.getDeclaringClass()) || !isVisible(loader, method.getReturnType())) {
+            return false;
+        }
+        for (Class<?> type : method.getParameterTypes()) {
+            if (!isVisible(loader, type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断指定Class是否是public的并且在指定ClassLoader中可见
+     *
+     * @param loader
+     *            ClassLoader
+     * @param clazz
+     *            Class
+     * @return 返回true表示可见
+     */
+    private static boolean isVisible(ClassLoader loader, Class<?> clazz) {
+        while (clazz.isArray()) {
+            clazz = clazz.getComponentType();
+        }
+        if (clazz.isPrimitive()) {
+            return true;
+        }
+        if (!Modifier.isPublic(clazz.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(clazz.getName(), false, loader) == clazz;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+}
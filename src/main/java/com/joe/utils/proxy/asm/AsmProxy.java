@@ -0,0 +1,31 @@
+package com.joe.utils.proxy.asm;
+
+/**
+ * {@link AsmProxyClient}生成的代理class都实现该接口，该接口仅供内部使用
+ *
+ * @author JoeKerouac
+ * @version 2019年12月08日 10:00
+ */
+public interface AsmProxy {
+
+    /**
+     * 绑定拦截器
+     *
+     * @param interceptor
+     *            拦截器
+     */
+    void $$bind(AsmInterceptor interceptor);
+
+    /**
+     * 使用invokespecial直接调用父类方法
+     *
+     * @param index
+     *            父类方法下标
+     * @param args
+     *            参数
+     * @return 父类方法执行结果，void方法返回null，基本类型会装箱
+     * @throws Throwable
+     *             父类方法执行异常
+     */
+    Object $$invokeSuper(int index, Object[] args) throws Throwable;
+}
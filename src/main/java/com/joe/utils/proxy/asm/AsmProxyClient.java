@@ -0,0 +1,90 @@
+package com.joe.utils.proxy.asm;
+
+import com.joe.utils.collection.CollectionUtil;
+import com.joe.utils.common.string.StringUtils;
+import com.joe.utils.proxy.Interception;
+import com.joe.utils.proxy.ProxyClassCache;
+import com.joe.utils.proxy.ProxyClassLoader;
+import com.joe.utils.proxy.ProxyClient;
+import com.joe.utils.reflect.clazz.ClassUtils;
+
+/**
+ * 直接使用ASM生成代理子类的代理客户端，不依赖cglib、bytebuddy
+ * <p>
+ * 生成的代理class中每个方法持有对应的{@link com.joe.utils.proxy.ProxyMethod ProxyMethod}下标，直接调用拦截器，父类调用通过生成的
+ * tableswitch使用invokespecial执行，整个调用过程中没有反射
+ * <p>
+ * 相同parent、classloader的代理对象共享同一个代理class（参见{@link ProxyClassCache}），每次创建只需要实例化并绑定拦截器，构造器中
+ * 调用的方法同样会被拦截
+ * <p>
+ * 可以在构建期使用{@link AotProxyGenerator}预先生成代理class，运行时{@link #create create}会优先加载预生成的class，避免启动时
+ * 生成字节码
+ *
+ * @author JoeKerouac
+ * @version 2019年12月08日 10:00
+ */
+public class AsmProxyClient implements ProxyClient {
+
+    @Override
+    public <T> T create(Class<T> parent, T proxy, ClassLoader loader, String name, Interception interception,
+        Class<?>[] paramTypes, Object[] params) {
+        if (!CollectionUtil.sizeEquals(params, paramTypes)) {
+            throw new IllegalArgumentException("构造器参数列表paramTypes长度和实际参数params长度不一致");
+        }
+
+        ClassLoader realLoader = loader == null ? ProxyClient.DEFAULT_LOADER : loader;
+        // 指定了名字的class只能定义一次，不走缓存；优先使用构建期预生成的class，不存在时运行时生成
+        Class<? extends T> clazz = StringUtils.isEmpty(name) ? ProxyClassCache.get(realLoader, () -> {
+            Class<? extends T> aot = AsmProxyGenerator.loadAot(parent, realLoader);
+            return aot == null ? AsmProxyGenerator.generate(parent, null, convert(realLoader), null) : aot;
+        }, ClientType.ASM, parent) : AsmProxyGenerator.generate(parent, name, convert(realLoader), null);
+        return AsmInterceptor.bind(new AsmInterceptor(interception, parent, proxy),
+            () -> ClassUtils.getInstance(clazz, paramTypes, params));
+    }
+
+    /**
+     * 构建指定对象的代理Class，稍后可以通过反射构建该class的实例，对象的类必须是公共的，同时代理方法也必须是公共的
+     * <p>
+     * 返回的class中固化了interception和proxy，相同的parent、proxy、interception和loader返回同一个class
+     * </p>
+     *
+     * @param parent
+     *            指定接口
+     * @param proxy
+     *            被代理的对象
+     * @param loader
+     *            加载生成的对象的class的classloader
+     * @param name
+     *            生成的对象的class名字
+     * @param interception
+     *            方法代理
+     * @param <T>
+     *            代理真实类型
+     * @return 代理class
+     */
+    @Override
+    public <T> Class<? extends T> createClass(Class<T> parent, T proxy, ClassLoader loader, String name,
+        Interception interception) {
+        ClassLoader realLoader = loader == null ? ProxyClient.DEFAULT_LOADER : loader;
+        AsmInterceptor interceptor = new AsmInterceptor(interception, parent, proxy);
+        if (!StringUtils.isEmpty(name)) {
+            return AsmProxyGenerator.generate(parent, name, convert(realLoader), interceptor);
+        }
+        return ProxyClassCache.get(realLoader,
+            () -> AsmProxyGenerator.generate(parent, null, convert(realLoader), interceptor), ClientType.ASM, parent,
+            interception, proxy);
+    }
+
+    @Override
+    public ClientType getClientType() {
+        return ClientType.ASM;
+    }
+
+    /**
+     * 生成class时才将目标classloader包装为{@link ProxyClassLoader}，缓存始终以调用方传入的classloader为key，保证同一个
+     * classloader下能够命中缓存
+     */
+    private static ProxyClassLoader convert(ClassLoader loader) {
+        return loader instanceof ProxyClassLoader ? (ProxyClassLoader)loader : new ProxyClassLoader(loader);
+    }
+}
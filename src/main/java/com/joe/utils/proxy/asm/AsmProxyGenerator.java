@@ -0,0 +1,593 @@
+package com.joe.utils.proxy.asm;
+
+import static com.joe.utils.reflect.ByteCodeUtils.*;
+import static com.joe.utils.reflect.asm.AsmByteCodeUtils.*;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.joe.utils.common.string.StringUtils;
+import com.joe.utils.proxy.ProxyClassLoader;
+import com.joe.utils.proxy.ProxyException;
+import com.joe.utils.proxy.ProxyMethod;
+import com.joe.utils.proxy.ProxyParent;
+import com.joe.utils.reflect.type.JavaTypeUtil;
+
+/**
+ * ASM代理class生成器，生成的class相当于：
+ *
+ * <pre>
+ * public class Parent$$AsmProxy$0 extends Parent implements ProxyParent, AsmProxy {
+ *     public static final String $$signature = "say(Ljava/lang/String;)Ljava/lang/String;#0";
+ *     public static final String $$constructors = "()V";
+ *     public static ProxyMethodTable $$methods;
+ *     public static AsmInterceptor $$default;
+ *     private AsmInterceptor $$interceptor;
+ *
+ *     public String say(String str) {
+ *         AsmInterceptor interceptor = $$interceptor != null ? $$interceptor : $$default;
+ *         return (String)AsmInterceptor.intercept(interceptor, this, $$methods.get(0), 0, new Object[] {str});
+ *     }
+ *
+ *     public Object $$invokeSuper(int index, Object[] args) {
+ *         switch (index) {
+ *             case 0:
+ *                 return super.say((String)args[0]);
+ *             ...
+ *         }
+ *     }
+ * }
+ * </pre>
+ *
+ * @author JoeKerouac
+ * @version 2019年12月08日 10:00
+ */
+final class AsmProxyGenerator {
+
+    /**
+     * 代理对象绑定的拦截器字段
+     */
+    private static final String INTERCEPTOR_FIELD = "$$interceptor";
+
+    /**
+     * class固化的默认拦截器字段，{@link AsmProxyClient#createClass}生成的class使用
+     */
+    private static final String DEFAULT_FIELD = "$$default";
+
+    /**
+     * 所有拦截方法对应的{@link ProxyMethodTable}，下标就是方法的下标
+     */
+    private static final String METHODS_FIELD = "$$methods";
+
+    /**
+     * 所有拦截方法的签名（方法名、完整描述符和父类方法下标），按下标顺序以{@link #SIGNATURE_SEPARATOR}分隔，预生成的class加载时用来
+     * 校验父类是否发生了变化并还原方法顺序
+     */
+    private static final String SIGNATURE_FIELD = "$$signature";
+
+    /**
+     * 所有构造器的描述符，排序后以{@link #SIGNATURE_SEPARATOR}分隔，预生成的class加载时用来校验父类构造器是否发生了变化
+     */
+    private static final String CONSTRUCTORS_FIELD = "$$constructors";
+
+    private static final String SIGNATURE_SEPARATOR = ",";
+
+    private static final char SUPER_INDEX_SEPARATOR = '#';
+
+    /**
+     * 预生成的代理class名后缀
+     */
+    private static final String AOT_SUFFIX = "$$AsmProxy$Aot";
+
+    private static final String BIND_METHOD = "$$bind";
+
+    private static final String INVOKE_SUPER_METHOD = "$$invokeSuper";
+
+    private static final String INTERCEPT_METHOD = "intercept";
+
+    private static final AtomicInteger COUNTER = new AtomicInteger(0);
+
+    private static final String INTERCEPTOR_DESC = getByteCodeType(AsmInterceptor.class);
+
+    private static final String METHODS_DESC = getByteCodeType(ProxyMethodTable.class);
+
+    private final Class<?> parent;
+
+    /**
+     * 生成的class的父类，代理接口时是Object
+     */
+    private final Class<?> superClass;
+
+    private final String className;
+
+    /**
+     * 要拦截的方法
+     */
+    private final List<Method> methods = new ArrayList<>();
+
+    /**
+     * 拦截的方法对应的父类方法下标，-1表示没有父类方法
+     */
+    private final List<Integer> superIndexes = new ArrayList<>();
+
+    /**
+     * 可以调用的父类方法
+     */
+    private final List<Method> superMethods = new ArrayList<>();
+
+    private AsmProxyGenerator(Class<?> parent, String name) {
+        if (!Modifier.isPublic(parent.getModifiers()) || Modifier.isFinal(parent.getModifiers())) {
+            throw new ProxyException("class[" + parent.getName() + "]不是public的或者是final的，无法代理");
+        }
+        this.parent = parent;
+        this.superClass = parent.isInterface() ? Object.class : parent;
+        if (StringUtils.isEmpty(name)) {
+            name = prefix(parent) + "$$AsmProxy$" + COUNTER.getAndIncrement();
+        }
+        this.className = convert(name);
+        collectMethods();
+    }
+
+    /**
+     * 获取指定父类的预生成代理class名
+     *
+     * @param parent
+     *            父类或者接口
+     * @return 预生成代理class名
+     */
+    static String aotClassName(Class<?> parent) {
+        return prefix(parent) + AOT_SUFFIX;
+    }
+
+    /**
+     * 生成预生成代理class的字节码，该class不固化拦截器，运行时由{@link #loadAot(Class, ClassLoader)}加载
+     *
+     * @param parent
+     *            父类或者接口
+     * @return class字节码
+     */
+    static byte[] generateAot(Class<?> parent) {
+        return new AsmProxyGenerator(parent, aotClassName(parent)).build();
+    }
+
+    /**
+     * 从指定classloader中加载预生成的代理class并初始化
+     *
+     * @param parent
+     *            父类或者接口
+     * @param loader
+     *            classloader
+     * @param <T>
+     *            父类型
+     * @return 预生成的代理class，不存在或者已经和父类不匹配（生成后父类发生了变化）时返回null
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Class<? extends T> loadAot(Class<T> parent, ClassLoader loader) {
+        String name = aotClassName(parent);
+        Class<?> clazz;
+        try {
+            clazz = Class.forName(name, false, loader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+        if (!parent.isAssignableFrom(clazz) || !AsmProxy.class.isAssignableFrom(clazz)) {
+            return null;
+        }
+
+        try {
+            Field methodsField = clazz.getField(METHODS_FIELD);
+            if (methodsField.get(null) != null) {
+                return (Class<? extends T>)clazz;
+            }
+
+            // 构造器、方法签名（包括返回类型、是否有父类实现）有任何不一致都说明父类在生成后发生了变化
+            AsmProxyGenerator generator = new AsmProxyGenerator(parent, name);
+            if (!generator.constructorsSignature().equals(clazz.getField(CONSTRUCTORS_FIELD).get(null))) {
+                return null;
+            }
+            Map<String, Integer> current = new HashMap<>();
+            for (int i = 0; i < generator.methods.size(); i++) {
+                current.put(getMethodSignature(generator.methods.get(i)), i);
+            }
+
+            // 按照生成时的方法顺序还原
+            String signature = (String)clazz.getField(SIGNATURE_FIELD).get(null);
+            String[] signatures = signature.isEmpty() ? new String[0] : signature.split(SIGNATURE_SEPARATOR);
+            if (signatures.length != current.size()) {
+                return null;
+            }
+            Method[] methods = new Method[signatures.length];
+            for (int i = 0; i < signatures.length; i++) {
+                int split = signatures[i].lastIndexOf(SUPER_INDEX_SEPARATOR);
+                Integer index = current.get(signatures[i].substring(0, split));
+                boolean hasSuper = Integer.parseInt(signatures[i].substring(split + 1)) >= 0;
+                if (index == null || hasSuper != generator.superIndexes.get(index) >= 0) {
+                    return null;
+                }
+                methods[i] = generator.methods.get(index);
+            }
+            methodsField.set(null, new ProxyMethodTable(methods));
+        } catch (ReflectiveOperationException e) {
+            throw new ProxyException("初始化预生成代理class[" + name + "]失败", e);
+        }
+        return (Class<? extends T>)clazz;
+    }
+
+    /**
+     * 生成代理class
+     *
+     * @param parent
+     *            父类或者接口
+     * @param name
+     *            class名，为空时自动生成
+     * @param loader
+     *            加载class的classloader
+     * @param defaultInterceptor
+     *            class固化的默认拦截器，可以为null
+     * @param <T>
+     *            父类型
+     * @return 代理class
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Class<? extends T> generate(Class<T> parent, String name, ProxyClassLoader loader,
+        AsmInterceptor defaultInterceptor) {
+        AsmProxyGenerator generator = new AsmProxyGenerator(parent, name);
+        Class<? extends T> clazz = (Class<? extends T>)loader.buildClass(generator.build());
+
+        try {
+            // ProxyMethod在方法第一次调用时才构建
+            clazz.getField(METHODS_FIELD).set(null, new ProxyMethodTable(generator.methods.toArray(new Method[0])));
+            clazz.getField(DEFAULT_FIELD).set(null, defaultInterceptor);
+        } catch (ReflectiveOperationException e) {
+            throw new ProxyException("初始化代理class[" + clazz.getName() + "]失败", e);
+        }
+        return clazz;
+    }
+
+    /**
+     * 收集要拦截的方法：父类（包括Object）中所有public、protected的非static、非final方法以及所有接口方法，子类中的方法覆盖父类中的
+     * 同签名方法；finalize方法不拦截
+     */
+    private void collectMethods() {
+        Map<String, Method> signatures = new LinkedHashMap<>();
+        Set<String> finals = new HashSet<>();
+        for (Class<?> type = superClass; type != null; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                String signature = signature(method);
+                if (Modifier.isStatic(modifiers) || method.isBridge() || method.isSynthetic()
+                    || signatures.containsKey(signature) || finals.contains(signature)) {
+                    continue;
+                }
+                if (Modifier.isFinal(modifiers) || "finalize".equals(method.getName())
+                    || !(Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers))) {
+                    // final方法、包级私有方法（生成的class不在同一个运行时包中）都无法覆盖，同时会隐藏父类中的同签名方法
+                    finals.add(signature);
+                    continue;
+                }
+                signatures.put(signature, method);
+            }
+        }
+
+        Deque<Class<?>> interfaces = new ArrayDeque<>();
+        interfaces.add(ProxyParent.class);
+        if (parent.isInterface()) {
+            interfaces.add(parent);
+        }
+        for (Class<?> type = superClass; type != null; type = type.getSuperclass()) {
+            interfaces.addAll(Arrays.asList(type.getInterfaces()));
+        }
+        Set<Class<?>> visited = new HashSet<>();
+        while (!interfaces.isEmpty()) {
+            Class<?> type = interfaces.poll();
+            if (!visited.add(type)) {
+                continue;
+            }
+            for (Method method : type.getDeclaredMethods()) {
+                String signature = signature(method);
+                if (Modifier.isStatic(method.getModifiers()) || method.isSynthetic()
+                    || signatures.containsKey(signature) || finals.contains(signature)) {
+                    continue;
+                }
+                signatures.put(signature, method);
+            }
+            interfaces.addAll(Arrays.asList(type.getInterfaces()));
+        }
+
+        for (Method method : signatures.values()) {
+            methods.add(method);
+            // 只有父类中有实现的方法才能调用父类方法，接口的默认方法在代理接口时不能调用
+            boolean hasSuper = !Modifier.isAbstract(method.getModifiers())
+                               && (!method.getDeclaringClass().isInterface() || !parent.isInterface());
+            if (hasSuper) {
+                superIndexes.add(superMethods.size());
+                superMethods.add(method);
+            } else {
+                superIndexes.add(-1);
+            }
+        }
+    }
+
+    private byte[] build() {
+        // 生成的代码中不会出现不同引用类型的合并，所以公共父类统一返回Object，避免ASM加载用户类
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                return convert(Object.class);
+            }
+        };
+
+        List<String> interfaces = new ArrayList<>();
+        if (parent.isInterface()) {
+            interfaces.add(convert(parent));
+        }
+        interfaces.add(convert(ProxyParent.class));
+        interfaces.add(convert(AsmProxy.class));
+        cw.visit(V1_8, ACC_PUBLIC | ACC_SUPER, className, null, convert(superClass),
+            interfaces.toArray(new String[0]));
+
+        StringJoiner signature = new StringJoiner(SIGNATURE_SEPARATOR);
+        for (int i = 0; i < methods.size(); i++) {
+            signature.add(getMethodSignature(methods.get(i)) + SUPER_INDEX_SEPARATOR + superIndexes.get(i));
+        }
+        cw.visitField(ACC_PUBLIC | ACC_STATIC | ACC_FINAL | ACC_SYNTHETIC, SIGNATURE_FIELD,
+            getByteCodeType(String.class), null, signature.toString()).visitEnd();
+        cw.visitField(ACC_PUBLIC | ACC_STATIC | ACC_FINAL | ACC_SYNTHETIC, CONSTRUCTORS_FIELD,
+            getByteCodeType(String.class), null, constructorsSignature()).visitEnd();
+        cw.visitField(ACC_PUBLIC | ACC_STATIC | ACC_SYNTHETIC, METHODS_FIELD, METHODS_DESC, null, null).visitEnd();
+        cw.visitField(ACC_PUBLIC | ACC_STATIC | ACC_SYNTHETIC, DEFAULT_FIELD, INTERCEPTOR_DESC, null, null)
+            .visitEnd();
+        cw.visitField(ACC_PRIVATE | ACC_SYNTHETIC, INTERCEPTOR_FIELD, INTERCEPTOR_DESC, null, null).visitEnd();
+
+        buildConstructors(cw);
+        for (int i = 0; i < methods.size(); i++) {
+            buildInterceptMethod(cw, i);
+        }
+        buildBindMethod(cw);
+        buildInvokeSuperMethod(cw);
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * 为父类的每个public、protected构造器生成一个public构造器，直接调用父类构造器
+     */
+    private void buildConstructors(ClassWriter cw) {
+        List<Constructor<?>> constructors = constructors();
+        if (constructors.isEmpty()) {
+            throw new ProxyException("class[" + parent.getName() + "]没有public或者protected的构造器，无法代理");
+        }
+
+        for (Constructor<?> constructor : constructors) {
+            String desc = getConstructorDesc(constructor);
+            MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, INIT, desc, null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            loadParams(mv, constructor.getParameterTypes());
+            mv.visitMethodInsn(INVOKESPECIAL, convert(superClass), INIT, desc, false);
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+    }
+
+    /**
+     * 父类中所有public、protected的构造器，生成的class为每个构造器生成一个对应的构造器
+     */
+    private List<Constructor<?>> constructors() {
+        List<Constructor<?>> constructors = new ArrayList<>();
+        for (Constructor<?> constructor : superClass.getDeclaredConstructors()) {
+            int modifiers = constructor.getModifiers();
+            if (Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers)) {
+                constructors.add(constructor);
+            }
+        }
+        return constructors;
+    }
+
+    /**
+     * 所有构造器描述符排序后拼接的字符串
+     */
+    private String constructorsSignature() {
+        List<String> descs = new ArrayList<>();
+        for (Constructor<?> constructor : constructors()) {
+            descs.add(getConstructorDesc(constructor));
+        }
+        Collections.sort(descs);
+        return String.join(SIGNATURE_SEPARATOR, descs);
+    }
+
+    /**
+     * 生成拦截方法
+     *
+     * @param cw
+     *            ClassWriter
+     * @param index
+     *            方法下标
+     */
+    private void buildInterceptMethod(ClassWriter cw, int index) {
+        Method method = methods.get(index);
+        Class<?>[] paramTypes = method.getParameterTypes();
+        int access = Modifier.isProtected(method.getModifiers()) ? ACC_PROTECTED : ACC_PUBLIC;
+        if (method.isVarArgs()) {
+            access |= ACC_VARARGS;
+        }
+        MethodVisitor mv = cw.visitMethod(access, method.getName(), getMethodDesc(method), null, null);
+        mv.visitCode();
+
+        // $$interceptor != null ? $$interceptor : $$default
+        Label bound = new Label();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, className, INTERCEPTOR_FIELD, INTERCEPTOR_DESC);
+        mv.visitInsn(DUP);
+        mv.visitJumpInsn(IFNONNULL, bound);
+        mv.visitInsn(POP);
+        mv.visitFieldInsn(GETSTATIC, className, DEFAULT_FIELD, INTERCEPTOR_DESC);
+        mv.visitLabel(bound);
+
+        // this, $$methods.get(index), superIndex
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETSTATIC, className, METHODS_FIELD, METHODS_DESC);
+        pushInt(mv, index);
+        mv.visitMethodInsn(INVOKEVIRTUAL, convert(ProxyMethodTable.class), "get",
+            getDesc(ProxyMethod.class, int.class), false);
+        pushInt(mv, superIndexes.get(index));
+
+        // new Object[] {args...}
+        pushInt(mv, paramTypes.length);
+        mv.visitTypeInsn(ANEWARRAY, convert(Object.class));
+        int slot = 1;
+        for (int i = 0; i < paramTypes.length; i++) {
+            Type type = Type.getType(paramTypes[i]);
+            mv.visitInsn(DUP);
+            pushInt(mv, i);
+            mv.visitVarInsn(type.getOpcode(ILOAD), slot);
+            box(mv, paramTypes[i]);
+            mv.visitInsn(AASTORE);
+            slot += type.getSize();
+        }
+
+        mv.visitMethodInsn(INVOKESTATIC, convert(AsmInterceptor.class), INTERCEPT_METHOD,
+            getDesc(Object.class, AsmInterceptor.class, Object.class, ProxyMethod.class, int.class, Object[].class),
+            false);
+
+        Class<?> returnType = method.getReturnType();
+        if (returnType == void.class) {
+            mv.visitInsn(POP);
+            mv.visitInsn(RETURN);
+        } else {
+            checkCast(mv, returnType);
+            mv.visitInsn(Type.getType(returnType).getOpcode(IRETURN));
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * 生成{@link AsmProxy#$$bind(AsmInterceptor)}方法
+     */
+    private void buildBindMethod(ClassWriter cw) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, BIND_METHOD, getDesc(void.class, AsmInterceptor.class), null,
+            null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitFieldInsn(PUTFIELD, className, INTERCEPTOR_FIELD, INTERCEPTOR_DESC);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * 生成{@link AsmProxy#$$invokeSuper(int, Object[])}方法，使用tableswitch跳转到对应的父类方法，使用invokespecial调用
+     */
+    private void buildInvokeSuperMethod(ClassWriter cw) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, INVOKE_SUPER_METHOD,
+            getDesc(Object.class, int.class, Object[].class), null, new String[] {convert(Throwable.class)});
+        mv.visitCode();
+
+        Label notFound = new Label();
+        if (!superMethods.isEmpty()) {
+            Label[] labels = new Label[superMethods.size()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = new Label();
+            }
+            mv.visitVarInsn(ILOAD, 1);
+            mv.visitTableSwitchInsn(0, labels.length - 1, notFound, labels);
+
+            for (int i = 0; i < labels.length; i++) {
+                Method method = superMethods.get(i);
+                mv.visitLabel(labels[i]);
+                mv.visitVarInsn(ALOAD, 0);
+                Class<?>[] types = method.getParameterTypes();
+                for (int j = 0; j < types.length; j++) {
+                    mv.visitVarInsn(ALOAD, 2);
+                    pushInt(mv, j);
+                    mv.visitInsn(AALOAD);
+                    checkCast(mv, types[j]);
+                }
+                // 父类是class时owner使用直接父类，由JVM解析到实际的实现（包括接口的默认方法）
+                mv.visitMethodInsn(INVOKESPECIAL, convert(superClass), method.getName(), getMethodDesc(method),
+                    false);
+                Class<?> returnType = method.getReturnType();
+                if (returnType == void.class) {
+                    mv.visitInsn(ACONST_NULL);
+                } else {
+                    box(mv, returnType);
+                }
+                mv.visitInsn(ARETURN);
+            }
+        }
+
+        // throw new IllegalArgumentException("super method not found: " + index);
+        mv.visitLabel(notFound);
+        mv.visitTypeInsn(NEW, convert(IllegalArgumentException.class));
+        mv.visitInsn(DUP);
+        mv.visitLdcInsn("super method not found: ");
+        mv.visitVarInsn(ILOAD, 1);
+        mv.visitMethodInsn(INVOKESTATIC, convert(Integer.class), "toString", getDesc(String.class, int.class), false);
+        mv.visitMethodInsn(INVOKEVIRTUAL, convert(String.class), "concat", getDesc(String.class, String.class),
+            false);
+        mv.visitMethodInsn(INVOKESPECIAL, convert(IllegalArgumentException.class), INIT,
+            getDesc(void.class, String.class), false);
+        mv.visitInsn(ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * 依次加载方法参数（从第1个局部变量开始）
+     */
+    private static void loadParams(MethodVisitor mv, Class<?>[] paramTypes) {
+        int slot = 1;
+        for (Class<?> paramType : paramTypes) {
+            Type type = Type.getType(paramType);
+            mv.visitVarInsn(type.getOpcode(ILOAD), slot);
+            slot += type.getSize();
+        }
+    }
+
+    /**
+     * 基本类型装箱，引用类型不处理
+     */
+    private static void box(MethodVisitor mv, Class<?> type) {
+        if (type.isPrimitive()) {
+            Class<?> boxed = JavaTypeUtil.boxed(type);
+            mv.visitMethodInsn(INVOKESTATIC, convert(boxed), "valueOf", getDesc(boxed, type), false);
+        }
+    }
+
+    /**
+     * 生成的class名前缀，java包下的class不能定义在java包中
+     */
+    private static String prefix(Class<?> parent) {
+        return parent.getName().startsWith("java.") ? "com.joe.utils.proxy.asm." + parent.getSimpleName()
+            : parent.getName();
+    }
+
+    /**
+     * 方法完整签名（方法名和描述符，包含返回类型）
+     */
+    private static String getMethodSignature(Method method) {
+        return method.getName() + getMethodDesc(method);
+    }
+
+    /**
+     * 方法签名（方法名和参数类型）
+     */
+    private static String signature(Method method) {
+        String desc = getMethodDesc(method);
+        return method.getName() + desc.substring(0, desc.indexOf(')') + 1);
+    }
+}
@@ -0,0 +1,42 @@
+package com.joe.utils.proxy.asm;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.joe.utils.proxy.ProxyMethod;
+
+/**
+ * {@link AsmProxyClient}生成的代理class的方法表，生成的方法通过下标获取对应的{@link ProxyMethod}；{@link ProxyMethod}在方法第一次
+ * 被调用时才构建，定义代理class时不会解析所有方法
+ *
+ * @author JoeKerouac
+ * @version 2019年12月08日 10:00
+ */
+public final class ProxyMethodTable {
+
+    private final Method[] methods;
+
+    private final AtomicReferenceArray<ProxyMethod> proxyMethods;
+
+    ProxyMethodTable(Method[] methods) {
+        this.methods = methods;
+        this.proxyMethods = new AtomicReferenceArray<>(methods.length);
+    }
+
+    /**
+     * 获取指定下标的方法，由生成的代理class调用
+     *
+     * @param index
+     *            方法下标
+     * @return 方法对应的{@link ProxyMethod}
+     */
+    public ProxyMethod get(int index) {
+        ProxyMethod proxyMethod = proxyMethods.get(index);
+        if (proxyMethod == null) {
+            // ProxyMethod.of本身有缓存，并发时拿到的是同一个对象
+            proxyMethod = ProxyMethod.of(methods[index]);
+            proxyMethods.lazySet(index, proxyMethod);
+        }
+        return proxyMethod;
+    }
+}
@@ -3,6 +3,7 @@ package com.joe.utils.proxy.bytebuddy;
 import com.joe.utils.collection.CollectionUtil;
 import com.joe.utils.common.string.StringUtils;
 import com.joe.utils.proxy.Interception;
+import com.joe.utils.proxy.ProxyClassCache;
 import com.joe.utils.proxy.ProxyClassLoader;
 import com.joe.utils.proxy.ProxyClient;
 import com.joe.utils.proxy.ProxyParent;
@@ -10,13 +11,18 @@ import com.joe.utils.reflect.clazz.ClassUtils;
 
 import lombok.extern.slf4j.Slf4j;
 import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.modifier.Visibility;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.implementation.FieldAccessor;
 import net.bytebuddy.implementation.MethodDelegation;
 import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatchers;
 
 /**
  * 代理客户端bytebuddy实现
+ * <p>
+ * 相同parent、classloader的代理对象共享同一个代理class（参见{@link ProxyClassCache}），每次创建只需要实例化并绑定拦截器
  *
  * @author JoeKerouac
  * @version $Id: joe, v 0.1 2018年11月07日 11:31 JoeKerouac Exp $
@@ -32,24 +38,76 @@ public class ByteBuddyProxyClient implements ProxyClient {
             throw new IllegalArgumentException("构造器参数列表paramTypes长度和实际参数params长度不一致");
         }
 
-        return ClassUtils.getInstance(createClass(parent, proxy, loader, name, interception), paramTypes, params);
+        ClassLoader realLoader = loader == null ? ProxyClient.DEFAULT_LOADER : loader;
+        // 指定了名字的class只能定义一次，不走缓存
+        Class<? extends T> clazz = StringUtils.isEmpty(name)
+            ? ProxyClassCache.get(realLoader, () -> make(parent, realLoader, null), ClientType.BYTE_BUDDY, parent)
+            : make(parent, realLoader, name);
+        return ProxyDispatcher.bind(new GeneralInterceptor(interception, parent, proxy),
+            () -> ClassUtils.getInstance(clazz, paramTypes, params));
     }
 
+    /**
+     * 构建指定对象的代理Class，稍后可以通过反射构建该class的实例，对象的类必须是公共的，同时代理方法也必须是公共的
+     * <p>
+     * 返回的class中固化了interception和proxy，相同的parent、proxy、interception和loader返回同一个class
+     * </p>
+     *
+     * @param parent
+     *            指定接口
+     * @param proxy
+     *            被代理的对象
+     * @param loader
+     *            加载生成的对象的class的classloader
+     * @param name
+     *            生成的对象的class名字
+     * @param interception
+     *            方法代理
+     * @param <T>
+     *            代理真实类型
+     * @return 代理class
+     */
     @Override
     public <T> Class<? extends T> createClass(Class<T> parent, T proxy, ClassLoader loader, String name,
         Interception interception) {
-        DynamicType.Builder<T> builder = new ByteBuddy().subclass(parent).implement(ProxyParent.class);
-
+        ClassLoader realLoader = loader == null ? ProxyClient.DEFAULT_LOADER : loader;
         if (!StringUtils.isEmpty(name)) {
-            builder = builder.name(name);
+            return make(parent, realLoader, name, interception, proxy);
         }
+        return ProxyClassCache.get(realLoader, () -> make(parent, realLoader, null, interception, proxy),
+            ClientType.BYTE_BUDDY, parent, interception, proxy);
+    }
 
-        if (loader == null) {
-            loader = ProxyClient.DEFAULT_LOADER;
-        }
+    /**
+     * 生成不包含拦截器的共享代理class，拦截器在创建对象时通过{@link ProxyDispatcher}绑定
+     */
+    private <T> Class<? extends T> make(Class<T> parent, ClassLoader loader, String name) {
+        DynamicType.Builder<T> builder = new ByteBuddy().subclass(parent)
+            .implement(ProxyParent.class, ProxyDispatcher.Bindable.class)
+            .defineField(ProxyDispatcher.FIELD, GeneralInterceptor.class, Visibility.PRIVATE);
+        // 后声明的匹配优先，绑定方法不会被拦截
+        builder = builder.method(MATCHER).intercept(MethodDelegation.to(ProxyDispatcher.class))
+            .method(ElementMatchers.isDeclaredBy(ProxyDispatcher.Bindable.class))
+            .intercept(FieldAccessor.ofField(ProxyDispatcher.FIELD));
+        return load(builder, loader, name);
+    }
 
+    /**
+     * 生成固化了拦截器的代理class
+     */
+    private <T> Class<? extends T> make(Class<T> parent, ClassLoader loader, String name, Interception interception,
+        T proxy) {
+        DynamicType.Builder<T> builder = new ByteBuddy().subclass(parent).implement(ProxyParent.class);
         builder =
             builder.method(MATCHER).intercept(MethodDelegation.to(new GeneralInterceptor(interception, parent, proxy)));
+        return load(builder, loader, name);
+    }
+
+    private <T> Class<? extends T> load(DynamicType.Builder<T> builder, ClassLoader loader, String name) {
+        if (!StringUtils.isEmpty(name)) {
+            builder = builder.name(name);
+        }
+
         ProxyClassLoader realLoader;
         if (loader instanceof ProxyClassLoader) {
             realLoader = (ProxyClassLoader)loader;
@@ -6,6 +6,7 @@ import java.util.concurrent.Callable;
 import com.joe.utils.collection.CollectionUtil;
 import com.joe.utils.common.Assert;
 import com.joe.utils.proxy.Interception;
+import com.joe.utils.proxy.ProxyMethod;
 import com.joe.utils.proxy.ProxyParent;
 
 import net.bytebuddy.implementation.bind.annotation.AllArguments;
@@ -60,7 +61,7 @@ public class GeneralInterceptor {
     @RuntimeType
     public Object interceptClass(@AllArguments Object[] params, @Origin Method method,
         @SuperCall Callable<Object> callable) throws Throwable {
-        return Interception.invokeWrap(interception, target, method, null, params, callable::call);
+        return Interception.invokeWrap(interception, target, ProxyMethod.of(method), null, params, callable::call);
     }
 
     /**
@@ -74,11 +75,12 @@ public class GeneralInterceptor {
      */
     @RuntimeType
     public Object interceptInterface(@AllArguments Object[] params, @Origin Method method) throws Throwable {
-        if (ProxyParent.canInvoke(method)) {
-            return Interception.invokeWrap(interception, null, method, null, params,
-                () -> ProxyParent.invoke(method, proxyParent));
+        ProxyMethod proxyMethod = ProxyMethod.of(method);
+        if (proxyMethod.isProxyParentMethod()) {
+            return Interception.invokeWrap(interception, null, proxyMethod, null, params,
+                proxyMethod.directInvoker(proxyParent, params));
         } else {
-            return Interception.invokeWrap(interception, target, method, null, params, null);
+            return Interception.invokeWrap(interception, target, proxyMethod, null, params, null);
         }
     }
 }
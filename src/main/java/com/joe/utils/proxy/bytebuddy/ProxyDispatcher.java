@@ -0,0 +1,125 @@
+package com.joe.utils.proxy.bytebuddy;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+import com.joe.utils.proxy.ProxyException;
+
+import net.bytebuddy.implementation.bind.annotation.AllArguments;
+import net.bytebuddy.implementation.bind.annotation.FieldValue;
+import net.bytebuddy.implementation.bind.annotation.Origin;
+import net.bytebuddy.implementation.bind.annotation.RuntimeType;
+import net.bytebuddy.implementation.bind.annotation.SuperCall;
+
+/**
+ * 共享代理class的方法分发器，代理class中不包含具体的拦截器，每个代理对象的拦截器保存在实例字段{@link #FIELD}中，由该分发器转发到
+ * 对应的{@link GeneralInterceptor}
+ * <p>
+ * 构造器执行期间实例字段还没有绑定，此时使用当前线程正在绑定的拦截器
+ *
+ * @author JoeKerouac
+ * @version 2019年12月07日 11:00
+ */
+public final class ProxyDispatcher {
+
+    /**
+     * 代理class中保存拦截器的字段名
+     */
+    public static final String FIELD = "$$interceptor";
+
+    /**
+     * 当前线程正在创建的代理对象的拦截器
+     */
+    private static final ThreadLocal<GeneralInterceptor> BINDING = new ThreadLocal<>();
+
+    private ProxyDispatcher() {}
+
+    /**
+     * 创建代理对象并绑定拦截器
+     *
+     * @param interceptor
+     *            拦截器
+     * @param instantiator
+     *            代理对象创建器
+     * @param <T>
+     *            代理类型
+     * @return 绑定了拦截器的代理对象
+     */
+    static <T> T bind(GeneralInterceptor interceptor, Supplier<T> instantiator) {
+        GeneralInterceptor old = BINDING.get();
+        BINDING.set(interceptor);
+        try {
+            T instance = instantiator.get();
+            ((Bindable)instance).$$bind(interceptor);
+            return instance;
+        } finally {
+            if (old == null) {
+                BINDING.remove();
+            } else {
+                BINDING.set(old);
+            }
+        }
+    }
+
+    /**
+     * 拦截有实现的方法
+     *
+     * @param interceptor
+     *            代理对象绑定的拦截器
+     * @param params
+     *            调用方法的参数
+     * @param method
+     *            被拦截的方法
+     * @param callable
+     *            父类调用
+     * @return 执行结果
+     */
+    @RuntimeType
+    public static Object interceptClass(@FieldValue(FIELD) GeneralInterceptor interceptor,
+        @AllArguments Object[] params, @Origin Method method, @SuperCall Callable<Object> callable) throws Throwable {
+        return resolve(interceptor).interceptClass(params, method, callable);
+    }
+
+    /**
+     * 拦截抽象方法
+     *
+     * @param interceptor
+     *            代理对象绑定的拦截器
+     * @param params
+     *            调用方法的参数
+     * @param method
+     *            被拦截的方法
+     * @return 执行结果
+     */
+    @RuntimeType
+    public static Object interceptInterface(@FieldValue(FIELD) GeneralInterceptor interceptor,
+        @AllArguments Object[] params, @Origin Method method) throws Throwable {
+        return resolve(interceptor).interceptInterface(params, method);
+    }
+
+    private static GeneralInterceptor resolve(GeneralInterceptor interceptor) {
+        if (interceptor != null) {
+            return interceptor;
+        }
+        interceptor = BINDING.get();
+        if (interceptor == null) {
+            throw new ProxyException("代理对象没有绑定拦截器，请使用ProxyClient#create创建代理对象");
+        }
+        return interceptor;
+    }
+
+    /**
+     * 共享代理class实现该接口，用于绑定拦截器
+     */
+    public interface Bindable {
+
+        /**
+         * 绑定拦截器
+         *
+         * @param interceptor
+         *            拦截器
+         */
+        void $$bind(GeneralInterceptor interceptor);
+    }
+}
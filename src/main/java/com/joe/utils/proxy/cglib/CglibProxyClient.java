@@ -2,13 +2,18 @@ package com.joe.utils.proxy.cglib;
 
 import com.joe.utils.collection.CollectionUtil;
 import com.joe.utils.proxy.Interception;
+import com.joe.utils.proxy.ProxyClassCache;
 import com.joe.utils.proxy.ProxyClient;
 import com.joe.utils.proxy.ProxyParent;
+import com.joe.utils.reflect.clazz.ClassUtils;
 
+import net.sf.cglib.proxy.Callback;
 import net.sf.cglib.proxy.Enhancer;
 
 /**
  * cglib实现的代理客户端
+ * <p>
+ * 相同parent、classloader的代理对象共享同一个代理class（参见{@link ProxyClassCache}），每次创建只需要实例化并绑定拦截器
  *
  * @author JoeKerouac
  * @version $Id: joe, v 0.1 2018年11月10日 23:15 JoeKerouac Exp $
@@ -16,33 +21,30 @@ import net.sf.cglib.proxy.Enhancer;
 public class CglibProxyClient implements ProxyClient {
 
     @Override
-    @SuppressWarnings("unchecked")
     public <T> T create(Class<T> parent, T proxy, ClassLoader loader, String name, Interception interception,
         Class<?>[] paramTypes, Object[] params) {
         if (!CollectionUtil.sizeEquals(params, paramTypes)) {
             throw new IllegalArgumentException("构造器参数列表paramTypes长度和实际参数params长度不一致");
         }
 
-        Enhancer enhancer = new Enhancer();
-        if (parent.isInterface()) {
-            enhancer.setInterfaces(new Class[] {ProxyParent.class, parent});
-        } else {
-            enhancer.setSuperclass(parent);
-            enhancer.setInterfaces(new Class[] {ProxyParent.class});
-        }
-        enhancer.setClassLoader(loader);
-        enhancer.setCallback(new MethodInterceptorAdapter(interception, proxy, parent));
-        if (CollectionUtil.safeIsEmpty(paramTypes)) {
-            return (T)enhancer.create();
-        } else {
-            return (T)enhancer.create(paramTypes, params);
+        Class<? extends T> clazz =
+            ProxyClassCache.get(loader, () -> make(parent, loader, true), ClientType.CGLIB, parent);
+        // 通过线程回调绑定拦截器，构造器中调用的方法同样会被拦截
+        Enhancer.registerCallbacks(clazz, new Callback[] {new MethodInterceptorAdapter(interception, proxy, parent)});
+        try {
+            return ClassUtils.getInstance(clazz, paramTypes, params);
+        } finally {
+            Enhancer.registerCallbacks(clazz, null);
         }
     }
 
     /**
      * 构建指定对象的代理Class，稍后可以通过反射构建该class的实例，对象的类必须是公共的，同时代理方法也必须是公共的
      * <p>
-     * 注意：生成的class通过反射调用构造器创建对象的时候，构造器中调用的方法不会被拦截！！！
+     * 返回的class中固化了interception和proxy，相同的parent、proxy、interception和loader返回同一个class
+     * </p>
+     * <p>
+     * 拦截器通过静态回调绑定在生成的class上，通过反射调用构造器创建对象时，构造器中调用的方法同样会被拦截
      * </p>
      *
      * @param parent
@@ -60,9 +62,31 @@ public class CglibProxyClient implements ProxyClient {
      * @return 代理class
      */
     @Override
-    @SuppressWarnings("unchecked")
     public <T> Class<? extends T> createClass(Class<T> parent, T proxy, ClassLoader loader, String name,
         Interception interception) {
+        return ProxyClassCache.get(loader, () -> {
+            Class<? extends T> clazz = make(parent, loader, false);
+            Enhancer.registerStaticCallbacks(clazz,
+                new Callback[] {new MethodInterceptorAdapter(interception, proxy, parent)});
+            return clazz;
+        }, ClientType.CGLIB, parent, interception, proxy);
+    }
+
+    /**
+     * 生成代理class
+     *
+     * @param parent
+     *            父类
+     * @param loader
+     *            classloader
+     * @param shared
+     *            是否是共享的代理class，为false时表示生成固化了interception的代理class
+     * @param <T>
+     *            代理类型
+     * @return 代理class
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Class<? extends T> make(Class<T> parent, ClassLoader loader, boolean shared) {
         Enhancer enhancer = new Enhancer();
         if (parent.isInterface()) {
             enhancer.setInterfaces(new Class[] {ProxyParent.class, parent});
@@ -71,7 +95,9 @@ public class CglibProxyClient implements ProxyClient {
             enhancer.setInterfaces(new Class[] {ProxyParent.class});
         }
         enhancer.setClassLoader(loader);
-        enhancer.setCallback(new MethodInterceptorAdapter(interception, proxy, parent));
+        enhancer.setCallbackType(MethodInterceptorAdapter.class);
+        // 固化了interception的class使用静态回调，不能与其他class共享
+        enhancer.setUseCache(shared);
         return (Class<? extends T>)enhancer.createClass();
     }
 
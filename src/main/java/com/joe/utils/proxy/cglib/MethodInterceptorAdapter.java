@@ -6,6 +6,7 @@ import com.joe.utils.collection.CollectionUtil;
 import com.joe.utils.common.Assert;
 import com.joe.utils.proxy.Interception;
 import com.joe.utils.proxy.Invoker;
+import com.joe.utils.proxy.ProxyMethod;
 import com.joe.utils.proxy.ProxyParent;
 
 import net.sf.cglib.proxy.MethodInterceptor;
@@ -51,11 +52,12 @@ public class MethodInterceptorAdapter implements MethodInterceptor {
             supperCall = () -> methodProxy.invokeSuper(obj, args);
         }
 
-        if (ProxyParent.canInvoke(method)) {
-            return Interception.invokeWrap(proxy, null, method, obj, args,
-                () -> ProxyParent.invoke(method, proxyParent));
+        ProxyMethod proxyMethod = ProxyMethod.of(method);
+        if (proxyMethod.isProxyParentMethod()) {
+            return Interception.invokeWrap(proxy, null, proxyMethod, obj, args,
+                proxyMethod.directInvoker(proxyParent, args));
         } else {
-            return Interception.invokeWrap(proxy, target, method, obj, args, supperCall);
+            return Interception.invokeWrap(proxy, target, proxyMethod, obj, args, supperCall);
         }
     }
 }
@@ -1,15 +1,20 @@
 package com.joe.utils.proxy.java;
 
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
 
 import com.joe.utils.collection.CollectionUtil;
 import com.joe.utils.proxy.Interception;
+import com.joe.utils.proxy.ProxyClassCache;
 import com.joe.utils.proxy.ProxyClient;
 import com.joe.utils.proxy.ProxyException;
 import com.joe.utils.proxy.ProxyParent;
+import com.joe.utils.reflect.clazz.ClassUtils;
 
 /**
  * 需要注意的是java原生代理客户端只支持对接口的代理，不支持对普通类或者抽象类代理，同时不支持设置代理生成的类的名字
+ * <p>
+ * 代理class通过{@link ProxyClassCache}共享，每次创建只需要实例化并绑定InvocationHandler
  *
  * @author JoeKerouac
  * @version $Id: joe, v 0.1 2018年12月05日 11:20 JoeKerouac Exp $
@@ -29,8 +34,10 @@ public class JavaProxyClient implements ProxyClient {
             throw new IllegalArgumentException("构造器参数列表paramTypes长度和实际参数params长度不一致");
         }
 
-        return (T)Proxy.newProxyInstance(loader, new Class[] {parent, ProxyParent.class},
-            new MethodInterceptorAdapter(proxy, parent, interception));
+        Class<? extends T> clazz = ProxyClassCache.get(loader,
+            () -> (Class<? extends T>)Proxy.getProxyClass(loader, parent, ProxyParent.class), ClientType.JAVA, parent);
+        return ClassUtils.getInstance(clazz, new Class[] {InvocationHandler.class},
+            new Object[] {new MethodInterceptorAdapter(proxy, parent, interception)});
     }
 
     @Override
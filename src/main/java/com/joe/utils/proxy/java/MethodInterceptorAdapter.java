@@ -6,6 +6,7 @@ import java.lang.reflect.Method;
 import com.joe.utils.collection.CollectionUtil;
 import com.joe.utils.common.Assert;
 import com.joe.utils.proxy.Interception;
+import com.joe.utils.proxy.ProxyMethod;
 import com.joe.utils.proxy.ProxyParent;
 
 /**
@@ -37,12 +38,13 @@ public class MethodInterceptorAdapter implements InvocationHandler {
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        ProxyMethod proxyMethod = ProxyMethod.of(method);
         // 构建父方法调用
-        if (ProxyParent.canInvoke(method)) {
-            return Interception.invokeWrap(interception, null, method, proxy, args,
-                () -> ProxyParent.invoke(method, proxyParent));
+        if (proxyMethod.isProxyParentMethod()) {
+            return Interception.invokeWrap(interception, null, proxyMethod, proxy, args,
+                proxyMethod.directInvoker(proxyParent, args));
         } else {
-            return Interception.invokeWrap(interception, target, method, proxy, args, null);
+            return Interception.invokeWrap(interception, target, proxyMethod, proxy, args, null);
         }
     }
 }
@@ -0,0 +1,21 @@
+package com.joe.utils.reflect;
+
+/**
+ * Bean复制器，将源对象的字段复制到目标对象中，每个复制器只针对一对固定的（源Class，目标Class），由{@link BeanUtils BeanUtils}
+ * 生成并缓存，可以通过{@link BeanUtils#getCopier(Class, Class)}获取
+ *
+ * @author JoeKerouac
+ * @version 2019年11月28日 10:05
+ */
+public interface BeanCopier {
+
+    /**
+     * 将source的字段复制到dest中
+     *
+     * @param source
+     *            源对象，不能为null，类型必须是该复制器对应的源Class
+     * @param dest
+     *            目标对象，不能为null，类型必须是该复制器对应的目标Class
+     */
+    void copy(Object source, Object dest);
+}
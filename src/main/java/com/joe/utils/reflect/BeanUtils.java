@@ -6,16 +6,26 @@ import static com.joe.utils.reflect.ReflectUtil.*;
 import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.joe.utils.collection.CollectionUtil;
-import com.joe.utils.collection.LRUCacheMap;
+import com.joe.utils.collection.ConcurrentLRUCacheMap;
+import com.joe.utils.collection.cache.CacheRegistry;
 import com.joe.utils.common.Assert;
 import com.joe.utils.common.string.StringUtils;
 import com.joe.utils.exception.UtilsException;
+import com.joe.utils.reflect.asm.AsmBeanCopierFactory;
 import com.joe.utils.reflect.type.JavaTypeUtil;
 import com.joe.utils.serialize.xml.XmlNode;
 
@@ -29,8 +39,34 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public class BeanUtils {
-    private static final LRUCacheMap<Class<?>, CustomPropertyDescriptor[]> CACHE = new LRUCacheMap<>();
-    private static final LRUCacheMap<FieldCache, CustomPropertyDescriptor> FIELD_DESC_CACHE = new LRUCacheMap<>();
+    /**
+     * {@link #parallelCopy(List, Class)}的默认并行阈值
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 13;
+
+    private static final Map<Class<?>, CustomPropertyDescriptor[]> CACHE =
+        CacheRegistry.register("BeanUtils.CACHE", new ConcurrentLRUCacheMap<>());
+    private static final Map<FieldCache, CustomPropertyDescriptor> FIELD_DESC_CACHE =
+        CacheRegistry.register("BeanUtils.FIELD_DESC_CACHE", new ConcurrentLRUCacheMap<>());
+    private static final Map<CopierKey, BeanCopier> COPIER_CACHE =
+        CacheRegistry.register("BeanUtils.COPIER_CACHE", new ConcurrentLRUCacheMap<>());
+
+    /**
+     * ASM是否可用（ASM是provided依赖，运行时不一定存在），不可用时复制器全部使用反射实现
+     */
+    private static final boolean ASM_SUPPORT;
+
+    static {
+        boolean support;
+        try {
+            Class.forName("org.objectweb.asm.ClassWriter", false, BeanUtils.class.getClassLoader());
+            support = true;
+        } catch (Throwable e) {
+            log.info("当前环境中没有ASM，BeanUtils的复制将使用反射实现");
+            support = false;
+        }
+        ASM_SUPPORT = support;
+    }
 
     /**
      * 将pojo的所有字段映射为map，默认包含null值
@@ -204,7 +240,8 @@ public class BeanUtils {
      *            源
      * @param <E>
      *            目标对象的实际类型
-     * @return 复制后的目标对象，如果的dest或者source有一个为null则直接返回dest，如果dest和source是同一个对象也直接返回dest
+     * @return 复制后的目标对象，如果的dest或者source有一个为null则直接返回dest，如果dest和source是同一个对象也直接返回dest；
+     *         单个字段复制失败（例如getter、setter抛出异常）时记录日志并忽略该字段，不会抛出异常
      */
     public static <E> E copy(E dest, Object source) {
         if (dest == null || source == null) {
@@ -214,46 +251,151 @@ public class BeanUtils {
             return dest;
         }
 
-        Class<?> sourceClass = source.getClass();
-        String sourceName = sourceClass.getName();
-        log.debug("开始获取{}的字段说明", sourceName);
-
-        Field[] fields = getAllFields(sourceClass);
+        getCopier(source.getClass(), dest.getClass()).copy(source, dest);
+        return dest;
+    }
 
-        if (fields.length == 0) {
-            log.debug("源{}中不存在已经声明的字段", sourceName);
-            return dest;
+    /**
+     * 将sourceList中的对象与targetClass同名的字段从source中复制到targetClass的实例中，sourceList中的null将被忽略
+     *
+     * @param sourceList
+     *            被复制的源对象的数组
+     * @param targetClass
+     *            要复制的目标对象的class对象
+     * @param <S>
+     *            数组中数据的实际类型
+     * @param <E>
+     *            目标对象的实际类型
+     * @return targetClass的实例的数组
+     */
+    public static <E, S> List<E> copy(List<S> sourceList, Class<E> targetClass) {
+        if (sourceList == null || sourceList.isEmpty()) {
+            return Collections.emptyList();
         }
+        return copyTo(sourceList, targetClass, new ArrayList<>(sourceList.size()));
+    }
 
-        for (Field field : fields) {
-            Alias alias = field.getAnnotation(Alias.class);
-            String fieldName = field.getName();
-            Set<String> names = new HashSet<>();
-            names.add(fieldName);
-            if (alias != null && !CollectionUtil.safeIsEmpty(alias.value())) {
-                names.addAll(Arrays.asList(alias.value()));
-            }
+    /**
+     * 将sources中的对象复制为targetClass的实例，复制是惰性的，只有在迭代时才会复制，sources中的null将被忽略，适用于数据量非常大、
+     * 不能一次全部加载到内存的场景
+     *
+     * @param sources
+     *            源对象迭代器
+     * @param targetClass
+     *            要复制的目标对象的class对象
+     * @param <S>
+     *            源对象的实际类型
+     * @param <E>
+     *            目标对象的实际类型
+     * @return targetClass的实例的迭代器
+     */
+    public static <E, S> Iterator<E> copy(Iterator<S> sources, Class<E> targetClass) {
+        Assert.notNull(sources, "sources不能为null");
+        BulkConverter<E> converter = new BulkConverter<>(targetClass);
+        return new Iterator<E>() {
+            private S next;
 
-            log.debug("开始将source中的字段[{}]的值复制到dest中，别名列表为：[{}]", fields, names);
+            @Override
+            public boolean hasNext() {
+                while (next == null && sources.hasNext()) {
+                    next = sources.next();
+                }
+                return next != null;
+            }
 
-            try {
-                Object value = getFieldValue(source, fieldName);
-                // 尝试分别使用别名设置
-                for (String name : names) {
-                    if (setProperty(dest, name, value)) {
-                        break;
-                    }
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
                 }
-            } catch (Exception e) {
-                log.debug("copy中复制{}时发生错误，忽略该字段", fieldName, e);
+                S source = next;
+                next = null;
+                return converter.apply(source);
+            }
+        };
+    }
+
+    /**
+     * 将sources中的对象复制为targetClass的实例，复制是惰性的，sources中的null将被忽略；如果sources是并行流那么复制也是并行的
+     *
+     * @param sources
+     *            源对象流
+     * @param targetClass
+     *            要复制的目标对象的class对象
+     * @param <S>
+     *            源对象的实际类型
+     * @param <E>
+     *            目标对象的实际类型
+     * @return targetClass的实例的流
+     */
+    public static <E, S> Stream<E> copy(Stream<S> sources, Class<E> targetClass) {
+        Assert.notNull(sources, "sources不能为null");
+        return sources.filter(Objects::nonNull).map(new BulkConverter<>(targetClass));
+    }
+
+    /**
+     * 将sources中的对象复制为targetClass的实例并添加到target中，sources中的null将被忽略
+     *
+     * @param sources
+     *            源对象
+     * @param targetClass
+     *            要复制的目标对象的class对象
+     * @param target
+     *            复制结果存放的集合，由调用方提供
+     * @param <S>
+     *            源对象的实际类型
+     * @param <E>
+     *            目标对象的实际类型
+     * @param <C>
+     *            结果集合的实际类型
+     * @return target
+     */
+    public static <E, S, C extends Collection<? super E>> C copyTo(Iterable<S> sources, Class<E> targetClass,
+        C target) {
+        Assert.notNull(sources, "sources不能为null");
+        Assert.notNull(target, "target不能为null");
+        BulkConverter<E> converter = new BulkConverter<>(targetClass);
+        for (S source : sources) {
+            if (source != null) {
+                target.add(converter.apply(source));
             }
         }
+        return target;
+    }
 
-        return dest;
+    /**
+     * 将sources中的对象复制为targetClass的实例并从offset开始依次写入target数组，sources中的null对应位置写入null，保证下标对应
+     *
+     * @param sources
+     *            源对象
+     * @param targetClass
+     *            要复制的目标对象的class对象
+     * @param target
+     *            复制结果存放的数组，由调用方提供，剩余空间不足时抛出异常
+     * @param offset
+     *            写入的起始位置
+     * @param <S>
+     *            源对象的实际类型
+     * @param <E>
+     *            目标对象的实际类型
+     * @return 写入的数量
+     * @throws ArrayIndexOutOfBoundsException
+     *             target剩余空间不足时抛出该异常
+     */
+    public static <E, S> int copyTo(Iterable<S> sources, Class<E> targetClass, E[] target, int offset)
+        throws ArrayIndexOutOfBoundsException {
+        Assert.notNull(sources, "sources不能为null");
+        Assert.notNull((Object)target, "target不能为null");
+        BulkConverter<E> converter = new BulkConverter<>(targetClass);
+        int index = offset;
+        for (S source : sources) {
+            target[index++] = converter.apply(source);
+        }
+        return index - offset;
     }
 
     /**
-     * 将sourceList中的对象与targetClass同名的字段从source中复制到targetClass的实例中，使用前请对参数进行非空校验
+     * 使用fork-join并行复制，sourceList的size小于{@link #DEFAULT_PARALLEL_THRESHOLD}时串行复制，sourceList中的null将被忽略
      *
      * @param sourceList
      *            被复制的源对象的数组
@@ -263,27 +405,163 @@ public class BeanUtils {
      *            数组中数据的实际类型
      * @param <E>
      *            目标对象的实际类型
-     * @return targetClass的实例的数组
+     * @return targetClass的实例的数组，顺序与sourceList一致
      */
-    public static <E, S> List<E> copy(List<S> sourceList, Class<E> targetClass) {
+    public static <E, S> List<E> parallelCopy(List<S> sourceList, Class<E> targetClass) {
+        return parallelCopy(sourceList, targetClass, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * 使用fork-join并行复制，sourceList中的null将被忽略；注意：复制在{@link ForkJoinPool#commonPool()}中执行，getter/setter
+     * 中不应该有阻塞操作
+     *
+     * @param sourceList
+     *            被复制的源对象的数组
+     * @param targetClass
+     *            要复制的目标对象的class对象
+     * @param threshold
+     *            并行阈值，sourceList的size小于该值时串行复制，必须大于0
+     * @param <S>
+     *            数组中数据的实际类型
+     * @param <E>
+     *            目标对象的实际类型
+     * @return targetClass的实例的数组，顺序与sourceList一致
+     */
+    public static <E, S> List<E> parallelCopy(List<S> sourceList, Class<E> targetClass, int threshold) {
+        Assert.isTrue(threshold > 0, "threshold必须大于0");
         if (sourceList == null || sourceList.isEmpty()) {
             return Collections.emptyList();
         }
-        List<E> list = new ArrayList<>(sourceList.size());
-
-        if (!(sourceList instanceof ArrayList)) {
-            sourceList = new ArrayList<>(sourceList);
+        if (sourceList.size() < threshold) {
+            return copy(sourceList, targetClass);
         }
 
-        for (S source : sourceList) {
-            E e = copy(source, targetClass);
-            if (e != null) {
+        // 非随机访问的list先转为数组，保证拆分任务时可以按下标访问
+        List<?> sources = sourceList instanceof RandomAccess ? sourceList : Arrays.asList(sourceList.toArray());
+        Object[] result = new Object[sources.size()];
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        // 每个CPU大约拆分为4个任务，以平衡不同任务之间的耗时差异
+        int leafSize = Math.max(1024, result.length / (pool.getParallelism() * 4));
+        pool.invoke(new CopyTask(sources, result, 0, result.length, leafSize, new BulkConverter<>(targetClass)));
+
+        List<E> list = new ArrayList<>(result.length);
+        for (Object obj : result) {
+            if (obj != null) {
+                @SuppressWarnings("unchecked")
+                E e = (E)obj;
                 list.add(e);
             }
         }
         return list;
     }
 
+    /**
+     * 获取从sourceClass复制到targetClass的复制器，复制器会被缓存：源Class和目标Class都是public的并且所有需要复制的字段都可以通过
+     * public的getter/setter（或者public字段）访问时使用ASM生成直接调用getter/setter的复制器，否则使用反射实现的复制器
+     *
+     * @param sourceClass
+     *            源Class
+     * @param targetClass
+     *            目标Class
+     * @return 复制器
+     */
+    public static BeanCopier getCopier(Class<?> sourceClass, Class<?> targetClass) {
+        Assert.notNull(sourceClass, "sourceClass不能为null");
+        Assert.notNull(targetClass, "targetClass不能为null");
+        return COPIER_CACHE.computeIfAbsent(new CopierKey(sourceClass, targetClass),
+            key -> buildCopier(sourceClass, targetClass));
+    }
+
+    /**
+     * 构建复制器
+     *
+     * @param sourceClass
+     *            源Class
+     * @param targetClass
+     *            目标Class
+     * @return 复制器
+     */
+    private static BeanCopier buildCopier(Class<?> sourceClass, Class<?> targetClass) {
+        PropertyMapping[] mappings = buildMappings(sourceClass, targetClass);
+
+        if (ASM_SUPPORT && AsmBeanCopierFactory.isSupport(sourceClass, targetClass, mappings)) {
+            try {
+                // 生成时会实例化复制器，字节码校验失败等生成问题在这里暴露，运行时getter、setter抛出的异常直接抛给调用方
+                BeanCopier copier = AsmBeanCopierFactory.build(sourceClass, targetClass, mappings);
+                log.debug("为[{}]到[{}]生成复制器成功", sourceClass, targetClass);
+                return copier;
+            } catch (Throwable e) {
+                log.warn("为[{}]到[{}]生成复制器失败，使用反射复制", sourceClass, targetClass, e);
+            }
+        }
+
+        return new ReflectBeanCopier(mappings);
+    }
+
+    /**
+     * 构建sourceClass到targetClass的字段映射，别名在这里解析
+     *
+     * @param sourceClass
+     *            源Class
+     * @param targetClass
+     *            目标Class
+     * @return 字段映射
+     */
+    private static PropertyMapping[] buildMappings(Class<?> sourceClass, Class<?> targetClass) {
+        Field[] targetFields = getAllFields(targetClass);
+        List<PropertyMapping> mappings = new ArrayList<>();
+        Set<String> sourceNames = new HashSet<>();
+
+        for (Field field : getAllFields(sourceClass)) {
+            // 静态字段不复制，子类与父类同名的字段以子类为准
+            if (AccessorUtil.isStatic(field) || !sourceNames.add(field.getName())) {
+                continue;
+            }
+
+            Set<String> names = new LinkedHashSet<>();
+            names.add(field.getName());
+            Alias alias = field.getAnnotation(Alias.class);
+            if (alias != null && !CollectionUtil.safeIsEmpty(alias.value())) {
+                names.addAll(Arrays.asList(alias.value()));
+            }
+
+            List<Field> candidates = new ArrayList<>(names.size());
+            for (String name : names) {
+                for (Field targetField : targetFields) {
+                    if (!AccessorUtil.isStatic(targetField) && targetField.getName().equals(name)) {
+                        candidates.add(targetField);
+                        break;
+                    }
+                }
+            }
+
+            if (candidates.isEmpty()) {
+                log.debug("目标[{}]中不存在字段[{}]对应的字段，别名列表为：[{}]", targetClass, field, names);
+                continue;
+            }
+
+            Field targetField = candidates.get(0);
+            CustomPropertyDescriptor sourceDescriptor = buildDescriptor(field, sourceClass);
+            CustomPropertyDescriptor targetDescriptor = buildDescriptor(targetField, targetClass);
+
+            Method readMethod = sourceDescriptor == null ? null : sourceDescriptor.getReadMethod();
+            if (readMethod != null
+                && (!AccessorUtil.isPublic(readMethod) || readMethod.getReturnType() != field.getType())) {
+                readMethod = null;
+            }
+
+            Method writeMethod = targetDescriptor == null ? null : targetDescriptor.getWriteMethod();
+            if (writeMethod != null && (!AccessorUtil.isPublic(writeMethod)
+                || writeMethod.getParameterTypes()[0] != targetField.getType())) {
+                writeMethod = null;
+            }
+
+            mappings.add(new PropertyMapping(field, candidates.toArray(new Field[0]), readMethod, writeMethod));
+        }
+
+        return mappings.toArray(new PropertyMapping[0]);
+    }
+
     /**
      * 获取指定Class的字段说明
      *
@@ -347,8 +625,9 @@ public class BeanUtils {
         FieldCache fieldCache = new FieldCache(field, clazz);
 
         // 首先检查缓存
-        if (FIELD_DESC_CACHE.containsKey(fieldCache)) {
-            return FIELD_DESC_CACHE.get(fieldCache);
+        CustomPropertyDescriptor cached = FIELD_DESC_CACHE.get(fieldCache);
+        if (cached != null) {
+            return cached;
         }
 
         String name = field.getName();
@@ -391,7 +670,10 @@ public class BeanUtils {
             }
         }
 
-        FIELD_DESC_CACHE.put(fieldCache, customPropertyDescriptor);
+        // 构建失败的不缓存（缓存不允许null值）
+        if (customPropertyDescriptor != null) {
+            FIELD_DESC_CACHE.put(fieldCache, customPropertyDescriptor);
+        }
         return customPropertyDescriptor;
     }
 
@@ -489,6 +771,133 @@ public class BeanUtils {
             descriptor.getWriteMethod(), clazz, field);
     }
 
+    /**
+     * 批量复制使用的转换器，目标对象构造器只解析一次（转为MethodHandle），同时缓存最近一次使用的复制器，避免每个元素都查询缓存；
+     * 线程安全，可以在并行流、fork-join任务中共享
+     *
+     * @param <E>
+     *            目标对象的实际类型
+     */
+    private final static class BulkConverter<E> implements Function<Object, E> {
+        private final Class<E> targetClass;
+        private final MethodHandle constructor;
+        /**
+         * 最近一次使用的复制器，不可变对象，并发时即使被覆盖也不影响正确性
+         */
+        private CopierEntry last;
+
+        private BulkConverter(Class<E> targetClass) {
+            Assert.notNull(targetClass, "targetClass不能为null");
+            this.targetClass = targetClass;
+            try {
+                Constructor<E> constructor = allowAccess(targetClass.getDeclaredConstructor());
+                this.constructor =
+                    MethodHandles.lookup().unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+            } catch (Exception e) {
+                log.error("target生成失败，请检查代码；失败原因：", e);
+                throw new UtilsException(e, "target[{0}]生成失败，请检查代码", targetClass.getName());
+            }
+        }
+
+        @Override
+        public E apply(Object source) {
+            if (source == null) {
+                return null;
+            }
+
+            E target = newInstance();
+            Class<?> sourceClass = source.getClass();
+            CopierEntry entry = last;
+            if (entry == null || entry.sourceClass != sourceClass) {
+                entry = new CopierEntry(sourceClass, getCopier(sourceClass, targetClass));
+                last = entry;
+            }
+            entry.copier.copy(source, target);
+            return target;
+        }
+
+        @SuppressWarnings("unchecked")
+        private E newInstance() {
+            try {
+                return (E)(Object)constructor.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UtilsException(e, "target[{0}]生成失败", targetClass.getName());
+            }
+        }
+    }
+
+    private final static class CopierEntry {
+        private final Class<?> sourceClass;
+        private final BeanCopier copier;
+
+        private CopierEntry(Class<?> sourceClass, BeanCopier copier) {
+            this.sourceClass = sourceClass;
+            this.copier = copier;
+        }
+    }
+
+    /**
+     * 并行复制任务，将sources中[from, to)的数据复制到result的对应位置
+     */
+    private final static class CopyTask extends RecursiveAction {
+        private static final long serialVersionUID = 4361238862893123585L;
+        private final List<?> sources;
+        private final Object[] result;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final transient BulkConverter<?> converter;
+
+        private CopyTask(List<?> sources, Object[] result, int from, int to, int leafSize,
+            BulkConverter<?> converter) {
+            this.sources = sources;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.converter = converter;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                for (int i = from; i < to; i++) {
+                    result[i] = converter.apply(sources.get(i));
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new CopyTask(sources, result, from, mid, leafSize, converter),
+                    new CopyTask(sources, result, mid, to, leafSize, converter));
+            }
+        }
+    }
+
+    private final static class CopierKey {
+        private final Class<?> sourceClass;
+        private final Class<?> targetClass;
+
+        private CopierKey(Class<?> sourceClass, Class<?> targetClass) {
+            this.sourceClass = sourceClass;
+            this.targetClass = targetClass;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof CopierKey) {
+                CopierKey key = (CopierKey)obj;
+                return key.sourceClass == this.sourceClass && key.targetClass == this.targetClass;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sourceClass.hashCode() + targetClass.hashCode();
+        }
+    }
+
     private final static class FieldCache {
         private final Field field;
         private final Class<?> clazz;
@@ -521,6 +930,10 @@ public class BeanUtils {
             return false;
         }
 
+        @Override
+        public int hashCode() {
+            return 31 * clazz.hashCode() + field.hashCode();
+        }
     }
 
     /**
@@ -4,7 +4,6 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 
 import com.joe.utils.common.Assert;
-import com.joe.utils.common.string.StringUtils;
 import com.joe.utils.reflect.type.JavaTypeUtil;
 
 /**
@@ -48,8 +47,8 @@ public class ByteCodeUtils {
         } else if (void.class == clazz) {
             // void只有在返回值中才会有
             return "V";
-        } else if (StringUtils.trim(clazz.getName(), "[").startsWith("L")) {
-            // 是对象数组（这里的对象指的是非原生类型）
+        } else if (clazz.isArray()) {
+            // 是数组，数组的Class名本身就是byte code标识（将'.'替换为'/'），例如[I、[Ljava/lang/String;
             return clazz.getName().replace(".", "/");
         } else if (!JavaTypeUtil.isGeneralType(clazz)) {
             // 是对象（这里的对象指的是非原生类型）
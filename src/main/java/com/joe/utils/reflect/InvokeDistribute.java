@@ -21,6 +21,46 @@ public interface InvokeDistribute {
     String DISTRIBUTE_METHOD_DESC = ByteCodeUtils.getMethodDesc(ReflectUtil.getMethod(InvokeDistribute.class, "invoke",
         String.class, String.class, String.class, Object[].class));
 
+    /**
+     * {@link InvokeDistribute#invoke(int, Object[])}方法的byte code说明
+     */
+    String ID_DISTRIBUTE_METHOD_DESC = ByteCodeUtils.getDesc(Object.class, int.class, Object[].class);
+
+    /**
+     * {@link InvokeDistribute#methodId(String, String, String)}方法名
+     */
+    String METHOD_ID_METHOD_NAME = "methodId";
+
+    /**
+     * {@link InvokeDistribute#methodId(String, String, String)}方法的byte code说明
+     */
+    String METHOD_ID_METHOD_DESC = ByteCodeUtils.getDesc(int.class, String.class, String.class, String.class);
+
+    /**
+     * {@link InvokeDistribute#hash(String, String, String)}方法名
+     */
+    String HASH_METHOD_NAME = "hash";
+
+    /**
+     * {@link InvokeDistribute#hash(String, String, String)}方法的byte code说明
+     */
+    String HASH_METHOD_DESC = METHOD_ID_METHOD_DESC;
+
+    /**
+     * 计算方法的hash，生成的分发代码根据该hash跳转，所以该算法不能更改
+     *
+     * @param owner
+     *            方法拥有者的byte code表示
+     * @param methodName
+     *            方法名
+     * @param desc
+     *            byte code方法说明
+     * @return hash
+     */
+    static int hash(String owner, String methodName, String desc) {
+        return (owner.hashCode() * 31 + methodName.hashCode()) * 31 + desc.hashCode();
+    }
+
     /**
      * 动态调用，根据给定参数调用不同的方法
      * 
@@ -39,4 +79,34 @@ public interface InvokeDistribute {
      *             当要调用的方法owner传错、methodName传错、desc传错时将会抛出该异常
      */
     Object invoke(String owner, String methodName, String desc, Object... args) throws NoSuchMethodException;
+
+    /**
+     * 获取方法id，调用方可以获取一次方法id后使用{@link #invoke(int, Object...)}调用，省去每次调用时查找方法的开销
+     *
+     * @param owner
+     *            方法拥有者的byte code表示，要求同{@link #invoke(String, String, String, Object...)}
+     * @param methodName
+     *            方法名
+     * @param desc
+     *            byte code方法说明
+     * @return 方法id，方法不存在或者不支持方法id时返回-1
+     */
+    default int methodId(String owner, String methodName, String desc) {
+        return -1;
+    }
+
+    /**
+     * 根据方法id调用方法
+     *
+     * @param methodId
+     *            方法id，通过{@link #methodId(String, String, String)}获取
+     * @param args
+     *            调用参数
+     * @return 调用结果，对于void方法结果为null
+     * @throws NoSuchMethodException
+     *             方法id不存在时抛出该异常
+     */
+    default Object invoke(int methodId, Object... args) throws NoSuchMethodException {
+        throw new NoSuchMethodException("method id not found: " + methodId);
+    }
 }
@@ -0,0 +1,124 @@
+package com.joe.utils.reflect;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import com.joe.utils.reflect.type.JavaTypeUtil;
+
+import lombok.Getter;
+
+/**
+ * Bean复制时源字段到目标字段的映射，别名在构建映射时就已经解析完毕
+ *
+ * @author JoeKerouac
+ * @version 2019年11月28日 10:10
+ */
+@Getter
+public final class PropertyMapping {
+
+    /**
+     * 源字段
+     */
+    private final Field sourceField;
+
+    /**
+     * 目标字段候选列表，按照字段名、{@link Alias Alias}声明的顺序排列，复制时依次尝试，第一个设置成功的生效
+     */
+    private final Field[] targetFields;
+
+    /**
+     * 源字段的public读方法，没有时为null
+     */
+    private final Method readMethod;
+
+    /**
+     * 第一个目标字段的public写方法，没有时为null
+     */
+    private final Method writeMethod;
+
+    /**
+     * 源字段类型到第一个目标字段类型的转换方式
+     */
+    private final Conversion conversion;
+
+    public PropertyMapping(Field sourceField, Field[] targetFields, Method readMethod, Method writeMethod) {
+        this.sourceField = sourceField;
+        this.targetFields = targetFields;
+        this.readMethod = readMethod;
+        this.writeMethod = writeMethod;
+        this.conversion = Conversion.of(sourceField.getType(), targetFields[0].getType());
+    }
+
+    /**
+     * 第一个目标字段
+     *
+     * @return 第一个目标字段
+     */
+    public Field getTargetField() {
+        return targetFields[0];
+    }
+
+    /**
+     * 是否可以直接访问（不使用反射），即：源字段有public读方法或者本身是public的，第一个目标字段有public写方法或者本身是public
+     * 非final的，并且类型可以直接转换；另外需要拆箱时只能有一个候选目标字段（反射复制时null值拆箱失败将会尝试下一个候选字段）
+     *
+     * @return 返回true表示可以直接访问
+     */
+    public boolean isDirectAccess() {
+        Field targetField = getTargetField();
+        boolean readable = readMethod != null || AccessorUtil.isPublic(sourceField);
+        boolean writable =
+            writeMethod != null || (AccessorUtil.isPublic(targetField) && !AccessorUtil.isFinal(targetField));
+        return readable && writable && conversion != Conversion.NONE
+            && (conversion != Conversion.UNBOX || targetFields.length == 1);
+    }
+
+    /**
+     * 类型转换方式
+     */
+    public enum Conversion {
+        /**
+         * 不需要转换
+         */
+        DIRECT,
+
+        /**
+         * 基本类型装箱
+         */
+        BOX,
+
+        /**
+         * 封装类型拆箱（null值将被忽略）
+         */
+        UNBOX,
+
+        /**
+         * 不能直接转换
+         */
+        NONE;
+
+        /**
+         * 获取源类型到目标类型的转换方式
+         *
+         * @param source
+         *            源类型
+         * @param target
+         *            目标类型
+         * @return 转换方式
+         */
+        public static Conversion of(Class<?> source, Class<?> target) {
+            if (source == target) {
+                return DIRECT;
+            } else if (source.isPrimitive() && target.isPrimitive()) {
+                // 基本类型之间的拓宽转换暂不支持直接访问
+                return NONE;
+            } else if (source.isPrimitive()) {
+                return target.isAssignableFrom(JavaTypeUtil.boxed(source)) ? BOX : NONE;
+            } else if (target.isPrimitive()) {
+                return source == JavaTypeUtil.boxed(target) ? UNBOX : NONE;
+            } else {
+                return target.isAssignableFrom(source) ? DIRECT : NONE;
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.joe.utils.reflect;
+
+import java.lang.reflect.Field;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 使用反射实现的Bean复制器，用于无法生成字节码复制器（例如非public的类型）时的兜底
+ *
+ * @author JoeKerouac
+ * @version 2019年11月28日 10:20
+ */
+@Slf4j
+final class ReflectBeanCopier implements BeanCopier {
+
+    private final PropertyMapping[] mappings;
+
+    ReflectBeanCopier(PropertyMapping[] mappings) {
+        this.mappings = mappings;
+    }
+
+    @Override
+    public void copy(Object source, Object dest) {
+        for (PropertyMapping mapping : mappings) {
+            Field sourceField = mapping.getSourceField();
+            try {
+                Object value = sourceField.get(source);
+                // 尝试分别使用别名设置
+                for (Field targetField : mapping.getTargetFields()) {
+                    if (set(dest, targetField, value)) {
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                log.debug("copy中复制{}时发生错误，忽略该字段", sourceField.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * 设置字段值
+     *
+     * @param dest
+     *            目标对象
+     * @param field
+     *            字段
+     * @param value
+     *            字段值
+     * @return 设置成功返回true
+     */
+    private static boolean set(Object dest, Field field, Object value) {
+        try {
+            field.set(dest, value);
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package com.joe.utils.reflect;
 
 import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import com.joe.utils.collection.CollectionUtil;
-import com.joe.utils.collection.LRUCacheMap;
+import com.joe.utils.collection.ConcurrentLRUCacheMap;
+import com.joe.utils.collection.cache.CacheRegistry;
 import com.joe.utils.common.Assert;
 import com.joe.utils.common.string.StringFormater;
+import com.joe.utils.reflect.invoke.MethodInvoker;
+import com.joe.utils.reflect.invoke.MethodInvokerFactory;
+import com.joe.utils.scan.ClassMetadataFilter;
 import com.joe.utils.scan.ClassScanner;
 
 import lombok.AllArgsConstructor;
@@ -28,21 +34,84 @@ public class ReflectUtil {
     /**
      * 方法缓存
      */
-    private static final Map<MethodKey, Method> METHOD_CACHE = new LRUCacheMap<>();
+    private static final Map<MethodKey, Method> METHOD_CACHE =
+        CacheRegistry.register("ReflectUtil.METHOD_CACHE", new ConcurrentLRUCacheMap<>());
     /**
      * field缓存
      */
-    private static final Map<FieldKey, Field> FIELD_CACHE = new LRUCacheMap<>();
+    private static final Map<FieldKey, Field> FIELD_CACHE =
+        CacheRegistry.register("ReflectUtil.FIELD_CACHE", new ConcurrentLRUCacheMap<>());
 
     /**
      * 所有field缓存
      */
-    private static final LRUCacheMap<Class<?>, Field[]> ALL_FIELD_CACHE = new LRUCacheMap<>();
+    private static final Map<Class<?>, Field[]> ALL_FIELD_CACHE =
+        CacheRegistry.register("ReflectUtil.ALL_FIELD_CACHE", new ConcurrentLRUCacheMap<>());
 
     /**
      * 所有方法缓存
      */
-    private static final LRUCacheMap<Class<?>, List<Method>> ALL_METHOD_CACHE = new LRUCacheMap<>();
+    private static final Map<Class<?>, List<Method>> ALL_METHOD_CACHE =
+        CacheRegistry.register("ReflectUtil.ALL_METHOD_CACHE", new ConcurrentLRUCacheMap<>());
+
+    /**
+     * 方法调用点缓存，记录方法调用次数，调用次数达到阈值后切换为{@link MethodInvoker}调用
+     */
+    private static final Map<Method, InvokeSite> INVOKE_SITES =
+        CacheRegistry.register("ReflectUtil.INVOKE_SITES", new ConcurrentLRUCacheMap<>());
+
+    /**
+     * 按方法名查找方法的索引，key是查找的类型，value中同名方法按参数类型区分，查找时不需要构建key对象；索引中只保存方法，调用点
+     * 统一从{@link #INVOKE_SITES}获取，受其容量限制，索引本身的大小不会超过该类型中能查找到的方法数量，并且随类型一起回收
+     */
+    private static final ClassValue<Map<String, NamedMethod[]>> METHOD_INDEX =
+        new ClassValue<Map<String, NamedMethod[]>>() {
+            @Override
+            protected Map<String, NamedMethod[]> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
+    private static final Class<?>[] EMPTY_TYPES = new Class<?>[0];
+
+    /**
+     * 方法通过反射调用多少次后切换为{@link MethodInvoker}调用，默认16
+     */
+    private static volatile int invokerThreshold = 16;
+
+    /**
+     * 方法调用点，调用次数只是一个大概值（不保证并发下的准确性），只用于判断是否需要切换调用方式
+     */
+    private static class InvokeSite {
+
+        private final Method method;
+
+        private int hits;
+
+        private volatile MethodInvoker invoker;
+
+        private InvokeSite(Method method) {
+            this.method = method;
+        }
+
+        /**
+         * 获取调用器，调用次数未达到阈值时返回null
+         *
+         * @return 调用器，可能为null
+         */
+        private MethodInvoker invoker() {
+            MethodInvoker invoker = this.invoker;
+            if (invoker != null || ++hits < invokerThreshold) {
+                return invoker;
+            }
+            synchronized (this) {
+                if (this.invoker == null) {
+                    this.invoker = MethodInvokerFactory.getInvoker(method);
+                }
+                return this.invoker;
+            }
+        }
+    }
 
     @Data
     @NoArgsConstructor
@@ -131,13 +200,8 @@ public class ReflectUtil {
         Assert.isFalse(CollectionUtil.safeIsEmpty(parameterTypes) ^ CollectionUtil.safeIsEmpty(args),
             "方法参数类型列表必须和方法参数列表一致");
         Assert.isTrue(parameterTypes == null || parameterTypes.length == args.length, "方法参数类型列表长度必须和方法参数列表长度一致");
-        Method method;
-        if (obj instanceof Class) {
-            method = getMethod((Class)obj, methodName, parameterTypes);
-        } else {
-            method = getMethod(obj.getClass(), methodName, parameterTypes);
-        }
-        return invoke(obj, method, args);
+        Class<?> clazz = obj instanceof Class ? (Class<?>)obj : obj.getClass();
+        return invoke(obj, getInvokeSite(clazz, methodName, parameterTypes), args);
     }
 
     /**
@@ -153,14 +217,38 @@ public class ReflectUtil {
      *            结果类型
      * @return 调用结果
      */
-    @SuppressWarnings("unchecked")
     public static <R> R invoke(Object obj, Method method, Object... args) {
+        return invoke(obj, INVOKE_SITES.computeIfAbsent(method, InvokeSite::new), args);
+    }
+
+    /**
+     * 通过调用点调用方法，反射调用和{@link MethodInvoker}调用抛出的异常形式一致：方法本身抛出的异常作为
+     * {@link ReflectException}的cause
+     *
+     * @param obj
+     *            指定对象，如果要调用的方法为静态方法那么传入Class对象或者null
+     * @param site
+     *            调用点
+     * @param args
+     *            参数
+     * @param <R>
+     *            结果类型
+     * @return 调用结果
+     */
+    @SuppressWarnings("unchecked")
+    private static <R> R invoke(Object obj, InvokeSite site, Object[] args) {
+        Object target = obj instanceof Class ? null : obj;
+        MethodInvoker invoker = invokerThreshold == Integer.MAX_VALUE ? null : site.invoker();
+        if (invoker != null) {
+            return (R)invoker.invoke(target, args);
+        }
+
+        Method method = site.method;
+        if (!method.isAccessible()) {
+            allowAccess(method);
+        }
         try {
-            if (obj instanceof Class) {
-                return (R)method.invoke(null, args);
-            } else {
-                return (R)method.invoke(obj, args);
-            }
+            return (R)method.invoke(target, args);
         } catch (IllegalAccessException | IllegalArgumentException e) {
             throw new ReflectException("调用方法[" + method + "]失败", e);
         } catch (InvocationTargetException e) {
@@ -168,6 +256,70 @@ public class ReflectUtil {
         }
     }
 
+    /**
+     * 方法索引中的方法
+     */
+    private static final class NamedMethod {
+
+        private final Method method;
+
+        /**
+         * 方法参数类型，用于按方法名查找时匹配，避免每次调用{@link Method#getParameterTypes()}复制数组
+         */
+        private final Class<?>[] parameterTypes;
+
+        private NamedMethod(Method method) {
+            this.method = method;
+            this.parameterTypes = method.getParameterTypes();
+        }
+    }
+
+    /**
+     * 获取指定类型中指定方法的调用点，索引命中时不会分配对象
+     *
+     * @param clazz
+     *            类型
+     * @param methodName
+     *            方法名
+     * @param parameterTypes
+     *            方法参数类型，可以为null
+     * @return 调用点
+     * @throws ReflectException
+     *             指定方法获取不到时会抛出异常
+     */
+    private static InvokeSite getInvokeSite(Class<?> clazz, String methodName, Class<?>[] parameterTypes) {
+        Class<?>[] types = parameterTypes == null ? EMPTY_TYPES : parameterTypes;
+        Map<String, NamedMethod[]> index = METHOD_INDEX.get(clazz);
+        Method method = find(index.get(methodName), types);
+        if (method == null) {
+            NamedMethod resolved = new NamedMethod(getMethod(clazz, methodName, parameterTypes));
+            // 同一个方法名的更新是原子的，并发第一次调用时只会添加一次
+            NamedMethod[] named = index.compute(methodName, (k, v) -> {
+                if (v == null) {
+                    return new NamedMethod[] {resolved};
+                } else if (find(v, types) != null) {
+                    return v;
+                }
+                NamedMethod[] result = Arrays.copyOf(v, v.length + 1);
+                result[v.length] = resolved;
+                return result;
+            });
+            method = find(named, types);
+        }
+        return INVOKE_SITES.computeIfAbsent(method, InvokeSite::new);
+    }
+
+    private static Method find(NamedMethod[] named, Class<?>[] types) {
+        if (named != null) {
+            for (NamedMethod namedMethod : named) {
+                if (Arrays.equals(namedMethod.parameterTypes, types)) {
+                    return namedMethod.method;
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * 获取指定类型和其父类型、接口中声明的所有方法（除了Object中声明的方法），如果对于方法M，类A中对方法M实现了M1，类B中 对方法M实现了M2，类A继承了类B，传入参数为类A，那么返回的列表中将包含M1而不包含M2
      * 
@@ -280,15 +432,11 @@ public class ReflectUtil {
      * @param <T>
      *            方法返回类型
      * @return 方法调用结果
+     * @throws ReflectException
+     *             调用失败时抛出，方法本身抛出的异常作为cause，与调用次数无关
      */
-    @SuppressWarnings("unchecked")
     public static <T> T execMethod(Method method, Object target, Object... params) {
-        allowAccess(method);
-        try {
-            return (T)method.invoke(target, params);
-        } catch (Throwable e) {
-            throw new ReflectException(e);
-        }
+        return invoke(target, method, params);
     }
 
     /**
@@ -307,8 +455,17 @@ public class ReflectUtil {
         }
 
         log.debug("开始扫描包{}下的带注解[{}]的列表", packages, annotation);
-        List<Class<?>> classes = CLASS_SCANNER
-            .scanByFilter(Collections.singletonList(clazz -> !clazz.isAnnotationPresent(annotation)), packages);
+        // 根据class元数据过滤，只加载带注解的class；可继承的注解可能声明在父类上，有父类的class也需要加载后再判断
+        boolean inherited = annotation.isAnnotationPresent(Inherited.class);
+        ClassMetadataFilter filter = inherited
+            ? metadata -> !metadata.isAnnotationPresent(annotation)
+                          && (metadata.isInterface() || Object.class.getName().equals(metadata.getSuperName()))
+            : metadata -> !metadata.isAnnotationPresent(annotation);
+        List<Class<?>> classes = CLASS_SCANNER.scanByMetadata(Collections.singletonList(filter), packages);
+        if (inherited) {
+            classes =
+                classes.stream().filter(clazz -> clazz.isAnnotationPresent(annotation)).collect(Collectors.toList());
+        }
         log.debug("包{}下的带注解{}的列表为：[{}]", packages, annotation, classes);
         return classes;
     }
@@ -520,6 +677,16 @@ public class ReflectUtil {
         });
     }
 
+    /**
+     * 设置方法通过反射调用多少次后切换为{@link MethodInvoker}调用（{@link MethodInvoker}的构建成本较高，只适合频繁调用的方法）
+     *
+     * @param threshold
+     *            阈值，小于等于0表示始终使用反射调用，1表示第一次调用就切换
+     */
+    public static void setInvokerThreshold(int threshold) {
+        invokerThreshold = threshold <= 0 ? Integer.MAX_VALUE : threshold;
+    }
+
     /**
      * 更改AccessibleObject的访问权限
      * 
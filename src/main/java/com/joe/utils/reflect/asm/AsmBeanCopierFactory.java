@@ -0,0 +1,303 @@
+package com.joe.utils.reflect.asm;
+
+import static com.joe.utils.reflect.ByteCodeUtils.*;
+import static com.joe.utils.reflect.asm.AsmByteCodeUtils.createClassName;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+
+import com.joe.utils.common.Assert;
+import com.joe.utils.common.string.StringFormater;
+import com.joe.utils.exception.InvokeException;
+import com.joe.utils.reflect.BeanCopier;
+import com.joe.utils.reflect.PropertyMapping;
+import com.joe.utils.reflect.clazz.ClassUtils;
+import com.joe.utils.reflect.type.JavaTypeUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 使用ASM生成{@link BeanCopier BeanCopier}，生成的复制器直接调用getter/setter（或者直接访问public字段），等价于如下代码：
+ *
+ * <pre>
+ * public void copy(Object source, Object dest) {
+ *     Source s = (Source)source;
+ *     Target t = (Target)dest;
+ *     try {
+ *         t.setName(s.getName());
+ *     } catch (Exception e) {
+ *         AsmBeanCopierFactory.copyFailed("name", e);
+ *     }
+ *     ...
+ * }
+ * </pre>
+ *
+ * 与反射实现的复制器一致，单个字段复制失败（getter、setter抛出异常）时记录日志并忽略该字段，继续复制其他字段
+ *
+ * @author JoeKerouac
+ * @version 2019年11月28日 10:30
+ */
+@Slf4j
+public class AsmBeanCopierFactory {
+
+    /**
+     * {@link BeanCopier#copy(Object, Object)}方法的byte code说明
+     */
+    private static final String COPY_METHOD_DESC = getDesc(void.class, Object.class, Object.class);
+
+    /**
+     * 判断是否可以为指定的类型生成复制器
+     *
+     * @param sourceClass
+     *            源Class
+     * @param targetClass
+     *            目标Class
+     * @param mappings
+     *            字段映射
+     * @return 返回true表示可以生成
+     */
+    public static boolean isSupport(Class<?> sourceClass, Class<?> targetClass, PropertyMapping[] mappings) {
+        if (!Modifier.isPublic(sourceClass.getModifiers()) || !Modifier.isPublic(targetClass.getModifiers())) {
+            return false;
+        }
+        for (PropertyMapping mapping : mappings) {
+            if (!mapping.isDirectAccess()) {
+                return false;
+            }
+        }
+        return getClassLoader(sourceClass, targetClass) != null;
+    }
+
+    /**
+     * 生成复制器，调用前应该先使用{@link #isSupport(Class, Class, PropertyMapping[])}判断
+     *
+     * @param sourceClass
+     *            源Class
+     * @param targetClass
+     *            目标Class
+     * @param mappings
+     *            字段映射
+     * @return 复制器
+     */
+    public static BeanCopier build(Class<?> sourceClass, Class<?> targetClass, PropertyMapping[] mappings) {
+        Assert.isTrue(isSupport(sourceClass, targetClass, mappings), StringFormater
+            .simpleFormat("不支持为[{0}]到[{1}]生成复制器", sourceClass.getName(), targetClass.getName()));
+
+        String className = createClassName();
+        byte[] byteCode = buildByteCode(sourceClass, targetClass, mappings, className);
+        // 每个复制器使用单独的ClassLoader，复制器从缓存中淘汰后可以被回收
+        AsmDynamicClassLoader classLoader = new AsmDynamicClassLoader(getClassLoader(sourceClass, targetClass));
+        Class<BeanCopier> clazz = classLoader.buildClass(className, byteCode, 0, byteCode.length);
+        return ClassUtils.getInstance(clazz);
+    }
+
+    /**
+     * 生成的复制器复制单个字段失败时调用，记录日志后忽略该字段，与反射实现的复制器处理一致；
+     * 只供生成的复制器使用
+     *
+     * @param field
+     *            源字段名
+     * @param e
+     *            异常
+     */
+    public static void copyFailed(String field, Throwable e) {
+        log.debug("copy中复制{}时发生错误，忽略该字段", field, e);
+    }
+
+    /**
+     * 构建byte code
+     *
+     * @param sourceClass
+     *            源Class
+     * @param targetClass
+     *            目标Class
+     * @param mappings
+     *            字段映射
+     * @param className
+     *            生成的class名
+     * @return 生成的class的byte code数据
+     */
+    public static byte[] buildByteCode(Class<?> sourceClass, Class<?> targetClass, PropertyMapping[] mappings,
+        String className) {
+        // 生成的代码中不会出现不同引用类型的合并，所以公共父类统一返回Object，避免ASM加载用户类
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                return convert(Object.class);
+            }
+        };
+
+        cw.visit(V1_8, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, convert(className), null, convert(Object.class),
+            new String[] {convert(BeanCopier.class)});
+
+        // 默认构造器
+        {
+            MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, INIT, getDesc(void.class), null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitMethodInsn(INVOKESPECIAL, convert(Object.class), INIT, getDesc(void.class), false);
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        // copy方法
+        {
+            MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "copy", COPY_METHOD_DESC, null, null);
+            mv.visitCode();
+
+            // Source s = (Source)source; Target t = (Target)dest;
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitTypeInsn(CHECKCAST, convert(sourceClass));
+            mv.visitVarInsn(ASTORE, 3);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitTypeInsn(CHECKCAST, convert(targetClass));
+            mv.visitVarInsn(ASTORE, 4);
+
+            for (PropertyMapping mapping : mappings) {
+                Label start = new Label();
+                Label end = new Label();
+                Label handler = new Label();
+                Label next = new Label();
+                mv.visitTryCatchBlock(start, end, handler, convert(Exception.class));
+                mv.visitLabel(start);
+                copyProperty(mv, sourceClass, targetClass, mapping);
+                mv.visitLabel(end);
+                mv.visitJumpInsn(GOTO, next);
+                // 异常处理，此时栈中只有异常
+                mv.visitLabel(handler);
+                mv.visitLdcInsn(mapping.getSourceField().getName());
+                mv.visitInsn(SWAP);
+                mv.visitMethodInsn(INVOKESTATIC, convert(AsmBeanCopierFactory.class), "copyFailed",
+                    getDesc(void.class, String.class, Throwable.class), false);
+                mv.visitLabel(next);
+            }
+
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * 生成单个字段复制的byte code，相当于t.setXX(s.getXX())
+     *
+     * @param mv
+     *            MethodVisitor
+     * @param sourceClass
+     *            源Class
+     * @param targetClass
+     *            目标Class
+     * @param mapping
+     *            字段映射
+     */
+    private static void copyProperty(MethodVisitor mv, Class<?> sourceClass, Class<?> targetClass,
+        PropertyMapping mapping) {
+        Field sourceField = mapping.getSourceField();
+        Field targetField = mapping.getTargetField();
+        Class<?> sourceType = sourceField.getType();
+        Class<?> targetType = targetField.getType();
+
+        // 加载目标对象和源字段的值
+        mv.visitVarInsn(ALOAD, 4);
+        mv.visitVarInsn(ALOAD, 3);
+        Method readMethod = mapping.getReadMethod();
+        if (readMethod != null) {
+            mv.visitMethodInsn(INVOKEVIRTUAL, convert(sourceClass), readMethod.getName(), getMethodDesc(readMethod),
+                false);
+        } else {
+            mv.visitFieldInsn(GETFIELD, convert(sourceClass), sourceField.getName(), getByteCodeType(sourceType));
+        }
+
+        Label skip = null;
+        switch (mapping.getConversion()) {
+            case BOX:
+                Class<?> boxed = JavaTypeUtil.boxed(sourceType);
+                mv.visitMethodInsn(INVOKESTATIC, convert(boxed), "valueOf", getDesc(boxed, sourceType), false);
+                break;
+            case UNBOX:
+                // 值为null时忽略该字段，此时栈中还有目标对象和null值
+                skip = new Label();
+                mv.visitInsn(DUP);
+                mv.visitJumpInsn(IFNULL, skip);
+                mv.visitMethodInsn(INVOKEVIRTUAL, convert(sourceType), targetType.getName() + "Value",
+                    getDesc(targetType), false);
+                break;
+            case DIRECT:
+                break;
+            default:
+                throw new InvokeException(StringFormater.simpleFormat("字段[{0}]不能直接复制到字段[{1}]", sourceField,
+                    targetField));
+        }
+
+        Method writeMethod = mapping.getWriteMethod();
+        if (writeMethod != null) {
+            mv.visitMethodInsn(INVOKEVIRTUAL, convert(targetClass), writeMethod.getName(), getMethodDesc(writeMethod),
+                false);
+            // 链式setter有返回值，需要丢弃
+            Class<?> returnType = writeMethod.getReturnType();
+            if (returnType == long.class || returnType == double.class) {
+                mv.visitInsn(POP2);
+            } else if (returnType != void.class) {
+                mv.visitInsn(POP);
+            }
+        } else {
+            mv.visitFieldInsn(PUTFIELD, convert(targetClass), targetField.getName(), getByteCodeType(targetType));
+        }
+
+        if (skip != null) {
+            Label end = new Label();
+            mv.visitJumpInsn(GOTO, end);
+            mv.visitLabel(skip);
+            // 丢弃目标对象和null值
+            mv.visitInsn(POP2);
+            mv.visitLabel(end);
+        }
+    }
+
+    /**
+     * 获取能够同时加载源Class、目标Class和{@link BeanCopier}的ClassLoader
+     *
+     * @param sourceClass
+     *            源Class
+     * @param targetClass
+     *            目标Class
+     * @return ClassLoader，不存在时返回null
+     */
+    private static ClassLoader getClassLoader(Class<?> sourceClass, Class<?> targetClass) {
+        ClassLoader[] loaders = {targetClass.getClassLoader(), sourceClass.getClassLoader()};
+        for (ClassLoader loader : loaders) {
+            if (loader != null && isVisible(loader, sourceClass) && isVisible(loader, targetClass)
+                && isVisible(loader, BeanCopier.class)) {
+                return loader;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 判断指定Class在指定ClassLoader中是否可见
+     *
+     * @param loader
+     *            ClassLoader
+     * @param clazz
+     *            Class
+     * @return 返回true表示可见
+     */
+    private static boolean isVisible(ClassLoader loader, Class<?> clazz) {
+        try {
+            return Class.forName(clazz.getName(), false, loader) == clazz;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+}
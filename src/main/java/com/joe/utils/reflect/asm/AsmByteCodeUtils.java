@@ -1,7 +1,6 @@
 package com.joe.utils.reflect.asm;
 
-import static com.joe.utils.reflect.ByteCodeUtils.convert;
-import static com.joe.utils.reflect.ByteCodeUtils.getMethodDesc;
+import static com.joe.utils.reflect.ByteCodeUtils.*;
 import static org.objectweb.asm.Opcodes.*;
 
 import java.lang.reflect.Method;
@@ -12,6 +11,7 @@ import org.objectweb.asm.MethodVisitor;
 
 import com.joe.utils.reflect.ByteCodeUtils;
 import com.joe.utils.reflect.MethodConst;
+import com.joe.utils.reflect.type.JavaTypeUtil;
 
 /**
  * Asm byte code 工具
@@ -41,7 +41,7 @@ public class AsmByteCodeUtils {
     }
 
     /**
-     * byte code执行指定方法
+     * byte code执行指定方法并返回结果，基本类型的结果会装箱后返回
      * 
      * @param mv
      *            MethodVisitor
@@ -61,12 +61,56 @@ public class AsmByteCodeUtils {
             mv.visitMethodInsn(INVOKEVIRTUAL, convert(method.getDeclaringClass()), method.getName(),
                 getMethodDesc(method), false);
         }
-        if (method.getReturnType() == void.class) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == void.class) {
             mv.visitInsn(ACONST_NULL);
-            mv.visitInsn(ARETURN);
+        } else if (returnType.isPrimitive()) {
+            // 基本类型装箱
+            Class<?> boxed = JavaTypeUtil.boxed(returnType);
+            mv.visitMethodInsn(INVOKESTATIC, convert(boxed), "valueOf", getDesc(boxed, returnType), false);
+        }
+        // 返回结果
+        mv.visitInsn(ARETURN);
+    }
+
+    /**
+     * 将栈顶的Object转换为指定类型，基本类型会先转换为包装类型然后拆箱
+     *
+     * @param mv
+     *            MethodVisitor
+     * @param type
+     *            要转换的类型
+     */
+    public static void checkCast(MethodVisitor mv, Class<?> type) {
+        if (type == Object.class) {
+            return;
+        }
+        if (type.isPrimitive()) {
+            Class<?> boxed = JavaTypeUtil.boxed(type);
+            mv.visitTypeInsn(CHECKCAST, convert(boxed));
+            mv.visitMethodInsn(INVOKEVIRTUAL, convert(boxed), type.getName() + "Value", getDesc(type), false);
+        } else {
+            mv.visitTypeInsn(CHECKCAST, convert(type));
+        }
+    }
+
+    /**
+     * 将int常量压入栈顶，根据常量大小选择最短的指令
+     *
+     * @param mv
+     *            MethodVisitor
+     * @param value
+     *            常量
+     */
+    public static void pushInt(MethodVisitor mv, int value) {
+        if (value >= -1 && value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(SIPUSH, value);
         } else {
-            // 返回结果
-            mv.visitInsn(ARETURN);
+            mv.visitLdcInsn(value);
         }
     }
 
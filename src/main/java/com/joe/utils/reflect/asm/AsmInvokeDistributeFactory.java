@@ -1,20 +1,21 @@
 package com.joe.utils.reflect.asm;
 
 import static com.joe.utils.reflect.ByteCodeUtils.*;
-import static com.joe.utils.reflect.InvokeDistribute.DISTRIBUTE_METHOD_DESC;
-import static com.joe.utils.reflect.InvokeDistribute.DISTRIBUTE_METHOD_NAME;
+import static com.joe.utils.reflect.InvokeDistribute.*;
 import static com.joe.utils.reflect.asm.AsmByteCodeUtils.*;
 import static org.objectweb.asm.Opcodes.*;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
-import org.objectweb.asm.Opcodes;
 
 import com.joe.utils.collection.CollectionUtil;
 import com.joe.utils.common.Assert;
@@ -125,7 +126,13 @@ public class AsmInvokeDistributeFactory implements InvokeDistributeFactory {
      */
     public byte[] buildByteCode(Class<?> parentClass, String className) {
 
-        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        // 生成的代码中不会出现不同引用类型的合并，所以公共父类统一返回Object，避免ASM加载用户类
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                return convert(Object.class);
+            }
+        };
 
         cw.visit(version, // Java version
             ACC_PUBLIC, // public class
@@ -142,7 +149,6 @@ public class AsmInvokeDistributeFactory implements InvokeDistributeFactory {
 
         // 构建分发方法
         buildMethod(cw, className, parentClass);
-        // buildMethod(cw);
 
         // finish the class definition
         cw.visitEnd();
@@ -150,7 +156,9 @@ public class AsmInvokeDistributeFactory implements InvokeDistributeFactory {
     }
 
     /**
-     * 构建{@link InvokeDistribute#invoke(String, String, String, Object[]) invoke}方法
+     * 构建{@link InvokeDistribute#methodId(String, String, String) methodId}、
+     * {@link InvokeDistribute#invoke(String, String, String, Object[]) invoke}、
+     * {@link InvokeDistribute#invoke(int, Object[]) invoke}方法
      * 
      * @param cw
      *            ClassWriter
@@ -160,124 +168,232 @@ public class AsmInvokeDistributeFactory implements InvokeDistributeFactory {
      *            父类
      */
     private static void buildMethod(ClassWriter cw, String className, Class<?> parentClass) {
-        /* Build method */
-        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, // public method
-            DISTRIBUTE_METHOD_NAME, // name
-            DISTRIBUTE_METHOD_DESC, // descriptor
-            null, // signature (null means not generic)
-            CollectionUtil.array(convert(NoSuchMethodException.class))); // exceptions (array of strings)
-        // 开始方法区
+        List<Method> methods = new ArrayList<>();
+        for (Method method : ReflectUtil.getAllMethod(parentClass)) {
+            // 只处理非静态的public方法；生成的类与方法声明类不在同一个包中，不能通过target调用protected方法（会校验失败）
+            if (Modifier.isStatic(method.getModifiers()) || !AccessorUtil.isPublic(method)) {
+                continue;
+            }
+            methods.add(method);
+        }
+
+        buildMethodIdMethod(cw, methods);
+        buildDistributeMethod(cw, className);
+        buildIdDistributeMethod(cw, className, parentClass, methods);
+    }
+
+    /**
+     * 构建{@link InvokeDistribute#methodId(String, String, String) methodId}方法，先对owner、methodName、desc计算
+     * {@link InvokeDistribute#hash(String, String, String) hash}，然后使用lookupswitch跳转到hash对应的分支，分支中再逐个比较
+     * 字符串，相当于：
+     *
+     * <pre>
+     * switch (InvokeDistribute.hash(owner, methodName, desc)) {
+     *     case 123:
+     *         if (owner.equals("A") &amp;&amp; methodName.equals("say") &amp;&amp; desc.equals("()V")) {
+     *             return 0;
+     *         }
+     *         return -1;
+     *     ...
+     *     default:
+     *         return -1;
+     * }
+     * </pre>
+     *
+     * @param cw
+     *            ClassWriter
+     * @param methods
+     *            要分发的方法，方法id就是方法在集合中的下标
+     */
+    private static void buildMethodIdMethod(ClassWriter cw, List<Method> methods) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, METHOD_ID_METHOD_NAME, METHOD_ID_METHOD_DESC, null, null);
         mv.visitCode();
 
-        // 判断要调用那个方法，然后将动态调用转化为对应的本地调用
-        {
-            List<Method> allMethod = ReflectUtil.getAllMethod(parentClass);
-
-            Label next = new Label();
-            Label start = new Label();
-            for (Method method : allMethod) {
-                // 只处理非静态的public方法和protected方法
-                if (Modifier.isStatic(method.getModifiers())
-                    || (!AccessorUtil.isPublic(method) && !AccessorUtil.isProtected(method))) {
-                    continue;
-                }
+        // 按照hash分组，TreeMap保证lookupswitch的key有序
+        Map<Integer, List<Integer>> buckets = new TreeMap<>();
+        for (int i = 0; i < methods.size(); i++) {
+            Method method = methods.get(i);
+            int hash = InvokeDistribute.hash(convert(method.getDeclaringClass()), method.getName(),
+                ByteCodeUtils.getMethodDesc(method));
+            buckets.computeIfAbsent(hash, key -> new ArrayList<>()).add(i);
+        }
 
-                createIf(mv, method, next, start, className, parentClass);
-                start = next;
-                next = new Label();
+        Label notFound = new Label();
+        if (!buckets.isEmpty()) {
+            // InvokeDistribute.hash(owner, methodName, desc)
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitVarInsn(ALOAD, 3);
+            mv.visitMethodInsn(INVOKESTATIC, convert(InvokeDistribute.class), HASH_METHOD_NAME, HASH_METHOD_DESC,
+                true);
+
+            int[] keys = new int[buckets.size()];
+            Label[] labels = new Label[buckets.size()];
+            int index = 0;
+            for (Integer hash : buckets.keySet()) {
+                keys[index] = hash;
+                labels[index++] = new Label();
+            }
+            mv.visitLookupSwitchInsn(notFound, keys, labels);
+
+            index = 0;
+            for (List<Integer> bucket : buckets.values()) {
+                mv.visitLabel(labels[index++]);
+                for (Integer id : bucket) {
+                    Method method = methods.get(id);
+                    Label next = new Label();
+                    stringEquals(mv, () -> mv.visitVarInsn(ALOAD, 1), convert(method.getDeclaringClass()), next, () -> {
+                        stringEquals(mv, () -> mv.visitVarInsn(ALOAD, 2), method.getName(), next, () -> {
+                            stringEquals(mv, () -> mv.visitVarInsn(ALOAD, 3), ByteCodeUtils.getMethodDesc(method), next,
+                                () -> {
+                                    pushInt(mv, id);
+                                    mv.visitInsn(IRETURN);
+                                });
+                        });
+                    });
+                    mv.visitLabel(next);
+                }
+                mv.visitJumpInsn(GOTO, notFound);
             }
-            // 结束位置标记
-            mv.visitLabel(start);
-            mv.visitFrame(F_SAME, 0, null, 0, null);
         }
 
-        // throw new NoSuchMethodException(String.format("method [%s:%s:%s] not found", owner, methodName, desc));
-        {
-            // 默认抛出Error，不应该有这种情况
-            mv.visitTypeInsn(NEW, convert(NoSuchMethodException.class));
-            mv.visitInsn(DUP);
-            mv.visitLdcInsn("method [%s:%s:%s] not found");
-            mv.visitInsn(ICONST_3);
-            mv.visitTypeInsn(ANEWARRAY, convert(Object.class));
-            mv.visitInsn(DUP);
+        mv.visitLabel(notFound);
+        mv.visitInsn(ICONST_M1);
+        mv.visitInsn(IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
 
-            mv.visitInsn(ICONST_0);
-            mv.visitVarInsn(ALOAD, 1);
-            mv.visitInsn(AASTORE);
-            mv.visitInsn(DUP);
+    /**
+     * 构建{@link InvokeDistribute#invoke(String, String, String, Object[]) invoke}方法，相当于：
+     *
+     * <pre>
+     * int id = methodId(owner, methodName, desc);
+     * if (id &lt; 0) {
+     *     throw new NoSuchMethodException(String.format("method [%s:%s:%s] not found", owner, methodName, desc));
+     * }
+     * return invoke(id, args);
+     * </pre>
+     *
+     * @param cw
+     *            ClassWriter
+     * @param className
+     *            生成的类名
+     */
+    private static void buildDistributeMethod(ClassWriter cw, String className) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, DISTRIBUTE_METHOD_NAME, DISTRIBUTE_METHOD_DESC, null,
+            CollectionUtil.array(convert(NoSuchMethodException.class)));
+        mv.visitCode();
 
-            mv.visitInsn(ICONST_1);
-            mv.visitVarInsn(ALOAD, 2);
-            mv.visitInsn(AASTORE);
-            mv.visitInsn(DUP);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitVarInsn(ALOAD, 3);
+        mv.visitMethodInsn(INVOKEVIRTUAL, convert(className), METHOD_ID_METHOD_NAME, METHOD_ID_METHOD_DESC, false);
+        mv.visitVarInsn(ISTORE, 5);
+
+        Label notFound = new Label();
+        mv.visitVarInsn(ILOAD, 5);
+        mv.visitJumpInsn(IFLT, notFound);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ILOAD, 5);
+        mv.visitVarInsn(ALOAD, 4);
+        mv.visitMethodInsn(INVOKEVIRTUAL, convert(className), DISTRIBUTE_METHOD_NAME, ID_DISTRIBUTE_METHOD_DESC,
+            false);
+        mv.visitInsn(ARETURN);
 
-            mv.visitInsn(ICONST_2);
-            mv.visitVarInsn(ALOAD, 3);
+        // throw new NoSuchMethodException(String.format("method [%s:%s:%s] not found", owner, methodName, desc));
+        mv.visitLabel(notFound);
+        mv.visitTypeInsn(NEW, convert(NoSuchMethodException.class));
+        mv.visitInsn(DUP);
+        mv.visitLdcInsn("method [%s:%s:%s] not found");
+        mv.visitInsn(ICONST_3);
+        mv.visitTypeInsn(ANEWARRAY, convert(Object.class));
+        for (int i = 0; i < 3; i++) {
+            mv.visitInsn(DUP);
+            mv.visitInsn(ICONST_0 + i);
+            mv.visitVarInsn(ALOAD, i + 1);
             mv.visitInsn(AASTORE);
-
-            mv.visitMethodInsn(INVOKESTATIC, convert(String.class), MethodConst.FORMAT_METHOD.getName(),
-                getMethodDesc(MethodConst.FORMAT_METHOD), false);
-
-            mv.visitMethodInsn(INVOKESPECIAL, convert(NoSuchMethodException.class), INIT,
-                getConstructorDesc(ERROR_CONSTRUCTOR), false);
-            mv.visitInsn(ATHROW);
-            mv.visitMaxs(0, 0);
         }
-
+        mv.visitMethodInsn(INVOKESTATIC, convert(String.class), MethodConst.FORMAT_METHOD.getName(),
+            getMethodDesc(MethodConst.FORMAT_METHOD), false);
+        mv.visitMethodInsn(INVOKESPECIAL, convert(NoSuchMethodException.class), INIT,
+            getConstructorDesc(ERROR_CONSTRUCTOR), false);
+        mv.visitInsn(ATHROW);
+        mv.visitMaxs(0, 0);
         mv.visitEnd();
     }
 
     /**
-     * 创建if分支的byte code
-     * 
-     * @param mv
-     *            MethodVisitor
-     * @param method
-     *            Method
-     * @param next
-     *            下一个分支的起始位置
-     * @param start
-     *            该分支的结束位置
+     * 构建{@link InvokeDistribute#invoke(int, Object[]) invoke}方法，使用tableswitch直接跳转到方法id对应的分支，相当于：
+     *
+     * <pre>
+     * switch (methodId) {
+     *     case 0:
+     *         return target.say((String)args[0]);
+     *     ...
+     *     default:
+     *         throw new NoSuchMethodException("method id not found: ".concat(Integer.toString(methodId)));
+     * }
+     * </pre>
+     *
+     * @param cw
+     *            ClassWriter
+     * @param className
+     *            生成的类名
+     * @param parentClass
+     *            父类
+     * @param methods
+     *            要分发的方法，方法id就是方法在集合中的下标
      */
-    private static void createIf(MethodVisitor mv, Method method, Label next, Label start, String className,
-        Class<?> parentClass) {
-        // 标记分支开始位置
-        mv.visitLabel(start);
-        mv.visitFrame(F_SAME, 0, null, 0, null);
-        // 比较方法声明类
-        stringEquals(mv, () -> mv.visitVarInsn(ALOAD, 1), convert(method.getDeclaringClass()), next, () -> {
-            // 比较方法名
-            stringEquals(mv, () -> mv.visitVarInsn(ALOAD, 2), method.getName(), next, () -> {
-                // 方法名一致再比较方法说明
-                stringEquals(mv, () -> mv.visitVarInsn(ALOAD, 3), ByteCodeUtils.getMethodDesc(method), next, () -> {
-                    // 方法说明也一致后执行方法
-                    invokeMethod(mv, method, () -> {
-                        // 调用代理对象对应的方法而不是本代理的方法
-                        mv.visitVarInsn(ALOAD, 0);
-                        mv.visitFieldInsn(GETFIELD, convert(className), TARGET_FIELD_NAME,
-                            getByteCodeType(parentClass));
-                        // 获取参数数量，用于载入参数
-                        int count = method.getParameterCount();
-                        Class<?>[] types = method.getParameterTypes();
-
-                        // 循环载入参数
-                        for (int i = 0; i < count; i++) {
-                            mv.visitVarInsn(Opcodes.ALOAD, 4);
-                            // 这里注意，访问数组下标0-5和6-无穷是不一样的
-                            // 访问0-5对应的byte code： aload | iconst_[0-5] | aaload
-                            // 访问下标大于5的byte code: aload | bipush [6-无穷] aaload
-                            if (i <= 5) {
-                                mv.visitInsn(ICONST_0 + i);
-                            } else {
-                                mv.visitIntInsn(BIPUSH, i);
-                            }
-                            mv.visitInsn(Opcodes.AALOAD);
-                            mv.visitTypeInsn(CHECKCAST, convert(types[i]));
-                        }
-                    });
+    private static void buildIdDistributeMethod(ClassWriter cw, String className, Class<?> parentClass,
+        List<Method> methods) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_VARARGS, DISTRIBUTE_METHOD_NAME, ID_DISTRIBUTE_METHOD_DESC,
+            null, CollectionUtil.array(convert(NoSuchMethodException.class)));
+        mv.visitCode();
+
+        Label notFound = new Label();
+        if (!methods.isEmpty()) {
+            Label[] labels = new Label[methods.size()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = new Label();
+            }
+            mv.visitVarInsn(ILOAD, 1);
+            mv.visitTableSwitchInsn(0, labels.length - 1, notFound, labels);
+
+            for (int i = 0; i < labels.length; i++) {
+                Method method = methods.get(i);
+                mv.visitLabel(labels[i]);
+                invokeMethod(mv, method, () -> {
+                    // 调用代理对象对应的方法而不是本代理的方法
+                    mv.visitVarInsn(ALOAD, 0);
+                    mv.visitFieldInsn(GETFIELD, convert(className), TARGET_FIELD_NAME, getByteCodeType(parentClass));
+                    // 循环载入参数
+                    Class<?>[] types = method.getParameterTypes();
+                    for (int j = 0; j < types.length; j++) {
+                        mv.visitVarInsn(ALOAD, 2);
+                        pushInt(mv, j);
+                        mv.visitInsn(AALOAD);
+                        checkCast(mv, types[j]);
+                    }
                 });
-            });
-        });
+            }
+        }
+
+        // throw new NoSuchMethodException("method id not found: ".concat(Integer.toString(methodId)));
+        mv.visitLabel(notFound);
+        mv.visitTypeInsn(NEW, convert(NoSuchMethodException.class));
+        mv.visitInsn(DUP);
+        mv.visitLdcInsn("method id not found: ");
+        mv.visitVarInsn(ILOAD, 1);
+        mv.visitMethodInsn(INVOKESTATIC, convert(Integer.class), "toString", getDesc(String.class, int.class), false);
+        mv.visitMethodInsn(INVOKEVIRTUAL, convert(String.class), "concat", getDesc(String.class, String.class),
+            false);
+        mv.visitMethodInsn(INVOKESPECIAL, convert(NoSuchMethodException.class), INIT,
+            getConstructorDesc(ERROR_CONSTRUCTOR), false);
+        mv.visitInsn(ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
     }
 
     /**
@@ -312,8 +428,8 @@ public class AsmInvokeDistributeFactory implements InvokeDistributeFactory {
         mv.visitVarInsn(ALOAD, 1); // 加载参数
         mv.visitFieldInsn(PUTFIELD, convert(className), TARGET_FIELD_NAME, getByteCodeType(parentClass));
 
-        mv.visitMaxs(2, 1);
         mv.visitInsn(RETURN); // End the constructor method
+        mv.visitMaxs(2, 2);
         mv.visitEnd();
     }
 }
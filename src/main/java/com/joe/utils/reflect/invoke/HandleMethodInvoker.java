@@ -0,0 +1,64 @@
+package com.joe.utils.reflect.invoke;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import com.joe.utils.reflect.ReflectException;
+import com.joe.utils.reflect.ReflectUtil;
+
+/**
+ * 使用{@link MethodHandle}实现的方法调用器，方法句柄被统一适配为(Object target, Object[] args)Object的形式，静态方法忽略target
+ *
+ * @author JoeKerouac
+ * @version 2019年11月29日 10:30
+ */
+class HandleMethodInvoker implements MethodInvoker {
+
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
+    private static final MethodType GENERIC_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final Method method;
+
+    private final int parameterCount;
+
+    /**
+     * 适配后的方法句柄，类型为(Object, Object[])Object
+     */
+    private final MethodHandle handle;
+
+    HandleMethodInvoker(Method method) throws IllegalAccessException {
+        this.method = method;
+        this.parameterCount = method.getParameterCount();
+
+        MethodHandle handle = MethodHandles.lookup().unreflect(ReflectUtil.allowAccess(method));
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        this.handle = handle.asSpreader(Object[].class, parameterCount).asType(GENERIC_TYPE);
+    }
+
+    @Override
+    public Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public Object invoke(Object target, Object... args) throws ReflectException {
+        if (args == null) {
+            args = EMPTY_ARGS;
+        }
+        if (args.length != parameterCount) {
+            throw new ReflectException("调用方法[" + method + "]失败",
+                new IllegalArgumentException("wrong number of arguments"));
+        }
+        try {
+            return (Object)handle.invokeExact(target, args);
+        } catch (Throwable e) {
+            throw new ReflectException("调用方法[" + method + "]失败", e);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.joe.utils.reflect.invoke;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.*;
+
+import com.joe.utils.reflect.ReflectException;
+
+/**
+ * 使用{@link LambdaMetafactory}将方法转换为函数式接口实例的调用器，调用速度与直接调用基本一致；只支持以下形式的实例方法（其他
+ * 形式请使用{@link HandleMethodInvoker}）：
+ *
+ * <ul>
+ * <li>无参方法：转换为{@link Function}、{@link Consumer}，返回int、long、double、boolean时转换为{@link ToIntFunction}、
+ * {@link ToLongFunction}、{@link ToDoubleFunction}、{@link Predicate}，避免装箱</li>
+ * <li>只有一个引用类型参数的方法：转换为{@link BiFunction}、{@link BiConsumer}</li>
+ * <li>只有一个int、long、double参数的void方法：转换为{@link ObjIntConsumer}、{@link ObjLongConsumer}、{@link ObjDoubleConsumer}，
+ * 避免装箱</li>
+ * </ul>
+ *
+ * 方法声明类、参数类型、返回值类型都必须是public的，并且对当前ClassLoader可见
+ *
+ * @author JoeKerouac
+ * @version 2019年11月29日 10:40
+ */
+class LambdaMethodInvoker extends HandleMethodInvoker {
+
+    private static final int FUNCTION = 0;
+    private static final int CONSUMER = 1;
+    private static final int TO_INT = 2;
+    private static final int TO_LONG = 3;
+    private static final int TO_DOUBLE = 4;
+    private static final int PREDICATE = 5;
+    private static final int BI_FUNCTION = 6;
+    private static final int BI_CONSUMER = 7;
+    private static final int OBJ_INT = 8;
+    private static final int OBJ_LONG = 9;
+    private static final int OBJ_DOUBLE = 10;
+
+    /**
+     * 函数式接口类型、接口方法名，下标与上边的常量对应
+     */
+    private static final Class<?>[] INTERFACES = {Function.class, Consumer.class, ToIntFunction.class,
+        ToLongFunction.class, ToDoubleFunction.class, Predicate.class, BiFunction.class, BiConsumer.class,
+        ObjIntConsumer.class, ObjLongConsumer.class, ObjDoubleConsumer.class};
+    private static final String[] METHOD_NAMES = {"apply", "accept", "applyAsInt", "applyAsLong", "applyAsDouble",
+        "test", "apply", "accept", "accept", "accept", "accept"};
+
+    /**
+     * 方法的形式，上边的常量之一
+     */
+    private final int kind;
+
+    /**
+     * 函数式接口实例
+     */
+    private final Object function;
+
+    private LambdaMethodInvoker(Method method, int kind, Object function) throws IllegalAccessException {
+        super(method);
+        this.kind = kind;
+        this.function = function;
+    }
+
+    /**
+     * 尝试构建调用器
+     *
+     * @param method
+     *            方法
+     * @return 调用器，不支持该方法时返回null
+     */
+    static LambdaMethodInvoker tryBuild(Method method) {
+        int kind = kindOf(method);
+        if (kind < 0 || !isAccessible(method)) {
+            return null;
+        }
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(method);
+            MethodType samType = samType(kind);
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, METHOD_NAMES[kind],
+                MethodType.methodType(INTERFACES[kind]), samType, handle, handle.type());
+            return new LambdaMethodInvoker(method, kind, callSite.getTarget().invoke());
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object target, Object... args) throws ReflectException {
+        int length = args == null ? 0 : args.length;
+        try {
+            switch (kind) {
+                case FUNCTION:
+                    if (length == 0) {
+                        return ((Function<Object, Object>)function).apply(target);
+                    }
+                    break;
+                case CONSUMER:
+                    if (length == 0) {
+                        ((Consumer<Object>)function).accept(target);
+                        return null;
+                    }
+                    break;
+                case TO_INT:
+                    if (length == 0) {
+                        return ((ToIntFunction<Object>)function).applyAsInt(target);
+                    }
+                    break;
+                case TO_LONG:
+                    if (length == 0) {
+                        return ((ToLongFunction<Object>)function).applyAsLong(target);
+                    }
+                    break;
+                case TO_DOUBLE:
+                    if (length == 0) {
+                        return ((ToDoubleFunction<Object>)function).applyAsDouble(target);
+                    }
+                    break;
+                case PREDICATE:
+                    if (length == 0) {
+                        return ((Predicate<Object>)function).test(target);
+                    }
+                    break;
+                case BI_FUNCTION:
+                    if (length == 1) {
+                        return ((BiFunction<Object, Object, Object>)function).apply(target, args[0]);
+                    }
+                    break;
+                case BI_CONSUMER:
+                    if (length == 1) {
+                        ((BiConsumer<Object, Object>)function).accept(target, args[0]);
+                        return null;
+                    }
+                    break;
+                default:
+                    // 基本类型参数的方法需要拆箱，使用方法句柄处理，保证与反射调用的类型转换规则一致
+                    break;
+            }
+        } catch (Throwable e) {
+            throw new ReflectException("调用方法[" + getMethod() + "]失败", e);
+        }
+        return super.invoke(target, args);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int invokeInt(Object target) throws ReflectException {
+        if (kind != TO_INT) {
+            return super.invokeInt(target);
+        }
+        try {
+            return ((ToIntFunction<Object>)function).applyAsInt(target);
+        } catch (Throwable e) {
+            throw new ReflectException("调用方法[" + getMethod() + "]失败", e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public long invokeLong(Object target) throws ReflectException {
+        if (kind != TO_LONG) {
+            return super.invokeLong(target);
+        }
+        try {
+            return ((ToLongFunction<Object>)function).applyAsLong(target);
+        } catch (Throwable e) {
+            throw new ReflectException("调用方法[" + getMethod() + "]失败", e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public double invokeDouble(Object target) throws ReflectException {
+        if (kind != TO_DOUBLE) {
+            return super.invokeDouble(target);
+        }
+        try {
+            return ((ToDoubleFunction<Object>)function).applyAsDouble(target);
+        } catch (Throwable e) {
+            throw new ReflectException("调用方法[" + getMethod() + "]失败", e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean invokeBoolean(Object target) throws ReflectException {
+        if (kind != PREDICATE) {
+            return super.invokeBoolean(target);
+        }
+        try {
+            return ((Predicate<Object>)function).test(target);
+        } catch (Throwable e) {
+            throw new ReflectException("调用方法[" + getMethod() + "]失败", e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invokeWithInt(Object target, int arg) throws ReflectException {
+        if (kind != OBJ_INT) {
+            return super.invokeWithInt(target, arg);
+        }
+        try {
+            ((ObjIntConsumer<Object>)function).accept(target, arg);
+            return null;
+        } catch (Throwable e) {
+            throw new ReflectException("调用方法[" + getMethod() + "]失败", e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invokeWithLong(Object target, long arg) throws ReflectException {
+        if (kind != OBJ_LONG) {
+            return super.invokeWithLong(target, arg);
+        }
+        try {
+            ((ObjLongConsumer<Object>)function).accept(target, arg);
+            return null;
+        } catch (Throwable e) {
+            throw new ReflectException("调用方法[" + getMethod() + "]失败", e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invokeWithDouble(Object target, double arg) throws ReflectException {
+        if (kind != OBJ_DOUBLE) {
+            return super.invokeWithDouble(target, arg);
+        }
+        try {
+            ((ObjDoubleConsumer<Object>)function).accept(target, arg);
+            return null;
+        } catch (Throwable e) {
+            throw new ReflectException("调用方法[" + getMethod() + "]失败", e);
+        }
+    }
+
+    /**
+     * 获取方法的形式
+     *
+     * @param method
+     *            方法
+     * @return 方法的形式，不支持时返回-1
+     */
+    private static int kindOf(Method method) {
+        if (Modifier.isStatic(method.getModifiers())) {
+            return -1;
+        }
+
+        Class<?> returnType = method.getReturnType();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length == 0) {
+            if (returnType == void.class) {
+                return CONSUMER;
+            } else if (!returnType.isPrimitive()) {
+                return FUNCTION;
+            } else if (returnType == int.class) {
+                return TO_INT;
+            } else if (returnType == long.class) {
+                return TO_LONG;
+            } else if (returnType == double.class) {
+                return TO_DOUBLE;
+            } else if (returnType == boolean.class) {
+                return PREDICATE;
+            }
+        } else if (parameterTypes.length == 1) {
+            Class<?> parameterType = parameterTypes[0];
+            if (!parameterType.isPrimitive()) {
+                if (returnType == void.class) {
+                    return BI_CONSUMER;
+                } else if (!returnType.isPrimitive()) {
+                    return BI_FUNCTION;
+                }
+            } else if (returnType == void.class) {
+                if (parameterType == int.class) {
+                    return OBJ_INT;
+                } else if (parameterType == long.class) {
+                    return OBJ_LONG;
+                } else if (parameterType == double.class) {
+                    return OBJ_DOUBLE;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获取函数式接口方法的类型（擦除后的）
+     *
+     * @param kind
+     *            方法形式
+     * @return 函数式接口方法的类型
+     */
+    private static MethodType samType(int kind) {
+        switch (kind) {
+            case FUNCTION:
+                return MethodType.methodType(Object.class, Object.class);
+            case CONSUMER:
+                return MethodType.methodType(void.class, Object.class);
+            case TO_INT:
+                return MethodType.methodType(int.class, Object.class);
+            case TO_LONG:
+                return MethodType.methodType(long.class, Object.class);
+            case TO_DOUBLE:
+                return MethodType.methodType(double.class, Object.class);
+            case PREDICATE:
+                return MethodType.methodType(boolean.class, Object.class);
+            case BI_FUNCTION:
+                return MethodType.methodType(Object.class, Object.class, Object.class);
+            case BI_CONSUMER:
+                return MethodType.methodType(void.class, Object.class, Object.class);
+            case OBJ_INT:
+                return MethodType.methodType(void.class, Object.class, int.class);
+            case OBJ_LONG:
+                return MethodType.methodType(void.class, Object.class, long.class);
+            case OBJ_DOUBLE:
+                return MethodType.methodType(void.class, Object.class, double.class);
+            default:
+                throw new IllegalArgumentException("不支持的方法形式：" + kind);
+        }
+    }
+
+    /**
+     * 判断生成的lambda类能否访问该方法：方法、声明类、参数类型、返回值类型都必须是public的，并且对当前ClassLoader可见（lambda类
+     * 使用当前类作为宿主类，使用当前类的ClassLoader解析方法中用到的类型）
+     *
+     * @param method
+     *            方法
+     * @return 返回true表示可以访问
+     */
+    private static boolean isAccessible(Method method) {
+        if (!Modifier.isPublic(method.getModifiers()) || !isAccessible(method.getDeclaringClass())
+            || !isAccessible(method.getReturnType())) {
+            return false;
+        }
+        for (Class<?> type : method.getParameterTypes()) {
+            if (!isAccessible(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAccessible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        if (!Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(type.getName(), false, LambdaMethodInvoker.class.getClassLoader()) == type;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.joe.utils.reflect.invoke;
+
+import java.lang.reflect.Method;
+
+import com.joe.utils.reflect.ReflectException;
+
+/**
+ * 方法调用器，将{@link Method}转换为可以高效调用的对象，通过{@link MethodInvokerFactory#getInvoker(Method)}获取；
+ * 对于基本类型的getter、setter提供了避免装箱的快速调用方法（invokeInt、invokeWithInt等），调用方需要保证方法签名与之匹配
+ *
+ * @author JoeKerouac
+ * @version 2019年11月29日 10:05
+ */
+public interface MethodInvoker {
+
+    /**
+     * 获取调用器对应的方法
+     *
+     * @return 方法
+     */
+    Method getMethod();
+
+    /**
+     * 调用方法
+     *
+     * @param target
+     *            方法所在Class的实例，静态方法传null即可
+     * @param args
+     *            方法参数
+     * @return 方法返回值，void方法返回null
+     * @throws ReflectException
+     *             调用失败（包括方法本身抛出异常）时抛出该异常
+     */
+    Object invoke(Object target, Object... args) throws ReflectException;
+
+    /**
+     * 调用无参并且返回int的方法
+     *
+     * @param target
+     *            方法所在Class的实例
+     * @return 方法返回值
+     * @throws ReflectException
+     *             调用失败时抛出该异常
+     */
+    default int invokeInt(Object target) throws ReflectException {
+        return (Integer)invoke(target);
+    }
+
+    /**
+     * 调用无参并且返回long的方法
+     *
+     * @param target
+     *            方法所在Class的实例
+     * @return 方法返回值
+     * @throws ReflectException
+     *             调用失败时抛出该异常
+     */
+    default long invokeLong(Object target) throws ReflectException {
+        return (Long)invoke(target);
+    }
+
+    /**
+     * 调用无参并且返回double的方法
+     *
+     * @param target
+     *            方法所在Class的实例
+     * @return 方法返回值
+     * @throws ReflectException
+     *             调用失败时抛出该异常
+     */
+    default double invokeDouble(Object target) throws ReflectException {
+        return (Double)invoke(target);
+    }
+
+    /**
+     * 调用无参并且返回boolean的方法
+     *
+     * @param target
+     *            方法所在Class的实例
+     * @return 方法返回值
+     * @throws ReflectException
+     *             调用失败时抛出该异常
+     */
+    default boolean invokeBoolean(Object target) throws ReflectException {
+        return (Boolean)invoke(target);
+    }
+
+    /**
+     * 调用只有一个int参数的方法
+     *
+     * @param target
+     *            方法所在Class的实例
+     * @param arg
+     *            参数
+     * @return 方法返回值，void方法返回null
+     * @throws ReflectException
+     *             调用失败时抛出该异常
+     */
+    default Object invokeWithInt(Object target, int arg) throws ReflectException {
+        return invoke(target, arg);
+    }
+
+    /**
+     * 调用只有一个long参数的方法
+     *
+     * @param target
+     *            方法所在Class的实例
+     * @param arg
+     *            参数
+     * @return 方法返回值，void方法返回null
+     * @throws ReflectException
+     *             调用失败时抛出该异常
+     */
+    default Object invokeWithLong(Object target, long arg) throws ReflectException {
+        return invoke(target, arg);
+    }
+
+    /**
+     * 调用只有一个double参数的方法
+     *
+     * @param target
+     *            方法所在Class的实例
+     * @param arg
+     *            参数
+     * @return 方法返回值，void方法返回null
+     * @throws ReflectException
+     *             调用失败时抛出该异常
+     */
+    default Object invokeWithDouble(Object target, double arg) throws ReflectException {
+        return invoke(target, arg);
+    }
+}
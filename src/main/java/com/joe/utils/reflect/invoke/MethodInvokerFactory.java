@@ -0,0 +1,68 @@
+package com.joe.utils.reflect.invoke;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import com.joe.utils.collection.ConcurrentLRUCacheMap;
+import com.joe.utils.collection.cache.CacheRegistry;
+import com.joe.utils.common.Assert;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 方法调用器工厂，按照以下顺序构建{@link MethodInvoker}：
+ *
+ * <ol>
+ * <li>{@link LambdaMethodInvoker}：public的简单getter、setter形式的实例方法，使用LambdaMetafactory生成函数式接口实例</li>
+ * <li>{@link HandleMethodInvoker}：其他方法使用方法句柄</li>
+ * <li>{@link ReflectMethodInvoker}：无法构建方法句柄时（例如安全管理器禁止）使用反射兜底</li>
+ * </ol>
+ *
+ * 构建的调用器会被缓存
+ *
+ * @author JoeKerouac
+ * @version 2019年11月29日 11:00
+ */
+@Slf4j
+public class MethodInvokerFactory {
+
+    /**
+     * 调用器缓存
+     */
+    private static final Map<Method, MethodInvoker> CACHE =
+        CacheRegistry.register("MethodInvokerFactory.CACHE", new ConcurrentLRUCacheMap<>());
+
+    /**
+     * 获取指定方法的调用器
+     *
+     * @param method
+     *            方法，不能为null
+     * @return 调用器
+     */
+    public static MethodInvoker getInvoker(Method method) {
+        Assert.notNull(method, "method不能为null");
+        return CACHE.computeIfAbsent(method, MethodInvokerFactory::build);
+    }
+
+    /**
+     * 构建指定方法的调用器（不使用缓存）
+     *
+     * @param method
+     *            方法，不能为null
+     * @return 调用器
+     */
+    public static MethodInvoker build(Method method) {
+        Assert.notNull(method, "method不能为null");
+        MethodInvoker invoker = LambdaMethodInvoker.tryBuild(method);
+        if (invoker != null) {
+            return invoker;
+        }
+
+        try {
+            return new HandleMethodInvoker(method);
+        } catch (Throwable e) {
+            log.debug("无法为方法[{}]构建方法句柄，使用反射调用", method, e);
+            return new ReflectMethodInvoker(method);
+        }
+    }
+}
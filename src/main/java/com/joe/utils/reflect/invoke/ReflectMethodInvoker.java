@@ -0,0 +1,38 @@
+package com.joe.utils.reflect.invoke;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import com.joe.utils.reflect.ReflectException;
+import com.joe.utils.reflect.ReflectUtil;
+
+/**
+ * 使用{@link Method#invoke(Object, Object...)}实现的方法调用器，无法构建其他调用器时兜底使用
+ *
+ * @author JoeKerouac
+ * @version 2019年11月29日 10:20
+ */
+class ReflectMethodInvoker implements MethodInvoker {
+
+    private final Method method;
+
+    ReflectMethodInvoker(Method method) {
+        this.method = ReflectUtil.allowAccess(method);
+    }
+
+    @Override
+    public Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public Object invoke(Object target, Object... args) throws ReflectException {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            throw new ReflectException("调用方法[" + method + "]失败", e);
+        } catch (InvocationTargetException e) {
+            throw new ReflectException("调用方法[" + method + "]失败", e.getTargetException());
+        }
+    }
+}
@@ -264,6 +264,38 @@ public class JavaTypeUtil {
         return clazz.isPrimitive();
     }
 
+    /**
+     * 获取基本类型对应的封装类型，例如int对应Integer
+     *
+     * @param clazz
+     *            Class对象，不能为null
+     * @return 如果是八大基本类型（或者void）则返回对应的封装类型，否则原样返回
+     */
+    public static Class<?> boxed(Class<?> clazz) {
+        Assert.notNull(clazz, "clazz不能为null");
+        if (!clazz.isPrimitive()) {
+            return clazz;
+        } else if (int.class == clazz) {
+            return Integer.class;
+        } else if (long.class == clazz) {
+            return Long.class;
+        } else if (boolean.class == clazz) {
+            return Boolean.class;
+        } else if (double.class == clazz) {
+            return Double.class;
+        } else if (float.class == clazz) {
+            return Float.class;
+        } else if (short.class == clazz) {
+            return Short.class;
+        } else if (byte.class == clazz) {
+            return Byte.class;
+        } else if (char.class == clazz) {
+            return Character.class;
+        } else {
+            return Void.class;
+        }
+    }
+
     /**
      * 从JavaType中抽取真实的基类
      *
@@ -0,0 +1,317 @@
+package com.joe.utils.scan;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import com.joe.utils.collection.ConcurrentLRUCacheMap;
+import com.joe.utils.collection.cache.CacheRegistry;
+import com.joe.utils.common.IOUtils;
+import com.joe.utils.reflect.clazz.ClassUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * class元数据索引，在fork-join线程池中并行扫描目录和jar，通过{@link ClassMetadataReader}读取class头而不加载class；
+ * jar中的内容不会变化，所以jar的索引会缓存，目录每次都重新扫描
+ * <p>
+ * 当前环境中没有ASM或者class文件无法读取（例如ASM版本不支持的class文件版本）时，退化为加载class后读取元数据
+ *
+ * @author JoeKerouac
+ * @version 2019年12月12日 10:00
+ */
+@Slf4j
+final class ClassIndexer {
+
+    /**
+     * ASM是否可用（ASM是provided依赖，运行时不一定存在）
+     */
+    private static final boolean ASM_SUPPORT;
+
+    /**
+     * 每个任务最少处理的jar条目数
+     */
+    private static final int JAR_THRESHOLD = 128;
+
+    private static final int BUF_SIZE = 4096;
+
+    /**
+     * jar索引缓存，key是包路径对应的jar URL以及jar文件的修改时间、大小，jar文件更新后key随之变化，旧的索引按照LRU淘汰
+     */
+    private static final Map<String, List<ClassMetadata>> JAR_INDEX =
+        CacheRegistry.register("ClassIndexer.JAR_INDEX", new ConcurrentLRUCacheMap<>(256));
+
+    static {
+        boolean support;
+        try {
+            Class.forName("org.objectweb.asm.ClassReader", false, ClassIndexer.class.getClassLoader());
+            support = true;
+        } catch (Throwable e) {
+            log.info("当前环境中没有ASM，扫描class时将加载class后读取元数据");
+            support = false;
+        }
+        ASM_SUPPORT = support;
+    }
+
+    private final ClassLoader classLoader;
+
+    ClassIndexer(ClassLoader classLoader) {
+        this.classLoader = classLoader == null ? ClassUtils.getDefaultClassLoader() : classLoader;
+    }
+
+    /**
+     * 并行扫描指定包（包括子包）中所有class的元数据
+     *
+     * @param packages
+     *            包名
+     * @return 所有class的元数据，同名class只保留classpath中第一个
+     */
+    List<ClassMetadata> index(String... packages) {
+        List<ForkJoinTask<List<ClassMetadata>>> tasks = new ArrayList<>();
+        for (String pack : packages) {
+            String packageDirName = pack.replace('.', '/');
+            Enumeration<URL> dirs;
+            try {
+                dirs = classLoader.getResources(packageDirName);
+            } catch (IOException e) {
+                throw new ScannerException("扫描包" + packageDirName + "资源出错", e);
+            }
+            while (dirs.hasMoreElements()) {
+                ForkJoinTask<List<ClassMetadata>> task = createTask(dirs.nextElement(), pack, packageDirName);
+                if (task != null) {
+                    tasks.add(ForkJoinPool.commonPool().submit(task));
+                }
+            }
+        }
+
+        Map<String, ClassMetadata> result = new LinkedHashMap<>();
+        for (ForkJoinTask<List<ClassMetadata>> task : tasks) {
+            for (ClassMetadata metadata : task.join()) {
+                result.putIfAbsent(metadata.getName(), metadata);
+            }
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    private ForkJoinTask<List<ClassMetadata>> createTask(URL url, String pack, String packageDirName) {
+        String protocol = url.getProtocol();
+        try {
+            if ("file".equals(protocol)) {
+                File dir = new File(URLDecoder.decode(url.getFile(), Charset.defaultCharset().name()));
+                return new DirectoryTask(dir, pack);
+            } else if ("jar".equals(protocol)) {
+                JarURLConnection connection = (JarURLConnection)url.openConnection();
+                URL jarFileUrl = connection.getJarFileURL();
+                File file = "file".equals(jarFileUrl.getProtocol())
+                    ? new File(URLDecoder.decode(jarFileUrl.getFile(), Charset.defaultCharset().name())) : null;
+                String key = file == null ? url.toExternalForm()
+                    : url.toExternalForm() + '#' + file.lastModified() + ':' + file.length();
+                List<ClassMetadata> cached = JAR_INDEX.get(key);
+                if (cached != null) {
+                    return ForkJoinTask.adapt(() -> cached);
+                }
+                // 本地jar单独打开（扫描完成后关闭），JarURLConnection默认共享的JarFile感知不到jar文件的更新
+                JarFile jar = file == null ? connection.getJarFile() : new JarFile(file);
+                List<JarEntry> entries = new ArrayList<>();
+                Enumeration<JarEntry> enumeration = jar.entries();
+                while (enumeration.hasMoreElements()) {
+                    JarEntry entry = enumeration.nextElement();
+                    String name = entry.getName().charAt(0) == '/' ? entry.getName().substring(1) : entry.getName();
+                    if (name.startsWith(packageDirName + "/") && isClassFile(name) && !entry.isDirectory()) {
+                        entries.add(entry);
+                    }
+                }
+                return new JarTask(key, jar, file != null, entries, 0, entries.size());
+            }
+        } catch (IOException e) {
+            log.warn("扫描{}时出错", url, e);
+        }
+        return null;
+    }
+
+    /**
+     * 读取class元数据，无法读取时加载class
+     *
+     * @param className
+     *            class名
+     * @param data
+     *            class文件内容，ASM不可用时为null
+     * @return class元数据，class无法加载时返回null
+     */
+    private ClassMetadata resolve(String className, byte[] data) {
+        if (data != null) {
+            try {
+                return ClassMetadataReader.read(data);
+            } catch (Throwable e) {
+                log.debug("读取class[{}]元数据失败，加载class读取", className, e);
+            }
+        }
+        try {
+            return ClassMetadata.of(classLoader.loadClass(className));
+        } catch (Throwable e) {
+            log.warn("找不到{}文件", className + ".class", e);
+            return null;
+        }
+    }
+
+    /**
+     * 是否是需要扫描的class文件，package-info、module-info不是类型，不扫描
+     */
+    private static boolean isClassFile(String name) {
+        return name.endsWith(ClassUtils.CLASS_FILE_SUFFIX) && !name.endsWith("package-info.class")
+               && !name.endsWith("module-info.class");
+    }
+
+    /**
+     * 扫描目录，每个子目录一个任务
+     */
+    private final class DirectoryTask extends RecursiveTask<List<ClassMetadata>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final File dir;
+
+        private final String packageName;
+
+        private DirectoryTask(File dir, String packageName) {
+            this.dir = dir;
+            this.packageName = packageName;
+        }
+
+        @Override
+        protected List<ClassMetadata> compute() {
+            File[] files = dir.listFiles(file -> file.isDirectory() || isClassFile(file.getName()));
+            if (files == null || files.length == 0) {
+                return Collections.emptyList();
+            }
+            Arrays.sort(files);
+
+            List<DirectoryTask> children = new ArrayList<>();
+            List<ClassMetadata> result = new ArrayList<>();
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    DirectoryTask child = new DirectoryTask(file, packageName + "." + file.getName());
+                    child.fork();
+                    children.add(child);
+                    continue;
+                }
+
+                String fileName = file.getName();
+                int length = fileName.length() - ClassUtils.CLASS_FILE_SUFFIX.length();
+                String className = packageName + "." + fileName.substring(0, length);
+                byte[] data = null;
+                if (ASM_SUPPORT) {
+                    try {
+                        data = IOUtils.read(file);
+                    } catch (IOException e) {
+                        log.warn("读取class文件{}失败", file, e);
+                    }
+                }
+                ClassMetadata metadata = resolve(className, data);
+                if (metadata != null) {
+                    result.add(metadata);
+                }
+            }
+            for (DirectoryTask child : children) {
+                result.addAll(child.join());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 扫描jar中的一段条目，条目较多时二分拆分
+     */
+    private final class JarTask extends RecursiveTask<List<ClassMetadata>> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 缓存key，只有最顶层的任务不为null，完成后将结果放入缓存
+         */
+        private final String key;
+
+        private final JarFile jar;
+
+        /**
+         * 最顶层的任务完成后是否需要关闭jar
+         */
+        private final boolean close;
+
+        private final List<JarEntry> entries;
+
+        private final int start;
+
+        private final int end;
+
+        private JarTask(String key, JarFile jar, boolean close, List<JarEntry> entries, int start, int end) {
+            this.key = key;
+            this.jar = jar;
+            this.close = close;
+            this.entries = entries;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected List<ClassMetadata> compute() {
+            if (key == null || !close) {
+                return scan();
+            }
+            try {
+                return scan();
+            } finally {
+                IOUtils.closeQuietly(jar);
+            }
+        }
+
+        private List<ClassMetadata> scan() {
+            List<ClassMetadata> result;
+            if (end - start > JAR_THRESHOLD) {
+                int middle = (start + end) >>> 1;
+                JarTask left = new JarTask(null, jar, false, entries, start, middle);
+                JarTask right = new JarTask(null, jar, false, entries, middle, end);
+                left.fork();
+                result = new ArrayList<>(right.compute());
+                result.addAll(0, left.join());
+            } else {
+                result = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++) {
+                    ClassMetadata metadata = read(entries.get(i));
+                    if (metadata != null) {
+                        result.add(metadata);
+                    }
+                }
+            }
+
+            if (key != null) {
+                JAR_INDEX.put(key, Collections.unmodifiableList(result));
+            }
+            return result;
+        }
+
+        private ClassMetadata read(JarEntry entry) {
+            String name = entry.getName().charAt(0) == '/' ? entry.getName().substring(1) : entry.getName();
+            String className =
+                name.substring(0, name.length() - ClassUtils.CLASS_FILE_SUFFIX.length()).replace('/', '.');
+            byte[] data = null;
+            if (ASM_SUPPORT) {
+                try {
+                    data = IOUtils.read(jar.getInputStream(entry), BUF_SIZE, true);
+                } catch (IOException e) {
+                    log.warn("读取jar[{}]中的class文件{}失败", jar.getName(), name, e);
+                }
+            }
+            return resolve(className, data);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.joe.utils.scan;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * class元数据，从class文件头中读取，读取时不会加载class
+ *
+ * @author JoeKerouac
+ * @version 2019年12月12日 10:00
+ */
+@Getter
+@ToString
+public final class ClassMetadata {
+
+    /**
+     * class名，例如java.lang.String
+     */
+    private final String name;
+
+    /**
+     * 父类名，接口的父类是java.lang.Object，java.lang.Object的父类为null
+     */
+    private final String superName;
+
+    /**
+     * 直接实现的接口名
+     */
+    private final List<String> interfaces;
+
+    /**
+     * class上直接声明的运行时可见注解的类型名，不包含从父类继承的注解
+     */
+    private final Set<String> annotations;
+
+    /**
+     * class文件中的访问标识，内部类的private、static等修饰符只在加载后的class中可见
+     */
+    private final int access;
+
+    ClassMetadata(String name, String superName, List<String> interfaces, Set<String> annotations, int access) {
+        this.name = name;
+        this.superName = superName;
+        this.interfaces = Collections.unmodifiableList(interfaces);
+        this.annotations = Collections.unmodifiableSet(annotations);
+        this.access = access;
+    }
+
+    /**
+     * 从已经加载的class构建元数据，用于class文件无法读取时
+     *
+     * @param clazz
+     *            class
+     * @return class元数据
+     */
+    static ClassMetadata of(Class<?> clazz) {
+        String superName = clazz.getSuperclass() == null ? (clazz.isInterface() ? Object.class.getName() : null)
+            : clazz.getSuperclass().getName();
+        List<String> interfaces = new ArrayList<>();
+        for (Class<?> type : clazz.getInterfaces()) {
+            interfaces.add(type.getName());
+        }
+        Set<String> annotations = new LinkedHashSet<>();
+        for (Annotation annotation : clazz.getDeclaredAnnotations()) {
+            annotations.add(annotation.annotationType().getName());
+        }
+        return new ClassMetadata(clazz.getName(), superName, interfaces, annotations, clazz.getModifiers());
+    }
+
+    /**
+     * class上是否直接声明了指定注解
+     *
+     * @param annotation
+     *            注解
+     * @return 返回true表示直接声明了指定注解
+     */
+    public boolean isAnnotationPresent(Class<? extends Annotation> annotation) {
+        return annotations.contains(annotation.getName());
+    }
+
+    /**
+     * 是否直接实现了指定接口
+     *
+     * @param type
+     *            接口
+     * @return 返回true表示直接实现了指定接口
+     */
+    public boolean isImplements(Class<?> type) {
+        return interfaces.contains(type.getName());
+    }
+
+    public boolean isInterface() {
+        return Modifier.isInterface(access);
+    }
+
+    public boolean isAbstract() {
+        return Modifier.isAbstract(access);
+    }
+
+    public boolean isPublic() {
+        return Modifier.isPublic(access);
+    }
+}
@@ -0,0 +1,11 @@
+package com.joe.utils.scan;
+
+/**
+ * ClassMetadataFilter，在class加载前根据class元数据过滤
+ *
+ * @author JoeKerouac
+ * @version 2019年12月12日 10:00
+ */
+public interface ClassMetadataFilter extends Filter<ClassMetadata> {
+
+}
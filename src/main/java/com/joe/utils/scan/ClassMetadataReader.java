@@ -0,0 +1,81 @@
+package com.joe.utils.scan;
+
+import java.util.*;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * 使用ASM的ClassReader读取class元数据，只读取class头和class上的注解，不会加载class；ASM是provided依赖，使用前需要确认ASM存在
+ *
+ * @author JoeKerouac
+ * @version 2019年12月12日 10:00
+ */
+final class ClassMetadataReader {
+
+    private static final int FLAGS = ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+
+    private ClassMetadataReader() {}
+
+    /**
+     * 读取class元数据
+     *
+     * @param data
+     *            class文件内容
+     * @return class元数据
+     */
+    static ClassMetadata read(byte[] data) {
+        MetadataVisitor visitor = new MetadataVisitor();
+        new ClassReader(data).accept(visitor, FLAGS);
+        return new ClassMetadata(visitor.name, visitor.superName, visitor.interfaces, visitor.annotations,
+            visitor.access);
+    }
+
+    private static String toClassName(String internalName) {
+        return internalName == null ? null : internalName.replace('/', '.');
+    }
+
+    private static final class MetadataVisitor extends ClassVisitor {
+
+        private String name;
+
+        private String superName;
+
+        private List<String> interfaces = Collections.emptyList();
+
+        private final Set<String> annotations = new LinkedHashSet<>();
+
+        private int access;
+
+        private MetadataVisitor() {
+            super(Opcodes.ASM5);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName,
+            String[] interfaces) {
+            // 去掉ACC_SUPER，和Class.getModifiers保持一致
+            this.access = access & ~Opcodes.ACC_SUPER;
+            this.name = toClassName(name);
+            this.superName = toClassName(superName);
+            if (interfaces != null && interfaces.length > 0) {
+                this.interfaces = new ArrayList<>(interfaces.length);
+                for (String type : interfaces) {
+                    this.interfaces.add(toClassName(type));
+                }
+            }
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            // 只关心运行时可见的注解，和Class.isAnnotationPresent保持一致
+            if (visible) {
+                annotations.add(Type.getType(desc).getClassName());
+            }
+            return null;
+        }
+    }
+}
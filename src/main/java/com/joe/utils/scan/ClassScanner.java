@@ -174,6 +174,37 @@ public class ClassScanner implements Scanner<Class<?>, ClassFilter> {
         return classes;
     }
 
+    /**
+     * 扫描指定的包（包括子包）中的所有class，过滤器在class加载前根据class元数据过滤，只有通过过滤的class才会被加载；扫描在fork-join
+     * 线程池中并行进行，jar的扫描结果会被缓存
+     *
+     * @param excludeFilters
+     *            过滤器，不能为null，filter返回true时扫描出的class将被过滤
+     * @param packages
+     *            要扫描的包
+     * @return 过滤后的所有Class
+     */
+    public List<Class<?>> scanByMetadata(List<ClassMetadataFilter> excludeFilters, String... packages) {
+        LOGGER.debug("根据元数据扫描包{}下的所有类，过滤器为：{}", packages, excludeFilters);
+        if (packages == null || packages.length == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Class<?>> classes = new ArrayList<>();
+        for (ClassMetadata metadata : new ClassIndexer(classLoader).index(packages)) {
+            if (excludeFilters.stream().anyMatch(filter -> filter.filter(metadata))) {
+                continue;
+            }
+            try {
+                classes.add(classLoader.loadClass(metadata.getName()));
+            } catch (Throwable e) {
+                LOGGER.warn("找不到{}文件", metadata.getName() + ".class", e);
+            }
+        }
+        LOGGER.debug("根据元数据扫描出来的Class集合为：{}", classes);
+        return classes;
+    }
+
     /**
      * 根据包名扫描类
      *
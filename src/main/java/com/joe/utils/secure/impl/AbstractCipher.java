@@ -9,6 +9,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import javax.crypto.Cipher;
 import javax.crypto.NoSuchPaddingException;
 
+import com.joe.utils.collection.cache.CacheRegistry;
+import com.joe.utils.collection.cache.StatsCounter;
 import com.joe.utils.pool.ObjectPoolImpl;
 import com.joe.utils.pool.PooledObject;
 import com.joe.utils.secure.CipherUtil;
@@ -28,6 +30,16 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public abstract class AbstractCipher implements CipherUtil {
     private static final Map<String, ObjectPoolImpl<CipherHolder>> CACHE = new ConcurrentHashMap<>();
+    /**
+     * 所有对象池共享的统计计数器，对象池的key中包含密钥信息，所以只汇总注册，不单独注册
+     */
+    private static final StatsCounter STATS_COUNTER = new StatsCounter();
+
+    static {
+        CacheRegistry.register("AbstractCipher.CACHE",
+            () -> STATS_COUNTER.snapshot(CACHE.values().stream().mapToLong(ObjectPoolImpl::freeSize).sum()));
+    }
+
     private String id;
     private Algorithms algorithms;
     private Key priKey;
@@ -40,7 +52,7 @@ public abstract class AbstractCipher implements CipherUtil {
         this.pubKey = pubKey;
 
         CACHE.computeIfAbsent(this.id, key -> {
-            ObjectPoolImpl<CipherHolder> pool = new ObjectPoolImpl<>(this::build);
+            ObjectPoolImpl<CipherHolder> pool = new ObjectPoolImpl<>(this::build, STATS_COUNTER, true);
             // 快速验证
             pool.get().close();
             return pool;
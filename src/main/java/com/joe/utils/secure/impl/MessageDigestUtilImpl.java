@@ -6,6 +6,8 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.joe.utils.codec.Hex;
+import com.joe.utils.collection.cache.CacheRegistry;
+import com.joe.utils.collection.cache.StatsCounter;
 import com.joe.utils.pool.ObjectPoolImpl;
 import com.joe.utils.pool.PooledObject;
 import com.joe.utils.secure.MessageDigestUtil;
@@ -19,13 +21,24 @@ import com.joe.utils.secure.exception.SecureException;
  */
 public class MessageDigestUtilImpl implements MessageDigestUtil {
     private static final Map<String, ObjectPoolImpl<MessageDigest>> CACHE = new ConcurrentHashMap<>();
+    /**
+     * 所有对象池共享的统计计数器
+     */
+    private static final StatsCounter STATS_COUNTER = new StatsCounter();
+
+    static {
+        CacheRegistry.register("MessageDigestUtilImpl.CACHE",
+            () -> STATS_COUNTER.snapshot(CACHE.values().stream().mapToLong(ObjectPoolImpl::freeSize).sum()));
+    }
+
     private Algorithms algorithms;
 
     private MessageDigestUtilImpl(Algorithms algorithms) {
         this.algorithms = algorithms;
 
         CACHE.computeIfAbsent(algorithms.name(), key -> {
-            ObjectPoolImpl<MessageDigest> pool = new ObjectPoolImpl<>(() -> getMessageDigest(algorithms));
+            ObjectPoolImpl<MessageDigest> pool =
+                new ObjectPoolImpl<>(() -> getMessageDigest(algorithms), STATS_COUNTER, true);
             // 快速验证
             pool.get().close();
             return pool;
@@ -11,6 +11,8 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.joe.utils.codec.IBase64;
+import com.joe.utils.collection.cache.CacheRegistry;
+import com.joe.utils.collection.cache.StatsCounter;
 import com.joe.utils.pool.ObjectPoolImpl;
 import com.joe.utils.pool.PooledObject;
 import com.joe.utils.secure.KeyTools;
@@ -32,6 +34,16 @@ import lombok.extern.slf4j.Slf4j;
 public class SignatureUtilImpl implements SignatureUtil {
     private static final IBase64 BASE_64 = new IBase64();
     private static final Map<String, ObjectPoolImpl<SignatureHolder>> CACHE = new ConcurrentHashMap<>();
+    /**
+     * 所有对象池共享的统计计数器，对象池的key中包含密钥信息，所以只汇总注册，不单独注册
+     */
+    private static final StatsCounter STATS_COUNTER = new StatsCounter();
+
+    static {
+        CacheRegistry.register("SignatureUtilImpl.CACHE",
+            () -> STATS_COUNTER.snapshot(CACHE.values().stream().mapToLong(ObjectPoolImpl::freeSize).sum()));
+    }
+
     /**
      * ID
      */
@@ -52,7 +64,8 @@ public class SignatureUtilImpl implements SignatureUtil {
 
         CACHE.computeIfAbsent(this.id, id -> {
             ObjectPoolImpl<SignatureHolder> pool =
-                new ObjectPoolImpl<>(() -> buildSignatureHolder(privateKey, publicKey, algorithms));
+                new ObjectPoolImpl<>(() -> buildSignatureHolder(privateKey, publicKey, algorithms), STATS_COUNTER,
+                    true);
             // 快速验证
             pool.get().close();
             return pool;
@@ -7,5 +7,15 @@ package com.joe.utils.serialize;
  * @version $Id: joe, v 0.1 2019年04月08日 20:29 JoeKerouac Exp $
  */
 public enum SerializerEnum {
-    JSON, XML, FORM
+    JSON, XML, FORM,
+
+    /**
+     * 基于StAX的流式XML序列化器
+     */
+    XML_STREAM,
+
+    /**
+     * 紧凑的二进制序列化器
+     */
+    BINARY
 }
@@ -1,7 +1,10 @@
 package com.joe.utils.serialize;
 
 import com.joe.utils.exception.NoSupportException;
+import com.joe.utils.serialize.binary.BinarySerializer;
+import com.joe.utils.serialize.form.FormParser;
 import com.joe.utils.serialize.json.JsonParser;
+import com.joe.utils.serialize.xml.StaxXmlParser;
 import com.joe.utils.serialize.xml.XmlParser;
 
 /**
@@ -16,9 +19,14 @@ public class SerializerFactory {
         switch (serializerType) {
             case XML:
                 return XmlParser.getInstance();
+            case XML_STREAM:
+                return StaxXmlParser.getInstance();
             case JSON:
                 return JsonParser.getInstance();
-            case FORM:;
+            case BINARY:
+                return BinarySerializer.getInstance();
+            case FORM:
+                return FormParser.getInstance();
             default:
                 throw new NoSupportException("不支持的Serializer类型：" + serializerType);
         }
@@ -0,0 +1,34 @@
+package com.joe.utils.serialize.binary;
+
+import java.lang.annotation.*;
+
+/**
+ * 二进制序列化的字段配置，注解在字段上
+ * <p>
+ * 二进制格式中字段使用ID标识而不是字段名，为了保证类结构变化（增删字段）后新旧版本的数据仍然可以互相解析，应该为每个字段指定一个
+ * 固定的ID：新增字段使用新的ID，删除字段后该字段的ID不要再被其他字段使用；没有指定ID的字段根据字段名计算ID（与指定的ID不在同一个
+ * 范围，不会冲突），增删其他字段不会影响其ID，但是字段重命名会导致ID变化，并且编码后的tag更长；两个字段名计算出的ID冲突时直接抛出
+ * 异常，此时需要为其中一个字段指定ID
+ *
+ * @author JoeKerouac
+ * @version 2019年12月03日 14:10
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD})
+@Documented
+public @interface BinaryField {
+
+    /**
+     * 字段ID，必须大于0、不超过65535并且在同一个类中唯一，为0时表示自动分配，小于0或者超过65535时抛出异常
+     *
+     * @return 字段ID
+     */
+    int id() default 0;
+
+    /**
+     * 是否忽略该字段
+     *
+     * @return 返回true表示忽略该字段
+     */
+    boolean ignore() default false;
+}
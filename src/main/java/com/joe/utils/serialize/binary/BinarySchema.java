@@ -0,0 +1,271 @@
+package com.joe.utils.serialize.binary;
+
+import static com.joe.utils.serialize.binary.WireFormat.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+import com.joe.utils.collection.ConcurrentLRUCacheMap;
+import com.joe.utils.collection.cache.CacheRegistry;
+import com.joe.utils.reflect.BeanUtils;
+import com.joe.utils.reflect.BeanUtils.CustomPropertyDescriptor;
+import com.joe.utils.reflect.ReflectUtil;
+import com.joe.utils.serialize.SerializeException;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * pojo的二进制结构，根据{@link BeanUtils#getPropertyDescriptors(Class)}和{@link BinaryField}注解预先计算好每个字段的ID、tag、
+ * 编解码器、访问句柄，序列化时直接执行
+ * <p>
+ * pojo编码为若干带tag的字段值，以tag 0结尾，字段按照ID从小到大写出，值为null的字段不写出；解析时不认识的字段ID或者值类型与当前
+ * 字段不一致的字段会被跳过，没有出现的字段保持默认值
+ *
+ * @author JoeKerouac
+ * @version 2019年12月03日 14:40
+ */
+final class BinarySchema {
+
+    /**
+     * 结构缓存
+     */
+    private static final Map<Class<?>, BinarySchema> CACHE =
+        CacheRegistry.register("BinarySchema.CACHE", new ConcurrentLRUCacheMap<>());
+
+    /**
+     * 注解指定的最大字段ID，自动分配的ID位于(MAX_ID, 2 * MAX_ID + 1]之间，不会和指定的ID冲突
+     */
+    private static final int MAX_ID = 0xFFFF;
+
+    /**
+     * pojo类型
+     */
+    private final Class<?> type;
+
+    /**
+     * 无参构造器，不存在时为null
+     */
+    private final Constructor<?> constructor;
+
+    /**
+     * 所有字段，按照ID从小到大排列
+     */
+    private final BinaryProperty[] properties;
+
+    /**
+     * 所有字段的ID，和{@link #properties}一一对应，用于解析时二分查找
+     */
+    private final int[] ids;
+
+    private BinarySchema(Class<?> type) {
+        this.type = type;
+        this.constructor = findConstructor(type);
+
+        List<BinaryProperty> properties = new ArrayList<>();
+        for (CustomPropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)) {
+            Field field = descriptor.getField();
+            BinaryField binaryField = field.getAnnotation(BinaryField.class);
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+                || (binaryField != null && binaryField.ignore())) {
+                continue;
+            }
+
+            int id;
+            if (binaryField == null || binaryField.id() == 0) {
+                id = autoId(descriptor.getName());
+            } else if (binaryField.id() < 0 || binaryField.id() > MAX_ID) {
+                throw new SerializeException(
+                    "类[" + type.getName() + "]的字段[" + descriptor.getName() + "]的ID不合法：" + binaryField.id());
+            } else {
+                id = binaryField.id();
+            }
+            properties.add(new BinaryProperty(id, descriptor));
+        }
+        properties.sort(Comparator.comparingInt(property -> property.id));
+
+        this.properties = properties.toArray(new BinaryProperty[0]);
+        this.ids = new int[this.properties.length];
+        for (int i = 0; i < this.properties.length; i++) {
+            BinaryProperty property = this.properties[i];
+            if (i > 0 && ids[i - 1] == property.id) {
+                throw new SerializeException("类[" + type.getName() + "]的字段[" + this.properties[i - 1].name + "]和字段["
+                                             + property.name + "]的ID重复：" + property.id + "，请使用BinaryField指定ID");
+            }
+            ids[i] = property.id;
+        }
+    }
+
+    /**
+     * 根据字段名计算自动分配的ID，只和字段名有关，增删其他字段不会导致ID变化
+     *
+     * @param name
+     *            字段名
+     * @return 字段ID
+     */
+    private static int autoId(String name) {
+        int hash = name.hashCode();
+        return MAX_ID + 1 + ((hash ^ (hash >>> 16)) & MAX_ID);
+    }
+
+    /**
+     * 获取指定类型的结构
+     *
+     * @param type
+     *            pojo类型
+     * @return 结构
+     * @throws SerializeException
+     *             字段类型不支持或者字段ID不合法时抛出该异常
+     */
+    static BinarySchema of(Class<?> type) throws SerializeException {
+        return CACHE.computeIfAbsent(type, BinarySchema::new);
+    }
+
+    /**
+     * 写出pojo
+     *
+     * @param buf
+     *            缓冲区
+     * @param pojo
+     *            pojo
+     */
+    void write(ByteBuf buf, Object pojo) {
+        for (BinaryProperty property : properties) {
+            Object value = property.get(pojo);
+            if (value != null) {
+                writeVarint32(buf, property.tag);
+                property.codec.write(buf, value);
+            }
+        }
+        writeVarint32(buf, END);
+    }
+
+    /**
+     * 读取pojo
+     *
+     * @param buf
+     *            缓冲区
+     * @return pojo
+     */
+    Object read(ByteBuf buf) {
+        Object pojo = newInstance();
+        int tag;
+        while ((tag = readVarint32(buf)) != END) {
+            int index = Arrays.binarySearch(ids, idOf(tag));
+            BinaryProperty property = index < 0 ? null : properties[index];
+            if (property == null || wireTypeOf(tag) != property.codec.wireType) {
+                // 新版本增加的字段或者类型已经修改的字段
+                skip(buf, wireTypeOf(tag));
+            } else {
+                property.set(pojo, property.codec.read(buf));
+            }
+        }
+        return pojo;
+    }
+
+    private Object newInstance() {
+        if (constructor == null) {
+            throw new SerializeException("类型[" + type.getName() + "]没有无参构造器，无法实例化");
+        }
+        try {
+            return constructor.newInstance();
+        } catch (Exception e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type) {
+        try {
+            return ReflectUtil.allowAccess(type.getDeclaredConstructor());
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 字段的二进制结构
+     */
+    private static final class BinaryProperty {
+
+        /**
+         * 字段ID
+         */
+        private final int id;
+
+        /**
+         * 字段名
+         */
+        private final String name;
+
+        /**
+         * 字段的tag
+         */
+        private final int tag;
+
+        /**
+         * 字段值的编解码器
+         */
+        private final ValueCodec codec;
+
+        /**
+         * 字段是否是基本类型
+         */
+        private final boolean primitive;
+
+        /**
+         * 字段读取句柄，类型为(Object)Object
+         */
+        private final MethodHandle getter;
+
+        /**
+         * 字段写入句柄，类型为(Object, Object)void
+         */
+        private final MethodHandle setter;
+
+        private BinaryProperty(int id, CustomPropertyDescriptor descriptor) {
+            Field field = ReflectUtil.allowAccess(descriptor.getField());
+            this.id = id;
+            this.name = descriptor.getName();
+            this.primitive = field.getType().isPrimitive();
+            try {
+                this.codec = ValueCodec.of(field.getGenericType());
+            } catch (SerializeException e) {
+                throw new SerializeException("字段[" + field + "]的类型不支持二进制序列化：" + e.getMessage());
+            }
+            this.tag = tag(id, codec.wireType);
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                this.getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+                this.setter = lookup.unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new SerializeException(e);
+            }
+        }
+
+        private Object get(Object pojo) {
+            try {
+                return (Object)getter.invokeExact(pojo);
+            } catch (Throwable e) {
+                throw new SerializeException(e);
+            }
+        }
+
+        private void set(Object pojo, Object value) {
+            // 基本类型字段不能设置为null
+            if (value == null && primitive) {
+                return;
+            }
+            try {
+                setter.invokeExact(pojo, value);
+            } catch (Throwable e) {
+                throw new SerializeException(e);
+            }
+        }
+    }
+}
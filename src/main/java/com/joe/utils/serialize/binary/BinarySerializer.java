@@ -0,0 +1,155 @@
+package com.joe.utils.serialize.binary;
+
+import static com.joe.utils.serialize.binary.WireFormat.*;
+
+import java.util.Base64;
+
+import com.joe.utils.common.Assert;
+import com.joe.utils.common.string.StringUtils;
+import com.joe.utils.serialize.SerializeException;
+import com.joe.utils.serialize.Serializer;
+import com.joe.utils.serialize.binary.ValueCodec.ObjectCodec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+
+/**
+ * 紧凑的二进制序列化器，格式类似protobuf：字段使用ID标识，每个值前有一个varint编码的tag（字段ID + 值类型），整数使用zigzag +
+ * varint编码，null值不写出，适合内部RPC等对体积、性能敏感并且通信双方都是java的场景
+ * <p>
+ * 支持的类型：八大基本类型及其包装类型、String、byte[]、BigDecimal、BigInteger、Date、枚举（使用序号编码）、带泛型的集合和map、
+ * 数组、有无参构造器的pojo（字段类型也必须是这些类型）；pojo按照声明的字段类型序列化，字段值是子类时子类特有的字段会被忽略
+ * <p>
+ * 兼容性：字段通过{@link BinaryField}指定固定ID后，新增、删除字段时新旧版本的数据可以互相解析（不认识的字段会被跳过，缺少的字段保持
+ * 默认值）
+ * <p>
+ * 序列化时使用netty的池化缓冲区，可以通过{@link #write(Object, ByteBuf)}、{@link #read(ByteBuf, Class)}直接读写调用方的缓冲区，
+ * 避免数据复制；{@link #writeToString(Object)}返回的是二进制数据的Base64编码
+ *
+ * @author JoeKerouac
+ * @version 2019年12月03日 15:10
+ */
+public class BinarySerializer implements Serializer {
+
+    private static final BinarySerializer DEFAULT = new BinarySerializer();
+
+    /**
+     * 根对象不是pojo时，使用该ID写出
+     */
+    private static final int ROOT_ID = ITEM_ID;
+
+    private BinarySerializer() {}
+
+    /**
+     * 获取默认实例
+     *
+     * @return 默认实例
+     */
+    public static BinarySerializer getInstance() {
+        return DEFAULT;
+    }
+
+    /**
+     * 将对象序列化后写入缓冲区
+     *
+     * @param value
+     *            对象，不能为null
+     * @param buf
+     *            缓冲区
+     * @throws SerializeException
+     *             对象类型不支持时抛出该异常
+     */
+    public void write(Object value, ByteBuf buf) throws SerializeException {
+        Assert.notNull(value, "value不能为null");
+        Assert.notNull(buf, "buf不能为null");
+        ValueCodec codec = ValueCodec.of(value.getClass());
+        if (codec instanceof ObjectCodec) {
+            codec.write(buf, value);
+        } else {
+            writeVarint32(buf, tag(ROOT_ID, codec.wireType));
+            codec.write(buf, value);
+            writeVarint32(buf, END);
+        }
+    }
+
+    /**
+     * 从缓冲区中读取对象，读取完毕后缓冲区的readerIndex位于该对象数据之后
+     *
+     * @param buf
+     *            缓冲区
+     * @param clazz
+     *            对象的Class
+     * @param <T>
+     *            对象的实际类型
+     * @return 对象
+     * @throws SerializeException
+     *             对象类型不支持或者数据格式错误时抛出该异常
+     */
+    public <T> T read(ByteBuf buf, Class<T> clazz) throws SerializeException {
+        Assert.notNull(buf, "buf不能为null");
+        Assert.notNull(clazz, "clazz不能为null");
+        ValueCodec codec = ValueCodec.of(clazz);
+        try {
+            if (codec instanceof ObjectCodec) {
+                return clazz.cast(codec.read(buf));
+            }
+
+            Object result = null;
+            int tag;
+            while ((tag = readVarint32(buf)) != END) {
+                if (idOf(tag) == ROOT_ID) {
+                    result = ValueCodec.readItem(buf, tag, codec);
+                } else {
+                    skip(buf, wireTypeOf(tag));
+                }
+            }
+            return castRoot(result, clazz);
+        } catch (IndexOutOfBoundsException e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    @Override
+    public <T> byte[] write(T t) throws SerializeException {
+        if (t == null) {
+            return null;
+        }
+        ByteBuf buf = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            write(t, buf);
+            return ByteBufUtil.getBytes(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    @Override
+    public <T> String writeToString(T t) throws SerializeException {
+        byte[] data = write(t);
+        return data == null ? null : Base64.getEncoder().encodeToString(data);
+    }
+
+    @Override
+    public <T> T read(byte[] data, Class<T> clazz) throws SerializeException {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        return read(Unpooled.wrappedBuffer(data), clazz);
+    }
+
+    @Override
+    public <T> T read(String data, Class<T> clazz) throws SerializeException {
+        if (StringUtils.isEmpty(data)) {
+            return null;
+        }
+        return read(Base64.getDecoder().decode(data), clazz);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T castRoot(Object value, Class<T> clazz) {
+        // 基本类型的Class不能用来cast
+        return clazz.isPrimitive() ? (T)value : clazz.cast(value);
+    }
+}
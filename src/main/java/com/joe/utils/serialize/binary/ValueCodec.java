@@ -0,0 +1,543 @@
+package com.joe.utils.serialize.binary;
+
+import static com.joe.utils.serialize.binary.WireFormat.*;
+
+import java.lang.reflect.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import com.joe.utils.reflect.ReflectUtil;
+import com.joe.utils.serialize.SerializeException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+/**
+ * 单个值的编解码器，每种java类型对应一个编解码器，编解码器只负责值本身，tag由调用方写入
+ *
+ * @author JoeKerouac
+ * @version 2019年12月03日 14:20
+ */
+abstract class ValueCodec {
+
+    /**
+     * 简单类型的编解码器
+     */
+    private static final Map<Class<?>, ValueCodec> SIMPLE_CODECS = new HashMap<>();
+
+    static {
+        ValueCodec booleanCodec = new SimpleCodec(VARINT) {
+            @Override
+            void write(ByteBuf buf, Object value) {
+                buf.writeByte((Boolean)value ? 1 : 0);
+            }
+
+            @Override
+            Object read(ByteBuf buf) {
+                return readVarint64(buf) != 0;
+            }
+        };
+        ValueCodec byteCodec = new SimpleCodec(VARINT) {
+            @Override
+            void write(ByteBuf buf, Object value) {
+                writeVarint32(buf, encodeZigZag32((Byte)value));
+            }
+
+            @Override
+            Object read(ByteBuf buf) {
+                return (byte)decodeZigZag32(readVarint32(buf));
+            }
+        };
+        ValueCodec shortCodec = new SimpleCodec(VARINT) {
+            @Override
+            void write(ByteBuf buf, Object value) {
+                writeVarint32(buf, encodeZigZag32((Short)value));
+            }
+
+            @Override
+            Object read(ByteBuf buf) {
+                return (short)decodeZigZag32(readVarint32(buf));
+            }
+        };
+        ValueCodec charCodec = new SimpleCodec(VARINT) {
+            @Override
+            void write(ByteBuf buf, Object value) {
+                writeVarint32(buf, (Character)value);
+            }
+
+            @Override
+            Object read(ByteBuf buf) {
+                return (char)readVarint32(buf);
+            }
+        };
+        ValueCodec intCodec = new SimpleCodec(VARINT) {
+            @Override
+            void write(ByteBuf buf, Object value) {
+                writeVarint32(buf, encodeZigZag32((Integer)value));
+            }
+
+            @Override
+            Object read(ByteBuf buf) {
+                return decodeZigZag32(readVarint32(buf));
+            }
+        };
+        ValueCodec longCodec = new SimpleCodec(VARINT) {
+            @Override
+            void write(ByteBuf buf, Object value) {
+                writeVarint64(buf, encodeZigZag64((Long)value));
+            }
+
+            @Override
+            Object read(ByteBuf buf) {
+                return decodeZigZag64(readVarint64(buf));
+            }
+        };
+        ValueCodec floatCodec = new SimpleCodec(FIXED32) {
+            @Override
+            void write(ByteBuf buf, Object value) {
+                buf.writeIntLE(Float.floatToRawIntBits((Float)value));
+            }
+
+            @Override
+            Object read(ByteBuf buf) {
+                return Float.intBitsToFloat(buf.readIntLE());
+            }
+        };
+        ValueCodec doubleCodec = new SimpleCodec(FIXED64) {
+            @Override
+            void write(ByteBuf buf, Object value) {
+                buf.writeLongLE(Double.doubleToRawLongBits((Double)value));
+            }
+
+            @Override
+            Object read(ByteBuf buf) {
+                return Double.longBitsToDouble(buf.readLongLE());
+            }
+        };
+
+        register(booleanCodec, boolean.class, Boolean.class);
+        register(byteCodec, byte.class, Byte.class);
+        register(shortCodec, short.class, Short.class);
+        register(charCodec, char.class, Character.class);
+        register(intCodec, int.class, Integer.class);
+        register(longCodec, long.class, Long.class);
+        register(floatCodec, float.class, Float.class);
+        register(doubleCodec, double.class, Double.class);
+
+        register(new SimpleCodec(BYTES) {
+            @Override
+            void write(ByteBuf buf, Object value) {
+                writeString(buf, (String)value);
+            }
+
+            @Override
+            Object read(ByteBuf buf) {
+                return readString(buf);
+            }
+        }, String.class);
+        register(new SimpleCodec(BYTES) {
+            @Override
+            void write(ByteBuf buf, Object value) {
+                byte[] data = (byte[])value;
+                writeVarint32(buf, data.length);
+                buf.writeBytes(data);
+            }
+
+            @Override
+            Object read(ByteBuf buf) {
+                byte[] data = new byte[readLength(buf)];
+                buf.readBytes(data);
+                return data;
+            }
+        }, byte[].class);
+        register(new SimpleCodec(BYTES) {
+            @Override
+            void write(ByteBuf buf, Object value) {
+                writeString(buf, value.toString());
+            }
+
+            @Override
+            Object read(ByteBuf buf) {
+                return new BigDecimal(readString(buf));
+            }
+        }, BigDecimal.class);
+        register(new SimpleCodec(BYTES) {
+            @Override
+            void write(ByteBuf buf, Object value) {
+                byte[] data = ((BigInteger)value).toByteArray();
+                writeVarint32(buf, data.length);
+                buf.writeBytes(data);
+            }
+
+            @Override
+            Object read(ByteBuf buf) {
+                byte[] data = new byte[readLength(buf)];
+                buf.readBytes(data);
+                return new BigInteger(data);
+            }
+        }, BigInteger.class);
+        register(new SimpleCodec(VARINT) {
+            @Override
+            void write(ByteBuf buf, Object value) {
+                writeVarint64(buf, encodeZigZag64(((Date)value).getTime()));
+            }
+
+            @Override
+            Object read(ByteBuf buf) {
+                return new Date(decodeZigZag64(readVarint64(buf)));
+            }
+        }, Date.class);
+    }
+
+    /**
+     * 值类型
+     */
+    final int wireType;
+
+    ValueCodec(int wireType) {
+        this.wireType = wireType;
+    }
+
+    /**
+     * 写出值
+     *
+     * @param buf
+     *            缓冲区
+     * @param value
+     *            值，不能为null
+     */
+    abstract void write(ByteBuf buf, Object value);
+
+    /**
+     * 读取值，调用方需要保证数据的值类型与{@link #wireType}一致
+     *
+     * @param buf
+     *            缓冲区
+     * @return 值
+     */
+    abstract Object read(ByteBuf buf);
+
+    /**
+     * 获取指定类型的编解码器
+     *
+     * @param type
+     *            类型，集合、map必须带有泛型
+     * @return 编解码器
+     * @throws SerializeException
+     *             不支持该类型时抛出该异常
+     */
+    static ValueCodec of(Type type) throws SerializeException {
+        if (type instanceof Class) {
+            Class<?> clazz = (Class<?>)type;
+            ValueCodec codec = SIMPLE_CODECS.get(clazz);
+            if (codec != null) {
+                return codec;
+            } else if (clazz.isEnum()) {
+                return new EnumCodec(clazz);
+            } else if (clazz.isArray()) {
+                return new ArrayCodec(clazz.getComponentType(), of(clazz.getComponentType()));
+            } else if (Collection.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz)) {
+                throw new SerializeException("集合、map类型[" + clazz.getName() + "]必须声明泛型");
+            } else if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers()) || clazz.isPrimitive()
+                || Object.class.equals(clazz)) {
+                throw new SerializeException("不支持的类型：" + clazz.getName());
+            }
+            return new ObjectCodec(clazz);
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            Class<?> raw = (Class<?>)parameterizedType.getRawType();
+            Type[] args = parameterizedType.getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(raw)) {
+                return new CollectionCodec(collectionFactory(raw), of(args[0]));
+            } else if (Map.class.isAssignableFrom(raw)) {
+                return new MapCodec(mapFactory(raw), of(args[0]), of(args[1]));
+            }
+            return of(raw);
+        } else if (type instanceof GenericArrayType) {
+            Type componentType = ((GenericArrayType)type).getGenericComponentType();
+            Class<?> rawComponent = componentType instanceof ParameterizedType
+                ? (Class<?>)((ParameterizedType)componentType).getRawType() : Object.class;
+            return new ArrayCodec(rawComponent, of(componentType));
+        } else if (type instanceof WildcardType) {
+            return of(((WildcardType)type).getUpperBounds()[0]);
+        }
+        throw new SerializeException("不支持的类型：" + type);
+    }
+
+    private static void register(ValueCodec codec, Class<?>... types) {
+        for (Class<?> type : types) {
+            SIMPLE_CODECS.put(type, codec);
+        }
+    }
+
+    private static void writeString(ByteBuf buf, String value) {
+        int len = ByteBufUtil.utf8Bytes(value);
+        writeVarint32(buf, len);
+        ByteBufUtil.reserveAndWriteUtf8(buf, value, len);
+    }
+
+    private static String readString(ByteBuf buf) {
+        int len = readLength(buf);
+        String value = buf.toString(buf.readerIndex(), len, StandardCharsets.UTF_8);
+        buf.skipBytes(len);
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Collection<Object>> collectionFactory(Class<?> type) {
+        if (type.isAssignableFrom(ArrayList.class)) {
+            return ArrayList::new;
+        } else if (type.isAssignableFrom(HashSet.class)) {
+            return HashSet::new;
+        } else if (type.isAssignableFrom(TreeSet.class)) {
+            return TreeSet::new;
+        } else if (type.isAssignableFrom(LinkedList.class)) {
+            return LinkedList::new;
+        }
+        return (Supplier<Collection<Object>>)instanceFactory(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Map<Object, Object>> mapFactory(Class<?> type) {
+        if (type.isAssignableFrom(HashMap.class)) {
+            return HashMap::new;
+        } else if (type.isAssignableFrom(TreeMap.class)) {
+            return TreeMap::new;
+        } else if (type.isAssignableFrom(ConcurrentHashMap.class)) {
+            return ConcurrentHashMap::new;
+        }
+        return (Supplier<Map<Object, Object>>)instanceFactory(type);
+    }
+
+    private static Supplier<?> instanceFactory(Class<?> type) {
+        Constructor<?> constructor;
+        try {
+            constructor = ReflectUtil.allowAccess(type.getDeclaredConstructor());
+        } catch (NoSuchMethodException e) {
+            throw new SerializeException("类型[" + type.getName() + "]没有无参构造器");
+        }
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (Exception e) {
+                throw new SerializeException(e);
+            }
+        };
+    }
+
+    /**
+     * 写出组内的一个元素，元素为null时写出{@link WireFormat#NULL}
+     */
+    static void writeItem(ByteBuf buf, int id, Object value, ValueCodec codec) {
+        if (value == null) {
+            writeVarint32(buf, tag(id, NULL));
+        } else {
+            writeVarint32(buf, tag(id, codec.wireType));
+            codec.write(buf, value);
+        }
+    }
+
+    /**
+     * 读取组内的一个元素（tag已经读取），值类型不匹配时跳过并返回null
+     */
+    static Object readItem(ByteBuf buf, int tag, ValueCodec codec) {
+        int wireType = wireTypeOf(tag);
+        if (wireType == codec.wireType) {
+            return codec.read(buf);
+        }
+        skip(buf, wireType);
+        return null;
+    }
+
+    /**
+     * 简单类型的编解码器
+     */
+    private abstract static class SimpleCodec extends ValueCodec {
+        SimpleCodec(int wireType) {
+            super(wireType);
+        }
+    }
+
+    /**
+     * 枚举编解码器，使用序号编码，所以枚举只能在最后追加新的值
+     */
+    private static final class EnumCodec extends ValueCodec {
+
+        private final Object[] constants;
+
+        EnumCodec(Class<?> type) {
+            super(VARINT);
+            this.constants = type.getEnumConstants();
+        }
+
+        @Override
+        void write(ByteBuf buf, Object value) {
+            writeVarint32(buf, ((Enum<?>)value).ordinal());
+        }
+
+        @Override
+        Object read(ByteBuf buf) {
+            int ordinal = readVarint32(buf);
+            // 对方的枚举值比当前多时忽略
+            return ordinal >= 0 && ordinal < constants.length ? constants[ordinal] : null;
+        }
+    }
+
+    /**
+     * pojo编解码器，pojo的结构延迟解析，这样pojo可以引用自身
+     */
+    static final class ObjectCodec extends ValueCodec {
+
+        private final Class<?> type;
+
+        private volatile BinarySchema schema;
+
+        ObjectCodec(Class<?> type) {
+            super(GROUP);
+            this.type = type;
+        }
+
+        private BinarySchema schema() {
+            BinarySchema schema = this.schema;
+            if (schema == null) {
+                this.schema = schema = BinarySchema.of(type);
+            }
+            return schema;
+        }
+
+        @Override
+        void write(ByteBuf buf, Object value) {
+            schema().write(buf, value);
+        }
+
+        @Override
+        Object read(ByteBuf buf) {
+            return schema().read(buf);
+        }
+    }
+
+    /**
+     * 集合编解码器，每个元素使用字段ID {@link WireFormat#ITEM_ID}
+     */
+    private static final class CollectionCodec extends ValueCodec {
+
+        private final Supplier<Collection<Object>> factory;
+
+        private final ValueCodec itemCodec;
+
+        CollectionCodec(Supplier<Collection<Object>> factory, ValueCodec itemCodec) {
+            super(GROUP);
+            this.factory = factory;
+            this.itemCodec = itemCodec;
+        }
+
+        @Override
+        void write(ByteBuf buf, Object value) {
+            for (Object item : (Collection<?>)value) {
+                writeItem(buf, ITEM_ID, item, itemCodec);
+            }
+            writeVarint32(buf, END);
+        }
+
+        @Override
+        Object read(ByteBuf buf) {
+            Collection<Object> collection = factory.get();
+            int tag;
+            while ((tag = readVarint32(buf)) != END) {
+                collection.add(readItem(buf, tag, itemCodec));
+            }
+            return collection;
+        }
+    }
+
+    /**
+     * 数组编解码器，格式与集合相同
+     */
+    private static final class ArrayCodec extends ValueCodec {
+
+        private final Class<?> componentType;
+
+        private final ValueCodec itemCodec;
+
+        ArrayCodec(Class<?> componentType, ValueCodec itemCodec) {
+            super(GROUP);
+            this.componentType = componentType;
+            this.itemCodec = itemCodec;
+        }
+
+        @Override
+        void write(ByteBuf buf, Object value) {
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                writeItem(buf, ITEM_ID, Array.get(value, i), itemCodec);
+            }
+            writeVarint32(buf, END);
+        }
+
+        @Override
+        Object read(ByteBuf buf) {
+            List<Object> items = new ArrayList<>();
+            int tag;
+            while ((tag = readVarint32(buf)) != END) {
+                items.add(readItem(buf, tag, itemCodec));
+            }
+            Object array = Array.newInstance(componentType, items.size());
+            boolean primitive = componentType.isPrimitive();
+            for (int i = 0; i < items.size(); i++) {
+                Object item = items.get(i);
+                if (item != null || !primitive) {
+                    Array.set(array, i, item);
+                }
+            }
+            return array;
+        }
+    }
+
+    /**
+     * map编解码器，每个entry依次写出key（字段ID {@link WireFormat#ITEM_ID}）和value（字段ID {@link WireFormat#VALUE_ID}）
+     */
+    private static final class MapCodec extends ValueCodec {
+
+        private final Supplier<Map<Object, Object>> factory;
+
+        private final ValueCodec keyCodec;
+
+        private final ValueCodec valueCodec;
+
+        MapCodec(Supplier<Map<Object, Object>> factory, ValueCodec keyCodec, ValueCodec valueCodec) {
+            super(GROUP);
+            this.factory = factory;
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+        }
+
+        @Override
+        void write(ByteBuf buf, Object value) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) {
+                writeItem(buf, ITEM_ID, entry.getKey(), keyCodec);
+                writeItem(buf, VALUE_ID, entry.getValue(), valueCodec);
+            }
+            writeVarint32(buf, END);
+        }
+
+        @Override
+        Object read(ByteBuf buf) {
+            Map<Object, Object> map = factory.get();
+            int tag;
+            while ((tag = readVarint32(buf)) != END) {
+                Object key = readItem(buf, tag, keyCodec);
+                Object value = readItem(buf, readVarint32(buf), valueCodec);
+                if (map instanceof ConcurrentMap && (key == null || value == null)) {
+                    continue;
+                }
+                map.put(key, value);
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.joe.utils.serialize.binary;
+
+import com.joe.utils.serialize.SerializeException;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * 二进制格式的底层编码：
+ *
+ * <ul>
+ * <li>每个值之前都有一个varint编码的tag，tag = 字段ID &lt;&lt; 3 | 值类型</li>
+ * <li>pojo、集合、map、数组编码为{@link #GROUP}，内容是若干带tag的值，以tag 0结尾</li>
+ * <li>null值不会写出（集合元素、map的key和value为null时写出{@link #NULL}）</li>
+ * <li>有符号整数使用zigzag编码后再使用varint编码，绝对值较小的负数也只需要很少的字节</li>
+ * </ul>
+ *
+ * 每个值的类型都写在tag中，所以解析时遇到不认识的字段可以直接跳过，这是字段增删时能够兼容的基础
+ *
+ * @author JoeKerouac
+ * @version 2019年12月03日 14:00
+ */
+final class WireFormat {
+
+    /**
+     * varint编码的整数
+     */
+    static final int VARINT = 0;
+
+    /**
+     * 固定8字节
+     */
+    static final int FIXED64 = 1;
+
+    /**
+     * varint编码的长度 + 数据
+     */
+    static final int BYTES = 2;
+
+    /**
+     * 若干带tag的值，以tag 0结尾
+     */
+    static final int GROUP = 3;
+
+    /**
+     * null，没有数据
+     */
+    static final int NULL = 4;
+
+    /**
+     * 固定4字节
+     */
+    static final int FIXED32 = 5;
+
+    /**
+     * 组结束标记
+     */
+    static final int END = 0;
+
+    /**
+     * 集合元素、map的key和value使用的字段ID（集合元素和map的key使用1，map的value使用2）
+     */
+    static final int ITEM_ID = 1;
+    static final int VALUE_ID = 2;
+
+    private static final int TYPE_BITS = 3;
+
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+
+    private WireFormat() {}
+
+    static int tag(int id, int wireType) {
+        return (id << TYPE_BITS) | wireType;
+    }
+
+    static int idOf(int tag) {
+        return tag >>> TYPE_BITS;
+    }
+
+    static int wireTypeOf(int tag) {
+        return tag & TYPE_MASK;
+    }
+
+    static void writeVarint32(ByteBuf buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte(value);
+    }
+
+    static void writeVarint64(ByteBuf buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.writeByte(((int)value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte((int)value);
+    }
+
+    static int readVarint32(ByteBuf buf) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buf.readByte();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new SerializeException("varint格式错误");
+    }
+
+    /**
+     * 读取{@link #BYTES}类型值的长度前缀，长度为负数或者超过剩余数据长度时说明数据损坏，直接抛出异常，避免按照错误的长度分配内存
+     *
+     * @param buf
+     *            数据
+     * @return 长度
+     * @throws SerializeException
+     *             长度不合法时抛出该异常
+     */
+    static int readLength(ByteBuf buf) throws SerializeException {
+        int len = readVarint32(buf);
+        if (len < 0 || len > buf.readableBytes()) {
+            throw new SerializeException("数据长度错误：" + len + "，剩余数据长度：" + buf.readableBytes());
+        }
+        return len;
+    }
+
+    static long readVarint64(ByteBuf buf) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf.readByte();
+            result |= (long)(b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new SerializeException("varint格式错误");
+    }
+
+    static int encodeZigZag32(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int decodeZigZag32(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long encodeZigZag64(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long decodeZigZag64(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 跳过一个值（tag已经读取）
+     *
+     * @param buf
+     *            数据
+     * @param wireType
+     *            值类型
+     */
+    static void skip(ByteBuf buf, int wireType) {
+        switch (wireType) {
+            case VARINT:
+                readVarint64(buf);
+                break;
+            case FIXED64:
+                buf.skipBytes(8);
+                break;
+            case BYTES:
+                buf.skipBytes(readLength(buf));
+                break;
+            case GROUP:
+                int tag;
+                while ((tag = readVarint32(buf)) != END) {
+                    skip(buf, wireTypeOf(tag));
+                }
+                break;
+            case NULL:
+                break;
+            case FIXED32:
+                buf.skipBytes(4);
+                break;
+            default:
+                throw new SerializeException("未知的值类型：" + wireType);
+        }
+    }
+}
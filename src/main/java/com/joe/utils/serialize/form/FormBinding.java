@@ -0,0 +1,275 @@
+package com.joe.utils.serialize.form;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.joe.utils.collection.ConcurrentLRUCacheMap;
+import com.joe.utils.collection.cache.CacheRegistry;
+import com.joe.utils.exception.NoSupportException;
+import com.joe.utils.reflect.ReflectUtil;
+import com.joe.utils.serialize.SerializeException;
+
+/**
+ * pojo的form绑定计划，预先计算好每个字段的名字、值转换器、访问句柄，解析、序列化时直接执行
+ * <p>
+ * 字段按照名字放入开放寻址的散列表，解析时可以直接使用原始数据中的一段字符查找字段，不需要先创建字段名字符串
+ *
+ * @author JoeKerouac
+ * @version 2019年12月06日 15:00
+ */
+final class FormBinding {
+
+    /**
+     * 绑定计划缓存
+     */
+    private static final Map<Class<?>, FormBinding> CACHE =
+        CacheRegistry.register("FormBinding.CACHE", new ConcurrentLRUCacheMap<>());
+
+    /**
+     * 简单类型的值转换器
+     */
+    private static final Map<Class<?>, Function<String, Object>> CONVERTERS = new HashMap<>();
+
+    static {
+        CONVERTERS.put(byte.class, Byte::valueOf);
+        CONVERTERS.put(short.class, Short::valueOf);
+        CONVERTERS.put(int.class, Integer::valueOf);
+        CONVERTERS.put(long.class, Long::valueOf);
+        CONVERTERS.put(float.class, Float::valueOf);
+        CONVERTERS.put(double.class, Double::valueOf);
+        CONVERTERS.put(boolean.class, Boolean::valueOf);
+        CONVERTERS.put(char.class, value -> value.charAt(0));
+        CONVERTERS.put(Byte.class, Byte::valueOf);
+        CONVERTERS.put(Short.class, Short::valueOf);
+        CONVERTERS.put(Integer.class, Integer::valueOf);
+        CONVERTERS.put(Long.class, Long::valueOf);
+        CONVERTERS.put(Float.class, Float::valueOf);
+        CONVERTERS.put(Double.class, Double::valueOf);
+        CONVERTERS.put(Boolean.class, Boolean::valueOf);
+        CONVERTERS.put(Character.class, value -> value.charAt(0));
+        CONVERTERS.put(BigDecimal.class, BigDecimal::new);
+        CONVERTERS.put(BigInteger.class, BigInteger::new);
+        CONVERTERS.put(String.class, value -> value);
+    }
+
+    /**
+     * pojo类型
+     */
+    private final Class<?> type;
+
+    /**
+     * 无参构造器，不存在时为null
+     */
+    private final Constructor<?> constructor;
+
+    /**
+     * 所有字段，按照声明顺序（子类字段在前）
+     */
+    final FormProperty[] properties;
+
+    /**
+     * 按照字段名散列的开放寻址表，长度为2的幂
+     */
+    private final FormProperty[] table;
+
+    private FormBinding(Class<?> type) {
+        this.type = type;
+        this.constructor = findConstructor(type);
+
+        List<FormProperty> properties = new ArrayList<>();
+        Map<String, FormProperty> names = new HashMap<>();
+        for (Field field : ReflectUtil.getAllFields(type)) {
+            // 父类中与子类同名的字段被子类隐藏
+            if (Modifier.isStatic(field.getModifiers()) || names.containsKey(field.getName())) {
+                continue;
+            }
+            FormProperty property = new FormProperty(field);
+            properties.add(property);
+            names.put(property.name, property);
+        }
+        this.properties = properties.toArray(new FormProperty[0]);
+
+        int size = Integer.highestOneBit(Math.max(2, this.properties.length * 2 - 1)) << 1;
+        this.table = new FormProperty[size];
+        for (FormProperty property : this.properties) {
+            int index = property.name.hashCode() & (size - 1);
+            while (table[index] != null) {
+                index = (index + 1) & (size - 1);
+            }
+            table[index] = property;
+        }
+    }
+
+    /**
+     * 获取指定类型的绑定计划
+     *
+     * @param type
+     *            pojo类型
+     * @return 绑定计划
+     */
+    static FormBinding of(Class<?> type) {
+        return CACHE.computeIfAbsent(type, FormBinding::new);
+    }
+
+    /**
+     * 获取简单类型的值转换器
+     *
+     * @param type
+     *            类型
+     * @return 值转换器，不支持的类型返回null
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Function<String, Object> converter(Class<?> type) {
+        if (type.isEnum()) {
+            Class<? extends Enum> enumType = (Class<? extends Enum>)type;
+            return value -> Enum.valueOf(enumType, value);
+        }
+        return CONVERTERS.get(type);
+    }
+
+    /**
+     * 根据字段名查找字段
+     *
+     * @param data
+     *            包含字段名的数据
+     * @param start
+     *            字段名起始位置
+     * @param end
+     *            字段名结束位置（不包含）
+     * @return 字段，不存在时返回null
+     */
+    FormProperty find(String data, int start, int end) {
+        // 与String.hashCode算法一致
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + data.charAt(i);
+        }
+        int len = end - start;
+        int mask = table.length - 1;
+        for (int index = hash & mask;; index = (index + 1) & mask) {
+            FormProperty property = table[index];
+            if (property == null) {
+                return null;
+            }
+            if (property.name.length() == len && property.name.regionMatches(0, data, start, len)) {
+                return property;
+            }
+        }
+    }
+
+    Object newInstance() {
+        if (constructor == null) {
+            throw new SerializeException("类型[" + type.getName() + "]没有无参构造器，无法实例化");
+        }
+        try {
+            return constructor.newInstance();
+        } catch (Exception e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type) {
+        try {
+            return ReflectUtil.allowAccess(type.getDeclaredConstructor());
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 字段的绑定计划
+     */
+    static final class FormProperty {
+
+        /**
+         * 字段名
+         */
+        final String name;
+
+        /**
+         * 字段类型
+         */
+        private final Class<?> type;
+
+        /**
+         * 值转换器，字段类型不支持时为null
+         */
+        private final Function<String, Object> converter;
+
+        /**
+         * 字段是否是基本类型
+         */
+        private final boolean primitive;
+
+        /**
+         * 字段读取句柄，类型为(Object)Object
+         */
+        private final MethodHandle getter;
+
+        /**
+         * 字段写入句柄，类型为(Object, Object)void，final字段为null
+         */
+        private final MethodHandle setter;
+
+        private FormProperty(Field field) {
+            ReflectUtil.allowAccess(field);
+            this.name = field.getName();
+            this.type = field.getType();
+            this.converter = converter(type);
+            this.primitive = type.isPrimitive();
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                this.getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+                this.setter = Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new SerializeException(e);
+            }
+        }
+
+        Object get(Object pojo) {
+            try {
+                return (Object)getter.invokeExact(pojo);
+            } catch (Throwable e) {
+                throw new SerializeException(e);
+            }
+        }
+
+        /**
+         * 将form中的值转换后设置到字段
+         *
+         * @param pojo
+         *            pojo
+         * @param value
+         *            form中的值（已经解码），不能为空
+         */
+        void set(Object pojo, String value) {
+            if (converter == null) {
+                throw new NoSupportException("FormParser不支持的数据类型：" + type);
+            }
+            if (setter == null) {
+                return;
+            }
+            Object result = converter.apply(value);
+            if (result == null && primitive) {
+                return;
+            }
+            try {
+                setter.invokeExact(pojo, result);
+            } catch (Throwable e) {
+                throw new SerializeException(e);
+            }
+        }
+    }
+}
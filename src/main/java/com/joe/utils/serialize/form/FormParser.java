@@ -1,30 +1,52 @@
 package com.joe.utils.serialize.form;
 
-import java.math.BigDecimal;
-import java.util.Arrays;
-import java.util.Collection;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 import com.joe.utils.common.Assert;
-import com.joe.utils.common.string.StringUtils;
 import com.joe.utils.exception.NoSupportException;
 import com.joe.utils.reflect.clazz.ClassUtils;
 import com.joe.utils.reflect.type.JavaTypeUtil;
-import com.joe.utils.reflect.ReflectUtil;
 import com.joe.utils.serialize.SerializeException;
 import com.joe.utils.serialize.Serializer;
+import com.joe.utils.serialize.form.FormBinding.FormProperty;
 
 /**
- * form格式数据解析，只能解析简单对象，如果要解析为map那么只能解析为key、value泛型均为String的map
+ * form格式（application/x-www-form-urlencoded）数据解析，只能解析简单对象，如果要解析为map那么只能解析为key、value泛型均为String
+ * 的map
+ * <p>
+ * 解析时单次扫描原始字符串，字段名不需要解码时直接在原始字符串上查找字段，只有包含%或者+的片段才会解码（UTF-8）；pojo的字段访问句
+ * 柄、值转换器预先计算并缓存；没有=或者值为空（例如a=）的参数解析为map时值为null，解析为pojo时对应字段保持默认值
+ * <p>
+ * 序列化时按照字段声明顺序写出，值为null时写出空值，字段名和值都会进行URL编码（UTF-8），可以直接写出到{@link Appendable}或者
+ * {@link OutputStream}
  *
  * @author JoeKerouac
  * @version $Id: joe, v 0.1 2019年04月08日 20:43 JoeKerouac Exp $
  */
 public class FormParser implements Serializer {
+
+    private static final FormParser DEFAULT = new FormParser();
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * 获取默认实例
+     *
+     * @return 默认实例
+     */
+    public static FormParser getInstance() {
+        return DEFAULT;
+    }
+
     @Override
     public <T> byte[] write(T t) throws SerializeException {
-        return new byte[0];
+        String result = writeToString(t);
+        return result == null ? null : result.getBytes(StandardCharsets.UTF_8);
     }
 
     @Override
@@ -32,29 +54,70 @@ public class FormParser implements Serializer {
         if (t == null) {
             return null;
         }
-
-        Class<?> type = t.getClass();
-
         StringBuilder sb = new StringBuilder();
+        write(t, sb);
+        return sb.toString();
+    }
 
-        if (JavaTypeUtil.isSimple(type)) {
-            return String.valueOf(t);
-        } else {
-            Arrays.stream(ReflectUtil.getAllFields(type)).forEach(field -> {
-                Object value = ReflectUtil.getFieldValue(t, field);
-                if (value == null) {
-                    value = "";
+    /**
+     * 将对象序列化为form格式后写入out
+     *
+     * @param t
+     *            对象，可以是简单类型、map、pojo，不能为null
+     * @param out
+     *            输出
+     * @throws SerializeException
+     *             写出异常时抛出该异常
+     */
+    public void write(Object t, Appendable out) throws SerializeException {
+        Assert.notNull(t, "t不能为null");
+        Assert.notNull(out, "out不能为null");
+        try {
+            if (JavaTypeUtil.isSimple(t.getClass())) {
+                out.append(String.valueOf(t));
+            } else if (t instanceof Map) {
+                boolean first = true;
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>)t).entrySet()) {
+                    first = writePair(out, String.valueOf(entry.getKey()), entry.getValue(), first);
+                }
+            } else {
+                boolean first = true;
+                for (FormProperty property : FormBinding.of(t.getClass()).properties) {
+                    first = writePair(out, property.name, property.get(t), first);
                 }
-                sb.append(field.getName()).append("=").append(String.valueOf(value)).append("&");
-            });
+            }
+        } catch (IOException e) {
+            throw new SerializeException(e);
         }
+    }
 
-        return null;
+    /**
+     * 将对象序列化为form格式后写入输出流（编码后的数据只包含ASCII字符），不会关闭输出流
+     *
+     * @param t
+     *            对象，可以是简单类型、map、pojo，不能为null
+     * @param out
+     *            输出流
+     * @throws SerializeException
+     *             写出异常时抛出该异常
+     */
+    public void write(Object t, OutputStream out) throws SerializeException {
+        Assert.notNull(t, "t不能为null");
+        Assert.notNull(out, "out不能为null");
+        if (JavaTypeUtil.isSimple(t.getClass())) {
+            try {
+                out.write(String.valueOf(t).getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new SerializeException(e);
+            }
+        } else {
+            write(t, new AsciiAppendable(out));
+        }
     }
 
     @Override
     public <T> T read(byte[] data, Class<T> clazz) throws SerializeException {
-        return read(new String(data), clazz);
+        return read(data == null ? null : new String(data, StandardCharsets.UTF_8), clazz);
     }
 
     @Override
@@ -65,106 +128,226 @@ public class FormParser implements Serializer {
             return null;
         }
 
-        Map<String, String> params = readAsMap(data);
-
         if (Map.class.isAssignableFrom(clazz)) {
             Map<String, String> map = null;
             try {
                 map = (Map<String, String>)ClassUtils.getInstance(clazz);
             } catch (Exception e) {
+                // 无法实例化（例如接口）时使用HashMap
+            }
+            return (T)readAsMap(data, map == null ? new HashMap<>() : map);
+        }
 
+        if (JavaTypeUtil.isSimple(clazz)) {
+            return (T)readSimple(data, clazz);
+        }
+
+        FormBinding binding = FormBinding.of(clazz);
+        T t = (T)binding.newInstance();
+        int len = data.length();
+        int start = 0;
+        while (start < len) {
+            int end = indexOf(data, '&', start, len);
+            int eq = indexOf(data, '=', start, end);
+            if (eq < end && eq + 1 < end) {
+                FormProperty property;
+                if (needDecode(data, start, eq)) {
+                    String name = decode(data, start, eq);
+                    property = binding.find(name, 0, name.length());
+                } else {
+                    property = binding.find(data, start, eq);
+                }
+                if (property != null) {
+                    property.set(t, decode(data, eq + 1, end));
+                }
             }
-            if (map == null) {
-                return (T)params;
-            } else {
-                map.putAll(params);
-                return (T)map;
+            start = end + 1;
+        }
+        return t;
+    }
+
+    /**
+     * 将form格式数据读取到map中，没有=或者=后为空（例如a=）的参数值为null
+     */
+    private Map<String, String> readAsMap(String data, Map<String, String> params) {
+        int len = data.length();
+        int start = 0;
+        while (start < len) {
+            int end = indexOf(data, '&', start, len);
+            if (end > start) {
+                int eq = indexOf(data, '=', start, end);
+                params.put(decode(data, start, eq), eq + 1 < end ? decode(data, eq + 1, end) : null);
             }
+            start = end + 1;
         }
+        return params;
+    }
 
-        if (JavaTypeUtil.isSimple(clazz)) {
-            Collection<String> values = params.values();
-            for (String value : values) {
-                try {
-                    return (T)readValue(value, clazz);
-                } catch (Exception e) {
+    /**
+     * 读取为简单类型，返回第一个能够转换为该类型的参数值
+     */
+    private Object readSimple(String data, Class<?> clazz) {
+        Function<String, Object> converter = FormBinding.converter(clazz);
+        if (converter != null) {
+            int len = data.length();
+            int start = 0;
+            while (start < len) {
+                int end = indexOf(data, '&', start, len);
+                int eq = indexOf(data, '=', start, end);
+                if (eq + 1 < end) {
+                    try {
+                        return converter.apply(decode(data, eq + 1, end));
+                    } catch (RuntimeException e) {
+                        // 尝试下一个参数
+                    }
                 }
+                start = end + 1;
             }
-            throw new NoSupportException("FormParser不支持的数据类型：" + clazz);
-        } else {
-            T t = ClassUtils.getInstance(clazz);
-            if (StringUtils.isEmpty(data)) {
-                return t;
+        }
+        throw new NoSupportException("FormParser不支持的数据类型：" + clazz);
+    }
+
+    private static int indexOf(String data, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (data.charAt(i) == c) {
+                return i;
             }
+        }
+        return end;
+    }
 
-            Arrays.stream(ReflectUtil.getAllFields(clazz)).forEach(
-                field -> ReflectUtil.setFieldValue(t, field, readValue(params.get(field.getName()), field.getType())));
-            return t;
+    private static boolean needDecode(String data, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = data.charAt(i);
+            if (c == '%' || c == '+') {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
-     * 将form格式数据读取为Map
-     * 
-     * @param data
-     *            form格式数据，不能为空，外部调用自己检查
-     * @return 读取后的数据
+     * URL解码（UTF-8），不需要解码时直接截取，非法的%转义按照原样保留
      */
-    private Map<String, String> readAsMap(String data) {
-        Map<String, String> params = new HashMap<>();
+    private static String decode(String data, int start, int end) {
+        if (!needDecode(data, start, end)) {
+            return data.substring(start, end);
+        }
 
-        Arrays.stream(data.split("&")).forEach(arg -> {
-            if (StringUtils.isEmpty(arg)) {
-                return;
+        StringBuilder sb = new StringBuilder(end - start);
+        byte[] bytes = null;
+        int i = start;
+        while (i < end) {
+            char c = data.charAt(i);
+            if (c == '%' && hex(data, i + 1, end) >= 0) {
+                // 连续的%XX是一个UTF-8字节序列
+                if (bytes == null) {
+                    bytes = new byte[(end - i) / 3];
+                }
+                int count = 0;
+                int b;
+                while (i < end && data.charAt(i) == '%' && (b = hex(data, i + 1, end)) >= 0) {
+                    bytes[count++] = (byte)b;
+                    i += 3;
+                }
+                sb.append(new String(bytes, 0, count, StandardCharsets.UTF_8));
+            } else {
+                sb.append(c == '+' ? ' ' : c);
+                i++;
             }
-            String[] args = arg.split("=");
-            if (args.length == 1) {
-                params.put(args[0], null);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 解析两位十六进制
+     *
+     * @return 解析结果，不是合法的十六进制时返回-1
+     */
+    private static int hex(String data, int index, int end) {
+        if (index + 1 >= end) {
+            return -1;
+        }
+        int high = Character.digit(data.charAt(index), 16);
+        int low = Character.digit(data.charAt(index + 1), 16);
+        return high < 0 || low < 0 ? -1 : (high << 4) | low;
+    }
+
+    private static boolean writePair(Appendable out, String name, Object value, boolean first) throws IOException {
+        if (!first) {
+            out.append('&');
+        }
+        encode(out, name);
+        out.append('=');
+        if (value != null) {
+            encode(out, value instanceof Enum ? ((Enum<?>)value).name() : String.valueOf(value));
+        }
+        return false;
+    }
+
+    /**
+     * URL编码（UTF-8），与{@link java.net.URLEncoder}规则一致：字母、数字和.-*_不编码，空格编码为+
+     */
+    private static void encode(Appendable out, String value) throws IOException {
+        int len = value.length();
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-'
+                || c == '*' || c == '_') {
+                out.append(c);
+            } else if (c == ' ') {
+                out.append('+');
+            } else if (c < 0x80) {
+                appendByte(out, c);
+            } else if (c < 0x800) {
+                appendByte(out, 0xC0 | (c >> 6));
+                appendByte(out, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                appendByte(out, 0xF0 | (codePoint >> 18));
+                appendByte(out, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendByte(out, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendByte(out, 0x80 | (codePoint & 0x3F));
             } else {
-                params.put(args[0], args[1]);
+                appendByte(out, 0xE0 | (c >> 12));
+                appendByte(out, 0x80 | ((c >> 6) & 0x3F));
+                appendByte(out, 0x80 | (c & 0x3F));
             }
-        });
-        return params;
+        }
+    }
+
+    private static void appendByte(Appendable out, int b) throws IOException {
+        out.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
     }
 
     /**
-     * 读取值
-     * 
-     * @param value
-     *            值
-     * @param type
-     *            值类型
-     * @return 读取到的值
+     * 将ASCII字符直接作为字节写出到输出流
      */
-    private Object readValue(String value, Class<?> type) {
-        if (StringUtils.isEmpty(value)) {
-            return null;
+    private static final class AsciiAppendable implements Appendable {
+
+        private final OutputStream out;
+
+        private AsciiAppendable(OutputStream out) {
+            this.out = out;
         }
 
-        if (byte.class.equals(type) || Byte.class.equals(type)) {
-            return Byte.valueOf(value);
-        } else if (short.class.equals(type) || Short.class.equals(type)) {
-            return Short.valueOf(value);
-        } else if (int.class.equals(type) || Integer.class.equals(type)) {
-            return Integer.valueOf(value);
-        } else if (long.class.equals(type) || Long.class.equals(type)) {
-            return Long.valueOf(value);
-        } else if (float.class.equals(type) || Float.class.equals(type)) {
-            return Float.valueOf(value);
-        } else if (double.class.equals(type) || Double.class.equals(type)) {
-            return Double.valueOf(value);
-        } else if (boolean.class.equals(type) || Boolean.class.equals(type)) {
-            return Boolean.valueOf(value);
-        } else if (char.class.equals(type) || Character.class.equals(type)) {
-            return value.charAt(0);
-        } else if (BigDecimal.class.equals(type)) {
-            return new BigDecimal(value);
-        } else if (String.class.equals(type)) {
-            return value;
-        } else if (Enum.class.equals(type)) {
-            return ReflectUtil.invoke(type, "valueOf", new Class[] {String.class}, value);
-        } else {
-            throw new NoSupportException("FormParser不支持的数据类型：" + type);
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            for (int i = start; i < end; i++) {
+                out.write(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            out.write(c);
+            return this;
         }
     }
 }
@@ -0,0 +1,154 @@
+package com.joe.utils.serialize.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.joe.utils.common.Assert;
+import com.joe.utils.serialize.SerializeException;
+
+/**
+ * 指定类型的json编解码器，内部持有预先构建好的jackson的{@link ObjectReader}、{@link ObjectWriter}，不需要每次调用时重新解析类型；
+ * 通过{@link JsonParser#register(Class)}获取，线程安全，可以保存起来重复使用
+ * <p>
+ * 与{@link JsonParser}不同，编解码器总是按照标准json处理数据，String类型也会序列化为带引号的json字符串
+ *
+ * @param <T>
+ *            数据类型
+ * @author JoeKerouac
+ * @version 2019年12月03日 10:20
+ */
+public final class JsonCodec<T> {
+
+    private final ObjectReader reader;
+
+    private final ObjectWriter writer;
+
+    JsonCodec(ObjectReader reader, ObjectWriter writer) {
+        this.reader = reader;
+        this.writer = writer;
+    }
+
+    /**
+     * 解析json
+     *
+     * @param content
+     *            json字符串
+     * @return 解析结果
+     * @throws SerializeException
+     *             解析失败时抛出该异常
+     */
+    public T read(String content) throws SerializeException {
+        Assert.notNull(content, "content不能为null");
+        try {
+            return reader.readValue(content);
+        } catch (IOException e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    /**
+     * 解析json
+     *
+     * @param content
+     *            json数据（UTF-8编码）
+     * @return 解析结果
+     * @throws SerializeException
+     *             解析失败时抛出该异常
+     */
+    public T read(byte[] content) throws SerializeException {
+        Assert.notNull(content, "content不能为null");
+        try {
+            return reader.readValue(content);
+        } catch (IOException e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    /**
+     * 从输入流中解析json，不会关闭输入流
+     *
+     * @param in
+     *            输入流
+     * @return 解析结果
+     * @throws SerializeException
+     *             解析失败时抛出该异常
+     */
+    public T read(InputStream in) throws SerializeException {
+        Assert.notNull(in, "in不能为null");
+        try {
+            return reader.readValue(in);
+        } catch (IOException e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    /**
+     * 序列化为json字符串
+     *
+     * @param value
+     *            数据
+     * @return json字符串
+     * @throws SerializeException
+     *             序列化失败时抛出该异常
+     */
+    public String writeToString(T value) throws SerializeException {
+        try {
+            return writer.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    /**
+     * 序列化为json数据（UTF-8编码）
+     *
+     * @param value
+     *            数据
+     * @return json数据
+     * @throws SerializeException
+     *             序列化失败时抛出该异常
+     */
+    public byte[] write(T value) throws SerializeException {
+        try {
+            return writer.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    /**
+     * 序列化后写入输出流（UTF-8编码），不会关闭输出流
+     *
+     * @param value
+     *            数据
+     * @param out
+     *            输出流
+     * @throws SerializeException
+     *             序列化失败时抛出该异常
+     */
+    public void write(T value, OutputStream out) throws SerializeException {
+        Assert.notNull(out, "out不能为null");
+        try {
+            writer.writeValue(out, value);
+        } catch (IOException e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    /**
+     * 从输入流中逐个读取元素（顶层json数组或者NDJSON）
+     *
+     * @param in
+     *            输入流
+     * @return 元素迭代器
+     * @throws IOException
+     *             IO异常
+     */
+    MappingIterator<T> readValues(InputStream in) throws IOException {
+        return reader.readValues(in);
+    }
+}
@@ -1,22 +1,46 @@
 package com.joe.utils.serialize.json;
 
-import java.util.Collection;
-import java.util.Map;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionLikeType;
-import com.fasterxml.jackson.databind.type.MapType;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.joe.utils.collection.ConcurrentLRUCacheMap;
+import com.joe.utils.collection.cache.CacheRegistry;
 import com.joe.utils.common.Assert;
+import com.joe.utils.common.IOUtils;
 import com.joe.utils.common.string.StringUtils;
 import com.joe.utils.exception.ExceptionWraper;
 import com.joe.utils.serialize.SerializeException;
 import com.joe.utils.serialize.Serializer;
 
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * json解析工具（需要注意的是对于byte数组的处理，该实现采用的是jackson的实现，所以对于byte数组会将其转换为BASE64的字符串）
+ * <p>
+ * 对于大数据量的json，可以使用{@link #write(Object, OutputStream)}、{@link #read(InputStream, Class)}直接读写流，或者使用
+ * {@link #readAsStream(InputStream, Class)}、{@link #writeAsNdjson(Iterator, boolean, OutputStream)}逐个读写元素，避免整个
+ * json加载到内存中；流相关的方法都不会关闭传入的流
+ * <p>
+ * 每个（类型，是否忽略null）对应的jackson读写器会被缓存，频繁处理同一类型的数据时也可以使用{@link #register(Class)}获取该类型的
+ * {@link JsonCodec}直接使用
  *
  * @author joe
  */
@@ -25,6 +49,16 @@ public class JsonParser implements Serializer {
     private static final JsonParser JSON_PARSER;
     private static final ObjectMapper MAPPER_IGNORE_NULL;
     private static final ObjectMapper MAPPER;
+    /**
+     * NDJSON写出器，每个值写出后不立即flush
+     */
+    private static final ObjectWriter NDJSON_WRITER;
+    private static final ObjectWriter NDJSON_WRITER_IGNORE_NULL;
+    /**
+     * 编解码器缓存
+     */
+    private static final Map<CodecKey, JsonCodec<?>> CODECS =
+        CacheRegistry.register("JsonParser.CODECS", new ConcurrentLRUCacheMap<>());
 
     private JsonParser() {}
 
@@ -35,6 +69,14 @@ public class JsonParser implements Serializer {
         MAPPER.setSerializationInclusion(JsonInclude.Include.ALWAYS);
         MAPPER_IGNORE_NULL.setSerializationInclusion(JsonInclude.Include.NON_NULL);
 
+        // 流由调用方管理，不自动关闭
+        for (ObjectMapper mapper : Arrays.asList(MAPPER, MAPPER_IGNORE_NULL)) {
+            mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            mapper.configure(com.fasterxml.jackson.core.JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+        }
+        NDJSON_WRITER = MAPPER.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        NDJSON_WRITER_IGNORE_NULL = MAPPER_IGNORE_NULL.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
         JSON_PARSER = new JsonParser();
     }
 
@@ -42,6 +84,129 @@ public class JsonParser implements Serializer {
         return JSON_PARSER;
     }
 
+    /**
+     * 获取指定类型的编解码器（不忽略null）
+     *
+     * @param type
+     *            类型
+     * @param <T>
+     *            类型的实际类型
+     * @return 编解码器
+     */
+    public <T> JsonCodec<T> register(Class<T> type) {
+        return register(type, false);
+    }
+
+    /**
+     * 获取指定类型的编解码器
+     *
+     * @param type
+     *            类型
+     * @param ignoreNull
+     *            序列化时是否忽略空元素 ，如果为true为忽略
+     * @param <T>
+     *            类型的实际类型
+     * @return 编解码器
+     */
+    public <T> JsonCodec<T> register(Class<T> type, boolean ignoreNull) {
+        Assert.notNull(type, "type不能为null");
+        return codec(type, ignoreNull, () -> MAPPER.getTypeFactory().constructType(type));
+    }
+
+    /**
+     * 获取指定类型的编解码器，可以传入带泛型的类型（例如{@link java.lang.reflect.ParameterizedType}）
+     *
+     * @param type
+     *            类型
+     * @param ignoreNull
+     *            序列化时是否忽略空元素 ，如果为true为忽略
+     * @param <T>
+     *            类型的实际类型
+     * @return 编解码器
+     */
+    public <T> JsonCodec<T> register(Type type, boolean ignoreNull) {
+        Assert.notNull(type, "type不能为null");
+        return codec(type, ignoreNull, () -> MAPPER.getTypeFactory().constructType(type));
+    }
+
+    /**
+     * 获取指定map类型的编解码器
+     *
+     * @param mapType
+     *            map类型
+     * @param keyType
+     *            map的key的泛型
+     * @param valueType
+     *            map的value的泛型
+     * @param ignoreNull
+     *            序列化时是否忽略空元素 ，如果为true为忽略
+     * @param <T>
+     *            Map的实际类型
+     * @param <K>
+     *            map中key的实际类型
+     * @param <V>
+     *            map中value的实际类型
+     * @return 编解码器
+     */
+    public <T extends Map<K, V>, K, V> JsonCodec<T> registerMap(Class<? extends Map> mapType, Class<K> keyType,
+        Class<V> valueType, boolean ignoreNull) {
+        Assert.notNull(mapType, "mapType不能为null");
+        return codec(Arrays.asList(mapType, keyType, valueType), ignoreNull,
+            () -> MAPPER.getTypeFactory().constructMapType(mapType, keyType, valueType));
+    }
+
+    /**
+     * 获取指定collection类型的编解码器
+     *
+     * @param collectionType
+     *            collection类型
+     * @param elementsType
+     *            collection泛型
+     * @param ignoreNull
+     *            序列化时是否忽略空元素 ，如果为true为忽略
+     * @param <T>
+     *            collection的实际类型
+     * @param <V>
+     *            collection的泛型
+     * @return 编解码器
+     */
+    public <T extends Collection<V>, V> JsonCodec<T> registerCollection(Class<? extends Collection> collectionType,
+        Class<V> elementsType, boolean ignoreNull) {
+        Assert.notNull(collectionType, "collectionType不能为null");
+        return codec(Arrays.asList(collectionType, elementsType), ignoreNull,
+            () -> MAPPER.getTypeFactory().constructCollectionLikeType(collectionType, elementsType));
+    }
+
+    /**
+     * 从缓存中获取编解码器，不存在时构建
+     *
+     * @param type
+     *            类型标识，Class、Type或者由Class组成的List
+     * @param ignoreNull
+     *            序列化时是否忽略空元素
+     * @param resolver
+     *            缓存中不存在时用来解析jackson类型
+     * @param <T>
+     *            编解码器的数据类型
+     * @return 编解码器
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> JsonCodec<T> codec(Object type, boolean ignoreNull, Supplier<JavaType> resolver) {
+        return (JsonCodec<T>)CODECS.computeIfAbsent(new CodecKey(type, ignoreNull), key -> {
+            JavaType javaType = resolver.get();
+            ObjectMapper mapper = ignoreNull ? MAPPER_IGNORE_NULL : MAPPER;
+            return new JsonCodec<>(MAPPER.readerFor(javaType), mapper.writerFor(javaType));
+        });
+    }
+
+    /**
+     * 获取对象运行时类型的编解码器
+     */
+    private static JsonCodec<Object> codecOf(Object obj, boolean ignoreNull) {
+        Class<?> type = obj.getClass();
+        return codec(type, ignoreNull, () -> MAPPER.getTypeFactory().constructType(type));
+    }
+
     @Override
     public <T> byte[] write(T t) throws SerializeException {
         return ExceptionWraper.runWithResult(() -> toJson(t).getBytes(), SerializeException::new);
@@ -90,13 +255,7 @@ public class JsonParser implements Serializer {
             return (String)obj;
         }
         try {
-            ObjectMapper mapper;
-            if (ignoreNull) {
-                mapper = MAPPER_IGNORE_NULL;
-            } else {
-                mapper = MAPPER;
-            }
-            return mapper.writeValueAsString(obj);
+            return codecOf(obj, ignoreNull).writeToString(obj);
         } catch (Exception e) {
             log.error("序列化失败，失败原因：", e);
             return "";
@@ -124,7 +283,7 @@ public class JsonParser implements Serializer {
             } else if (type.equals(String.class)) {
                 return (T)content;
             }
-            return MAPPER.readValue(content, type);
+            return register(type).read(content);
         } catch (Exception e) {
             log.error("json解析失败，失败原因：", e);
             return null;
@@ -151,13 +310,176 @@ public class JsonParser implements Serializer {
             } else if (type.equals(String.class)) {
                 return (T)new String(content);
             }
-            return MAPPER.readValue(content, type);
+            return register(type).read(content);
         } catch (Exception e) {
             log.error("json解析失败，失败原因：", e);
             return null;
         }
     }
 
+    /**
+     * 将Object序列化后写入输出流（UTF-8编码），与{@link #write(Object)}一致，String会直接写入
+     *
+     * @param obj
+     *            要序列化的数据，为null时不写入任何数据
+     * @param out
+     *            输出流
+     * @throws SerializeException
+     *             序列化失败时抛出该异常
+     */
+    public void write(Object obj, OutputStream out) throws SerializeException {
+        write(obj, false, out);
+    }
+
+    /**
+     * 将Object序列化后写入输出流（UTF-8编码），与{@link #write(Object)}一致，String会直接写入
+     *
+     * @param obj
+     *            要序列化的数据，为null时不写入任何数据
+     * @param ignoreNull
+     *            是否忽略空元素 ，如果为true为忽略
+     * @param out
+     *            输出流
+     * @throws SerializeException
+     *             序列化失败时抛出该异常
+     */
+    public void write(Object obj, boolean ignoreNull, OutputStream out) throws SerializeException {
+        Assert.notNull(out, "out不能为null");
+        if (obj == null) {
+            return;
+        }
+        try {
+            if (obj instanceof String) {
+                out.write(((String)obj).getBytes(StandardCharsets.UTF_8));
+            } else {
+                codecOf(obj, ignoreNull).write(obj, out);
+            }
+        } catch (IOException e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    /**
+     * 从输入流中解析json（UTF-8编码）
+     *
+     * @param in
+     *            输入流
+     * @param type
+     *            json解析后对应的实体类型
+     * @param <T>
+     *            实体类型的实际类型
+     * @return 解析结果
+     * @throws SerializeException
+     *             解析失败时抛出该异常
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T read(InputStream in, Class<T> type) throws SerializeException {
+        Assert.notNull(in, "in不能为null");
+        Assert.notNull(type, "type不能为null");
+        try {
+            if (type.equals(String.class)) {
+                return (T)IOUtils.read(in, StandardCharsets.UTF_8.name(), 1024, false);
+            }
+            return register(type).read(in);
+        } catch (IOException e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    /**
+     * 从输入流中逐个读取元素，元素在遍历时才会被解析，同一时刻内存中只有一个元素；支持以下两种格式：
+     *
+     * <ul>
+     * <li>顶层是json数组：逐个返回数组中的元素</li>
+     * <li>NDJSON（或者使用空白分隔的多个json值）：逐个返回每一行的值</li>
+     * </ul>
+     *
+     * 返回的Stream关闭时会释放解析器，但是不会关闭输入流
+     *
+     * @param in
+     *            输入流
+     * @param type
+     *            元素类型
+     * @param <T>
+     *            元素的实际类型
+     * @return 元素流
+     * @throws SerializeException
+     *             创建解析器失败时抛出该异常，遍历过程中解析失败时也会抛出该异常
+     */
+    public <T> Stream<T> readAsStream(InputStream in, Class<T> type) throws SerializeException {
+        JsonIterator<T> iterator = readAsIterator(in, type);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+            .onClose(iterator::close);
+    }
+
+    /**
+     * 从输入流中逐个读取元素，格式要求同{@link #readAsStream(InputStream, Class)}，遍历结束时会自动释放解析器，提前结束遍历时可以
+     * 调用{@link JsonIterator#close()}释放解析器（不会关闭输入流）
+     *
+     * @param in
+     *            输入流
+     * @param type
+     *            元素类型
+     * @param <T>
+     *            元素的实际类型
+     * @return 元素迭代器
+     * @throws SerializeException
+     *             创建解析器失败时抛出该异常，遍历过程中解析失败时也会抛出该异常
+     */
+    public <T> JsonIterator<T> readAsIterator(InputStream in, Class<T> type) throws SerializeException {
+        Assert.notNull(in, "in不能为null");
+        Assert.notNull(type, "type不能为null");
+        try {
+            return new JsonIterator<>(register(type).readValues(in));
+        } catch (IOException e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    /**
+     * 将数据以NDJSON格式（每行一个json值）写入输出流（UTF-8编码）
+     *
+     * @param values
+     *            数据
+     * @param out
+     *            输出流
+     * @throws SerializeException
+     *             序列化失败时抛出该异常
+     */
+    public void writeAsNdjson(Iterable<?> values, OutputStream out) throws SerializeException {
+        Assert.notNull(values, "values不能为null");
+        writeAsNdjson(values.iterator(), false, out);
+    }
+
+    /**
+     * 将数据以NDJSON格式（每行一个json值）写入输出流（UTF-8编码），数据在写入时才会从迭代器中获取，可以配合{@link Stream#iterator()}
+     * 导出大量数据
+     *
+     * @param values
+     *            数据
+     * @param ignoreNull
+     *            是否忽略空元素 ，如果为true为忽略
+     * @param out
+     *            输出流
+     * @throws SerializeException
+     *             序列化失败时抛出该异常
+     */
+    public void writeAsNdjson(Iterator<?> values, boolean ignoreNull, OutputStream out) throws SerializeException {
+        Assert.notNull(values, "values不能为null");
+        Assert.notNull(out, "out不能为null");
+        ObjectWriter writer = ignoreNull ? NDJSON_WRITER_IGNORE_NULL : NDJSON_WRITER;
+        try (JsonGenerator generator = writer.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // 使用换行分隔，而不是默认的空格
+            generator.setRootValueSeparator(null);
+            while (values.hasNext()) {
+                writer.writeValue(generator, values.next());
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new SerializeException(e);
+        }
+    }
+
     /**
      * 将json数据读取为带泛型的map类型的数据
      *
@@ -180,8 +502,7 @@ public class JsonParser implements Serializer {
     public <T extends Map<K, V>, K, V> T readAsMap(String content, Class<? extends Map> mapType, Class<K> keyType,
         Class<V> valueType) {
         try {
-            MapType type = MAPPER.getTypeFactory().constructMapType(mapType, keyType, valueType);
-            return MAPPER.readValue(content, type);
+            return this.<T, K, V> registerMap(mapType, keyType, valueType, false).read(content);
         } catch (Exception e) {
             log.error("json解析失败，失败原因：", e);
             return null;
@@ -209,7 +530,12 @@ public class JsonParser implements Serializer {
      */
     public <T extends Map<K, V>, K, V> T readAsMap(byte[] content, Class<? extends Map> mapType, Class<K> keyType,
         Class<V> valueType) {
-        return readAsMap(new String(content), mapType, keyType, valueType);
+        try {
+            return this.<T, K, V> registerMap(mapType, keyType, valueType, false).read(content);
+        } catch (Exception e) {
+            log.error("json解析失败，失败原因：", e);
+            return null;
+        }
     }
 
     /**
@@ -230,8 +556,7 @@ public class JsonParser implements Serializer {
     public <T extends Collection<V>, V> T readAsCollection(String content, Class<? extends Collection> collectionType,
         Class<V> elementsType) {
         try {
-            CollectionLikeType type = MAPPER.getTypeFactory().constructCollectionLikeType(collectionType, elementsType);
-            return MAPPER.readValue(content, type);
+            return this.<T, V> registerCollection(collectionType, elementsType, false).read(content);
         } catch (Exception e) {
             log.error("json解析失败，失败原因：", e);
             return null;
@@ -255,6 +580,75 @@ public class JsonParser implements Serializer {
      */
     public <T extends Collection<V>, V> T readAsCollection(byte[] content, Class<? extends Collection> collectionType,
         Class<V> elementsType) {
-        return readAsCollection(new String(content), collectionType, elementsType);
+        try {
+            return this.<T, V> registerCollection(collectionType, elementsType, false).read(content);
+        } catch (Exception e) {
+            log.error("json解析失败，失败原因：", e);
+            return null;
+        }
+    }
+
+    /**
+     * 编解码器缓存的key
+     */
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class CodecKey {
+        /**
+         * 类型标识
+         */
+        private final Object type;
+        /**
+         * 序列化时是否忽略null
+         */
+        private final boolean ignoreNull;
+    }
+
+    /**
+     * json元素迭代器，遍历时逐个解析元素
+     *
+     * @param <T>
+     *            元素类型
+     */
+    public static final class JsonIterator<T> implements Iterator<T>, Closeable {
+
+        private final MappingIterator<T> iterator;
+
+        private JsonIterator(MappingIterator<T> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return iterator.hasNextValue();
+            } catch (IOException e) {
+                throw new SerializeException(e);
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return iterator.nextValue();
+            } catch (IOException e) {
+                throw new SerializeException(e);
+            }
+        }
+
+        /**
+         * 释放解析器，不会关闭输入流
+         */
+        @Override
+        public void close() {
+            try {
+                iterator.close();
+            } catch (IOException e) {
+                throw new SerializeException(e);
+            }
+        }
     }
 }
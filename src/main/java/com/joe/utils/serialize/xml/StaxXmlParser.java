@@ -0,0 +1,677 @@
+package com.joe.utils.serialize.xml;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import javax.xml.stream.*;
+
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+
+import com.joe.utils.common.Assert;
+import com.joe.utils.common.string.StringUtils;
+import com.joe.utils.reflect.type.JavaTypeUtil;
+import com.joe.utils.serialize.SerializeException;
+import com.joe.utils.serialize.Serializer;
+import com.joe.utils.serialize.xml.XmlBinding.Kind;
+import com.joe.utils.serialize.xml.XmlBinding.XmlElement;
+import com.joe.utils.serialize.xml.XmlBinding.XmlProperty;
+import com.joe.utils.serialize.xml.converter.TextXmlTypeConvert;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 基于StAX的流式XML解析器，与{@link XmlParser}使用相同的{@link XmlNode}注解，但是不构建DOM：
+ *
+ * <ul>
+ * <li>解析时一次遍历XML，每个节点直接根据类的绑定计划赋值到对应字段</li>
+ * <li>每个线程使用自己的{@link XMLInputFactory}，JDK内置实现会在线程内复用reader的内部缓冲区</li>
+ * <li>支持直接从{@link InputStream}读取、写入到{@link OutputStream}，不经过String</li>
+ * <li>禁用了DTD和外部实体，避免XXE漏洞</li>
+ * </ul>
+ *
+ * 与{@link XmlParser}的差异：节点按照字段声明顺序输出；简单类型集合（例如List&lt;String&gt;）的元素直接使用节点文本；只有指定了
+ * 自定义转换器的字段才会构建dom4j的节点交给转换器处理；序列化结果统一使用UTF-8编码。
+ *
+ * @author JoeKerouac
+ * @version 2019年12月02日 11:00
+ */
+@Slf4j
+public class StaxXmlParser implements Serializer {
+
+    private static final StaxXmlParser DEFAULT = new StaxXmlParser();
+
+    private static final String DEFAULT_ROOT = "root";
+
+    /**
+     * JDK内置StAX实现的reader复用配置，开启后同一个工厂会复用上一次创建的reader（以及其内部的缓冲区）
+     */
+    private static final String REUSE_INSTANCE = "reuse-instance";
+
+    /**
+     * 线程本地的reader工厂
+     */
+    private static final ThreadLocal<ReaderFactory> READER_FACTORY = ThreadLocal.withInitial(ReaderFactory::new);
+
+    /**
+     * 不复用reader的工厂，线程本地工厂正在使用时（例如在自定义转换器中嵌套调用）使用
+     */
+    private static final XMLInputFactory SHARED_INPUT_FACTORY = createInputFactory(false);
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    private StaxXmlParser() {}
+
+    /**
+     * 获取默认实例
+     *
+     * @return 默认实例
+     */
+    public static StaxXmlParser getInstance() {
+        return DEFAULT;
+    }
+
+    /**
+     * 从输入流中解析对象，不会关闭输入流
+     *
+     * @param in
+     *            输入流
+     * @param clazz
+     *            对象的Class
+     * @param <T>
+     *            对象的实际类型
+     * @return 解析结果
+     * @throws SerializeException
+     *             解析异常时抛出该异常
+     */
+    public <T> T read(InputStream in, Class<T> clazz) throws SerializeException {
+        Assert.notNull(in, "in不能为null");
+        Assert.notNull(clazz, "clazz不能为null");
+        ReaderFactory factory = READER_FACTORY.get();
+        XMLInputFactory inputFactory = factory.acquire();
+        try {
+            return read(inputFactory.createXMLStreamReader(in), clazz);
+        } catch (XMLStreamException e) {
+            throw new SerializeException(e);
+        } finally {
+            factory.release(inputFactory);
+        }
+    }
+
+    /**
+     * 从Reader中解析对象，不会关闭Reader
+     *
+     * @param reader
+     *            Reader
+     * @param clazz
+     *            对象的Class
+     * @param <T>
+     *            对象的实际类型
+     * @return 解析结果
+     * @throws SerializeException
+     *             解析异常时抛出该异常
+     */
+    public <T> T read(Reader reader, Class<T> clazz) throws SerializeException {
+        Assert.notNull(reader, "reader不能为null");
+        Assert.notNull(clazz, "clazz不能为null");
+        ReaderFactory factory = READER_FACTORY.get();
+        XMLInputFactory inputFactory = factory.acquire();
+        try {
+            return read(inputFactory.createXMLStreamReader(reader), clazz);
+        } catch (XMLStreamException e) {
+            throw new SerializeException(e);
+        } finally {
+            factory.release(inputFactory);
+        }
+    }
+
+    /**
+     * 将对象序列化后写入输出流（UTF-8编码），根节点名优先使用类上的{@link XmlNode}注解，没有时使用root，忽略null值，不会关闭输出流
+     *
+     * @param source
+     *            对象，不能为null
+     * @param out
+     *            输出流
+     * @throws SerializeException
+     *             序列化异常时抛出该异常
+     */
+    public void write(Object source, OutputStream out) throws SerializeException {
+        write(source, null, false, out);
+    }
+
+    /**
+     * 将对象序列化后写入输出流（UTF-8编码），不会关闭输出流
+     *
+     * @param source
+     *            对象，不能为null
+     * @param rootName
+     *            根节点名称，如果为null则会尝试使用默认值
+     * @param hasNull
+     *            是否包含null元素（true：包含）
+     * @param out
+     *            输出流
+     * @throws SerializeException
+     *             序列化异常时抛出该异常
+     */
+    public void write(Object source, String rootName, boolean hasNull, OutputStream out) throws SerializeException {
+        Assert.notNull(source, "source不能为null");
+        Assert.notNull(out, "out不能为null");
+        try {
+            write(OUTPUT_FACTORY.createXMLStreamWriter(out, StandardCharsets.UTF_8.name()), source, rootName, hasNull);
+        } catch (XMLStreamException e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    /**
+     * 将对象序列化后写入Writer，不会关闭Writer
+     *
+     * @param source
+     *            对象，不能为null
+     * @param rootName
+     *            根节点名称，如果为null则会尝试使用默认值
+     * @param hasNull
+     *            是否包含null元素（true：包含）
+     * @param writer
+     *            Writer
+     * @throws SerializeException
+     *             序列化异常时抛出该异常
+     */
+    public void write(Object source, String rootName, boolean hasNull, Writer writer) throws SerializeException {
+        Assert.notNull(source, "source不能为null");
+        Assert.notNull(writer, "writer不能为null");
+        try {
+            write(OUTPUT_FACTORY.createXMLStreamWriter(writer), source, rootName, hasNull);
+        } catch (XMLStreamException e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    @Override
+    public <T> byte[] write(T t) throws SerializeException {
+        if (t == null) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        write(t, out);
+        return out.toByteArray();
+    }
+
+    @Override
+    public <T> String writeToString(T t) throws SerializeException {
+        if (t == null) {
+            return null;
+        }
+        StringWriter writer = new StringWriter(256);
+        write(t, null, false, writer);
+        return writer.toString();
+    }
+
+    @Override
+    public <T> T read(byte[] data, Class<T> clazz) throws SerializeException {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        return read(new ByteArrayInputStream(data), clazz);
+    }
+
+    @Override
+    public <T> T read(String data, Class<T> clazz) throws SerializeException {
+        if (StringUtils.isEmpty(data)) {
+            return null;
+        }
+        return read(new StringReader(data), clazz);
+    }
+
+    private <T> T read(XMLStreamReader reader, Class<T> clazz) throws XMLStreamException {
+        try {
+            // 跳转到根节点
+            while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+                // 忽略根节点之前的内容
+            }
+            if (!reader.isStartElement()) {
+                return null;
+            }
+            return clazz.cast(readObject(reader, XmlBinding.of(clazz)));
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void write(XMLStreamWriter writer, Object source, String rootName, boolean hasNull)
+        throws XMLStreamException {
+        if (rootName == null) {
+            XmlNode xmlNode = source.getClass().getDeclaredAnnotation(XmlNode.class);
+            rootName = xmlNode == null || StringUtils.isEmpty(xmlNode.name()) ? DEFAULT_ROOT : xmlNode.name();
+        }
+
+        try {
+            writer.writeStartElement(rootName);
+            writeValue(writer, source, !hasNull);
+            writer.writeEndElement();
+            writer.flush();
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * 读取pojo，reader当前位于pojo节点的开始，读取完毕后reader位于pojo节点的结束
+     *
+     * @param reader
+     *            reader
+     * @param binding
+     *            pojo的绑定计划
+     * @return pojo
+     * @throws XMLStreamException
+     *             XMLStreamException
+     */
+    private Object readObject(XMLStreamReader reader, XmlBinding binding) throws XMLStreamException {
+        Object pojo = binding.newInstance();
+        for (XmlProperty property : binding.parentAttributes) {
+            property.set(pojo, readAttribute(reader, property));
+        }
+
+        // 已经赋值的字段，同名节点只有第一个生效（集合除外）
+        boolean[] assigned = new boolean[binding.propertyCount];
+        Collection<Object>[] collections = null;
+
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            } else if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            XmlElement element = binding.element(reader.getLocalName());
+            if (element == null) {
+                skipElement(reader);
+                continue;
+            }
+
+            for (XmlProperty property : element.attributes) {
+                if (!assigned[property.index]) {
+                    assigned[property.index] = true;
+                    property.set(pojo, readAttribute(reader, property));
+                }
+            }
+
+            XmlProperty property = element.content;
+            if (property == null) {
+                skipElement(reader);
+            } else if (property.kind == Kind.COLLECTION) {
+                if (collections == null) {
+                    collections = newCollectionArray(binding.propertyCount);
+                }
+                Collection<Object> collection = collections[property.index];
+                if (collection == null) {
+                    collection = collections[property.index] = property.newCollection();
+                } else if (property.arrayRoot != null) {
+                    // 集合根节点只取第一个
+                    skipElement(reader);
+                    continue;
+                }
+                readCollection(reader, property, collection);
+            } else if (assigned[property.index]) {
+                skipElement(reader);
+            } else {
+                assigned[property.index] = true;
+                property.set(pojo, readContent(reader, property));
+            }
+        }
+
+        if (collections != null) {
+            for (XmlElement element : binding.elements) {
+                XmlProperty property = element.content;
+                if (property != null && property.kind == Kind.COLLECTION && collections[property.index] != null) {
+                    property.set(pojo, collections[property.index]);
+                }
+            }
+        }
+        return pojo;
+    }
+
+    /**
+     * 读取集合元素，reader当前位于集合元素节点（或者集合根节点）的开始，读取完毕后reader位于该节点的结束
+     */
+    private void readCollection(XMLStreamReader reader, XmlProperty property, Collection<Object> collection)
+        throws XMLStreamException {
+        if (property.arrayRoot == null) {
+            collection.add(readItem(reader, property));
+            return;
+        }
+
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return;
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                if (property.arrayRoot.equals(reader.getLocalName())) {
+                    collection.add(readItem(reader, property));
+                } else {
+                    skipElement(reader);
+                }
+            }
+        }
+    }
+
+    private Object readItem(XMLStreamReader reader, XmlProperty property) throws XMLStreamException {
+        switch (property.itemKind) {
+            case TEXT:
+                return ((TextXmlTypeConvert<?>)property.convert).read(readText(reader));
+            case POJO:
+                return readObject(reader, XmlBinding.of(property.valueType));
+            default:
+                return property.convert.read(readElement(reader), null);
+        }
+    }
+
+    private Object readContent(XMLStreamReader reader, XmlProperty property) throws XMLStreamException {
+        switch (property.kind) {
+            case TEXT:
+                return ((TextXmlTypeConvert<?>)property.convert).read(readText(reader));
+            case POJO:
+                return readObject(reader, XmlBinding.of(property.valueType));
+            case MAP:
+                Object value = readAny(reader);
+                return value instanceof Map ? value : null;
+            default:
+                return property.convert.read(readElement(reader), null);
+        }
+    }
+
+    private Object readAttribute(XMLStreamReader reader, XmlProperty property) {
+        if (property.kind == Kind.TEXT) {
+            return ((TextXmlTypeConvert<?>)property.convert).read(reader.getAttributeValue(null, property.attrName));
+        }
+        // 自定义转换器只需要节点本身的属性
+        Element element = DocumentHelper.createElement(reader.getLocalName());
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            element.addAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+        return property.convert.read(element, property.attrName);
+    }
+
+    /**
+     * 读取节点的文本（忽略子节点），读取完毕后reader位于该节点的结束
+     */
+    private String readText(XMLStreamReader reader) throws XMLStreamException {
+        String text = null;
+        StringBuilder sb = null;
+        while (true) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    if (text == null) {
+                        text = reader.getText();
+                    } else {
+                        if (sb == null) {
+                            sb = new StringBuilder(text);
+                        }
+                        sb.append(reader.getText());
+                    }
+                    break;
+                case XMLStreamConstants.START_ELEMENT:
+                    skipElement(reader);
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    return sb == null ? (text == null ? "" : text) : sb.toString();
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 读取节点，没有子节点时返回文本，否则返回Map（同名节点的值合并为List），与{@link XmlParser#parse(String)}一致
+     */
+    @SuppressWarnings("unchecked")
+    private Object readAny(XMLStreamReader reader) throws XMLStreamException {
+        Map<String, Object> map = null;
+        StringBuilder text = new StringBuilder();
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return map == null ? text.toString() : map;
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                if (map == null) {
+                    map = new HashMap<>();
+                }
+                String name = reader.getLocalName();
+                Object value = readAny(reader);
+                Object exist = map.get(name);
+                if (exist == null && !map.containsKey(name)) {
+                    map.put(name, value);
+                } else {
+                    List<Object> list;
+                    if (exist instanceof List) {
+                        list = (List<Object>)exist;
+                    } else {
+                        list = new ArrayList<>();
+                        list.add(exist);
+                        map.put(name, list);
+                    }
+                    list.add(value);
+                }
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                text.append(reader.getText());
+            }
+        }
+    }
+
+    /**
+     * 将当前节点构建为dom4j的节点，供自定义转换器使用，读取完毕后reader位于该节点的结束
+     */
+    private Element readElement(XMLStreamReader reader) throws XMLStreamException {
+        Element element = DocumentHelper.createElement(reader.getLocalName());
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            element.addAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+        while (true) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    element.add(readElement(reader));
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    element.addText(reader.getText());
+                    break;
+                case XMLStreamConstants.CDATA:
+                    element.addCDATA(reader.getText());
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    return element;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 跳过当前节点，跳过后reader位于该节点的结束
+     */
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * 写入节点内容（节点的开始已经写入，属性还可以继续写入）
+     */
+    private void writeValue(XMLStreamWriter writer, Object value, boolean ignoreNull) throws XMLStreamException {
+        if (value == null) {
+            return;
+        }
+        Class<?> type = value.getClass();
+        if (value instanceof Map) {
+            writeMap(writer, (Map<?, ?>)value, ignoreNull);
+        } else if (JavaTypeUtil.isNotPojo(type)) {
+            writer.writeCharacters(String.valueOf(value));
+        } else {
+            writeObject(writer, value, XmlBinding.of(type), ignoreNull);
+        }
+    }
+
+    private void writeMap(XMLStreamWriter writer, Map<?, ?> map, boolean ignoreNull) throws XMLStreamException {
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object key = entry.getKey();
+            Object value = entry.getValue();
+            if (key == null || (ignoreNull && value == null)) {
+                continue;
+            }
+            String name = String.valueOf(key);
+            if (value instanceof Collection) {
+                for (Object item : (Collection<?>)value) {
+                    writeElement(writer, name, item, ignoreNull);
+                }
+            } else {
+                writeElement(writer, name, value, ignoreNull);
+            }
+        }
+    }
+
+    private void writeElement(XMLStreamWriter writer, String name, Object value, boolean ignoreNull)
+        throws XMLStreamException {
+        writer.writeStartElement(name);
+        writeValue(writer, value, ignoreNull);
+        writer.writeEndElement();
+    }
+
+    private void writeObject(XMLStreamWriter writer, Object pojo, XmlBinding binding, boolean ignoreNull)
+        throws XMLStreamException {
+        // 属性必须在子节点之前写入
+        for (XmlProperty property : binding.parentAttributes) {
+            writeAttribute(writer, pojo, property, ignoreNull);
+        }
+
+        for (XmlElement element : binding.elements) {
+            XmlProperty property = element.content;
+            Object value = property == null ? null : property.get(pojo);
+
+            if (property != null && property.kind == Kind.COLLECTION) {
+                if (value != null) {
+                    writeCollection(writer, property, (Collection<?>)value, ignoreNull);
+                }
+                continue;
+            }
+
+            if (ignoreNull && value == null && allAttributeNull(pojo, element)) {
+                continue;
+            }
+
+            writer.writeStartElement(element.name);
+            for (XmlProperty attribute : element.attributes) {
+                writeAttribute(writer, pojo, attribute, ignoreNull);
+            }
+            if (property != null) {
+                if (property.kind == Kind.TEXT) {
+                    String text = value == null ? "" : String.valueOf(value);
+                    if (property.cdata) {
+                        writer.writeCData(text);
+                    } else {
+                        writer.writeCharacters(text);
+                    }
+                } else if (property.kind == Kind.POJO && value != null) {
+                    writeObject(writer, value, XmlBinding.of(property.valueType), ignoreNull);
+                } else {
+                    writeValue(writer, value, ignoreNull);
+                }
+            }
+            writer.writeEndElement();
+        }
+    }
+
+    private void writeCollection(XMLStreamWriter writer, XmlProperty property, Collection<?> collection,
+        boolean ignoreNull) throws XMLStreamException {
+        String itemName = property.nodeName;
+        if (property.arrayRoot != null) {
+            writer.writeStartElement(property.nodeName);
+            itemName = property.arrayRoot;
+        }
+        for (Object item : collection) {
+            writer.writeStartElement(itemName);
+            if (item != null && property.cdata && property.itemKind == Kind.TEXT) {
+                writer.writeCData(String.valueOf(item));
+            } else {
+                writeValue(writer, item, ignoreNull);
+            }
+            writer.writeEndElement();
+        }
+        if (property.arrayRoot != null) {
+            writer.writeEndElement();
+        }
+    }
+
+    private void writeAttribute(XMLStreamWriter writer, Object pojo, XmlProperty property, boolean ignoreNull)
+        throws XMLStreamException {
+        Object value = property.get(pojo);
+        if (value == null && ignoreNull) {
+            return;
+        }
+        writer.writeAttribute(property.attrName, value == null ? "" : String.valueOf(value));
+    }
+
+    private boolean allAttributeNull(Object pojo, XmlElement element) {
+        for (XmlProperty attribute : element.attributes) {
+            if (attribute.get(pojo) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<Object>[] newCollectionArray(int size) {
+        return new Collection[size];
+    }
+
+    private static XMLInputFactory createInputFactory(boolean reuse) {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // 禁用DTD和外部实体，防止XXE
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        // 合并相邻的文本，绝大多数节点的文本只需要一次读取
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        if (reuse && factory.isPropertySupported(REUSE_INSTANCE)) {
+            factory.setProperty(REUSE_INSTANCE, true);
+        }
+        return factory;
+    }
+
+    /**
+     * 线程本地的reader工厂，工厂会复用上一次创建的reader，所以同一时刻只能有一个reader在使用
+     */
+    private static final class ReaderFactory {
+
+        private final XMLInputFactory factory = createInputFactory(true);
+
+        private boolean inUse;
+
+        private XMLInputFactory acquire() {
+            if (inUse) {
+                return SHARED_INPUT_FACTORY;
+            }
+            inUse = true;
+            return factory;
+        }
+
+        private void release(XMLInputFactory factory) {
+            if (factory == this.factory) {
+                inUse = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package com.joe.utils.serialize.xml;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.dom4j.QName;
+
+import com.joe.utils.collection.cache.CacheRegistry;
+import com.joe.utils.collection.cache.CacheStats;
+import com.joe.utils.collection.cache.StatsCounter;
+import com.joe.utils.common.string.StringUtils;
+import com.joe.utils.reflect.BeanUtils;
+import com.joe.utils.reflect.BeanUtils.CustomPropertyDescriptor;
+import com.joe.utils.reflect.ReflectUtil;
+import com.joe.utils.reflect.type.JavaTypeUtil;
+import com.joe.utils.serialize.SerializeException;
+import com.joe.utils.serialize.xml.converter.TextXmlTypeConvert;
+import com.joe.utils.serialize.xml.converter.XmlTypeConverterUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 类的xml绑定计划，根据{@link XmlNode}注解预先计算好每个字段对应的节点名、属性名、转换器、字段访问句柄等信息，解析、序列化时直接
+ * 执行该计划，不需要每次都重新解析注解；计划保存在类自身上（{@link ClassValue}），不会阻止类及其ClassLoader卸载，也可以通过
+ * {@link #invalidate(ClassLoader)}主动清除某个ClassLoader加载的类的计划
+ *
+ * @author JoeKerouac
+ * @version 2019年12月02日 10:10
+ */
+@Slf4j
+final class XmlBinding {
+
+    private static final StatsCounter STATS_COUNTER = new StatsCounter();
+
+    /**
+     * 请求次数，命中次数为请求次数减去未命中次数
+     */
+    private static final LongAdder REQUESTS = new LongAdder();
+
+    /**
+     * 已经构建了绑定计划的类，只持有弱引用，用于{@link #invalidate(ClassLoader)}和统计缓存大小
+     */
+    private static final Map<Class<?>, Boolean> TYPES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * 绑定计划缓存
+     */
+    private static final ClassValue<XmlBinding> CACHE = new ClassValue<XmlBinding>() {
+        @Override
+        protected XmlBinding computeValue(Class<?> type) {
+            STATS_COUNTER.recordMiss();
+            long start = System.nanoTime();
+            XmlBinding binding = new XmlBinding(type);
+            STATS_COUNTER.recordLoad(System.nanoTime() - start);
+            TYPES.put(type, Boolean.TRUE);
+            return binding;
+        }
+    };
+
+    static {
+        CacheRegistry.register("XmlBinding.CACHE", XmlBinding::stats);
+    }
+
+    /**
+     * 字段内容的类型
+     */
+    enum Kind {
+        /**
+         * 简单类型，直接使用文本转换
+         */
+        TEXT,
+        /**
+         * pojo，递归绑定
+         */
+        POJO,
+        /**
+         * 集合
+         */
+        COLLECTION,
+        /**
+         * map
+         */
+        MAP,
+        /**
+         * 用户自定义转换器，需要构建节点后交给转换器处理
+         */
+        CONVERTER
+    }
+
+    /**
+     * 绑定的类型
+     */
+    final Class<?> type;
+
+    /**
+     * 无参构造器，不存在时为null
+     */
+    private final Constructor<?> constructor;
+
+    /**
+     * 所有的节点，按照字段声明顺序排列
+     */
+    final XmlElement[] elements;
+
+    /**
+     * 对应当前节点属性的字段
+     */
+    final XmlProperty[] parentAttributes;
+
+    /**
+     * {@link XmlParser}输出节点的顺序：之前版本的{@link XmlParser}使用HashMap收集节点，为了保持输出不变，预先按照HashMap的遍历
+     * 顺序排好
+     */
+    final XmlElement[] documentElements;
+
+    /**
+     * 字段总数
+     */
+    final int propertyCount;
+
+    /**
+     * 节点名对应的节点，同时包含首字母大写的节点名
+     */
+    private final Map<String, XmlElement> elementMap;
+
+    private XmlBinding(Class<?> type) {
+        this.type = type;
+        this.constructor = findConstructor(type);
+
+        Map<String, XmlElement> elements = new LinkedHashMap<>();
+        List<XmlProperty> parentAttributes = new ArrayList<>();
+        int index = 0;
+        for (CustomPropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)) {
+            XmlNode xmlNode = descriptor.getAnnotation(XmlNode.class);
+            if ((xmlNode != null && xmlNode.ignore()) || Modifier.isStatic(descriptor.getField().getModifiers())) {
+                continue;
+            }
+
+            XmlProperty property = new XmlProperty(index++, descriptor, xmlNode);
+            if (property.parentAttribute) {
+                parentAttributes.add(property);
+            } else {
+                elements.computeIfAbsent(property.nodeName, XmlElement::new).add(property);
+            }
+        }
+
+        this.elements = elements.values().toArray(new XmlElement[0]);
+        this.documentElements = new HashMap<>(elements).values().toArray(new XmlElement[0]);
+        this.parentAttributes = parentAttributes.toArray(new XmlProperty[0]);
+        this.propertyCount = index;
+
+        Map<String, XmlElement> elementMap = new HashMap<>(elements);
+        // 解析时节点名找不到会尝试首字母大写的节点名
+        elements.forEach((name, element) -> elementMap.putIfAbsent(StringUtils.toFirstUpperCase(name), element));
+        this.elementMap = elementMap;
+    }
+
+    /**
+     * 获取指定类型的绑定计划
+     *
+     * @param type
+     *            类型
+     * @return 绑定计划
+     */
+    static XmlBinding of(Class<?> type) {
+        REQUESTS.increment();
+        return CACHE.get(type);
+    }
+
+    /**
+     * 清除指定ClassLoader加载的类的绑定计划
+     *
+     * @param loader
+     *            ClassLoader，为null时清除系统类的绑定计划
+     */
+    static void invalidate(ClassLoader loader) {
+        List<Class<?>> types;
+        synchronized (TYPES) {
+            types = new ArrayList<>(TYPES.keySet());
+        }
+        for (Class<?> type : types) {
+            if (type.getClassLoader() == loader) {
+                TYPES.remove(type);
+                CACHE.remove(type);
+            }
+        }
+    }
+
+    /**
+     * 缓存统计信息
+     *
+     * @return 统计信息快照
+     */
+    private static CacheStats stats() {
+        CacheStats stats = STATS_COUNTER.snapshot(TYPES.size());
+        long hits = Math.max(REQUESTS.sum() - stats.getMissCount(), 0);
+        return new CacheStats(hits, stats.getMissCount(), stats.getLoadCount(), stats.getTotalLoadTime(),
+            stats.getEvictionCount(), stats.getSize());
+    }
+
+    /**
+     * 获取节点名对应的节点
+     *
+     * @param name
+     *            节点名
+     * @return 节点，不存在时返回null
+     */
+    XmlElement element(String name) {
+        return elementMap.get(name);
+    }
+
+    /**
+     * 创建绑定类型的实例
+     *
+     * @return 实例
+     */
+    Object newInstance() {
+        if (constructor == null) {
+            throw new SerializeException("类型[" + type.getName() + "]没有无参构造器，无法实例化");
+        }
+        try {
+            return constructor.newInstance();
+        } catch (Exception e) {
+            throw new SerializeException(e);
+        }
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            return ReflectUtil.allowAccess(type.getDeclaredConstructor());
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 确定字段的真实类型（防止字段的声明是一个接口，优先采用xmlnode中申明的类型）
+     *
+     * @param fieldType
+     *            字段类型
+     * @param xmlNode
+     *            字段XmlNode注解
+     * @return 字段实际类型而不是接口或者抽象类
+     */
+    static Class<?> resolveRealType(Class<?> fieldType, XmlNode xmlNode) {
+        Class<?> type = (xmlNode == null || xmlNode.general() == null) ? fieldType : xmlNode.general();
+        return fieldType.isAssignableFrom(type) ? type : fieldType;
+    }
+
+    /**
+     * 获取简单类型的文本转换器
+     *
+     * @param type
+     *            类型
+     * @return 文本转换器，不是简单类型时返回null
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static TextXmlTypeConvert<?> textConvert(Class<?> type) {
+        if (String.class.equals(type)) {
+            return (TextXmlTypeConvert<?>)XmlTypeConverterUtil.DEFAULT_CONVERTER;
+        } else if (JavaTypeUtil.isGeneralType(type) || JavaTypeUtil.isBasic(type)) {
+            return (TextXmlTypeConvert<?>)XmlTypeConverterUtil.converters.get(type.getName());
+        } else if (type.isEnum()) {
+            return new EnumConvert(type);
+        }
+        return null;
+    }
+
+    /**
+     * 一个xml节点，可能对应一个字段的内容以及多个字段的属性
+     */
+    static final class XmlElement {
+
+        /**
+         * 节点名
+         */
+        final String name;
+
+        /**
+         * 首字母大写的节点名，解析时节点名找不到会尝试该节点名
+         */
+        final String upperName;
+
+        /**
+         * 节点名对应的QName，构建节点时使用
+         */
+        final QName qName;
+
+        /**
+         * 对应节点属性的字段
+         */
+        XmlProperty[] attributes = new XmlProperty[0];
+
+        /**
+         * 对应节点内容的字段，可能为null
+         */
+        XmlProperty content;
+
+        private XmlElement(String name) {
+            this.name = name;
+            this.upperName = StringUtils.toFirstUpperCase(name);
+            this.qName = QName.get(name);
+        }
+
+        private void add(XmlProperty property) {
+            if (property.attrName != null) {
+                attributes = Arrays.copyOf(attributes, attributes.length + 1);
+                attributes[attributes.length - 1] = property;
+            } else if (content == null) {
+                content = property;
+            } else {
+                log.warn("字段[{}]和字段[{}]对应同一个节点[{}]，忽略字段[{}]", content.name, property.name, name, property.name);
+            }
+        }
+    }
+
+    /**
+     * 字段的绑定信息
+     */
+    static final class XmlProperty {
+
+        /**
+         * 字段在绑定计划中的下标
+         */
+        final int index;
+
+        /**
+         * 字段名
+         */
+        final String name;
+
+        /**
+         * 字段读取句柄，类型为(Object)Object
+         */
+        private final MethodHandle getter;
+
+        /**
+         * 字段写入句柄，类型为(Object, Object)void
+         */
+        private final MethodHandle setter;
+
+        /**
+         * 字段是否是基本类型
+         */
+        private final boolean primitive;
+
+        /**
+         * 节点名
+         */
+        final String nodeName;
+
+        /**
+         * 属性名，字段不是属性时为null
+         */
+        final String attrName;
+
+        /**
+         * 是否是当前节点（而不是子节点）的属性
+         */
+        final boolean parentAttribute;
+
+        /**
+         * 是否需要CDATA包裹
+         */
+        final boolean cdata;
+
+        /**
+         * 字段内容类型
+         */
+        final Kind kind;
+
+        /**
+         * 转换器，内容类型为TEXT时是{@link TextXmlTypeConvert}，为CONVERTER时是用户指定的转换器，其他情况为null；集合字段
+         * 时是集合元素的转换器
+         */
+        final XmlTypeConvert<?> convert;
+
+        /**
+         * 内容类型为POJO时是pojo的实际类型，为COLLECTION时是集合元素的类型
+         */
+        final Class<?> valueType;
+
+        /**
+         * 集合元素的内容类型，只有TEXT、POJO、CONVERTER三种
+         */
+        final Kind itemKind;
+
+        /**
+         * 集合根节点下集合元素的节点名，没有时为null
+         */
+        final String arrayRoot;
+
+        /**
+         * 集合根节点下集合元素节点名对应的QName，没有时为null
+         */
+        final QName arrayRootQName;
+
+        /**
+         * 集合类型
+         */
+        final Class<? extends Collection> collectionType;
+
+        @SuppressWarnings("unchecked")
+        private XmlProperty(int index, CustomPropertyDescriptor descriptor, XmlNode xmlNode) {
+            this.index = index;
+            this.name = descriptor.getName();
+            Field field = ReflectUtil.allowAccess(descriptor.getField());
+            this.primitive = field.getType().isPrimitive();
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                this.getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+                this.setter = lookup.unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new SerializeException(e);
+            }
+
+            Class<?> fieldType = descriptor.getRealType();
+            boolean hasName = xmlNode != null && !StringUtils.isEmpty(xmlNode.name());
+            this.nodeName = hasName ? xmlNode.name() : name;
+            if (xmlNode != null && xmlNode.isAttribute()) {
+                this.attrName = StringUtils.isEmpty(xmlNode.attributeName()) ? name : xmlNode.attributeName();
+                this.parentAttribute = !hasName;
+            } else {
+                this.attrName = null;
+                this.parentAttribute = false;
+            }
+            this.cdata = xmlNode != null && xmlNode.isCDATA();
+
+            XmlTypeConvert<?> userConvert = null;
+            if (xmlNode != null && !XmlTypeConvert.class.equals(xmlNode.converter())) {
+                userConvert = XmlTypeConverterUtil.resolve(xmlNode, descriptor);
+            }
+
+            if (Collection.class.isAssignableFrom(fieldType)) {
+                this.kind = Kind.COLLECTION;
+                this.valueType = xmlNode == null ? String.class : xmlNode.general();
+                this.arrayRoot = xmlNode == null || StringUtils.isEmpty(xmlNode.arrayRoot()) ? null : xmlNode.arrayRoot();
+                this.arrayRootQName = arrayRoot == null ? null : QName.get(arrayRoot);
+
+                Class<? extends Collection> real = (Class<? extends Collection>)fieldType;
+                Class<? extends Collection> collectionType = xmlNode == null ? real : xmlNode.arrayType();
+                this.collectionType = real.isAssignableFrom(collectionType) ? collectionType : real;
+
+                TextXmlTypeConvert<?> textConvert = textConvert(valueType);
+                if (userConvert != null) {
+                    this.itemKind = Kind.CONVERTER;
+                    this.convert = userConvert;
+                } else if (textConvert != null) {
+                    this.itemKind = Kind.TEXT;
+                    this.convert = textConvert;
+                } else {
+                    this.itemKind = Kind.POJO;
+                    this.convert = null;
+                }
+                return;
+            }
+
+            this.arrayRoot = null;
+            this.arrayRootQName = null;
+            this.collectionType = null;
+            this.itemKind = null;
+
+            TextXmlTypeConvert<?> textConvert = userConvert == null ? textConvert(fieldType) : null;
+            if (userConvert instanceof TextXmlTypeConvert) {
+                textConvert = (TextXmlTypeConvert<?>)userConvert;
+            }
+
+            if (textConvert != null) {
+                this.kind = Kind.TEXT;
+                this.convert = textConvert;
+                this.valueType = fieldType;
+            } else if (userConvert != null || attrName != null) {
+                this.kind = Kind.CONVERTER;
+                this.convert = userConvert == null ? XmlTypeConverterUtil.resolve(xmlNode, descriptor) : userConvert;
+                this.valueType = fieldType;
+            } else if (Map.class.isAssignableFrom(fieldType)) {
+                this.kind = Kind.MAP;
+                this.convert = null;
+                this.valueType = fieldType;
+            } else {
+                this.kind = Kind.POJO;
+                this.convert = null;
+                this.valueType = resolveRealType(fieldType, xmlNode);
+            }
+        }
+
+        /**
+         * 获取字段值
+         *
+         * @param pojo
+         *            pojo
+         * @return 字段值
+         */
+        Object get(Object pojo) {
+            try {
+                return (Object)getter.invokeExact(pojo);
+            } catch (Throwable e) {
+                throw new SerializeException(e);
+            }
+        }
+
+        /**
+         * 设置字段值，基本类型字段的值为null时忽略
+         *
+         * @param pojo
+         *            pojo
+         * @param value
+         *            字段值
+         */
+        void set(Object pojo, Object value) {
+            if (value == null && primitive) {
+                return;
+            }
+            try {
+                setter.invokeExact(pojo, value);
+            } catch (Throwable e) {
+                log.debug("字段[{}]赋值失败，忽略该字段", name, e);
+            }
+        }
+
+        /**
+         * 创建集合字段的集合实例
+         *
+         * @return 集合实例
+         */
+        @SuppressWarnings("unchecked")
+        Collection<Object> newCollection() {
+            Class<? extends Collection> clazz = collectionType;
+            if (List.class.equals(clazz) || Collection.class.equals(clazz)) {
+                return new ArrayList<>();
+            } else if (Set.class.equals(clazz)) {
+                return new HashSet<>();
+            }
+            try {
+                return clazz.newInstance();
+            } catch (Exception e) {
+                log.warn("指定class[{}]无法创建对象，请为其添加公共无参数构造器，将使用默认实现", clazz, e);
+                return Set.class.isAssignableFrom(clazz) ? new HashSet<>() : new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * 枚举转换器
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final class EnumConvert implements TextXmlTypeConvert {
+
+        private final Class type;
+
+        private EnumConvert(Class type) {
+            this.type = type;
+        }
+
+        @Override
+        public Object read(String data) {
+            return StringUtils.isEmpty(data) ? null : Enum.valueOf(type, data);
+        }
+
+        @Override
+        public Class resolve() {
+            return type;
+        }
+    }
+}
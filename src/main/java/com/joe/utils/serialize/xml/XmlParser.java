@@ -2,12 +2,12 @@ package com.joe.utils.serialize.xml;
 
 import java.io.StringReader;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
 import org.dom4j.DocumentHelper;
 import org.dom4j.Element;
+import org.dom4j.QName;
 import org.dom4j.io.SAXReader;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -16,19 +16,19 @@ import com.joe.utils.collection.CollectionUtil;
 import com.joe.utils.common.Assert;
 import com.joe.utils.common.string.StringUtils;
 import com.joe.utils.exception.ExceptionWraper;
-import com.joe.utils.reflect.BeanUtils;
-import com.joe.utils.reflect.BeanUtils.CustomPropertyDescriptor;
 import com.joe.utils.reflect.type.JavaTypeUtil;
 import com.joe.utils.serialize.SerializeException;
 import com.joe.utils.serialize.Serializer;
-import com.joe.utils.serialize.xml.converter.XmlTypeConverterUtil;
+import com.joe.utils.serialize.xml.XmlBinding.Kind;
+import com.joe.utils.serialize.xml.XmlBinding.XmlElement;
+import com.joe.utils.serialize.xml.XmlBinding.XmlProperty;
+import com.joe.utils.serialize.xml.converter.TextXmlTypeConvert;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * XML解析（反向解析为java对象时不区分大小写），该解析器由于大量使用反射，所以在第一次解析 某个类型的对象时效率较低，解析过一次系统会自动添加缓存，速度将会大幅提升（测试中提升了25倍）
+ * XML解析（反向解析为java对象时不区分大小写），第一次解析某个类型的对象时会根据{@link XmlNode}注解为该类型构建绑定计划（节点名、
+ * 转换器、字段访问句柄等），之后的解析、序列化直接执行缓存的绑定计划
  * <p>
  * XXE漏洞：https://www.owasp.org/index.php/XML_External_Entity_(XXE)_Prevention_Cheat_Sheet
  *
@@ -207,7 +207,7 @@ public class XmlParser implements Serializer {
     }
 
     /**
-     * 将XML解析为POJO对象，暂时无法解析map，当需要解析的字段是{@link java.util.Collection}的子类时必须带有注 解{@link XmlNode}，否则将解析失败。
+     * 将XML解析为POJO对象，当需要解析的字段是{@link java.util.Collection}的子类时必须带有注 解{@link XmlNode}，否则将解析失败。
      * <p>
      * PS：对象中的集合字段必须添加注解，必须是简单集合，即集合中只有一种数据类型，并且当类型不是String时需要指定 converter，否则将会解析失败。
      *
@@ -219,23 +219,23 @@ public class XmlParser implements Serializer {
      *            POJO的实际类型
      * @return 解析结果
      */
-    @SuppressWarnings("unchecked")
     public <T> T parse(String xml, Class<T> clazz) {
         Assert.notNull(clazz);
 
         if (StringUtils.isEmpty(xml)) {
             return null;
         }
-        T pojo;
+        XmlBinding binding = XmlBinding.of(clazz);
+        Object pojo;
         Document document;
 
         // 获取pojo对象的实例
         try {
             // 没有权限访问该类或者该类（为接口、抽象类）不能实例化时将抛出异常
-            pojo = clazz.newInstance();
-        } catch (Exception e) {
+            pojo = binding.newInstance();
+        } catch (RuntimeException e) {
             log.error("class对象生成失败，请检查代码；失败原因：", e);
-            throw new RuntimeException(e);
+            throw e;
         }
 
         // 解析XML
@@ -246,76 +246,19 @@ public class XmlParser implements Serializer {
             return null;
         }
 
-        // 获取pojo对象的说明
-        CustomPropertyDescriptor[] propertyDescriptor = BeanUtils.getPropertyDescriptors(clazz);
-        Element root = document.getRootElement();
-        for (CustomPropertyDescriptor descript : propertyDescriptor) {
-            XmlNode xmlNode = descript.getAnnotation(XmlNode.class);
-            final String fieldName = descript.getName();
-            // 节点名
-            String nodeName = null;
-            // 属性名
-            String attributeName = null;
-            boolean isParent = false;
-            boolean ignore = false;
-            if (xmlNode == null) {
-                nodeName = fieldName;
-            } else if (!xmlNode.ignore()) {
-                // 如果节点不是被忽略的节点那么继续
-                // 获取节点名称，优先使用注解，如果注解没有设置名称那么使用字段名
-                nodeName = StringUtils.isEmpty(xmlNode.name()) ? fieldName : xmlNode.name();
-                log.debug("字段[{}]对应的节点名为：{}", fieldName, nodeName);
-
-                // 判断节点是否是属性值
-                if (xmlNode.isAttribute()) {
-                    // 如果节点是属性值，那么需要同时设置节点名和属性名，原则上如果是属性的话必须设置节点名，但是为了防止
-                    // 用户忘记设置，在用户没有设置的时候使用字段名
-                    if (StringUtils.isEmpty(xmlNode.attributeName())) {
-                        log.warn("字段[{}]是属性值，但是未设置属性名（attributeName字段），将采用字段名作为属性名", descript.getName());
-                        attributeName = fieldName;
-                    } else {
-                        attributeName = xmlNode.attributeName();
-                    }
-                    if (StringUtils.isEmpty(xmlNode.name())) {
-                        log.debug("该字段是属性值，并且未设置节点名（name字段），设置isParent为true");
-                        isParent = true;
-                    }
-                } else {
-                    log.debug("字段[{}]对应的是节点");
-                }
-            } else {
-                ignore = true;
-            }
+        bind(document.getRootElement(), pojo, binding);
+        return clazz.cast(pojo);
+    }
 
-            if (!ignore) {
-                // 获取指定节点名的element
-                List<Element> nodes = (!StringUtils.isEmpty(attributeName) && isParent)
-                    ? Collections.singletonList(root) : root.elements(nodeName);
-                // 判断是否为空
-                if (nodes.isEmpty()) {
-                    // 如果为空那么将首字母大写后重新获取
-                    nodes = root.elements(StringUtils.toFirstUpperCase(nodeName));
-                }
-                if (!nodes.isEmpty()) {
-                    // 如果还不为空，那么为pojo赋值
-                    Class<?> type = descript.getRealType();
-
-                    // 开始赋值
-                    // 判断字段是否是集合
-                    if (Collection.class.isAssignableFrom(type)) {
-                        // 是集合
-                        setValue(nodes, attributeName, pojo, descript);
-                    } else if (Map.class.isAssignableFrom(type)) {
-                        // 是Map
-                        log.warn("当前暂时不支持解析map");
-                    } else {
-                        // 不是集合，直接赋值
-                        setValue(nodes.get(0), attributeName, pojo, descript);
-                    }
-                }
-            }
-        }
-        return pojo;
+    /**
+     * 清除指定ClassLoader加载的类的绑定计划缓存（{@link XmlParser}和{@link StaxXmlParser}共用该缓存）；缓存不会阻止ClassLoader
+     * 卸载，该方法只用于需要主动丢弃绑定计划的场景
+     *
+     * @param loader
+     *            ClassLoader，为null时清除系统类的绑定计划
+     */
+    public static void invalidateCache(ClassLoader loader) {
+        XmlBinding.invalidate(loader);
     }
 
     /**
@@ -357,163 +300,194 @@ public class XmlParser implements Serializer {
 
         Long start = System.currentTimeMillis();
         Element root = DocumentHelper.createElement(rootName);
-        buildDocument(root, source, source.getClass(), !hasNull);
+        buildDocument(root, source, !hasNull);
         Long end = System.currentTimeMillis();
         log.debug("解析xml用时" + (end - start) + "ms");
         return root.asXML();
     }
 
     /**
-     * 根据pojo构建xml的document（方法附件参考附件xml解析器思路）
+     * 根据数据构建xml的document
+     *
+     * @param parent
+     *            父节点
+     * @param value
+     *            数据，可能是简单类型、map、pojo，为null时忽略
+     * @param ignoreNull
+     *            是否忽略空元素
+     */
+    private void buildDocument(Element parent, Object value, boolean ignoreNull) {
+        if (value == null) {
+            return;
+        }
+        Class<?> type = value.getClass();
+        if (value instanceof Map) {
+            buildMap(parent, (Map<?, ?>)value, ignoreNull);
+        } else if (JavaTypeUtil.isNotPojo(type)) {
+            parent.setText(String.valueOf(value));
+        } else {
+            buildObject(parent, value, XmlBinding.of(type), ignoreNull);
+        }
+    }
+
+    /**
+     * 根据map构建xml的document，map的key为节点名，value是集合时会生成多个同名节点
+     *
+     * @param parent
+     *            父节点
+     * @param map
+     *            map
+     * @param ignoreNull
+     *            是否忽略空元素
+     */
+    private void buildMap(Element parent, Map<?, ?> map, boolean ignoreNull) {
+        map.forEach((k, v) -> {
+            if (k == null) {
+                log.debug("忽略map中key为null的值");
+            } else if (ignoreNull && v == null) {
+                log.debug("当前配置为忽略空值，[{}]的值为空，忽略", k);
+            } else if (v instanceof Collection) {
+                String nodeName = String.valueOf(k);
+                ((Collection<?>)v).forEach(item -> buildDocument(parent.addElement(nodeName), item, ignoreNull));
+            } else {
+                buildDocument(parent.addElement(String.valueOf(k)), v, ignoreNull);
+            }
+        });
+    }
+
+    /**
+     * 根据pojo的绑定计划构建xml的document
      *
      * @param parent
      *            父节点
      * @param pojo
      *            pojo，不能为空
-     * @param clazz
-     *            pojo的Class
+     * @param binding
+     *            pojo的绑定计划
      * @param ignoreNull
      *            是否忽略空元素
      */
-    @SuppressWarnings("unchecked")
-    private void buildDocument(Element parent, Object pojo, Class<?> clazz, boolean ignoreNull) {
-        // 字段描述，key是节点名，value是XmlData
-        Map<String, XmlData> map = new HashMap<>();
-        // 构建字段描述
-        if (pojo instanceof Map) {
-            Map<?, ?> pojoMap = (Map<?, ?>)pojo;
-            pojoMap.forEach((k, v) -> {
-                if (k == null) {
-                    log.debug("忽略map中key为null的值");
-                } else {
-                    if (ignoreNull && v == null) {
-                        log.debug("当前配置为忽略空值，[{}]的值为空，忽略", k);
-                    } else {
-                        map.put(String.valueOf(k), new XmlData(null, v, v == null ? null : v.getClass()));
-                    }
-                }
-            });
-        } else {
-            CustomPropertyDescriptor[] propertyDescriptors =
-                BeanUtils.getPropertyDescriptors(clazz == null ? pojo.getClass() : clazz);
-            for (CustomPropertyDescriptor descriptor : propertyDescriptors) {
-                XmlNode xmlNode = descriptor.getAnnotation(XmlNode.class);
-                // 字段值
-                try {
-                    Object valueObj = pojo == null ? null : BeanUtils.getProperty(pojo, descriptor.getName());
-                    // 判断是否忽略
-                    if ((ignoreNull && valueObj == null) || (xmlNode != null && xmlNode.ignore())) {
-                        log.debug("忽略空节点或者节点被注解忽略");
-                        continue;
-                    }
+    private void buildObject(Element parent, Object pojo, XmlBinding binding, boolean ignoreNull) {
+        for (XmlProperty property : binding.parentAttributes) {
+            addAttribute(parent, pojo, property, ignoreNull);
+        }
+
+        for (XmlElement element : binding.documentElements) {
+            XmlProperty property = element.content;
+            Object value = property == null ? null : property.get(pojo);
 
-                    // 节点名
-                    String nodeName = (xmlNode == null || StringUtils.isEmpty(xmlNode.name())) ? descriptor.getName()
-                        : xmlNode.name();
-                    map.put(nodeName, new XmlData(xmlNode, valueObj, descriptor.getRealType()));
-                } catch (Exception e) {
-                    log.error("获取字段值时发生异常，忽略改值", e);
+            if (property != null && property.kind == Kind.COLLECTION) {
+                if (value != null) {
+                    buildCollection(parent, element, property, (Collection<?>)value, ignoreNull);
                 }
+                continue;
             }
-        }
 
-        map.forEach((k, v) -> {
-            XmlNode xmlNode = v.getXmlNode();
-            Object valueObj = v.getData();
-
-            // 节点名
-            String nodeName = k;
-            // 属性名
-            String attrName =
-                (xmlNode == null || StringUtils.isEmpty(xmlNode.attributeName())) ? nodeName : xmlNode.attributeName();
-            // 是否是cdata
-            boolean isCDATA = xmlNode != null && xmlNode.isCDATA();
-            // 数据类型
-            Class<?> type = v.getType();
-            // 构建一个对应的节点
-            Element node = parent.element(nodeName);
-            if (node == null) {
-                // 搜索不到，创建一个（在属性是父节点属性的情况和节点是list的情况需要将该节点删除）
-                node = DocumentHelper.createElement(nodeName);
-                parent.add(node);
+            if (ignoreNull && value == null && allAttributeNull(pojo, element)) {
+                log.debug("忽略空节点[{}]", element.name);
+                continue;
             }
 
-            // 判断字段对应的是否是属性
-            if (xmlNode != null && xmlNode.isAttribute()) {
-                // 属性值，属性值只能是简单值
-                String attrValue = valueObj == null ? "" : String.valueOf(valueObj);
-                // 判断是否是父节点的属性
-                if (StringUtils.isEmpty(xmlNode.name())) {
-                    // 如果是父节点那么删除之前添加的
-                    parent.remove(node);
-                    node = parent;
-                }
-                // 为属性对应的节点添加属性
-                node.addAttribute(attrName, attrValue);
-            } else if (type == null) {
-                log.debug("当前不知道节点[{}]的类型，忽略该节点", k);
-            } else if (JavaTypeUtil.isNotPojo(type)) {
-                // 是简单类型或者集合类型
-                if (Map.class.isAssignableFrom(type)) {
-                    log.warn("当前字段[{}]是map类型", k);
-                    buildDocument(node, v.getData(), type, ignoreNull);
-                } else if (Collection.class.isAssignableFrom(type)) {
-                    parent.remove(node);
-                    // 集合类型
-                    // 判断字段值是否为null
-                    if (valueObj != null) {
-                        String arrayNodeName;
-                        Element root;
-                        if (StringUtils.isEmpty(xmlNode.arrayRoot())) {
-                            arrayNodeName = nodeName;
-                            root = parent;
-                        } else {
-                            arrayNodeName = xmlNode.arrayRoot();
-                            root = DocumentHelper.createElement(nodeName);
-                            parent.add(root);
-                        }
-                        Collection collection = (Collection)valueObj;
-                        collection.stream().forEach(obj -> {
-                            Element n = DocumentHelper.createElement(arrayNodeName);
-                            root.add(n);
-                            buildDocument(n, obj, null, ignoreNull);
-                        });
-                    }
-                } else {
-                    String text = valueObj == null ? "" : String.valueOf(valueObj);
-                    if (isCDATA) {
+            Element node = parent.addElement(element.qName);
+            for (XmlProperty attribute : element.attributes) {
+                addAttribute(node, pojo, attribute, ignoreNull);
+            }
+
+            if (property == null || (value == null && property.kind != Kind.TEXT)) {
+                continue;
+            }
+
+            switch (property.kind) {
+                case TEXT:
+                    String text = value == null ? "" : String.valueOf(value);
+                    if (property.cdata) {
                         log.debug("内容[{}]需要CDATA标签包裹", text);
-                        node.add(DocumentHelper.createCDATA(text));
+                        node.addCDATA(text);
                     } else {
                         node.setText(text);
                     }
-                }
+                    break;
+                case POJO:
+                    // 字段值不是声明的类型（例如general指定的类型与实际值不符）时使用实际类型
+                    XmlBinding valueBinding = property.valueType.isInstance(value) ? XmlBinding.of(property.valueType)
+                        : XmlBinding.of(value.getClass());
+                    buildObject(node, value, valueBinding, ignoreNull);
+                    break;
+                default:
+                    buildDocument(node, value, ignoreNull);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 构建集合字段对应的节点
+     *
+     * @param parent
+     *            父节点
+     * @param element
+     *            集合字段对应的节点
+     * @param property
+     *            集合字段
+     * @param collection
+     *            集合
+     * @param ignoreNull
+     *            是否忽略空元素
+     */
+    private void buildCollection(Element parent, XmlElement element, XmlProperty property, Collection<?> collection,
+        boolean ignoreNull) {
+        Element root = parent;
+        QName itemName = element.qName;
+        if (property.arrayRootQName != null) {
+            root = parent.addElement(element.qName);
+            itemName = property.arrayRootQName;
+        }
+        for (Object item : collection) {
+            Element node = root.addElement(itemName);
+            if (item != null && property.cdata && property.itemKind == Kind.TEXT) {
+                node.addCDATA(String.valueOf(item));
             } else {
-                // 猜测字段类型（防止字段的声明是一个接口，优先采用xmlnode中申明的类型）
-                Class<?> realType = resolveRealType(type, xmlNode);
-                // pojo类型
-                buildDocument(node, valueObj, realType, ignoreNull);
+                buildDocument(node, item, ignoreNull);
             }
-        });
+        }
     }
 
     /**
-     * 确定字段的真实类型
+     * 为节点添加属性
      *
-     * @param fieldType
-     *            字段类型
-     * @param xmlNode
-     *            字段XmlNode注解
-     * @return 字段实际类型而不是接口或者抽象类
+     * @param node
+     *            节点
+     * @param pojo
+     *            pojo
+     * @param property
+     *            属性对应的字段
+     * @param ignoreNull
+     *            是否忽略空元素
      */
-    private Class<?> resolveRealType(Class<?> fieldType, XmlNode xmlNode) {
-        // 猜测字段类型（防止字段的声明是一个接口，优先采用xmlnode中申明的类型）
-        Class<?> type = (xmlNode == null || xmlNode.general() == null) ? fieldType : xmlNode.general();
+    private void addAttribute(Element node, Object pojo, XmlProperty property, boolean ignoreNull) {
+        Object value = property.get(pojo);
+        if (value == null && ignoreNull) {
+            return;
+        }
+        node.addAttribute(property.attrName, value == null ? "" : String.valueOf(value));
+    }
 
-        if (!fieldType.isAssignableFrom(type)) {
-            type = fieldType;
+    /**
+     * 判断节点对应的属性是否都为null
+     *
+     * @param pojo
+     *            pojo
+     * @param element
+     *            节点
+     * @return 返回true表示都为null
+     */
+    private boolean allAttributeNull(Object pojo, XmlElement element) {
+        for (XmlProperty attribute : element.attributes) {
+            if (attribute.get(pojo) != null) {
+                return false;
+            }
         }
-        return type;
+        return true;
     }
 
     /**
@@ -555,134 +529,118 @@ public class XmlParser implements Serializer {
     }
 
     /**
-     * 往pojo中指定字段设置值
+     * 根据pojo的绑定计划将节点数据赋值到pojo中
      *
-     * @param element
-     *            要设置的数据节点
-     * @param attrName
-     *            要获取的属性名，如果该值不为空则认为数据需要从属性中取而不是从节点数据中取
+     * @param root
+     *            pojo对应的节点
      * @param pojo
      *            pojo
-     * @param field
-     *            字段说明
+     * @param binding
+     *            pojo的绑定计划
      */
-    private void setValue(Element element, String attrName, Object pojo, CustomPropertyDescriptor field) {
-        XmlNode attrXmlNode = field.getAnnotation(XmlNode.class);
-        log.debug("要赋值的fieldName为{}", field.getName());
-        final XmlTypeConvert convert = XmlTypeConverterUtil.resolve(attrXmlNode, field);
-        if (!BeanUtils.setProperty(pojo, field.getName(), convert.read(element, attrName))) {
-            log.debug("copy中复制{}时发生错误，属性[{}]的值将被忽略", field.getName(), field.getName());
+    private void bind(Element root, Object pojo, XmlBinding binding) {
+        for (XmlProperty property : binding.parentAttributes) {
+            property.set(pojo, readAttribute(root, property));
         }
-    }
 
-    /**
-     * 往pojo中指定字段设置值（字段为Collection类型）
-     *
-     * @param elements
-     *            要设置的数据节点
-     * @param attrName
-     *            要获取的属性名，如果该值不为空则认为数据需要从属性中取而不是从节点数据中取
-     * @param pojo
-     *            pojo
-     * @param field
-     *            字段说明
-     */
-    @SuppressWarnings("unchecked")
-    private void setValue(List<Element> elements, String attrName, Object pojo, CustomPropertyDescriptor field) {
-        XmlNode attrXmlNode = field.getAnnotation(XmlNode.class);
-        log.debug("要赋值的fieldName为{}", field.getName());
-        final XmlTypeConvert convert = XmlTypeConverterUtil.resolve(attrXmlNode, field);
-
-        Class<? extends Collection> collectionClass;
-        Class<? extends Collection> real = (Class<? extends Collection>)field.getRealType();
-
-        if (attrXmlNode != null) {
-            collectionClass = attrXmlNode.arrayType();
-            if (!collectionClass.equals(real) && !real.isAssignableFrom(collectionClass)) {
-                log.warn("用户指定的集合类型[{}]不是字段的实际集合类型[{}]的子类，使用字段的实际集合类型", collectionClass, real);
-                collectionClass = real;
+        for (XmlElement element : binding.elements) {
+            List<Element> nodes = root.elements(element.name);
+            if (nodes.isEmpty()) {
+                // 如果为空那么将首字母大写后重新获取
+                nodes = root.elements(element.upperName);
+            }
+            if (nodes.isEmpty()) {
+                continue;
             }
-        } else {
-            collectionClass = real;
-        }
 
-        if (!StringUtils.isEmpty(attrXmlNode.arrayRoot()) && !elements.isEmpty()) {
-            elements = elements.get(0).elements(attrXmlNode.arrayRoot());
-        }
+            Element node = nodes.get(0);
+            for (XmlProperty property : element.attributes) {
+                property.set(pojo, readAttribute(node, property));
+            }
 
-        // 将数据转换为用户指定数据
-        List<?> list = elements.stream().map(d -> convert.read(d, attrName)).collect(Collectors.toList());
+            XmlProperty property = element.content;
+            if (property == null) {
+                continue;
+            }
 
-        if (!trySetValue(list, pojo, field, collectionClass)) {
-            // 使用注解标记的类型赋值失败并且注解的集合类型与实际字段类型不符时尝试使用字段实际类型赋值
-            if (!trySetValue(list, pojo, field, real)) {
-                log.warn("无法为字段[{}]赋值", field.getName());
+            if (property.kind == Kind.COLLECTION) {
+                if (property.arrayRoot != null) {
+                    nodes = node.elements(property.arrayRoot);
+                }
+                Collection<Object> collection = property.newCollection();
+                for (Element item : nodes) {
+                    collection.add(readItem(item, property));
+                }
+                property.set(pojo, collection);
+            } else {
+                property.set(pojo, readContent(node, property));
             }
         }
     }
 
     /**
-     * 尝试为list类型的字段赋值
+     * 读取节点内容
      *
-     * @param datas
-     *            转换后的数据
-     * @param pojo
-     *            要赋值的pojo
-     * @param field
-     *            要赋值的字段说明
-     * @param clazz
-     *            集合的Class对象
-     * @return 返回true表示赋值成功，返回false表示赋值失败
+     * @param element
+     *            节点
+     * @param property
+     *            节点内容对应的字段
+     * @return 字段值
      */
-    @SuppressWarnings("unchecked")
-    private boolean trySetValue(List<?> datas, Object pojo, CustomPropertyDescriptor field,
-        Class<? extends Collection> clazz) {
-        log.debug("要赋值的fieldName为{}", field.getName());
-
-        Collection collection = tryBuildCollection(clazz);
-        if (collection == null) {
-            log.warn("无法为class[{}]构建实例", clazz);
-            return false;
+    private Object readContent(Element element, XmlProperty property) {
+        switch (property.kind) {
+            case TEXT:
+                return ((TextXmlTypeConvert<?>)property.convert).read(element.getText());
+            case POJO:
+                XmlBinding binding = XmlBinding.of(property.valueType);
+                Object pojo = binding.newInstance();
+                bind(element, pojo, binding);
+                return pojo;
+            case MAP:
+                Object value = parse(element);
+                return value instanceof Map ? value : null;
+            default:
+                return property.convert.read(element, null);
         }
-        collection.addAll(datas);
-        try {
-            return BeanUtils.setProperty(pojo, field.getName(), collection);
-        } catch (Exception e) {
-            log.debug("字段[{}]赋值失败，使用的集合类为[{}]", field.getName(), clazz, e);
-            return false;
+    }
+
+    /**
+     * 读取集合元素
+     *
+     * @param element
+     *            集合元素节点
+     * @param property
+     *            集合字段
+     * @return 集合元素
+     */
+    private Object readItem(Element element, XmlProperty property) {
+        switch (property.itemKind) {
+            case TEXT:
+                return ((TextXmlTypeConvert<?>)property.convert).read(element.getText());
+            case POJO:
+                XmlBinding binding = XmlBinding.of(property.valueType);
+                Object pojo = binding.newInstance();
+                bind(element, pojo, binding);
+                return pojo;
+            default:
+                return property.convert.read(element, null);
         }
     }
 
     /**
-     * 根据class尝试构建出集合实例，有可能返回null
+     * 读取节点属性
      *
-     * @param clazz
-     *            集合的Class对象
-     * @return 集合实例
+     * @param element
+     *            节点
+     * @param property
+     *            属性对应的字段
+     * @return 字段值
      */
-    private Collection tryBuildCollection(Class<? extends Collection> clazz) {
-        if (List.class.equals(clazz) || Collection.class.equals(clazz)) {
-            return new ArrayList();
-        } else if (Set.class.equals(clazz)) {
-            return new HashSet();
-        } else if (List.class.isAssignableFrom(clazz)) {
-            try {
-                return clazz.newInstance();
-            } catch (Exception e) {
-                log.warn("指定class[{}]无法创建对象，请为其添加公共无参数构造器，将使用默认实现ArrayList", clazz, e);
-                return new ArrayList();
-            }
-        } else if (Set.class.isAssignableFrom(clazz)) {
-            try {
-                return clazz.newInstance();
-            } catch (Exception e) {
-                log.warn("指定class[{}]无法创建对象，请为其添加公共无参数构造器，将使用默认实现HashSet", clazz, e);
-                return new HashSet();
-            }
-        } else {
-            log.warn("未知集合类型：[{}]", clazz);
-            return null;
+    private Object readAttribute(Element element, XmlProperty property) {
+        if (property.kind == Kind.TEXT) {
+            return ((TextXmlTypeConvert<?>)property.convert).read(element.attributeValue(property.attrName));
         }
+        return property.convert.read(element, property.attrName);
     }
 
     @Override
@@ -704,28 +662,4 @@ public class XmlParser implements Serializer {
     public <T> T read(String data, Class<T> clazz) throws SerializeException {
         return ExceptionWraper.runWithResult(() -> parse(data, clazz), SerializeException::new);
     }
-
-    /**
-     * XML节点数据
-     */
-    @Data
-    @AllArgsConstructor
-    private static class XmlData {
-        /**
-         * 节点注解，可以为空
-         */
-        private XmlNode xmlNode;
-        /**
-         * 节点数据
-         */
-        private Object data;
-        /**
-         * 节点数据的实际类型，可以为空
-         */
-        private Class<?> type;
-
-        public XmlData(Object data) {
-            this.data = data;
-        }
-    }
 }
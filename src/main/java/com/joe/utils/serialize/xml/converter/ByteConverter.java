@@ -1,7 +1,5 @@
 package com.joe.utils.serialize.xml.converter;
 
-import org.dom4j.Element;
-
 import com.joe.utils.common.string.StringUtils;
 
 /**
@@ -10,10 +8,9 @@ import com.joe.utils.common.string.StringUtils;
  * @author joe
  * @version 2018.01.30 14:34
  */
-public class ByteConverter extends AbstractXmlTypeConvert<Byte> {
+public class ByteConverter extends AbstractXmlTypeConvert<Byte> implements TextXmlTypeConvert<Byte> {
     @Override
-    public Byte read(Element element, String attrName) {
-        String data = StringUtils.isEmpty(attrName) ? element.getText() : element.attributeValue(attrName);
+    public Byte read(String data) {
         if (StringUtils.isEmpty(data)) {
             return 0;
         } else {
@@ -0,0 +1,31 @@
+package com.joe.utils.serialize.xml.converter;
+
+import org.dom4j.Element;
+
+import com.joe.utils.common.string.StringUtils;
+import com.joe.utils.serialize.xml.XmlTypeConvert;
+
+/**
+ * 只依赖节点文本（或者属性值）的xml类型转换器，流式解析时不需要构建节点，直接使用文本转换
+ *
+ * @param <T>
+ *            要转换的类型
+ * @author JoeKerouac
+ * @version 2019年12月02日 10:00
+ */
+public interface TextXmlTypeConvert<T> extends XmlTypeConvert<T> {
+
+    /**
+     * 将xml中的字符串数据转换为用户需要的指定类型数据
+     *
+     * @param data
+     *            节点文本或者属性值，可能为null
+     * @return 转换后的数据
+     */
+    T read(String data);
+
+    @Override
+    default T read(Element element, String attrName) {
+        return read(StringUtils.isEmpty(attrName) ? element.getText() : element.attributeValue(attrName));
+    }
+}
@@ -0,0 +1,68 @@
+package com.joe.utils.collection;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author JoeKerouac
+ * @version 2019年11月21日 10:12
+ */
+public class ConcurrentLRUCacheMapTest {
+
+    @Test
+    public void testEvict() {
+        ConcurrentLRUCacheMap<Integer, Integer> map = new ConcurrentLRUCacheMap<>(10);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+            // 热点数据一直被访问，不应该被淘汰
+            Assert.assertEquals(0, map.get(0).intValue());
+        }
+        Assert.assertEquals(10, map.size());
+        Assert.assertTrue(map.containsKey(0));
+        Assert.assertTrue(map.containsKey(99));
+    }
+
+    @Test
+    public void testCompute() {
+        ConcurrentLRUCacheMap<String, Integer> map = new ConcurrentLRUCacheMap<>(10);
+        Assert.assertEquals(1, map.computeIfAbsent("a", k -> 1).intValue());
+        Assert.assertEquals(1, map.computeIfAbsent("a", k -> 2).intValue());
+        Assert.assertEquals(2, map.compute("a", (k, v) -> v + 1).intValue());
+        // 计算函数中递归操作当前map
+        Assert.assertEquals(3, map.compute("b", (k, v) -> map.computeIfAbsent("c", ck -> 3)).intValue());
+        Assert.assertNull(map.compute("b", (k, v) -> null));
+        Assert.assertFalse(map.containsKey("b"));
+        Assert.assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        int threads = 64;
+        int count = 1000;
+        ConcurrentLRUCacheMap<Integer, Integer> map = new ConcurrentLRUCacheMap<>(threads * count);
+        ExecutorService service = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            int base = i * count;
+            service.submit(() -> {
+                for (int j = base; j < base + count; j++) {
+                    map.computeIfAbsent(j, k -> k);
+                    map.get(j - base);
+                }
+                latch.countDown();
+            });
+        }
+        Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        service.shutdown();
+
+        Assert.assertEquals(threads * count, map.size());
+        for (int i = 0; i < threads * count; i++) {
+            Assert.assertEquals(i, map.get(i).intValue());
+        }
+    }
+}
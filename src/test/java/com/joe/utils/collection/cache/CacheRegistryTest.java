@@ -0,0 +1,48 @@
+package com.joe.utils.collection.cache;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.joe.utils.collection.ConcurrentLRUCacheMap;
+import com.joe.utils.reflect.ReflectUtil;
+
+/**
+ * @author JoeKerouac
+ * @version 2019年11月25日 14:10
+ */
+public class CacheRegistryTest {
+
+    @Test
+    public void testRegistry() throws Exception {
+        ConcurrentLRUCacheMap<String, String> map =
+            CacheRegistry.register("CacheRegistryTest", new ConcurrentLRUCacheMap<>(10));
+        map.put("a", "a");
+        map.get("a");
+        map.get("b");
+
+        // 内部缓存会自动注册
+        ReflectUtil.getAllFields(CacheRegistryTest.class);
+        Map<String, CacheStats> snapshot = CacheRegistry.snapshot();
+        Assert.assertTrue(snapshot.containsKey("ReflectUtil.ALL_FIELD_CACHE"));
+
+        CacheStats stats = snapshot.get("CacheRegistryTest");
+        Assert.assertEquals(1, stats.getHitCount());
+        Assert.assertEquals(1, stats.getMissCount());
+        Assert.assertEquals(0.5, stats.hitRate(), 0.0001);
+
+        CacheRegistry.enableJmx();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.joe.utils:type=Cache,name=" + ObjectName.quote("CacheRegistryTest"));
+        Assert.assertEquals(1L, server.getAttribute(name, "Size"));
+
+        CacheRegistry.unregister("CacheRegistryTest");
+        Assert.assertFalse(server.isRegistered(name));
+        Assert.assertFalse(CacheRegistry.snapshot().containsKey("CacheRegistryTest"));
+    }
+}
@@ -0,0 +1,148 @@
+package com.joe.utils.collection.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author JoeKerouac
+ * @version 2019年11月22日 17:40
+ */
+public class TinyLFUCacheTest {
+
+    @Test
+    public void testMaximumSize() {
+        Cache<Integer, Integer> cache = CacheBuilder.<Integer, Integer> builder().maximumSize(100).build();
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+        cache.cleanUp();
+        Assert.assertEquals(100, cache.size());
+    }
+
+    @Test
+    public void testScanResistant() {
+        Cache<Integer, Integer> cache = CacheBuilder.<Integer, Integer> builder().maximumSize(100).build();
+        // 热点数据
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get(i, k -> k);
+            }
+        }
+        // 一次性扫描
+        for (int i = 1000; i < 10000; i++) {
+            cache.get(i, k -> k);
+        }
+        cache.cleanUp();
+
+        int hit = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get(i) != null) {
+                hit++;
+            }
+        }
+        Assert.assertTrue("热点数据命中数：" + hit, hit >= 45);
+    }
+
+    @Test
+    public void testMaximumWeight() {
+        Cache<String, String> cache =
+            CacheBuilder.<String, String> builder().maximumWeight(100, (k, v) -> v.length()).build();
+        for (int i = 0; i < 100; i++) {
+            cache.put(String.valueOf(i), "0123456789");
+        }
+        cache.cleanUp();
+        Assert.assertEquals(10, cache.size());
+    }
+
+    @Test
+    public void testExpire() {
+        AtomicLong time = new AtomicLong();
+        Cache<String, String> cache = CacheBuilder.<String, String> builder().expireAfterWrite(10, TimeUnit.SECONDS)
+            .expireAfterAccess(3, TimeUnit.SECONDS).ticker(time::get).build();
+        cache.put("a", "a");
+        cache.put("b", "b");
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        Assert.assertEquals("a", cache.get("a"));
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        // b超过3秒未访问
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals("a", cache.get("a"));
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(7));
+        // a写入超过10秒
+        Assert.assertNull(cache.get("a"));
+
+        cache.cleanUp();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testStatsAndListener() {
+        List<RemovalCause> causes = new ArrayList<>();
+        Cache<Integer, Integer> cache = CacheBuilder.<Integer, Integer> builder().maximumSize(1)
+            .removalListener((k, v, cause) -> causes.add(cause)).build();
+        cache.put(1, 1);
+        cache.put(1, 2);
+        Assert.assertEquals(2, cache.get(1).intValue());
+        Assert.assertNull(cache.get(2));
+        cache.get(2, k -> k);
+        cache.cleanUp();
+        cache.remove(cache.get(1) == null ? 2 : 1);
+
+        CacheStats stats = cache.stats();
+        Assert.assertEquals(2, stats.getHitCount());
+        Assert.assertEquals(2, stats.getMissCount());
+        Assert.assertEquals(1, stats.getLoadCount());
+        Assert.assertEquals(1, stats.getEvictionCount());
+        Assert.assertEquals(0, stats.getSize());
+        Assert.assertEquals(3, causes.size());
+        Assert.assertEquals(RemovalCause.REPLACED, causes.get(0));
+        Assert.assertEquals(RemovalCause.SIZE, causes.get(1));
+        Assert.assertEquals(RemovalCause.EXPLICIT, causes.get(2));
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        Cache<String, String> cache = CacheBuilder.<String, String> builder().maximumSize(10).build();
+        AtomicInteger counter = new AtomicInteger();
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch end = new CountDownLatch(threads);
+        ExecutorService service = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            service.submit(() -> {
+                try {
+                    start.await();
+                    Assert.assertEquals("value", cache.get("key", k -> {
+                        counter.incrementAndGet();
+                        try {
+                            Thread.sleep(100);
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                        return "value";
+                    }));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    end.countDown();
+                }
+            });
+        }
+        start.countDown();
+        Assert.assertTrue(end.await(10, TimeUnit.SECONDS));
+        service.shutdown();
+        Assert.assertEquals(1, counter.get());
+    }
+}
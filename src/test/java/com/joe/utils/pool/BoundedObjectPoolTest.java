@@ -0,0 +1,152 @@
+package com.joe.utils.pool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.joe.utils.exception.PoolException;
+import com.joe.utils.exception.PoolObjectHolderClosedException;
+
+/**
+ * @author JoeKerouac
+ * @version 2019年11月26日 14:20
+ */
+public class BoundedObjectPoolTest {
+
+    @Test
+    public void testBorrowAndReturn() {
+        AtomicInteger counter = new AtomicInteger();
+        PoolConfig config = new PoolConfig();
+        config.setMaxSize(2);
+        config.setMaxWait(50);
+        try (BoundedObjectPool<Integer> pool = new BoundedObjectPool<>(counter::incrementAndGet, config)) {
+            PooledObject<Integer> first = pool.get();
+            PooledObject<Integer> second = pool.get();
+            Assert.assertEquals(2, pool.getActiveCount());
+
+            try {
+                pool.get();
+                Assert.fail("池已满时应该超时");
+            } catch (PoolException e) {
+                // 超时
+            }
+
+            int value = first.get();
+            first.close();
+            try {
+                first.get();
+                Assert.fail("已经关闭的PooledObject不能再使用");
+            } catch (PoolObjectHolderClosedException e) {
+                // 已关闭
+            }
+
+            try (PooledObject<Integer> third = pool.get()) {
+                Assert.assertEquals(value, third.get().intValue());
+            }
+            second.close();
+
+            Assert.assertEquals(2, pool.getCreatedCount());
+            Assert.assertEquals(3, pool.getBorrowedCount());
+            Assert.assertEquals(3, pool.getReturnedCount());
+            Assert.assertEquals(2, pool.getIdleCount());
+            Assert.assertEquals(1, pool.stats().getHitCount());
+            Assert.assertEquals(2, pool.stats().getMissCount());
+        }
+    }
+
+    @Test
+    public void testValidate() {
+        AtomicInteger counter = new AtomicInteger();
+        AtomicInteger destroyed = new AtomicInteger();
+        PooledObjectFactory<Integer> factory = new PooledObjectFactory<Integer>() {
+            @Override
+            public Integer create() {
+                return counter.incrementAndGet();
+            }
+
+            @Override
+            public boolean validate(Integer obj) {
+                // 奇数校验失败
+                return obj % 2 == 0 || obj == counter.get();
+            }
+
+            @Override
+            public void destroy(Integer obj) {
+                destroyed.incrementAndGet();
+            }
+        };
+        PoolConfig config = new PoolConfig();
+        config.setTestOnBorrow(true);
+        config.setTestOnReturn(true);
+        config.setEvictionInterval(0);
+        try (BoundedObjectPool<Integer> pool = new BoundedObjectPool<>(factory, config)) {
+            PooledObject<Integer> obj = pool.get();
+            Assert.assertEquals(1, obj.get().intValue());
+            // 归还时1已经不是最新的对象，校验失败
+            pool.get().close();
+            obj.close();
+            Assert.assertEquals(1, destroyed.get());
+            Assert.assertEquals(1, pool.getIdleCount());
+        }
+        Assert.assertEquals(2, destroyed.get());
+    }
+
+    @Test
+    public void testEvict() {
+        PoolConfig config = new PoolConfig();
+        config.setMaxSize(4);
+        config.setMinIdle(2);
+        config.setIdleTimeout(1);
+        config.setEvictionInterval(0);
+        try (BoundedObjectPool<Object> pool = new BoundedObjectPool<>(Object::new, config)) {
+            pool.evict();
+            Assert.assertEquals(2, pool.getIdleCount());
+
+            PooledObject<Object> a = pool.get();
+            PooledObject<Object> b = pool.get();
+            PooledObject<Object> c = pool.get();
+            a.close();
+            b.close();
+            c.close();
+            Assert.assertEquals(3, pool.getIdleCount());
+
+            sleep(10);
+            pool.evict();
+            Assert.assertEquals(2, pool.getIdleCount());
+            Assert.assertEquals(1, pool.getDestroyedCount());
+        }
+    }
+
+    @Test
+    public void testLeak() {
+        PoolConfig config = new PoolConfig();
+        config.setMaxSize(1);
+        config.setMaxWait(10);
+        config.setEvictionInterval(0);
+        try (BoundedObjectPool<Object> pool = new BoundedObjectPool<>(Object::new, config)) {
+            leak(pool);
+            for (int i = 0; i < 100 && pool.getLeakedCount() == 0; i++) {
+                System.gc();
+                sleep(10);
+                pool.evict();
+            }
+            Assert.assertEquals(1, pool.getLeakedCount());
+            Assert.assertEquals(0, pool.getActiveCount());
+            pool.get().close();
+        }
+    }
+
+    private void leak(BoundedObjectPool<Object> pool) {
+        Assert.assertNotNull(pool.get().get());
+    }
+
+    private void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.joe.utils.pool;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.joe.utils.collection.cache.StatsCounter;
+import com.joe.utils.exception.PoolObjectHolderClosedException;
+
+/**
+ * @author JoeKerouac
+ * @version 2019年11月27日 14:10
+ */
+public class ObjectPoolImplTest {
+
+    @Test
+    public void testThreadLocalFirst() {
+        AtomicInteger counter = new AtomicInteger();
+        ObjectPoolImpl<Integer> pool = new ObjectPoolImpl<>(counter::incrementAndGet, new StatsCounter(), true);
+
+        PooledObject<Integer> first = pool.get();
+        PooledObject<Integer> second = pool.get();
+        Assert.assertNotEquals(first.get(), second.get());
+        first.close();
+        second.close();
+        Assert.assertEquals(2, pool.freeSize());
+
+        try {
+            first.get();
+            Assert.fail("已经关闭的PooledObject不能再使用");
+        } catch (PoolObjectHolderClosedException e) {
+            // 已关闭
+        }
+
+        // 同一个线程借还应该复用本地槽位中的对象
+        for (int i = 0; i < 100; i++) {
+            try (PooledObject<Integer> holder = pool.get()) {
+                Assert.assertTrue(holder.get() <= 2);
+            }
+        }
+        Assert.assertEquals(2, counter.get());
+
+        pool.clear();
+        Assert.assertEquals(0, pool.freeSize());
+        Assert.assertEquals(2, pool.stats().getEvictionCount());
+        try (PooledObject<Integer> holder = pool.get()) {
+            Assert.assertEquals(3, holder.get().intValue());
+        }
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        ObjectPoolImpl<AtomicInteger> pool = new ObjectPoolImpl<>(AtomicInteger::new, new StatsCounter(), true);
+        Set<AtomicInteger> all = ConcurrentHashMap.newKeySet();
+        int threads = 16;
+        CountDownLatch latch = new CountDownLatch(threads);
+        ExecutorService service = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            service.submit(() -> {
+                try {
+                    for (int j = 0; j < 10000; j++) {
+                        PooledObject<AtomicInteger> first = pool.get();
+                        PooledObject<AtomicInteger> second = pool.get();
+                        // 同一个对象同时只能被一个借用者持有
+                        Assert.assertEquals(1, first.get().incrementAndGet());
+                        Assert.assertEquals(1, second.get().incrementAndGet());
+                        all.add(first.get());
+                        all.add(second.get());
+                        first.get().decrementAndGet();
+                        second.get().decrementAndGet();
+                        second.close();
+                        first.close();
+                    }
+                } catch (Throwable e) {
+                    counter.incrementAndGet();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        service.shutdown();
+        Assert.assertEquals(0, counter.get());
+        Assert.assertTrue(all.size() <= threads * 2);
+        Assert.assertEquals(all.size(), pool.freeSize());
+    }
+}
@@ -0,0 +1,126 @@
+package com.joe.utils.protocol;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.joe.utils.protocol.exception.DataOutOfMemory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+/**
+ * DatagramDecoder测试
+ *
+ * @author JoeKerouac
+ * @version 2019年12月04日 16:00
+ */
+public class DatagramDecoderTest {
+
+    @Test
+    public void doByteByByte() {
+        byte[][] bodies = {new byte[0], "hello".getBytes(), new byte[1000]};
+        byte[] stream = stream(bodies);
+
+        List<ByteBuf> chunks = new ArrayList<>();
+        List<ByteBufDatagram> result = new ArrayList<>();
+        try (DatagramDecoder decoder = new DatagramDecoder()) {
+            for (byte b : stream) {
+                ByteBuf chunk = Unpooled.wrappedBuffer(new byte[] {b});
+                chunks.add(chunk);
+                decoder.decode(chunk, result);
+            }
+            Assert.assertEquals(0, decoder.buffered());
+        }
+
+        check(bodies, result);
+        for (ByteBuf chunk : chunks) {
+            Assert.assertEquals(0, chunk.refCnt());
+        }
+    }
+
+    @Test
+    public void doPipelined() {
+        byte[][] bodies = {"first".getBytes(), "second".getBytes(), "third".getBytes()};
+        byte[] stream = stream(bodies);
+        // 第一个片段包含一个半数据报，第二个片段包含剩下的部分
+        int split = DatagramConst.Position.HEADER_LEN * 3 / 2;
+
+        List<ByteBufDatagram> result = new ArrayList<>();
+        DatagramDecoder decoder = new DatagramDecoder();
+        ByteBuf first = Unpooled.wrappedBuffer(stream, 0, split);
+        result.addAll(decoder.decode(first));
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(split - DatagramConst.Position.HEADER_LEN - bodies[0].length, decoder.buffered());
+
+        ByteBuffer second = ByteBuffer.wrap(stream, split, stream.length - split);
+        result.addAll(decoder.decode(second));
+        Assert.assertFalse(second.hasRemaining());
+        Assert.assertEquals(0, decoder.buffered());
+        // 第一个片段已经从解码器中移除，但是仍然被前两个数据报引用
+        Assert.assertEquals(2, first.refCnt());
+
+        check(bodies, result);
+        Assert.assertEquals(0, first.refCnt());
+    }
+
+    @Test
+    public void doMaxLength() {
+        byte[] data = DatagramUtil.build(new byte[100], DatagramConst.Type.MVC, DatagramConst.Version.V1).getData();
+        DatagramDecoder decoder = new DatagramDecoder(DatagramConst.Position.HEADER_LEN + 99);
+        ByteBuf header = Unpooled.wrappedBuffer(data, 0, DatagramConst.Position.HEADER_LEN);
+        try {
+            decoder.decode(header);
+            Assert.fail("数据报长度超过最大值时应该抛出异常");
+        } catch (DataOutOfMemory e) {
+            Assert.assertEquals(0, decoder.buffered());
+            Assert.assertEquals(0, header.refCnt());
+        }
+
+        // 恰好等于最大长度时可以正常解析
+        decoder = new DatagramDecoder(DatagramConst.Position.HEADER_LEN + 100);
+        List<ByteBufDatagram> result = decoder.decode(Unpooled.wrappedBuffer(data));
+        check(new byte[][] {new byte[100]}, result);
+    }
+
+    @Test
+    public void doErrorAfterFrame() {
+        // 同一个片段中一个合法数据报后面跟着一个超长的报头，已经解析出的数据报需要被释放
+        byte[] valid = stream(new byte[][] {"hello".getBytes()});
+        byte[] oversized = DatagramUtil.build(new byte[100], DatagramConst.Type.MVC, DatagramConst.Version.V1).getData();
+        ByteBuf in = Unpooled.buffer();
+        in.writeBytes(valid).writeBytes(oversized, 0, DatagramConst.Position.HEADER_LEN);
+
+        DatagramDecoder decoder = new DatagramDecoder(DatagramConst.Position.HEADER_LEN + 99);
+        try {
+            decoder.decode(in);
+            Assert.fail("数据报长度超过最大值时应该抛出异常");
+        } catch (DataOutOfMemory e) {
+            Assert.assertEquals(0, decoder.buffered());
+            Assert.assertEquals(0, in.refCnt());
+        }
+    }
+
+    private static byte[] stream(byte[][] bodies) {
+        ByteBuf buf = Unpooled.buffer();
+        for (byte[] body : bodies) {
+            buf.writeBytes(DatagramUtil.build(body, DatagramConst.Type.MVC, DatagramConst.Version.V1).getData());
+        }
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    private static void check(byte[][] bodies, List<ByteBufDatagram> result) {
+        Assert.assertEquals(bodies.length, result.size());
+        for (int i = 0; i < bodies.length; i++) {
+            ByteBufDatagram datagram = result.get(i);
+            Assert.assertEquals(DatagramConst.Type.MVC, datagram.type());
+            Assert.assertArrayEquals(bodies[i], ByteBufUtil.getBytes(datagram.body()));
+            Assert.assertArrayEquals(bodies[i], datagram.toDatagram().getBody());
+            datagram.release();
+        }
+    }
+}
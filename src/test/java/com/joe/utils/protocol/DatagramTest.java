@@ -1,8 +1,16 @@
 package com.joe.utils.protocol;
 
+import java.nio.charset.Charset;
+
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.joe.utils.protocol.exception.IllegalDataException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
 /**
  * @author JoeKerouac
  * @version 2019年11月19日 11:17
@@ -20,4 +28,65 @@ public class DatagramTest {
         // 判断数据是否一致
         Assert.assertEquals(str, new String(datagram.getBody()));
     }
+
+    @Test
+    public void doByteBuf() {
+        String str = "你好";
+        byte[] data = str.getBytes();
+        ByteBufDatagram datagram = DatagramCodec.build(data, DatagramConst.Type.FILE, DatagramConst.Version.V1);
+        Assert.assertTrue(datagram.content().isDirect());
+        Assert.assertEquals(data.length, datagram.size());
+        Assert.assertEquals(DatagramConst.Type.FILE, datagram.type());
+        Assert.assertEquals(DatagramConst.Version.V1, datagram.version());
+        Assert.assertEquals(Charset.defaultCharset().name(), datagram.charset());
+        Assert.assertTrue(datagram.ack());
+
+        // 与基于数组的实现互相解析
+        Datagram old = DatagramUtil.decode(ByteBufUtil.getBytes(datagram.content()));
+        Assert.assertEquals(str, new String(old.getBody()));
+        Assert.assertEquals(datagram.charset(), old.getCharset());
+        Assert.assertArrayEquals(datagram.getId(), old.getId());
+        Assert.assertEquals(old, datagram.toDatagram());
+
+        // 从流中连续解析两个数据报，解析结果是输入的切片
+        ByteBuf in = Unpooled.buffer();
+        in.writeBytes(datagram.content());
+        in.writeBytes(DatagramUtil.build(null, DatagramConst.Type.HEARTBEAT, DatagramConst.Version.V1).getData());
+        datagram.release();
+
+        ByteBufDatagram first = DatagramCodec.decode(in);
+        ByteBufDatagram second = DatagramCodec.decode(in);
+        Assert.assertFalse(in.isReadable());
+        Assert.assertEquals(3, in.refCnt());
+        Assert.assertEquals(str, new String(ByteBufUtil.getBytes(first.body())));
+        Assert.assertEquals(0, second.size());
+        Assert.assertEquals(DatagramConst.Type.HEARTBEAT, second.type());
+
+        // 切片与输入共享引用计数
+        ByteBuf body = first.retainedBody();
+        Assert.assertEquals(4, in.refCnt());
+        first.release();
+        Assert.assertEquals(str, new String(ByteBufUtil.getBytes(body)));
+        body.release();
+        second.release();
+        in.release();
+        Assert.assertEquals(0, in.refCnt());
+    }
+
+    @Test
+    public void doCompositeBody() {
+        ByteBuf body = Unpooled.copiedBuffer("body".getBytes());
+        ByteBufDatagram datagram = DatagramCodec.build(body, DatagramConst.Type.MVC, DatagramConst.Version.V1);
+        Datagram old = DatagramUtil.decode(ByteBufUtil.getBytes(datagram.content()));
+        Assert.assertEquals("body", new String(old.getBody()));
+        Assert.assertEquals(DatagramConst.Type.MVC, old.getType());
+        datagram.release();
+        Assert.assertEquals(0, body.refCnt());
+    }
+
+    @Test(expected = IllegalDataException.class)
+    public void doTruncated() {
+        byte[] data = DatagramUtil.build("你好".getBytes(), DatagramConst.Type.FILE, DatagramConst.Version.V1).getData();
+        DatagramCodec.decode(Unpooled.wrappedBuffer(data, 0, data.length - 1));
+    }
 }
@@ -0,0 +1,175 @@
+package com.joe.utils.protocol;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.joe.utils.protocol.exception.IllegalDataException;
+import com.joe.utils.protocol.transport.DatagramClient;
+import com.joe.utils.protocol.transport.DatagramServer;
+import com.joe.utils.protocol.transport.TransportConfig;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * 文件分块传输测试
+ *
+ * @author JoeKerouac
+ * @version 2019年12月06日 14:00
+ */
+public class FileChunkTest {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private byte[] data;
+
+    private File source;
+
+    private File target;
+
+    @Before
+    public void init() throws IOException {
+        // 不是分块大小的整数倍
+        data = new byte[CHUNK_SIZE * 4 + 123];
+        new Random(1).nextBytes(data);
+        source = File.createTempFile("chunk-source", ".tmp");
+        target = File.createTempFile("chunk-target", ".tmp");
+        Files.write(source.toPath(), data);
+    }
+
+    @After
+    public void destroy() {
+        source.delete();
+        target.delete();
+    }
+
+    @Test
+    public void doResume() throws IOException {
+        long transferId;
+        int receivedChunks;
+        try (FileChannel in = FileChannel.open(source.toPath()); FileChannel out = open()) {
+            FileChunkSender sender = new FileChunkSender(in, CHUNK_SIZE, FileChunkSender.newTransferId());
+            FileChunkReceiver receiver = new FileChunkReceiver(out);
+            // 第0、2个分块到达，第1个分块丢失后中断
+            receive(receiver, sender.next());
+            sender.next().release();
+            receive(receiver, sender.next());
+            Assert.assertEquals(1, receiver.receivedChunks());
+            Assert.assertFalse(receiver.isComplete());
+            transferId = sender.transferId();
+            receivedChunks = receiver.receivedChunks();
+        }
+
+        try (FileChannel in = FileChannel.open(source.toPath()); FileChannel out = open()) {
+            FileChunkSender sender = new FileChunkSender(in, CHUNK_SIZE, transferId);
+            FileChunkReceiver receiver = new FileChunkReceiver(out, transferId, receivedChunks);
+            sender.skipTo(receivedChunks);
+            boolean complete = false;
+            while (sender.hasNext()) {
+                complete = receive(receiver, sender.next());
+            }
+            Assert.assertTrue(complete);
+            Assert.assertEquals(data.length, receiver.length());
+        }
+        Assert.assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void doStream() throws Exception {
+        try (FileChannel out = open()) {
+            FileChunkReceiver receiver = new FileChunkReceiver(out);
+            FileChunkSender sender = new FileChunkSender(new ByteArrayInputStream(data), CHUNK_SIZE, 1);
+            sender.send(chunk -> {
+                receive(receiver, chunk);
+                return CompletableFuture.completedFuture(null);
+            }, 2, Runnable::run).get(10, TimeUnit.SECONDS);
+            Assert.assertTrue(receiver.isComplete());
+            Assert.assertEquals(5, sender.ackedChunks());
+        }
+        Assert.assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void doTransferTo() throws IOException {
+        File frames = File.createTempFile("chunk-frames", ".tmp");
+        try (FileChannel in = FileChannel.open(source.toPath());
+            FileChannel framesOut = FileChannel.open(frames.toPath(), StandardOpenOption.WRITE)) {
+            FileChunkSender sender = new FileChunkSender(in, CHUNK_SIZE, 1);
+            while (sender.hasNext()) {
+                sender.transferTo(framesOut);
+            }
+        }
+
+        // 使用transferTo写出的数据与普通数据报格式一致
+        try (FileChannel out = open(); DatagramDecoder decoder = new DatagramDecoder()) {
+            FileChunkReceiver receiver = new FileChunkReceiver(out);
+            ByteBuf stream = Unpooled.wrappedBuffer(Files.readAllBytes(frames.toPath()));
+            for (ByteBufDatagram datagram : decoder.decode(stream)) {
+                receive(receiver, datagram);
+            }
+            Assert.assertTrue(receiver.isComplete());
+        } finally {
+            frames.delete();
+        }
+        Assert.assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test(expected = IllegalDataException.class)
+    public void doChecksum() throws IOException {
+        try (FileChannel in = FileChannel.open(source.toPath()); FileChannel out = open()) {
+            ByteBufDatagram chunk = new FileChunkSender(in, CHUNK_SIZE, 1).next();
+            ByteBuf body = chunk.body();
+            body.setByte(FileChunk.HEADER_LEN, body.getByte(FileChunk.HEADER_LEN) + 1);
+            receive(new FileChunkReceiver(out), chunk);
+        }
+    }
+
+    @Test
+    public void doTransport() throws Exception {
+        TransportConfig config = new TransportConfig();
+        config.setAckTimeout(200);
+        try (FileChannel in = FileChannel.open(source.toPath()); FileChannel out = open()) {
+            FileChunkReceiver receiver = new FileChunkReceiver(out);
+            DatagramServer server =
+                new DatagramServer("127.0.0.1", 0, config, (connection, datagram) -> receiver.receive(datagram));
+            server.start();
+            DatagramClient client = new DatagramClient(config, (connection, datagram) -> {});
+            client.start();
+            try {
+                InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.port());
+                FileChunkSender sender = new FileChunkSender(in, CHUNK_SIZE, 1);
+                sender.send(client.connection(address)::send, 2, Runnable::run).get(10, TimeUnit.SECONDS);
+                Assert.assertTrue(receiver.isComplete());
+            } finally {
+                client.shutdown();
+                server.shutdown();
+            }
+        }
+        Assert.assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(target.toPath(), StandardOpenOption.WRITE);
+    }
+
+    private static boolean receive(FileChunkReceiver receiver, ByteBufDatagram datagram) {
+        try {
+            return receiver.receive(datagram);
+        } finally {
+            datagram.release();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.joe.utils.protocol.transport;
+
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.joe.utils.protocol.DatagramConst;
+import com.joe.utils.protocol.exception.AckTimeoutException;
+import com.joe.utils.protocol.exception.ProtocolException;
+
+import io.netty.buffer.ByteBufUtil;
+
+/**
+ * 数据报传输层测试
+ *
+ * @author JoeKerouac
+ * @version 2019年12月05日 14:00
+ */
+public class DatagramTransportTest {
+
+    private DatagramServer server;
+
+    private DatagramClient client;
+
+    @After
+    public void destroy() {
+        if (client != null) {
+            client.shutdown();
+        }
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void doSend() throws Exception {
+        // 服务端收到MVC数据后使用BACK类型回推同样的数据
+        server = start(new TransportConfig(), (connection, datagram) -> connection
+            .send(ByteBufUtil.getBytes(datagram.body()), DatagramConst.Type.BACK));
+        BlockingQueue<String> back = new LinkedBlockingQueue<>();
+        client =
+            new DatagramClient((connection, datagram) -> back.add(new String(ByteBufUtil.getBytes(datagram.body()))));
+        client.start();
+
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.port());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(client.send(address, String.valueOf(i).getBytes(), DatagramConst.Type.MVC));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            result.add(back.poll(10, TimeUnit.SECONDS));
+        }
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(result.contains(String.valueOf(i)));
+        }
+        // 连接池中最多两个连接，轮询使用
+        Set<DatagramConnection> connections = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < 10; i++) {
+            connections.add(client.connection(address));
+        }
+        Assert.assertEquals(2, connections.size());
+    }
+
+    @Test
+    public void doRetransmit() throws Exception {
+        TransportConfig config = new TransportConfig();
+        config.setAckTimeout(100);
+        AtomicInteger times = new AtomicInteger();
+        // 第一次处理失败，不回复ACK，客户端超时后重传
+        server = start(config, (connection, datagram) -> {
+            if (times.incrementAndGet() == 1) {
+                throw new IllegalStateException("first");
+            }
+        });
+        client = new DatagramClient(config, (connection, datagram) -> {});
+        client.start();
+
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.port());
+        client.send(address, "retry".getBytes(), DatagramConst.Type.MVC).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, times.get());
+    }
+
+    @Test
+    public void doAckAfterTimeout() throws Exception {
+        TransportConfig config = new TransportConfig();
+        config.setAckTimeout(100);
+        config.setPoolSize(1);
+        server = start(config, (connection, datagram) -> {});
+        client = new DatagramClient(config, (connection, datagram) -> {});
+        client.start();
+
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.port());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(client.send(address, String.valueOf(i).getBytes(), DatagramConst.Type.MVC));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        // 收到ACK后超时定时任务已经取消，只剩下心跳定时任务
+        DatagramConnection connection = client.connection(address);
+        Assert.assertEquals(Integer.valueOf(1), timerCount(connection.eventLoop()));
+        // 等待超过ACK超时时间，连接依然可用，已经完成的数据报也不会被重传
+        Thread.sleep(config.getAckTimeout() * 3);
+        Assert.assertFalse(connection.isClosed());
+        client.send(address, "after".getBytes(), DatagramConst.Type.MVC).get(10, TimeUnit.SECONDS);
+        Assert.assertSame(connection, client.connection(address));
+    }
+
+    @Test
+    public void doWindow() throws Exception {
+        TransportConfig config = new TransportConfig();
+        config.setAckTimeout(50);
+        config.setMaxRetries(1);
+        config.setMaxInFlight(1);
+        config.setMaxBacklog(1);
+        config.setPoolSize(1);
+        // 服务端从不回复ACK
+        server = start(config, (connection, datagram) -> {
+            throw new IllegalStateException("never ack");
+        });
+        client = new DatagramClient(config, (connection, datagram) -> {});
+        client.start();
+
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.port());
+        CompletableFuture<Void> first = client.send(address, "1".getBytes(), DatagramConst.Type.MVC);
+        CompletableFuture<Void> second = client.send(address, "2".getBytes(), DatagramConst.Type.MVC);
+        CompletableFuture<Void> third = client.send(address, "3".getBytes(), DatagramConst.Type.MVC);
+        // 不需要ACK的数据报不受窗口限制
+        client.send(address, null, DatagramConst.Type.HEARTBEAT).get(10, TimeUnit.SECONDS);
+
+        // 窗口和等待队列都满了，第三个直接失败
+        assertFail(third, ProtocolException.class);
+        Assert.assertFalse(second.isDone());
+        assertFail(first, AckTimeoutException.class);
+        // 第一个失败后第二个才开始发送
+        assertFail(second, AckTimeoutException.class);
+    }
+
+    private static Integer timerCount(EventLoop loop) throws Exception {
+        CompletableFuture<Integer> count = new CompletableFuture<>();
+        loop.execute(() -> count.complete(loop.timerCount()));
+        return count.get(10, TimeUnit.SECONDS);
+    }
+
+    private static DatagramServer start(TransportConfig config, DatagramHandler handler) {
+        DatagramServer server = new DatagramServer("127.0.0.1", 0, config, handler);
+        server.start();
+        return server;
+    }
+
+    private static void assertFail(CompletableFuture<Void> future, Class<? extends Throwable> type)
+        throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            Assert.fail("发送应该失败");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause().toString(), type.isInstance(e.getCause()));
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.joe.utils.proxy;
 
 import org.junit.Assert;
 
+import com.joe.utils.reflect.clazz.ClassUtils;
+
 /**
  * @author JoeKerouac
  * @version $Id: joe, v 0.1 2018年11月08日 10:49 JoeKerouac Exp $
@@ -22,6 +24,57 @@ public class ProxyClientTestHelper {
         doObjectMethodTest(client);
         doProxyParentMethodTest(client);
         doMultiProxy(client);
+        doClassCache(client);
+        doCreateClass(client);
+        doException(client);
+    }
+
+    /**
+     * 测试被代理对象抛出的异常原样抛出
+     *
+     * @param client
+     *            代理客户端
+     */
+    public static void doException(ProxyClient client) {
+        Say target = str -> {
+            throw new IllegalStateException(str);
+        };
+        Say say = client.create(Say.class, target, (t, params, method, invoker) -> invoker.call());
+        try {
+            say.say("error");
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("error", e.getMessage());
+        }
+    }
+
+    /**
+     * 测试代理class缓存，相同形状的代理对象共享代理class，但是拦截器各自独立
+     *
+     * @param client
+     *            代理客户端
+     */
+    public static void doClassCache(ProxyClient client) {
+        Say say1 = client.create(Say.class, (target, params, method, invoker) -> "1");
+        Say say2 = client.create(Say.class, (target, params, method, invoker) -> "2");
+        Assert.assertSame(say1.getClass(), say2.getClass());
+        Assert.assertEquals("1", say1.say(""));
+        Assert.assertEquals("2", say2.say(""));
+    }
+
+    /**
+     * 测试{@link ProxyClient#createClass(Class, Object, ClassLoader, String, Interception)}，生成的class固化了拦截器
+     *
+     * @param client
+     *            代理客户端
+     */
+    private static void doCreateClass(ProxyClient client) {
+        Interception interception = (target, params, method, invoker) -> method.getName().equals("say")
+            ? "class:" + params[0] : invoker.call();
+        ClassLoader loader = ProxyClient.DEFAULT_LOADER;
+        Class<? extends Say> clazz = client.createClass(Say.class, null, loader, null, interception);
+        Assert.assertSame(clazz, client.createClass(Say.class, null, loader, null, interception));
+        Assert.assertEquals("class:123", ClassUtils.getInstance(clazz).say("123"));
     }
 
     /**
@@ -54,6 +107,10 @@ public class ProxyClientTestHelper {
         Assert.assertNotEquals(say1, say2);
         Assert.assertNotEquals(say1.toString(), say2.toString());
         Assert.assertNotEquals(say1.hashCode(), say2.hashCode());
+        // 同一个对象多次调用结果稳定
+        Assert.assertEquals(say1.hashCode(), say1.hashCode());
+        Assert.assertEquals(say1.toString(), say1.toString());
+        Assert.assertEquals(say1, say1);
 
         // 不保证不同对象getClass返回的值相同
         Assert.assertNotNull(say1.getClass());
@@ -0,0 +1,115 @@
+package com.joe.utils.proxy.asm;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import com.joe.utils.proxy.Interception;
+import com.joe.utils.proxy.ProxyClient;
+import com.joe.utils.reflect.clazz.ClassUtils;
+
+/**
+ * AotProxyGenerator测试
+ *
+ * @author JoeKerouac
+ * @version 2019年12月10日 11:00
+ */
+public class AotProxyGeneratorTest {
+
+    private static final ProxyClient CLIENT = ProxyClient.getInstance(ProxyClient.ClientType.ASM);
+
+    @Test
+    public void doScan() {
+        List<Class<?>> classes = AotProxyGenerator.scan("com.joe.utils.proxy.asm");
+        Assert.assertEquals(Collections.singletonList(Service.class), classes);
+    }
+
+    @Test
+    public void doGenerate() throws Exception {
+        File output = Files.createTempDirectory("aot").toFile();
+        List<File> files = AotProxyGenerator.generate(output, Collections.singletonList(Service.class));
+        Assert.assertEquals(1, files.size());
+        Assert.assertTrue(files.get(0).isFile());
+
+        Interception interception = (target, params, method, invoker) -> method.getName().equals("say")
+            ? "aot:" + invoker.call() : invoker.call();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {output.toURI().toURL()},
+            AotProxyGeneratorTest.class.getClassLoader())) {
+            Service service = CLIENT.create(Service.class, null, loader, null, interception, null, null);
+            Assert.assertEquals(AsmProxyGenerator.aotClassName(Service.class), service.getClass().getName());
+            Assert.assertSame(loader, service.getClass().getClassLoader());
+            Assert.assertEquals("aot:hello joe", service.say("joe"));
+
+            // 预生成的class在多个代理对象之间共享，拦截器各自绑定
+            Service other = CLIENT.create(Service.class, null, loader, null,
+                (target, params, method, invoker) -> invoker.call(), null, null);
+            Assert.assertSame(service.getClass(), other.getClass());
+            Assert.assertEquals("hello joe", other.say("joe"));
+        }
+    }
+
+    @Test
+    public void doStale() throws Exception {
+        File output = Files.createTempDirectory("aot").toFile();
+        AotProxyGenerator.generate(output, Collections.singletonList(Service.class));
+
+        // 生成后父类say方法的返回类型发生了变化，预生成的class不能使用，回退为运行时生成
+        ClassReader reader = new ClassReader(ClassUtils.getClassAsStream(Service.class));
+        ClassWriter writer = new ClassWriter(0);
+        reader.accept(new ClassVisitor(Opcodes.ASM5, writer) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+                String[] exceptions) {
+                String realDesc = "say".equals(name) ? "(Ljava/lang/String;)Ljava/lang/Object;" : desc;
+                return super.visitMethod(access, name, realDesc, signature, exceptions);
+            }
+        }, 0);
+        byte[] changed = writer.toByteArray();
+
+        String aotName = AsmProxyGenerator.aotClassName(Service.class);
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {output.toURI().toURL()},
+            AotProxyGeneratorTest.class.getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                synchronized (getClassLoadingLock(name)) {
+                    Class<?> clazz = findLoadedClass(name);
+                    if (clazz == null && name.equals(Service.class.getName())) {
+                        clazz = defineClass(name, changed, 0, changed.length);
+                    } else if (clazz == null && name.equals(aotName)) {
+                        clazz = findClass(name);
+                    }
+                    return clazz == null ? super.loadClass(name, resolve) : clazz;
+                }
+            }
+        }) {
+            @SuppressWarnings("unchecked")
+            Class<Object> changedService = (Class<Object>)loader.loadClass(Service.class.getName());
+            Assert.assertNotSame(Service.class, changedService);
+            Assert.assertNull(AsmProxyGenerator.loadAot(changedService, loader));
+
+            Object proxy = CLIENT.create(changedService, null, loader, null,
+                (target, params, method, invoker) -> "proxy:" + invoker.call(), null, null);
+            Assert.assertNotEquals(aotName, proxy.getClass().getName());
+            Assert.assertEquals("proxy:hello joe",
+                proxy.getClass().getMethod("say", String.class).invoke(proxy, "joe"));
+        }
+    }
+
+    @AotProxy
+    public static class Service {
+        public String say(String name) {
+            return "hello " + name;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.joe.utils.proxy.asm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.joe.utils.proxy.ProxyMethod;
+
+/**
+ * AsmMethodAccessorFactory测试
+ *
+ * @author JoeKerouac
+ * @version 2019年12月10日 11:00
+ */
+public class AsmMethodAccessorFactoryTest {
+
+    @Test
+    public void doInvoke() throws Throwable {
+        ProxyMethod.Accessor plus =
+            AsmMethodAccessorFactory.build(Calculator.class.getMethod("plus", int.class, long.class));
+        Assert.assertEquals(5L, plus.invoke(new Calculator(), new Object[] {2, 3L}));
+
+        ProxyMethod.Accessor max =
+            AsmMethodAccessorFactory.build(Calculator.class.getMethod("max", int.class, int.class));
+        Assert.assertEquals(3, max.invoke(null, new Object[] {2, 3}));
+
+        List<String> list = new ArrayList<>();
+        ProxyMethod.Accessor add = AsmMethodAccessorFactory.build(List.class.getMethod("add", Object.class));
+        Assert.assertEquals(true, add.invoke(list, new Object[] {"a"}));
+        ProxyMethod.Accessor clear = AsmMethodAccessorFactory.build(List.class.getMethod("clear"));
+        Assert.assertNull(clear.invoke(list, new Object[0]));
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void doException() throws Throwable {
+        // 方法抛出的异常原样抛出
+        AsmMethodAccessorFactory.build(Calculator.class.getMethod("fail")).invoke(new Calculator(), new Object[0]);
+    }
+
+    @Test
+    public void doSupport() throws NoSuchMethodException {
+        Assert.assertTrue(AsmMethodAccessorFactory.isSupport(Object.class.getMethod("hashCode")));
+        Assert.assertFalse(AsmMethodAccessorFactory.isSupport(Hidden.class.getMethod("name")));
+        Assert.assertFalse(AsmMethodAccessorFactory.isSupport(Object.class.getDeclaredMethod("clone")));
+    }
+
+    public static class Calculator {
+        public long plus(int a, long b) {
+            return a + b;
+        }
+
+        public static int max(int a, int b) {
+            return Math.max(a, b);
+        }
+
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+    }
+
+    static class Hidden {
+        public String name() {
+            return "hidden";
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.joe.utils.proxy.asm;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.joe.utils.proxy.Interception;
+import com.joe.utils.proxy.ProxyClient;
+import com.joe.utils.proxy.ProxyClientTestHelper;
+import com.joe.utils.reflect.clazz.ClassUtils;
+
+/**
+ * AsmProxyClient测试
+ *
+ * @author JoeKerouac
+ * @version 2019年12月08日 11:00
+ */
+public class AsmProxyClientTest {
+
+    private static final ProxyClient CLIENT = ProxyClient.getInstance(ProxyClient.ClientType.ASM);
+
+    @Test
+    public void doTest() {
+        new ProxyClientTestHelper(CLIENT).doTest();
+    }
+
+    @Test
+    public void doConstructor() {
+        // 构造器中调用的方法同样会被拦截
+        Interception interception = (target, params, method, invoker) -> method.getName().equals("plus")
+            ? (long)invoker.call() * 10 : invoker.call();
+        Counter counter = CLIENT.create(Counter.class, null, ProxyClient.DEFAULT_LOADER, null, interception,
+            new Class<?>[] {int.class, String.class}, new Object[] {3, "a"});
+        Assert.assertEquals("a", counter.getName());
+        Assert.assertEquals(30, counter.getInit());
+
+        Assert.assertEquals(50, counter.plus(2, 3));
+        Assert.assertEquals("b!", counter.echo("b"));
+        counter.reset();
+        Assert.assertEquals(0, counter.getInit());
+    }
+
+    @Test
+    public void doProtected() {
+        Interception interception = (target, params, method, invoker) -> method.getName().equals("suffix") ? "?"
+            : invoker.call();
+        Counter counter = CLIENT.create(Counter.class, null, ProxyClient.DEFAULT_LOADER, null, interception,
+            new Class<?>[] {int.class, String.class}, new Object[] {1, "a"});
+        Assert.assertEquals("b?", counter.echo("b"));
+    }
+
+    @Test
+    public void doCreateClass() {
+        Interception interception = (target, params, method, invoker) -> method.getName().equals("plus") ? -1L
+            : invoker.call();
+        Class<? extends Counter> clazz =
+            CLIENT.createClass(Counter.class, null, ProxyClient.DEFAULT_LOADER, null, interception);
+        Counter counter =
+            ClassUtils.getInstance(clazz, new Class<?>[] {int.class, String.class}, new Object[] {1, "a"});
+        Assert.assertEquals(-1, counter.plus(1, 2));
+        Assert.assertEquals(-1, counter.getInit());
+    }
+
+    @Test
+    public void doCustomLoader() {
+        // 非ProxyClassLoader的classloader同样能命中缓存
+        ClassLoader loader = new ClassLoader(AsmProxyClientTest.class.getClassLoader()) {};
+        Interception interception = (target, params, method, invoker) -> invoker.call();
+        Counter first = CLIENT.create(Counter.class, null, loader, null, interception,
+            new Class<?>[] {int.class, String.class}, new Object[] {1, "a"});
+        Counter second = CLIENT.create(Counter.class, null, loader, null, interception,
+            new Class<?>[] {int.class, String.class}, new Object[] {2, "b"});
+        Assert.assertSame(first.getClass(), second.getClass());
+        Assert.assertEquals(2, second.getInit());
+
+        Class<? extends Counter> clazz = CLIENT.createClass(Counter.class, null, loader, null, interception);
+        Assert.assertSame(clazz, CLIENT.createClass(Counter.class, null, loader, null, interception));
+    }
+
+    public static class Counter {
+        private final String name;
+
+        private long init;
+
+        public Counter(int init, String name) {
+            this.name = name;
+            this.init = plus(init, 0);
+        }
+
+        public long plus(int a, long b) {
+            return a + b;
+        }
+
+        public String echo(String str) {
+            return str + suffix();
+        }
+
+        protected String suffix() {
+            return "!";
+        }
+
+        public void reset() {
+            init = 0;
+        }
+
+        public long getInit() {
+            return init;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
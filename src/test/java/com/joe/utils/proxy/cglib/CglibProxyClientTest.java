@@ -1,9 +1,12 @@
 package com.joe.utils.proxy.cglib;
 
+import org.junit.Assert;
 import org.junit.Test;
 
+import com.joe.utils.proxy.Interception;
 import com.joe.utils.proxy.ProxyClient;
 import com.joe.utils.proxy.ProxyClientTestHelper;
+import com.joe.utils.reflect.clazz.ClassUtils;
 
 /**
  * @author JoeKerouac
@@ -11,8 +14,38 @@ import com.joe.utils.proxy.ProxyClientTestHelper;
  */
 public class CglibProxyClientTest {
 
+    private static final ProxyClient CLIENT = ProxyClient.getInstance(ProxyClient.ClientType.CGLIB);
+
     @Test
     public void doTest() {
-        new ProxyClientTestHelper(ProxyClient.getInstance(ProxyClient.ClientType.CGLIB)).doTest();
+        new ProxyClientTestHelper(CLIENT).doTest();
+    }
+
+    @Test
+    public void doCreateClassConstructor() {
+        // createClass生成的class通过反射创建对象时，构造器中调用的方法同样会被拦截
+        Interception interception = (target, params, method, invoker) -> method.getName().equals("plus")
+            ? (int)invoker.call() * 10 : invoker.call();
+        Class<? extends Counter> clazz =
+            CLIENT.createClass(Counter.class, null, ProxyClient.DEFAULT_LOADER, null, interception);
+        Counter counter = ClassUtils.getInstance(clazz, new Class<?>[] {int.class}, new Object[] {3});
+        Assert.assertEquals(30, counter.getInit());
+        Assert.assertEquals(50, counter.plus(2, 3));
+    }
+
+    public static class Counter {
+        private final int init;
+
+        public Counter(int init) {
+            this.init = plus(init, 0);
+        }
+
+        public int plus(int a, int b) {
+            return a + b;
+        }
+
+        public int getInit() {
+            return init;
+        }
     }
 }
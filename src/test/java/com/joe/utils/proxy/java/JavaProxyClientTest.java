@@ -32,6 +32,8 @@ public class JavaProxyClientTest {
         ProxyClientTestHelper.doObjectMethodTest(client);
         ProxyClientTestHelper.doProxyParentMethodTest(client);
         ProxyClientTestHelper.doMultiProxy(client);
+        ProxyClientTestHelper.doClassCache(client);
+        ProxyClientTestHelper.doException(client);
     }
 
     public interface Say {
@@ -0,0 +1,156 @@
+package com.joe.utils.reflect;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import lombok.Data;
+
+/**
+ * @author JoeKerouac
+ * @version 2019年11月28日 15:10
+ */
+public class BeanUtilsTest {
+
+    @Test
+    public void testGeneratedCopy() {
+        Assert.assertFalse(BeanUtils.getCopier(Source.class, Target.class) instanceof ReflectBeanCopier);
+        Assert.assertSame(BeanUtils.getCopier(Source.class, Target.class),
+            BeanUtils.getCopier(Source.class, Target.class));
+
+        Source source = new Source();
+        source.setName("joe");
+        source.setAge(18);
+        source.setScore(99L);
+        source.setNick("nick");
+        source.setTags(new int[] {1, 2});
+
+        Target target = BeanUtils.copy(source, Target.class);
+        Assert.assertEquals("joe", target.getName());
+        Assert.assertEquals(Integer.valueOf(18), target.getAge());
+        Assert.assertEquals(99L, target.getScore());
+        Assert.assertEquals("nick", target.getNickName());
+        Assert.assertArrayEquals(new int[] {1, 2}, target.getTags());
+
+        // null值拆箱时忽略
+        source.setScore(null);
+        target = BeanUtils.copy(target, source);
+        Assert.assertEquals(99L, target.getScore());
+    }
+
+    @Test
+    public void testReflectCopy() {
+        Assert.assertTrue(BeanUtils.getCopier(Source.class, PrivateTarget.class) instanceof ReflectBeanCopier);
+
+        Source source = new Source();
+        source.setName("joe");
+        source.setAge(18);
+        source.setNick("nick");
+
+        PrivateTarget target = BeanUtils.copy(new PrivateTarget(), source);
+        Assert.assertEquals("joe", target.name);
+        Assert.assertEquals(18, target.age);
+        Assert.assertEquals("nick", target.nickName);
+    }
+
+    @Test
+    public void testSetterException() {
+        Assert.assertFalse(BeanUtils.getCopier(Source.class, FailTarget.class) instanceof ReflectBeanCopier);
+
+        Source source = new Source();
+        source.setName("joe");
+        source.setAge(-1);
+        // setter异常时忽略该字段，其他字段正常复制，与反射实现的复制器一致
+        FailTarget target = BeanUtils.copy(new FailTarget(), source);
+        Assert.assertEquals("joe", target.getName());
+        Assert.assertEquals(0, target.getAge());
+        Assert.assertEquals(1, target.nameCount);
+    }
+
+    @Test
+    public void testBulkCopy() {
+        List<Source> sources = IntStream.range(0, 20000).mapToObj(i -> {
+            Source source = new Source();
+            source.setName(String.valueOf(i));
+            source.setAge(i);
+            return source;
+        }).collect(Collectors.toCollection(LinkedList::new));
+        sources.add(100, null);
+
+        List<Target> parallel = BeanUtils.parallelCopy(sources, Target.class, 1000);
+        Assert.assertEquals(20000, parallel.size());
+        for (int i = 0; i < parallel.size(); i++) {
+            Assert.assertEquals(Integer.valueOf(i), parallel.get(i).getAge());
+        }
+
+        Iterator<Target> iterator = BeanUtils.copy(sources.iterator(), Target.class);
+        int count = 0;
+        while (iterator.hasNext()) {
+            Assert.assertEquals(String.valueOf(count++), iterator.next().getName());
+        }
+        Assert.assertEquals(20000, count);
+
+        Assert.assertEquals(20000, BeanUtils.copy(sources.parallelStream(), Target.class).count());
+        Assert.assertEquals(20000, BeanUtils.copyTo(sources, Target.class, new ArrayList<>()).size());
+
+        Target[] array = new Target[20002];
+        Assert.assertEquals(20001, BeanUtils.copyTo(sources, Target.class, array, 1));
+        Assert.assertNull(array[0]);
+        Assert.assertNull(array[101]);
+        Assert.assertEquals("100", array[102].getName());
+    }
+
+    @Data
+    public static class Source {
+        private String name;
+        private int age;
+        private Long score;
+        @Alias("nickName")
+        private String nick;
+        private int[] tags;
+    }
+
+    @Data
+    public static class Target {
+        private String name;
+        private Integer age;
+        private long score;
+        private String nickName;
+        private int[] tags;
+    }
+
+    public static class FailTarget {
+        private String name;
+        private int age;
+        private int nameCount;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            nameCount++;
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            if (age < 0) {
+                throw new IllegalArgumentException("age");
+            }
+            this.age = age;
+        }
+    }
+
+    private static class PrivateTarget {
+        private String name;
+        private int age;
+        private String nickName;
+    }
+}
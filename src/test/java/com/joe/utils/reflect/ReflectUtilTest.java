@@ -120,6 +120,30 @@ public class ReflectUtilTest {
         Assert.assertNotNull(e);
     }
 
+    @Test
+    public void invokeExceptionTest() throws NoSuchMethodException {
+        // 调用次数超过阈值切换为MethodInvoker前后，异常形式保持一致
+        Method method = Failer.class.getDeclaredMethod("fail");
+        for (int i = 0; i < 40; i++) {
+            try {
+                if (i % 2 == 0) {
+                    ReflectUtil.execMethod(method, new Failer());
+                } else {
+                    ReflectUtil.invoke(new Failer(), "fail", null);
+                }
+                Assert.fail();
+            } catch (ReflectException e) {
+                Assert.assertEquals(IllegalStateException.class, e.getCause().getClass());
+            }
+        }
+    }
+
+    public static class Failer {
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+    }
+
     public static class User extends AbstractUser implements Say {
         private static final String ID = "user";
 
@@ -105,6 +105,42 @@ public class AsmInvokeDistributeFactoryTest {
         Assert.assertEquals(user.sayHi(), invokeDistribute.invoke(hiMethodOwner, sayHiMethod, desc));
     }
 
+    /**
+     * 测试通过方法id调用
+     *
+     * @throws NoSuchMethodException
+     *             NoSuchMethodException
+     */
+    @Test
+    public void testInvokeById() throws NoSuchMethodException {
+        User user = new User();
+        InvokeDistribute invokeDistribute = factory.build(user);
+
+        int setId = invokeDistribute.methodId(owner, setMethod, setMethodDesc);
+        int getId = invokeDistribute.methodId(owner, getMethod, desc);
+        Assert.assertTrue(setId >= 0);
+        Assert.assertNotEquals(setId, getId);
+        Assert.assertEquals(-1, invokeDistribute.methodId(owner, setMethod + 1, setMethodDesc));
+        Assert.assertEquals(-1, invokeDistribute.methodId(helloMethodOwner, sayMethod, desc));
+
+        invokeDistribute.invoke(setId, name);
+        Assert.assertEquals(name, invokeDistribute.invoke(getId));
+
+        // 基本类型参数和返回值
+        int addId = invokeDistribute.methodId(owner, "add", ByteCodeUtils.getDesc(long.class, int.class, long.class));
+        Assert.assertEquals(3L, invokeDistribute.invoke(addId, 1, 2L));
+        Assert.assertEquals(5L, invokeDistribute.invoke(owner, "add", ByteCodeUtils.getDesc(long.class, int.class,
+            long.class), 2, 3L));
+
+        NoSuchMethodException noSuchMethodException = null;
+        try {
+            invokeDistribute.invoke(Integer.MAX_VALUE);
+        } catch (NoSuchMethodException e) {
+            noSuchMethodException = e;
+        }
+        Assert.assertNotNull(noSuchMethodException);
+    }
+
     @Test
     public void test() {}
 
@@ -123,6 +159,14 @@ public class AsmInvokeDistributeFactoryTest {
         public String talk() {
             return "talk by User";
         }
+
+        public long add(int a, long b) {
+            return a + b;
+        }
+
+        protected boolean canEqual(Object other) {
+            return other instanceof User;
+        }
     }
 
     public static abstract class AbstractUser {
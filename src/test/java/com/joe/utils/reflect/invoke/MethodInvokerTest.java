@@ -0,0 +1,110 @@
+package com.joe.utils.reflect.invoke;
+
+import java.lang.reflect.Method;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.joe.utils.reflect.ReflectException;
+import com.joe.utils.reflect.ReflectUtil;
+
+import lombok.Data;
+
+/**
+ * @author JoeKerouac
+ * @version 2019年11月29日 14:00
+ */
+public class MethodInvokerTest {
+
+    @Test
+    public void testLambdaInvoker() throws Exception {
+        User user = new User();
+
+        MethodInvoker setAge = MethodInvokerFactory.getInvoker(User.class.getMethod("setAge", int.class));
+        Assert.assertTrue(setAge instanceof LambdaMethodInvoker);
+        setAge.invokeWithInt(user, 18);
+        Assert.assertEquals(18, user.getAge());
+        setAge.invoke(user, 20);
+        Assert.assertEquals(20, user.getAge());
+
+        MethodInvoker getAge = MethodInvokerFactory.getInvoker(User.class.getMethod("getAge"));
+        Assert.assertTrue(getAge instanceof LambdaMethodInvoker);
+        Assert.assertEquals(20, getAge.invokeInt(user));
+        Assert.assertEquals(20, getAge.invoke(user));
+
+        MethodInvoker setName = MethodInvokerFactory.getInvoker(User.class.getMethod("setName", String.class));
+        setName.invoke(user, "joe");
+        MethodInvoker getName = MethodInvokerFactory.getInvoker(User.class.getMethod("getName"));
+        Assert.assertTrue(getName instanceof LambdaMethodInvoker);
+        Assert.assertEquals("joe", getName.invoke(user));
+        Assert.assertSame(getName, MethodInvokerFactory.getInvoker(User.class.getMethod("getName")));
+
+        MethodInvoker isVip = MethodInvokerFactory.getInvoker(User.class.getMethod("isVip"));
+        Assert.assertFalse(isVip.invokeBoolean(user));
+    }
+
+    @Test
+    public void testHandleInvoker() throws Exception {
+        Method concat = User.class.getDeclaredMethod("concat", String.class, int.class);
+        MethodInvoker invoker = MethodInvokerFactory.getInvoker(concat);
+        Assert.assertFalse(invoker instanceof LambdaMethodInvoker);
+        Assert.assertEquals("a1", invoker.invoke(null, "a", 1));
+
+        Method secret = User.class.getDeclaredMethod("secret");
+        Assert.assertEquals("secret", MethodInvokerFactory.getInvoker(secret).invoke(new User()));
+
+        try {
+            invoker.invoke(null, "a");
+            Assert.fail("参数数量不对时应该抛出异常");
+        } catch (ReflectException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void testException() throws Exception {
+        MethodInvoker invoker = MethodInvokerFactory.getInvoker(User.class.getMethod("fail"));
+        try {
+            invoker.invoke(new User());
+            Assert.fail("应该抛出异常");
+        } catch (ReflectException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testReflectUtilSwitch() throws Exception {
+        ReflectUtil.setInvokerThreshold(1);
+        try {
+            User user = new User();
+            Method setAge = User.class.getMethod("setAge", int.class);
+            for (int i = 0; i < 100; i++) {
+                ReflectUtil.invoke(user, setAge, i);
+                Assert.assertEquals(i, (int)ReflectUtil.execMethod(User.class.getMethod("getAge"), user));
+            }
+            Assert.assertEquals("b2", ReflectUtil.invoke(User.class,
+                User.class.getDeclaredMethod("concat", String.class, int.class), "b", 2));
+        } finally {
+            ReflectUtil.setInvokerThreshold(16);
+        }
+    }
+
+    @Data
+    public static class User {
+        private String name;
+        private int age;
+        private boolean vip;
+
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+
+        private String secret() {
+            return "secret";
+        }
+
+        private static String concat(String prefix, int suffix) {
+            return prefix + suffix;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.joe.utils.scan;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.joe.utils.common.IOUtils;
+
+/**
+ * ClassScanner测试
+ *
+ * @author JoeKerouac
+ * @version 2019年12月12日 11:00
+ */
+public class ClassScannerTest {
+
+    private static final ClassScanner SCANNER = ClassScanner.getInstance();
+
+    @Test
+    public void doScanDirectory() {
+        List<Class<?>> classes = SCANNER.scanByMetadata(
+            Collections.singletonList(metadata -> !metadata.isImplements(Marker.class)), "com.joe.utils.scan");
+        Assert.assertEquals(Collections.singletonList(Marked.class), classes);
+
+        // 和加载class的扫描结果一致
+        List<Class<?>> loaded = SCANNER.scanByFilter("com.joe.utils.scan",
+            Collections.singletonList(clazz -> clazz.isInterface() || !Marker.class.isAssignableFrom(clazz)));
+        Assert.assertEquals(loaded, classes);
+    }
+
+    @Test
+    public void doScanJar() {
+        List<Class<?>> classes = SCANNER.scanByMetadata(
+            Collections.singletonList(metadata -> !metadata.isAnnotationPresent(Retention.class)), "org.junit");
+        Assert.assertTrue(classes.contains(Test.class));
+        Assert.assertTrue(classes.stream().allMatch(Class::isAnnotation));
+
+        // jar的索引会缓存，再次扫描结果一致
+        Assert.assertEquals(classes, SCANNER.scanByMetadata(
+            Collections.singletonList(metadata -> !metadata.isAnnotationPresent(Retention.class)), "org.junit"));
+    }
+
+    @Test
+    public void doJarUpdate() throws Exception {
+        // jar文件更新后重新建立索引
+        File file = File.createTempFile("index", ".jar");
+        file.deleteOnExit();
+        writeJar(file, Marked.class);
+        Assert.assertEquals(1, indexJar(file).size());
+        Assert.assertEquals(1, indexJar(file).size());
+
+        writeJar(file, Marked.class, Marker.class);
+        Assert.assertEquals(2, indexJar(file).size());
+    }
+
+    private static List<ClassMetadata> indexJar(File file) throws IOException {
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {file.toURI().toURL()}, null)) {
+            return new ClassIndexer(loader).index("index");
+        }
+    }
+
+    private static void writeJar(File file, Class<?>... classes) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(file))) {
+            out.putNextEntry(new JarEntry("index/"));
+            for (Class<?> clazz : classes) {
+                out.putNextEntry(new JarEntry("index/" + clazz.getSimpleName() + ".class"));
+                String resource = clazz.getName().replace('.', '/') + ".class";
+                out.write(IOUtils.read(ClassScannerTest.class.getClassLoader().getResourceAsStream(resource), 4096,
+                    true));
+            }
+        }
+    }
+
+    @Test
+    public void doMetadata() {
+        // 从class文件读取的元数据和从加载后的class中读取的一致
+        ClassMetadata metadata = new ClassIndexer(ClassScannerTest.class.getClassLoader()).index("com.joe.utils.scan")
+            .stream().filter(data -> data.getName().equals(Marked.class.getName())).findFirst().orElse(null);
+        ClassMetadata expect = ClassMetadata.of(Marked.class);
+        Assert.assertNotNull(metadata);
+        Assert.assertEquals(expect.getSuperName(), metadata.getSuperName());
+        Assert.assertEquals(expect.getInterfaces(), metadata.getInterfaces());
+        Assert.assertEquals(expect.getAnnotations(), metadata.getAnnotations());
+        Assert.assertTrue(metadata.isAnnotationPresent(Deprecated.class));
+        Assert.assertFalse(metadata.isInterface());
+    }
+
+    public interface Marker {}
+
+    @Deprecated
+    public static class Marked implements Marker {}
+}
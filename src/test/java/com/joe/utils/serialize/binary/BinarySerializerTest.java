@@ -0,0 +1,260 @@
+package com.joe.utils.serialize.binary;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.joe.utils.serialize.SerializeException;
+import com.joe.utils.serialize.SerializerEnum;
+import com.joe.utils.serialize.SerializerFactory;
+import com.joe.utils.serialize.json.JsonParser;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.Data;
+
+/**
+ * BinarySerializer测试
+ *
+ * @author JoeKerouac
+ * @version 2019年12月03日 16:00
+ */
+public class BinarySerializerTest {
+    private static final BinarySerializer SERIALIZER = BinarySerializer.getInstance();
+
+    @Test
+    public void doReadWrite() {
+        Order order = buildOrder();
+        byte[] data = SERIALIZER.write(order);
+        Order result = SERIALIZER.read(data, Order.class);
+        Assert.assertEquals(order, result);
+        Assert.assertArrayEquals(order.getSign(), result.getSign());
+        Assert.assertArrayEquals(order.getScores(), result.getScores());
+
+        Assert.assertEquals(order, SERIALIZER.read(SERIALIZER.writeToString(order), Order.class));
+        Assert.assertSame(SERIALIZER, SerializerFactory.getInstance(SerializerEnum.BINARY));
+
+        // 比json小得多
+        Assert.assertTrue(data.length * 2 < JsonParser.getInstance().write(order).length);
+    }
+
+    @Test
+    public void doRoot() {
+        Assert.assertEquals("中文", SERIALIZER.read(SERIALIZER.write("中文"), String.class));
+        Assert.assertEquals(Integer.valueOf(-1), SERIALIZER.read(SERIALIZER.write(-1), Integer.class));
+        // null字段不写出，只有id字段的tag、值以及结束标记
+        Assert.assertEquals(3, SERIALIZER.write(new OrderV1()).length);
+        Assert.assertNull(SERIALIZER.write(null));
+    }
+
+    @Test
+    public void doByteBuf() {
+        Order order = buildOrder();
+        ByteBuf buf = Unpooled.buffer();
+        SERIALIZER.write(order, buf);
+        SERIALIZER.write(order.getItems().get(0), buf);
+        Assert.assertEquals(order, SERIALIZER.read(buf, Order.class));
+        Assert.assertEquals(order.getItems().get(0), SERIALIZER.read(buf, Item.class));
+        Assert.assertFalse(buf.isReadable());
+    }
+
+    @Test
+    public void doCompatible() {
+        OrderV1 v1 = new OrderV1();
+        v1.setId(100);
+        v1.setName("v1");
+        v1.setRemoved("removed");
+
+        OrderV2 v2 = SERIALIZER.read(SERIALIZER.write(v1), OrderV2.class);
+        Assert.assertEquals(100, v2.getId());
+        Assert.assertEquals("v1", v2.getName());
+        Assert.assertNull(v2.getAdded());
+
+        v2.setAdded(Collections.singletonList(new Item("a", 1)));
+        OrderV1 result = SERIALIZER.read(SERIALIZER.write(v2), OrderV1.class);
+        Assert.assertEquals(100, result.getId());
+        Assert.assertEquals("v1", result.getName());
+        Assert.assertNull(result.getRemoved());
+    }
+
+    @Test(expected = SerializeException.class)
+    public void doDuplicateId() {
+        SERIALIZER.write(new DuplicateId());
+    }
+
+    @Test
+    public void doAutoId() {
+        // 自动分配的ID只和字段名有关，新增字段不会影响已有字段
+        AutoV2 v2 = new AutoV2();
+        v2.setA("a");
+        v2.setB("b");
+        v2.setC("c");
+        AutoV1 v1 = SERIALIZER.read(SERIALIZER.write(v2), AutoV1.class);
+        Assert.assertEquals("a", v1.getA());
+        Assert.assertEquals("c", v1.getC());
+    }
+
+    @Test(expected = SerializeException.class)
+    public void doIllegalId() {
+        SERIALIZER.write(new IllegalId());
+    }
+
+    @Test
+    public void doIllegalLength() {
+        // 长度前缀被篡改为超大值、负数时直接报错，不会按照长度分配内存
+        byte[][] corrupted = {{10, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x07, 1, 2, 3, 0},
+                              {10, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x0F, 1, 2, 3, 0}};
+        for (byte[] data : corrupted) {
+            for (Class<?> type : new Class<?>[] {byte[].class, String.class, BigInteger.class}) {
+                try {
+                    SERIALIZER.read(data, type);
+                    Assert.fail();
+                } catch (SerializeException e) {
+                    // 数据损坏
+                }
+            }
+        }
+    }
+
+    @Test(expected = SerializeException.class)
+    public void doTruncated() {
+        byte[] data = SERIALIZER.write(buildOrder());
+        SERIALIZER.read(Arrays.copyOf(data, data.length / 2), Order.class);
+    }
+
+    private Order buildOrder() {
+        Order order = new Order();
+        order.setId(-123456789L);
+        order.setCount(3);
+        order.setPaid(true);
+        order.setPrice(12.5);
+        order.setRate(0.5F);
+        order.setFlag('x');
+        order.setName("订单");
+        order.setAmount(new BigDecimal("12345.6789"));
+        order.setBig(new BigInteger("-123456789012345678901234567890"));
+        order.setCreateTime(new Date(1575360000000L));
+        order.setStatus(Status.PAID);
+        order.setSign(new byte[] {1, 2, 3});
+        order.setScores(new int[] {1, -1, Integer.MAX_VALUE});
+        order.setItems(Arrays.asList(new Item("a", 1), null, new Item("b", 2)));
+        order.setTags(new HashSet<>(Arrays.asList("x", "y")));
+        Map<String, List<Integer>> attrs = new HashMap<>();
+        attrs.put("k", Arrays.asList(1, 2));
+        attrs.put("n", null);
+        order.setAttrs(attrs);
+        Order parent = new Order();
+        parent.setId(1);
+        order.setParent(parent);
+        return order;
+    }
+
+    enum Status {
+        CREATED, PAID
+    }
+
+    @Data
+    static class Order {
+        private long id;
+        private int count;
+        private boolean paid;
+        private double price;
+        private float rate;
+        private char flag;
+        private String name;
+        private BigDecimal amount;
+        private BigInteger big;
+        private Date createTime;
+        private Status status;
+        private transient String ignored = "ignored";
+        private byte[] sign;
+        private int[] scores;
+        private List<Item> items;
+        private Set<String> tags;
+        private Map<String, List<Integer>> attrs;
+        private Order parent;
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Order)) {
+                return false;
+            }
+            Order other = (Order)o;
+            return id == other.id && count == other.count && paid == other.paid && price == other.price
+                   && rate == other.rate && flag == other.flag && Objects.equals(name, other.name)
+                   && Objects.equals(amount, other.amount) && Objects.equals(big, other.big)
+                   && Objects.equals(createTime, other.createTime) && status == other.status
+                   && Arrays.equals(sign, other.sign) && Arrays.equals(scores, other.scores)
+                   && Objects.equals(items, other.items) && Objects.equals(tags, other.tags)
+                   && Objects.equals(attrs, other.attrs) && Objects.equals(parent, other.parent);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(id);
+        }
+    }
+
+    @Data
+    static class Item {
+        private String name;
+        private int count;
+
+        Item() {}
+
+        Item(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+    }
+
+    @Data
+    static class OrderV1 {
+        @BinaryField(id = 1)
+        private long id;
+        @BinaryField(id = 2)
+        private String name;
+        @BinaryField(id = 3)
+        private String removed;
+    }
+
+    @Data
+    static class OrderV2 {
+        @BinaryField(id = 1)
+        private long id;
+        @BinaryField(id = 2)
+        private String name;
+        @BinaryField(id = 4)
+        private List<Item> added;
+    }
+
+    @Data
+    static class AutoV1 {
+        private String a;
+        private String c;
+    }
+
+    @Data
+    static class AutoV2 {
+        private String a;
+        private String b;
+        private String c;
+    }
+
+    @Data
+    static class IllegalId {
+        @BinaryField(id = -1)
+        private long id;
+    }
+
+    @Data
+    static class DuplicateId {
+        @BinaryField(id = 1)
+        private long id;
+        @BinaryField(id = 1)
+        private String name;
+    }
+}
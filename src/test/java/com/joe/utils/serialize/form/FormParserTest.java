@@ -0,0 +1,110 @@
+package com.joe.utils.serialize.form;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.joe.utils.serialize.SerializerEnum;
+import com.joe.utils.serialize.SerializerFactory;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * FormParser测试
+ *
+ * @author JoeKerouac
+ * @version 2019年12月06日 16:00
+ */
+public class FormParserTest {
+    private static final FormParser PARSER = FormParser.getInstance();
+
+    @Test
+    public void doReadWrite() {
+        Callback callback = buildCallback();
+        String data = PARSER.writeToString(callback);
+        Assert.assertEquals(
+            "id=100&paid=true&amount=12.50&status=PAID&subject=%E8%AE%A2%E5%8D%95+a%26b%3Dc&remark=&parentField=p",
+            data);
+        Assert.assertEquals(callback, PARSER.read(data, Callback.class));
+        Assert.assertEquals(callback, PARSER.read(PARSER.write(callback), Callback.class));
+        Assert.assertSame(PARSER, SerializerFactory.getInstance(SerializerEnum.FORM));
+    }
+
+    @Test
+    public void doRead() {
+        // 未知字段、空值、没有=的参数都会被忽略，值中可以包含=，非法的%转义原样保留
+        Callback callback =
+            PARSER.read("unknown=1&id=&paid&amount=1.5&subject=a=b%zz%E4%B8%AD&%73tatus=CREATED&&", Callback.class);
+        Assert.assertEquals(0, callback.getId());
+        Assert.assertFalse(callback.isPaid());
+        Assert.assertEquals(new BigDecimal("1.5"), callback.getAmount());
+        Assert.assertEquals("a=b%zz中", callback.getSubject());
+        Assert.assertEquals(Status.CREATED, callback.getStatus());
+
+        Assert.assertEquals(Integer.valueOf(12), PARSER.read("a=x&b=12", Integer.class));
+        Assert.assertEquals("a b", PARSER.read("a=a+b", String.class));
+    }
+
+    @Test
+    public void doMap() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("a b", "中");
+        map.put("c", null);
+        String data = PARSER.writeToString(map);
+        Assert.assertEquals("a+b=%E4%B8%AD&c=", data);
+
+        Map<?, ?> result = PARSER.read(data + "&d", Map.class);
+        Assert.assertEquals("中", result.get("a b"));
+        // 空值与没有=一样解析为null，与写出时null写为空值对应
+        Assert.assertTrue(result.containsKey("c"));
+        Assert.assertNull(result.get("c"));
+        Assert.assertTrue(result.containsKey("d"));
+        Assert.assertNull(result.get("d"));
+    }
+
+    @Test
+    public void doOutputStream() {
+        Callback callback = buildCallback();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PARSER.write(callback, out);
+        Assert.assertArrayEquals(PARSER.writeToString(callback).getBytes(StandardCharsets.US_ASCII),
+            out.toByteArray());
+    }
+
+    private Callback buildCallback() {
+        Callback callback = new Callback();
+        callback.setId(100);
+        callback.setPaid(true);
+        callback.setAmount(new BigDecimal("12.50"));
+        callback.setStatus(Status.PAID);
+        callback.setSubject("订单 a&b=c");
+        callback.setParentField("p");
+        return callback;
+    }
+
+    enum Status {
+        CREATED, PAID
+    }
+
+    @Data
+    static class Parent {
+        private String parentField;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    static class Callback extends Parent {
+        private long id;
+        private boolean paid;
+        private BigDecimal amount;
+        private Status status;
+        private String subject;
+        private String remark;
+    }
+}
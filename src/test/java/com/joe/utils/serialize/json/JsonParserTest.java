@@ -1,8 +1,14 @@
 package com.joe.utils.serialize.json;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -27,6 +33,63 @@ public class JsonParserTest {
         Arrays.deepEquals(parser.readAsCollection(usersJson, ArrayList.class, User.class).toArray(), users.toArray());
     }
 
+    @Test
+    public void doStream() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        parser.write(users, out);
+        Assert.assertEquals(usersJson, new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+        User user = parser.read(new ByteArrayInputStream(parser.write(users.get(0))), User.class);
+        Assert.assertEquals(users.get(0), user);
+
+        // 逐个读取顶层数组中的元素
+        try (Stream<User> stream = parser.readAsStream(new ByteArrayInputStream(out.toByteArray()), User.class)) {
+            Assert.assertEquals(users, stream.collect(Collectors.toList()));
+        }
+
+        Iterator<User> iterator =
+            parser.readAsIterator(new ByteArrayInputStream(usersJson.getBytes(StandardCharsets.UTF_8)), User.class);
+        Assert.assertEquals(users.get(0), iterator.next());
+        Assert.assertEquals(users.get(1), iterator.next());
+        Assert.assertEquals(users.get(2), iterator.next());
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void doNdjson() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        parser.writeAsNdjson(users, out);
+        String ndjson = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertEquals(
+            "{\"name\":\"user-0\",\"age\":0,\"alias\":\"joe-0\"}\n{\"name\":\"user-1\",\"age\":1,"
+                + "\"alias\":\"joe-1\"}\n{\"name\":\"user-2\",\"age\":2,\"alias\":\"joe-2\"}\n",
+            ndjson);
+
+        try (Stream<User> stream = parser.readAsStream(new ByteArrayInputStream(out.toByteArray()), User.class)) {
+            Assert.assertEquals(users, stream.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void doCodec() {
+        JsonCodec<User> codec = parser.register(User.class);
+        Assert.assertSame(codec, parser.register(User.class));
+        Assert.assertNotSame(codec, parser.register(User.class, true));
+
+        User user = users.get(0);
+        Assert.assertEquals(user, codec.read(codec.write(user)));
+        Assert.assertEquals(user, codec.read(codec.writeToString(user)));
+
+        User nullAlias = new User("user", 1, null);
+        Assert.assertEquals("{\"name\":\"user\",\"age\":1}", parser.register(User.class, true).writeToString(nullAlias));
+        Assert.assertEquals("{\"name\":\"user\",\"age\":1,\"alias\":null}", codec.writeToString(nullAlias));
+
+        JsonCodec<List<User>> listCodec = parser.registerCollection(List.class, User.class, false);
+        Assert.assertEquals(users, listCodec.read(usersJson));
+        Assert.assertEquals(usersJson, listCodec.writeToString(users));
+        Assert.assertEquals(users, parser.readAsCollection(usersJson.getBytes(), List.class, User.class));
+    }
+
     @Data
     @AllArgsConstructor
     @NoArgsConstructor
@@ -0,0 +1,143 @@
+package com.joe.utils.serialize.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.joe.utils.serialize.SerializerEnum;
+import com.joe.utils.serialize.SerializerFactory;
+
+import lombok.Data;
+
+/**
+ * StaxXmlParser测试
+ *
+ * @author JoeKerouac
+ * @version 2019年12月02日 15:20
+ */
+public class StaxXmlParserTest {
+    private static final StaxXmlParser PARSER = StaxXmlParser.getInstance();
+    private static final XmlParser DOM_PARSER = XmlParser.getInstance();
+
+    @Test
+    public void doReadDomXml() {
+        // 读取XmlParser生成的xml
+        XmlParserTest.User user = buildUser();
+        String xml = DOM_PARSER.toXml(user, "USER", false);
+        Assert.assertEquals(user, PARSER.read(xml, XmlParserTest.User.class));
+        Assert.assertEquals(user,
+            PARSER.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), XmlParserTest.User.class));
+    }
+
+    @Test
+    public void doWriteAndRead() {
+        XmlParserTest.User user = buildUser();
+        String xml = PARSER.writeToString(user);
+        Assert.assertEquals(user, PARSER.read(xml, XmlParserTest.User.class));
+        // 生成的xml也可以被XmlParser解析
+        Assert.assertEquals(user, DOM_PARSER.parse(xml, XmlParserTest.User.class));
+
+        byte[] data = PARSER.write(user);
+        Assert.assertEquals(user, PARSER.read(data, XmlParserTest.User.class));
+    }
+
+    @Test
+    public void doStream() {
+        Order order = buildOrder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PARSER.write(order, out);
+        String xml = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertTrue(xml.contains("<order id=\"1\">"));
+        Assert.assertTrue(xml.contains("<![CDATA[<备注>]]>"));
+        Assert.assertTrue(xml.contains("<price currency=\"CNY\">12.5</price>"));
+        Assert.assertTrue(xml.contains("<tags><tag>a</tag><tag>b</tag></tags>"));
+
+        Order result = PARSER.read(new ByteArrayInputStream(out.toByteArray()), Order.class);
+        Assert.assertEquals(order, result);
+    }
+
+    @Test
+    public void doReadSkipUnknown() {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><order id=\"2\"><unknown><a>1</a></unknown>"
+            + "<Remark>remark</Remark><status>PAID</status><price currency=\"USD\">1.0</price><tags><tag>x</tag>"
+            + "</tags><tags><tag>y</tag></tags><item>i1</item><item>i2</item><extra><k>v</k><k>v2</k></extra></order>";
+        Order order = PARSER.read(xml, Order.class);
+        Assert.assertEquals(2L, order.getId());
+        Assert.assertEquals("remark", order.getRemark());
+        Assert.assertEquals(Status.PAID, order.getStatus());
+        Assert.assertEquals("USD", order.getCurrency());
+        Assert.assertEquals(1.0, order.getPrice(), 0);
+        // 集合根节点只取第一个
+        Assert.assertEquals(Collections.singletonList("x"), order.getTags());
+        Assert.assertEquals(Arrays.asList("i1", "i2"), order.getItems());
+        Assert.assertEquals(Arrays.asList("v", "v2"), order.getExtra().get("k"));
+    }
+
+    @Test
+    public void doFactory() {
+        Assert.assertSame(PARSER, SerializerFactory.getInstance(SerializerEnum.XML_STREAM));
+        Assert.assertNull(PARSER.read("", Order.class));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void doRejectDtd() {
+        PARSER.read("<!DOCTYPE order [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]><order><remark>&xxe;</remark>"
+                    + "</order>",
+            Order.class);
+    }
+
+    private XmlParserTest.User buildUser() {
+        XmlParserTest.User user = new XmlParserTest.User();
+        user.setName("joe");
+        user.setOtherName("qiao");
+        user.setAge(18);
+        XmlParserTest.User u1 = new XmlParserTest.User();
+        u1.setName("u1");
+        u1.setOtherName("u1");
+        XmlParserTest.User u2 = new XmlParserTest.User();
+        u2.setName("u2");
+        u2.setOtherName("u2");
+        user.setUsers1(Collections.singletonList(u1));
+        user.setUsers2(Collections.singletonList(u1));
+        user.setUserSet(Collections.singleton(u2));
+        return user;
+    }
+
+    private Order buildOrder() {
+        Order order = new Order();
+        order.setId(1);
+        order.setRemark("<备注>");
+        order.setStatus(Status.CREATED);
+        order.setPrice(12.5);
+        order.setCurrency("CNY");
+        order.setTags(Arrays.asList("a", "b"));
+        order.setItems(Arrays.asList("i1", "i2"));
+        return order;
+    }
+
+    enum Status {
+        CREATED, PAID
+    }
+
+    @Data
+    @XmlNode(name = "order")
+    static class Order {
+        @XmlNode(isAttribute = true)
+        private long id;
+        @XmlNode(isCDATA = true)
+        private String remark;
+        private Status status;
+        private double price;
+        @XmlNode(name = "price", isAttribute = true)
+        private String currency;
+        @XmlNode(general = String.class, arrayRoot = "tag")
+        private List<String> tags;
+        @XmlNode(name = "item", general = String.class)
+        private List<String> items;
+        private Map<String, Object> extra;
+    }
+}
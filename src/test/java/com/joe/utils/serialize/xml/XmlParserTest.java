@@ -55,6 +55,28 @@ public class XmlParserTest {
         Assert.assertEquals(user, u2);
     }
 
+    @Test
+    public void doBinding() {
+        Item item = new Item();
+        item.setId(1);
+        item.setPrice(12.5);
+        item.setCurrency("CNY");
+        item.setTags(Arrays.asList("a", "b"));
+        Map<String, Object> extra = new HashMap<>();
+        extra.put("k", "v");
+        item.setExtra(extra);
+
+        String xml = PARSER.toXml(item);
+        Assert.assertTrue(xml.contains("<item id=\"1\">"));
+        Assert.assertTrue(xml.contains("<price currency=\"CNY\">12.5</price>"));
+        Assert.assertTrue(xml.contains("<tag>a</tag><tag>b</tag>"));
+        Assert.assertEquals(item, PARSER.parse(xml, Item.class));
+
+        // 清除缓存后重新构建绑定计划
+        XmlParser.invalidateCache(Item.class.getClassLoader());
+        Assert.assertEquals(item, PARSER.parse(xml, Item.class));
+    }
+
     private User build() {
         User user = new User();
         user.setName("joe");
@@ -99,4 +121,17 @@ public class XmlParserTest {
         @XmlNode(general = User.class)
         private Set<User> userSet;
     }
+
+    @Data
+    @XmlNode(name = "item")
+    static class Item {
+        @XmlNode(isAttribute = true)
+        private long id;
+        private double price;
+        @XmlNode(name = "price", isAttribute = true)
+        private String currency;
+        @XmlNode(name = "tag", general = String.class)
+        private List<String> tags;
+        private Map<String, Object> extra;
+    }
 }